@@ -0,0 +1,84 @@
+package edu.teco.dnd.blocks;
+
+/**
+ * <p>
+ * An {@link Input} for <code>boolean</code> values. The values are kept in a <code>boolean</code> array, so receiving values
+ * from {@link BooleanOutput}s does not create any objects. Use {@link #popBoolean(boolean)} to read values without boxing them.
+ * </p>
+ * 
+ * <p>
+ * Unlike {@link Input} this Input always has a limited capacity. Without an {@link InputBuffer} annotation
+ * {@link Input#DEFAULT_CAPACITY} and {@link OverflowPolicy#DEFAULT} are used. <code>null</code> values can not be
+ * stored and are counted as dropped.
+ * </p>
+ */
+public class BooleanInput extends PrimitiveInput<Boolean> implements BooleanOutputTarget {
+	private final boolean[] values;
+
+	/**
+	 * Initializes a new BooleanInput using {@link Input#DEFAULT_CAPACITY} and {@link OverflowPolicy#DEFAULT}.
+	 */
+	public BooleanInput() {
+		this(DEFAULT_CAPACITY, OverflowPolicy.DEFAULT);
+	}
+
+	/**
+	 * Initializes a new BooleanInput.
+	 * 
+	 * @param capacity
+	 *            the maximum number of unprocessed values. Values below 2 are raised to 2.
+	 * @param overflowPolicy
+	 *            what to do if a value arrives while the Input is full
+	 */
+	public BooleanInput(final int capacity, final OverflowPolicy overflowPolicy) {
+		super(capacity, overflowPolicy);
+		this.values = new boolean[getCapacity()];
+	}
+
+	/**
+	 * Returns the oldest unprocessed value and removes it.
+	 * 
+	 * @param defaultValue
+	 *            the value to return if there are no unprocessed values
+	 * @return the oldest unprocessed value or <code>defaultValue</code> if there is none
+	 */
+	public boolean popBoolean(final boolean defaultValue) {
+		final long position = claimRead();
+		if (position < 0) {
+			return defaultValue;
+		}
+		final boolean value = values[index(position)];
+		publishRead(position);
+		return value;
+	}
+
+	@Override
+	public Boolean popValue() {
+		final long position = claimRead();
+		if (position < 0) {
+			return null;
+		}
+		final boolean value = values[index(position)];
+		publishRead(position);
+		return value;
+	}
+
+	@Override
+	public void setBoolean(final boolean value) {
+		final long position = claimWrite();
+		if (position < 0) {
+			return;
+		}
+		values[index(position)] = value;
+		publishWrite(position);
+	}
+
+	@Override
+	public void setValue(final Boolean value) {
+		if (value == null) {
+			countDropped();
+			return;
+		}
+		setBoolean(value);
+	}
+}
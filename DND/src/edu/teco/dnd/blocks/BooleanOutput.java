@@ -0,0 +1,41 @@
+package edu.teco.dnd.blocks;
+
+/**
+ * An {@link Output} for <code>boolean</code> values. {@link #setValue(boolean)} passes the value to
+ * {@link BooleanOutputTarget}s without boxing it. Other targets receive the boxed value.
+ */
+public class BooleanOutput extends Output<Boolean> {
+	private static final long serialVersionUID = -1433199559133694614L;
+
+	/**
+	 * Initializes a new BooleanOutput using {@link DeliveryMode#DEFAULT}.
+	 */
+	public BooleanOutput() {
+		super();
+	}
+
+	/**
+	 * Initializes a new BooleanOutput.
+	 * 
+	 * @param deliveryMode
+	 *            the mode used to deliver values to remote Modules
+	 */
+	public BooleanOutput(final DeliveryMode deliveryMode) {
+		super(deliveryMode);
+	}
+
+	/**
+	 * Sends a value using this output.
+	 * 
+	 * @param value
+	 *            the value to send
+	 */
+	public void setValue(final boolean value) {
+		final OutputTarget<? super Boolean> target = getTarget();
+		if (target instanceof BooleanOutputTarget) {
+			((BooleanOutputTarget) target).setBoolean(value);
+		} else {
+			setValue((Boolean) value);
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package edu.teco.dnd.blocks;
+
+/**
+ * Implemented by {@link OutputTarget}s that can also receive <code>boolean</code> values without boxing them.
+ * {@link BooleanOutput} passes values to targets implementing this interface using {@link #setBoolean(boolean)}. This
+ * interface does not extend OutputTarget so that a single target can accept values of several primitive types.
+ */
+public interface BooleanOutputTarget {
+	/**
+	 * Receives a value from an Output.
+	 * 
+	 * @param value
+	 *            the value sent by the Output
+	 */
+	void setBoolean(boolean value);
+}
@@ -0,0 +1,28 @@
+package edu.teco.dnd.blocks;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sets the {@link DeliveryMode} for an {@link Output} field of a {@link FunctionBlock}. The mode is used for all
+ * connections of the Output. Outputs without this annotation use {@link DeliveryMode#DEFAULT}.
+ * 
+ * <pre>
+ * &#064;Delivery(DeliveryMode.FIRE_AND_FORGET)
+ * private Output&lt;Integer&gt; temperature;
+ * </pre>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Delivery {
+	/**
+	 * The mode to use for the Output.
+	 * 
+	 * @return the mode to use for the Output
+	 */
+	DeliveryMode value();
+}
@@ -0,0 +1,26 @@
+package edu.teco.dnd.blocks;
+
+/**
+ * Describes how values sent by an {@link Output} to {@link Input}s on remote Modules are delivered.
+ * 
+ * @see Delivery
+ */
+public enum DeliveryMode {
+	/**
+	 * Each value is acknowledged by the receiving Module. The sender keeps track of the pending acknowledgement until
+	 * it is received or a timeout occurs.
+	 */
+	ACKNOWLEDGED,
+
+	/**
+	 * Values are sent without waiting for an acknowledgement. The receiving Module only answers if the value could not
+	 * be delivered. This halves the number of packets and avoids tracking each value, but lost values go unnoticed.
+	 * Useful for high-rate sensor values where only the newest value matters.
+	 */
+	FIRE_AND_FORGET;
+
+	/**
+	 * The mode used for Outputs without a {@link Delivery} annotation.
+	 */
+	public static final DeliveryMode DEFAULT = ACKNOWLEDGED;
+}
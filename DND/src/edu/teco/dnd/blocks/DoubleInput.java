@@ -0,0 +1,84 @@
+package edu.teco.dnd.blocks;
+
+/**
+ * <p>
+ * An {@link Input} for <code>double</code> values. The values are kept in a <code>double</code> array, so receiving values
+ * from {@link DoubleOutput}s does not create any objects. Use {@link #popDouble(double)} to read values without boxing them.
+ * </p>
+ * 
+ * <p>
+ * Unlike {@link Input} this Input always has a limited capacity. Without an {@link InputBuffer} annotation
+ * {@link Input#DEFAULT_CAPACITY} and {@link OverflowPolicy#DEFAULT} are used. <code>null</code> values can not be
+ * stored and are counted as dropped.
+ * </p>
+ */
+public class DoubleInput extends PrimitiveInput<Double> implements DoubleOutputTarget {
+	private final double[] values;
+
+	/**
+	 * Initializes a new DoubleInput using {@link Input#DEFAULT_CAPACITY} and {@link OverflowPolicy#DEFAULT}.
+	 */
+	public DoubleInput() {
+		this(DEFAULT_CAPACITY, OverflowPolicy.DEFAULT);
+	}
+
+	/**
+	 * Initializes a new DoubleInput.
+	 * 
+	 * @param capacity
+	 *            the maximum number of unprocessed values. Values below 2 are raised to 2.
+	 * @param overflowPolicy
+	 *            what to do if a value arrives while the Input is full
+	 */
+	public DoubleInput(final int capacity, final OverflowPolicy overflowPolicy) {
+		super(capacity, overflowPolicy);
+		this.values = new double[getCapacity()];
+	}
+
+	/**
+	 * Returns the oldest unprocessed value and removes it.
+	 * 
+	 * @param defaultValue
+	 *            the value to return if there are no unprocessed values
+	 * @return the oldest unprocessed value or <code>defaultValue</code> if there is none
+	 */
+	public double popDouble(final double defaultValue) {
+		final long position = claimRead();
+		if (position < 0) {
+			return defaultValue;
+		}
+		final double value = values[index(position)];
+		publishRead(position);
+		return value;
+	}
+
+	@Override
+	public Double popValue() {
+		final long position = claimRead();
+		if (position < 0) {
+			return null;
+		}
+		final double value = values[index(position)];
+		publishRead(position);
+		return value;
+	}
+
+	@Override
+	public void setDouble(final double value) {
+		final long position = claimWrite();
+		if (position < 0) {
+			return;
+		}
+		values[index(position)] = value;
+		publishWrite(position);
+	}
+
+	@Override
+	public void setValue(final Double value) {
+		if (value == null) {
+			countDropped();
+			return;
+		}
+		setDouble(value);
+	}
+}
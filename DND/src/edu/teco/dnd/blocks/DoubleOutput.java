@@ -0,0 +1,41 @@
+package edu.teco.dnd.blocks;
+
+/**
+ * An {@link Output} for <code>double</code> values. {@link #setValue(double)} passes the value to
+ * {@link DoubleOutputTarget}s without boxing it. Other targets receive the boxed value.
+ */
+public class DoubleOutput extends Output<Double> {
+	private static final long serialVersionUID = 2519333666338339719L;
+
+	/**
+	 * Initializes a new DoubleOutput using {@link DeliveryMode#DEFAULT}.
+	 */
+	public DoubleOutput() {
+		super();
+	}
+
+	/**
+	 * Initializes a new DoubleOutput.
+	 * 
+	 * @param deliveryMode
+	 *            the mode used to deliver values to remote Modules
+	 */
+	public DoubleOutput(final DeliveryMode deliveryMode) {
+		super(deliveryMode);
+	}
+
+	/**
+	 * Sends a value using this output.
+	 * 
+	 * @param value
+	 *            the value to send
+	 */
+	public void setValue(final double value) {
+		final OutputTarget<? super Double> target = getTarget();
+		if (target instanceof DoubleOutputTarget) {
+			((DoubleOutputTarget) target).setDouble(value);
+		} else {
+			setValue((Double) value);
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package edu.teco.dnd.blocks;
+
+/**
+ * Implemented by {@link OutputTarget}s that can also receive <code>double</code> values without boxing them.
+ * {@link DoubleOutput} passes values to targets implementing this interface using {@link #setDouble(double)}. This
+ * interface does not extend OutputTarget so that a single target can accept values of several primitive types.
+ */
+public interface DoubleOutputTarget {
+	/**
+	 * Receives a value from an Output.
+	 * 
+	 * @param value
+	 *            the value sent by the Output
+	 */
+	void setDouble(double value);
+}
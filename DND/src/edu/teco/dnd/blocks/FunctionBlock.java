@@ -122,7 +122,21 @@ public abstract class FunctionBlock implements Serializable {
 	}
 
 	private final Output<?> createOutput(Field field) throws IllegalArgumentException, IllegalAccessException {
-		final Output<?> output = new Output<Serializable>();
+		final Delivery delivery = field.getAnnotation(Delivery.class);
+		final DeliveryMode deliveryMode = delivery == null ? DeliveryMode.DEFAULT : delivery.value();
+		final Class<?> type = field.getType();
+		final Output<?> output;
+		if (IntOutput.class.equals(type)) {
+			output = new IntOutput(deliveryMode);
+		} else if (LongOutput.class.equals(type)) {
+			output = new LongOutput(deliveryMode);
+		} else if (DoubleOutput.class.equals(type)) {
+			output = new DoubleOutput(deliveryMode);
+		} else if (BooleanOutput.class.equals(type)) {
+			output = new BooleanOutput(deliveryMode);
+		} else {
+			output = new Output<Serializable>(deliveryMode);
+		}
 		field.setAccessible(true);
 		field.set(this, output);
 		return output;
@@ -133,7 +147,24 @@ public abstract class FunctionBlock implements Serializable {
 	}
 
 	private final Input<?> createInput(final Field field) throws IllegalArgumentException, IllegalAccessException {
-		final Input<?> input = new Input<Serializable>();
+		final InputBuffer buffer = field.getAnnotation(InputBuffer.class);
+		final int capacity = buffer == null ? Input.DEFAULT_CAPACITY : buffer.capacity();
+		final OverflowPolicy overflowPolicy = buffer == null ? OverflowPolicy.DEFAULT : buffer.overflow();
+		final Class<?> type = field.getType();
+		final Input<?> input;
+		if (IntInput.class.equals(type)) {
+			input = new IntInput(capacity, overflowPolicy);
+		} else if (LongInput.class.equals(type)) {
+			input = new LongInput(capacity, overflowPolicy);
+		} else if (DoubleInput.class.equals(type)) {
+			input = new DoubleInput(capacity, overflowPolicy);
+		} else if (BooleanInput.class.equals(type)) {
+			input = new BooleanInput(capacity, overflowPolicy);
+		} else if (buffer == null) {
+			input = new Input<Serializable>();
+		} else {
+			input = new Input<Serializable>(capacity, overflowPolicy);
+		}
 		field.setAccessible(true);
 		field.set(this, input);
 		return input;
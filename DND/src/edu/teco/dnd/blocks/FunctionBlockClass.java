@@ -1,5 +1,6 @@
 package edu.teco.dnd.blocks;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.regex.Matcher;
@@ -27,6 +28,32 @@ import edu.teco.dnd.util.FieldIterable;
 public class FunctionBlockClass {
 	private static final Pattern GENERIC_ARGUMENT_PATTERN = Pattern.compile("<L([^;]*);");
 
+	/**
+	 * Maps the names of the Input classes for primitive values to the wrapper class of the values.
+	 */
+	private static final Map<String, Class<?>> PRIMITIVE_INPUTS;
+
+	/**
+	 * Maps the names of the Output classes for primitive values to the wrapper class of the values.
+	 */
+	private static final Map<String, Class<?>> PRIMITIVE_OUTPUTS;
+
+	static {
+		final Map<String, Class<?>> inputs = new HashMap<String, Class<?>>();
+		inputs.put(IntInput.class.getName(), Integer.class);
+		inputs.put(LongInput.class.getName(), Long.class);
+		inputs.put(DoubleInput.class.getName(), Double.class);
+		inputs.put(BooleanInput.class.getName(), Boolean.class);
+		PRIMITIVE_INPUTS = Collections.unmodifiableMap(inputs);
+
+		final Map<String, Class<?>> outputs = new HashMap<String, Class<?>>();
+		outputs.put(IntOutput.class.getName(), Integer.class);
+		outputs.put(LongOutput.class.getName(), Long.class);
+		outputs.put(DoubleOutput.class.getName(), Double.class);
+		outputs.put(BooleanOutput.class.getName(), Boolean.class);
+		PRIMITIVE_OUTPUTS = Collections.unmodifiableMap(outputs);
+	}
+
 	private final JavaClass blockClass;
 	private final Repository repository;
 
@@ -97,10 +124,18 @@ public class FunctionBlockClass {
 	}
 
 	private boolean isInput(final Type type) {
-		return type instanceof ObjectType && Input.class.getName().equals(((ObjectType) type).getClassName());
+		if (!(type instanceof ObjectType)) {
+			return false;
+		}
+		final String className = ((ObjectType) type).getClassName();
+		return Input.class.getName().equals(className) || PRIMITIVE_INPUTS.containsKey(className);
 	}
 
 	private JavaClass getInputType(final Field field) throws ClassNotFoundException {
+		final Class<?> primitiveType = PRIMITIVE_INPUTS.get(((ObjectType) field.getType()).getClassName());
+		if (primitiveType != null) {
+			return repository.loadClass(primitiveType);
+		}
 		return getClassOfGenericArgument(field);
 	}
 
@@ -130,10 +165,18 @@ public class FunctionBlockClass {
 	}
 
 	private boolean isOutput(final Type type) {
-		return type instanceof ObjectType && Output.class.getName().equals(((ObjectType) type).getClassName());
+		if (!(type instanceof ObjectType)) {
+			return false;
+		}
+		final String className = ((ObjectType) type).getClassName();
+		return Output.class.getName().equals(className) || PRIMITIVE_OUTPUTS.containsKey(className);
 	}
 
 	private JavaClass getOutputType(final Field field) throws ClassNotFoundException {
+		final Class<?> primitiveType = PRIMITIVE_OUTPUTS.get(((ObjectType) field.getType()).getClassName());
+		if (primitiveType != null) {
+			return repository.loadClass(primitiveType);
+		}
 		return getClassOfGenericArgument(field);
 	}
 
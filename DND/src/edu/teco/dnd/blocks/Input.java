@@ -1,8 +1,14 @@
 package edu.teco.dnd.blocks;
 
 import java.io.Serializable;
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import edu.teco.dnd.util.BoundedConcurrentQueue;
 
 /**
  * <p>
@@ -10,77 +16,345 @@ import java.util.Deque;
  * via Inputs. To define an input simply define a non-static field of this type. It will be initialized by the wrapper
  * code, so you should never assign the field directly.
  * </p>
- * 
+ *
  * <p>
  * In normal operation the input buffers all values it receives. Use {@link #popValue()} to get the first unprocessed
  * value (the Input works as a Queue). You can use {@link #setNewestOnly(boolean)} to not keep old values. In that case
  * the input will only keep the newest value it received.
  * </p>
- * 
+ *
+ * <p>
+ * The number of buffered values can be limited by annotating the field with {@link InputBuffer}. The Input then uses a
+ * fixed size ring buffer and applies the {@link OverflowPolicy} given in the annotation if it is full. The number of
+ * discarded values and the maximum number of values buffered at the same time are available via
+ * {@link #getDroppedCount()} and {@link #getHighWaterMark()}.
+ * </p>
+ *
  * <p>
- * Input is thread-safe for all operations.
+ * For <code>int</code>, <code>long</code>, <code>double</code> and <code>boolean</code> values {@link IntInput},
+ * {@link LongInput}, {@link DoubleInput} and {@link BooleanInput} can be used to avoid boxing each value.
  * </p>
- * 
+ *
+ * <p>
+ * Input is thread-safe for all operations. No locks are used, so adding values does not block the FunctionBlock reading
+ * them (unless {@link OverflowPolicy#BLOCK} is used and the Input is full).
+ * </p>
+ *
  * @param <T>
  *            the type of values the Input can receive
  */
 public class Input<T extends Serializable> implements OutputTarget<T> {
-	private boolean newestOnly = false;
+	/**
+	 * The capacity used by {@link InputBuffer} if none is given.
+	 */
+	public static final int DEFAULT_CAPACITY = 64;
+
+	/**
+	 * Returned by {@link #getCapacity()} if the number of values is not limited.
+	 */
+	public static final int UNBOUNDED = -1;
+
+	/**
+	 * The minimum time a producer waits for room if {@link OverflowPolicy#BLOCK} is used.
+	 */
+	private static final long MIN_BLOCK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+	/**
+	 * The maximum time a producer waits before checking for room again if {@link OverflowPolicy#BLOCK} is used.
+	 */
+	private static final long MAX_BLOCK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+	/**
+	 * Stored instead of <code>null</code> as the queues do not accept null.
+	 */
+	private static final Object NULL = new Object();
+
+	private final int capacity;
+	private final OverflowPolicy overflowPolicy;
+	private final Queue<Object> values;
+
+	/**
+	 * The number of values in {@link #values}. Kept separately as {@link ConcurrentLinkedQueue#size()} has to traverse
+	 * the whole queue.
+	 */
+	private final AtomicInteger size = new AtomicInteger(0);
+	private final AtomicInteger highWaterMark = new AtomicInteger(0);
+	private final AtomicLong dropped = new AtomicLong(0);
+
+	private volatile boolean newestOnly;
+
+	/**
+	 * Run before a Thread starts waiting for room with {@link OverflowPolicy#BLOCK}.
+	 */
+	private volatile Runnable updateRequester = null;
+	private volatile boolean blockingAllowed = true;
 
-	// TODO: Maybe change to (Soft)Reference, but then a wrapper is needed for null
-	private final Deque<T> values = new ArrayDeque<T>();
+	/**
+	 * Initializes a new Input that keeps all values until they are processed.
+	 */
+	public Input() {
+		this(UNBOUNDED, OverflowPolicy.DEFAULT, new ConcurrentLinkedQueue<Object>());
+	}
+
+	/**
+	 * Initializes a new Input that keeps at most <code>capacity</code> values.
+	 *
+	 * @param capacity
+	 *            the maximum number of unprocessed values. Values below 2 are raised to 2.
+	 * @param overflowPolicy
+	 *            what to do if a value arrives while the Input is full
+	 */
+	public Input(final int capacity, final OverflowPolicy overflowPolicy) {
+		this(Math.max(2, capacity), overflowPolicy, new BoundedConcurrentQueue<Object>(Math.max(2, capacity)));
+	}
+
+	/**
+	 * Used by subclasses that store the values themselves. They have to override {@link #popValue()},
+	 * {@link #setValue(Serializable)} and {@link #removeOldest()}.
+	 */
+	Input(final int capacity, final OverflowPolicy overflowPolicy, final Queue<Object> values) {
+		if (overflowPolicy == null) {
+			throw new IllegalArgumentException("overflowPolicy must not be null");
+		}
+		this.capacity = capacity;
+		this.overflowPolicy = overflowPolicy;
+		this.values = values;
+		this.newestOnly = overflowPolicy == OverflowPolicy.KEEP_LATEST;
+	}
 
 	/**
 	 * Returns the oldest unprocessed value and removes it. If there is no value left, null will be returned.
-	 * 
+	 *
 	 * @return the oldest unprocessed value or null if no value
 	 * @see #hasMoreValues()
 	 */
-	public synchronized T popValue() {
-		return values.poll();
+	public T popValue() {
+		return unwrap(poll());
 	}
 
 	/**
 	 * Checks if there are unprocessed values left.
-	 * 
+	 *
 	 * @return <code>true</code> if there are still values that can be retrieved via {@link #popValue()}
 	 */
-	public synchronized boolean hasMoreValues() {
-		return !values.isEmpty();
+	public boolean hasMoreValues() {
+		return size.get() > 0;
+	}
+
+	/**
+	 * Returns the number of unprocessed values.
+	 *
+	 * @return the number of values that can be retrieved via {@link #popValue()}
+	 */
+	public int getValueCount() {
+		return size.get();
 	}
 
 	/**
 	 * Adds a new value to the input. If {@link #setNewestOnly(boolean)} was called with <code>true</code> before, any
-	 * old values will be removed. The method is called <code>setValue</code> instead of something more fitting like
-	 * <code>addValue</code> to comply to the {@link OutputTarget} interface.
-	 * 
+	 * old values will be removed. If the Input is full the {@link OverflowPolicy} of this Input is applied. The method
+	 * is called <code>setValue</code> instead of something more fitting like <code>addValue</code> to comply to the
+	 * {@link OutputTarget} interface.
+	 *
 	 * @param value
 	 *            the new value to be added
 	 */
-	public synchronized void setValue(T value) {
-		// TODO check for null
+	public void setValue(final T value) {
+		final Object element = value == null ? NULL : value;
 		if (newestOnly) {
-			values.clear();
+			while (!offer(element)) {
+				dropOldest();
+			}
+			keepNewestOnly();
+			return;
+		}
+
+		int attempt = 0;
+		while (!offer(element)) {
+			if (!makeRoom(attempt++)) {
+				return;
+			}
 		}
-		values.add(value);
 	}
 
 	/**
 	 * Switches between keeping all values and keeping only the newest value. By default the input keeps all values
 	 * until they’re retrieved with {@link #popValue()}. If this method is called with <code>true</code>, only the
 	 * newest value will be kept and older values will be discarded as soon as a newer one arrives.
-	 * 
+	 *
 	 * @param state
 	 *            if <code>true</code> only the newest value will kept in future. Also all values currently held will be
 	 *            removed except for the newest one. If set to <code>false</code> this Input will keep all values in
 	 *            future.
 	 */
-	public synchronized void setNewestOnly(final boolean state) {
+	public void setNewestOnly(final boolean state) {
 		this.newestOnly = state;
-		if (newestOnly && !values.isEmpty()) {
-			final T value = values.peekLast();
-			values.clear();
-			values.add(value);
+		if (state) {
+			keepNewestOnly();
+		}
+	}
+
+	/**
+	 * Sets how room is made for new values if {@link OverflowPolicy#BLOCK} is used. This is called by the Module
+	 * running the FunctionBlock.
+	 *
+	 * @param updateRequester
+	 *            run before a Thread starts waiting for room, so that the FunctionBlock gets updated and takes values
+	 *            from the Input even if no update is pending. May be null.
+	 * @param blockingAllowed
+	 *            false if the Thread delivering a value may be the one that has to update the FunctionBlock. The
+	 *            oldest value is dropped instead of waiting in that case, as waiting would never end.
+	 */
+	public void setBlockingHandler(final Runnable updateRequester, final boolean blockingAllowed) {
+		this.updateRequester = updateRequester;
+		this.blockingAllowed = blockingAllowed;
+	}
+
+	/**
+	 * Returns the maximum number of unprocessed values this Input keeps.
+	 *
+	 * @return the maximum number of unprocessed values or {@link #UNBOUNDED}
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns what this Input does if a value arrives while it is full.
+	 *
+	 * @return what this Input does if a value arrives while it is full
+	 */
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	/**
+	 * Returns the number of values that were discarded without being processed.
+	 *
+	 * @return the number of values that were discarded
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	/**
+	 * Returns the largest number of unprocessed values this Input has held at the same time.
+	 *
+	 * @return the largest number of unprocessed values held at the same time
+	 */
+	public int getHighWaterMark() {
+		return highWaterMark.get();
+	}
+
+	private boolean offer(final Object element) {
+		if (!values.offer(element)) {
+			return false;
+		}
+		added();
+		return true;
+	}
+
+	private Object poll() {
+		final Object element = values.poll();
+		if (element != null) {
+			removed();
+		}
+		return element;
+	}
+
+	final boolean isNewestOnly() {
+		return newestOnly;
+	}
+
+	/**
+	 * Must be called after a value has been stored.
+	 */
+	final void added() {
+		final int current = size.incrementAndGet();
+		int mark = highWaterMark.get();
+		while (current > mark && !highWaterMark.compareAndSet(mark, current)) {
+			mark = highWaterMark.get();
+		}
+	}
+
+	/**
+	 * Must be called after a value has been removed.
+	 */
+	final void removed() {
+		size.decrementAndGet();
+	}
+
+	/**
+	 * Counts a value as dropped.
+	 */
+	final void countDropped() {
+		dropped.incrementAndGet();
+	}
+
+	/**
+	 * Removes the oldest value without processing it.
+	 *
+	 * @return true if a value was removed, false if the Input was empty
+	 */
+	boolean removeOldest() {
+		return poll() != null;
+	}
+
+	final void dropOldest() {
+		if (removeOldest()) {
+			countDropped();
+		}
+	}
+
+	/**
+	 * Discards all values except for the newest one.
+	 */
+	final void keepNewestOnly() {
+		while (size.get() > 1) {
+			dropOldest();
+		}
+	}
+
+	/**
+	 * Applies the {@link OverflowPolicy} after storing a value failed because the Input is full.
+	 *
+	 * @param attempt
+	 *            the number of times this method has been called for the value before
+	 * @return true if storing the value should be tried again, false if the value has been dropped
+	 */
+	final boolean makeRoom(final int attempt) {
+		switch (overflowPolicy) {
+		case DROP_NEWEST:
+			countDropped();
+			return false;
+
+		case BLOCK:
+			if (!blockingAllowed) {
+				dropOldest();
+				return true;
+			}
+			if (Thread.currentThread().isInterrupted()) {
+				countDropped();
+				return false;
+			}
+			final Runnable requester = updateRequester;
+			if (requester != null) {
+				requester.run();
+			}
+			LockSupport.parkNanos(this, Math.min(MIN_BLOCK_NANOS << Math.min(attempt, 20), MAX_BLOCK_NANOS));
+			return true;
+
+		default:
+			dropOldest();
+			return true;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private T unwrap(final Object element) {
+		if (element == null || element == NULL) {
+			return null;
 		}
+		return (T) element;
 	}
 }
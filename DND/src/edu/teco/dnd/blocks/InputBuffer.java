@@ -0,0 +1,36 @@
+package edu.teco.dnd.blocks;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits the number of unprocessed values an {@link Input} field of a {@link FunctionBlock} keeps and sets what
+ * happens if more values arrive. Inputs without this annotation keep all values until they are processed.
+ * 
+ * <pre>
+ * &#064;InputBuffer(capacity = 16, overflow = OverflowPolicy.DROP_OLDEST)
+ * private Input&lt;Integer&gt; temperature;
+ * </pre>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface InputBuffer {
+	/**
+	 * The maximum number of unprocessed values. Values below 2 are raised to 2, use
+	 * {@link OverflowPolicy#KEEP_LATEST} to only keep a single value.
+	 * 
+	 * @return the maximum number of unprocessed values
+	 */
+	int capacity() default Input.DEFAULT_CAPACITY;
+
+	/**
+	 * What to do if a value arrives while the Input is full.
+	 * 
+	 * @return what to do if a value arrives while the Input is full
+	 */
+	OverflowPolicy overflow() default OverflowPolicy.DROP_OLDEST;
+}
@@ -0,0 +1,84 @@
+package edu.teco.dnd.blocks;
+
+/**
+ * <p>
+ * An {@link Input} for <code>int</code> values. The values are kept in a <code>int</code> array, so receiving values
+ * from {@link IntOutput}s does not create any objects. Use {@link #popInt(int)} to read values without boxing them.
+ * </p>
+ * 
+ * <p>
+ * Unlike {@link Input} this Input always has a limited capacity. Without an {@link InputBuffer} annotation
+ * {@link Input#DEFAULT_CAPACITY} and {@link OverflowPolicy#DEFAULT} are used. <code>null</code> values can not be
+ * stored and are counted as dropped.
+ * </p>
+ */
+public class IntInput extends PrimitiveInput<Integer> implements IntOutputTarget {
+	private final int[] values;
+
+	/**
+	 * Initializes a new IntInput using {@link Input#DEFAULT_CAPACITY} and {@link OverflowPolicy#DEFAULT}.
+	 */
+	public IntInput() {
+		this(DEFAULT_CAPACITY, OverflowPolicy.DEFAULT);
+	}
+
+	/**
+	 * Initializes a new IntInput.
+	 * 
+	 * @param capacity
+	 *            the maximum number of unprocessed values. Values below 2 are raised to 2.
+	 * @param overflowPolicy
+	 *            what to do if a value arrives while the Input is full
+	 */
+	public IntInput(final int capacity, final OverflowPolicy overflowPolicy) {
+		super(capacity, overflowPolicy);
+		this.values = new int[getCapacity()];
+	}
+
+	/**
+	 * Returns the oldest unprocessed value and removes it.
+	 * 
+	 * @param defaultValue
+	 *            the value to return if there are no unprocessed values
+	 * @return the oldest unprocessed value or <code>defaultValue</code> if there is none
+	 */
+	public int popInt(final int defaultValue) {
+		final long position = claimRead();
+		if (position < 0) {
+			return defaultValue;
+		}
+		final int value = values[index(position)];
+		publishRead(position);
+		return value;
+	}
+
+	@Override
+	public Integer popValue() {
+		final long position = claimRead();
+		if (position < 0) {
+			return null;
+		}
+		final int value = values[index(position)];
+		publishRead(position);
+		return value;
+	}
+
+	@Override
+	public void setInt(final int value) {
+		final long position = claimWrite();
+		if (position < 0) {
+			return;
+		}
+		values[index(position)] = value;
+		publishWrite(position);
+	}
+
+	@Override
+	public void setValue(final Integer value) {
+		if (value == null) {
+			countDropped();
+			return;
+		}
+		setInt(value);
+	}
+}
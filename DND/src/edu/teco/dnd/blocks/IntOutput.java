@@ -0,0 +1,41 @@
+package edu.teco.dnd.blocks;
+
+/**
+ * An {@link Output} for <code>int</code> values. {@link #setValue(int)} passes the value to
+ * {@link IntOutputTarget}s without boxing it. Other targets receive the boxed value.
+ */
+public class IntOutput extends Output<Integer> {
+	private static final long serialVersionUID = -2219628531258173633L;
+
+	/**
+	 * Initializes a new IntOutput using {@link DeliveryMode#DEFAULT}.
+	 */
+	public IntOutput() {
+		super();
+	}
+
+	/**
+	 * Initializes a new IntOutput.
+	 * 
+	 * @param deliveryMode
+	 *            the mode used to deliver values to remote Modules
+	 */
+	public IntOutput(final DeliveryMode deliveryMode) {
+		super(deliveryMode);
+	}
+
+	/**
+	 * Sends a value using this output.
+	 * 
+	 * @param value
+	 *            the value to send
+	 */
+	public void setValue(final int value) {
+		final OutputTarget<? super Integer> target = getTarget();
+		if (target instanceof IntOutputTarget) {
+			((IntOutputTarget) target).setInt(value);
+		} else {
+			setValue((Integer) value);
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package edu.teco.dnd.blocks;
+
+/**
+ * Implemented by {@link OutputTarget}s that can also receive <code>int</code> values without boxing them.
+ * {@link IntOutput} passes values to targets implementing this interface using {@link #setInt(int)}. This
+ * interface does not extend OutputTarget so that a single target can accept values of several primitive types.
+ */
+public interface IntOutputTarget {
+	/**
+	 * Receives a value from an Output.
+	 * 
+	 * @param value
+	 *            the value sent by the Output
+	 */
+	void setInt(int value);
+}
@@ -0,0 +1,84 @@
+package edu.teco.dnd.blocks;
+
+/**
+ * <p>
+ * An {@link Input} for <code>long</code> values. The values are kept in a <code>long</code> array, so receiving values
+ * from {@link LongOutput}s does not create any objects. Use {@link #popLong(long)} to read values without boxing them.
+ * </p>
+ * 
+ * <p>
+ * Unlike {@link Input} this Input always has a limited capacity. Without an {@link InputBuffer} annotation
+ * {@link Input#DEFAULT_CAPACITY} and {@link OverflowPolicy#DEFAULT} are used. <code>null</code> values can not be
+ * stored and are counted as dropped.
+ * </p>
+ */
+public class LongInput extends PrimitiveInput<Long> implements LongOutputTarget {
+	private final long[] values;
+
+	/**
+	 * Initializes a new LongInput using {@link Input#DEFAULT_CAPACITY} and {@link OverflowPolicy#DEFAULT}.
+	 */
+	public LongInput() {
+		this(DEFAULT_CAPACITY, OverflowPolicy.DEFAULT);
+	}
+
+	/**
+	 * Initializes a new LongInput.
+	 * 
+	 * @param capacity
+	 *            the maximum number of unprocessed values. Values below 2 are raised to 2.
+	 * @param overflowPolicy
+	 *            what to do if a value arrives while the Input is full
+	 */
+	public LongInput(final int capacity, final OverflowPolicy overflowPolicy) {
+		super(capacity, overflowPolicy);
+		this.values = new long[getCapacity()];
+	}
+
+	/**
+	 * Returns the oldest unprocessed value and removes it.
+	 * 
+	 * @param defaultValue
+	 *            the value to return if there are no unprocessed values
+	 * @return the oldest unprocessed value or <code>defaultValue</code> if there is none
+	 */
+	public long popLong(final long defaultValue) {
+		final long position = claimRead();
+		if (position < 0) {
+			return defaultValue;
+		}
+		final long value = values[index(position)];
+		publishRead(position);
+		return value;
+	}
+
+	@Override
+	public Long popValue() {
+		final long position = claimRead();
+		if (position < 0) {
+			return null;
+		}
+		final long value = values[index(position)];
+		publishRead(position);
+		return value;
+	}
+
+	@Override
+	public void setLong(final long value) {
+		final long position = claimWrite();
+		if (position < 0) {
+			return;
+		}
+		values[index(position)] = value;
+		publishWrite(position);
+	}
+
+	@Override
+	public void setValue(final Long value) {
+		if (value == null) {
+			countDropped();
+			return;
+		}
+		setLong(value);
+	}
+}
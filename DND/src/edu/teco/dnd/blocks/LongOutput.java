@@ -0,0 +1,41 @@
+package edu.teco.dnd.blocks;
+
+/**
+ * An {@link Output} for <code>long</code> values. {@link #setValue(long)} passes the value to
+ * {@link LongOutputTarget}s without boxing it. Other targets receive the boxed value.
+ */
+public class LongOutput extends Output<Long> {
+	private static final long serialVersionUID = -4209534355539883856L;
+
+	/**
+	 * Initializes a new LongOutput using {@link DeliveryMode#DEFAULT}.
+	 */
+	public LongOutput() {
+		super();
+	}
+
+	/**
+	 * Initializes a new LongOutput.
+	 * 
+	 * @param deliveryMode
+	 *            the mode used to deliver values to remote Modules
+	 */
+	public LongOutput(final DeliveryMode deliveryMode) {
+		super(deliveryMode);
+	}
+
+	/**
+	 * Sends a value using this output.
+	 * 
+	 * @param value
+	 *            the value to send
+	 */
+	public void setValue(final long value) {
+		final OutputTarget<? super Long> target = getTarget();
+		if (target instanceof LongOutputTarget) {
+			((LongOutputTarget) target).setLong(value);
+		} else {
+			setValue((Long) value);
+		}
+	}
+}
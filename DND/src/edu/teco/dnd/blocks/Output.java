@@ -18,6 +18,15 @@ import org.apache.logging.log4j.Logger;
  * </p>
  * 
  * <p>
+ * The field can be annotated with {@link Delivery} to choose how values are delivered to remote Modules.
+ * </p>
+ * 
+ * <p>
+ * For <code>int</code>, <code>long</code>, <code>double</code> and <code>boolean</code> values {@link IntOutput},
+ * {@link LongOutput}, {@link DoubleOutput} and {@link BooleanOutput} can be used to avoid boxing each value.
+ * </p>
+ * 
+ * <p>
  * Output is thread-safe.
  * </p>
  */
@@ -26,7 +35,35 @@ public class Output<T extends Serializable> implements Serializable {
 
 	private static final long serialVersionUID = 8652366978996728530L;
 
-	private OutputTarget<? super T> target = null;
+	private volatile OutputTarget<? super T> target = null;
+
+	private final DeliveryMode deliveryMode;
+
+	/**
+	 * Initializes a new Output using {@link DeliveryMode#DEFAULT}.
+	 */
+	public Output() {
+		this(DeliveryMode.DEFAULT);
+	}
+
+	/**
+	 * Initializes a new Output.
+	 * 
+	 * @param deliveryMode
+	 *            the mode used to deliver values to remote Modules
+	 */
+	public Output(final DeliveryMode deliveryMode) {
+		this.deliveryMode = deliveryMode == null ? DeliveryMode.DEFAULT : deliveryMode;
+	}
+
+	/**
+	 * Returns the mode used to deliver values to remote Modules.
+	 * 
+	 * @return the mode used to deliver values to remote Modules
+	 */
+	public DeliveryMode getDeliveryMode() {
+		return deliveryMode;
+	}
 
 	/**
 	 * Sends a value using this output.
@@ -42,6 +79,15 @@ public class Output<T extends Serializable> implements Serializable {
 		}
 	}
 
+	/**
+	 * Returns the target of this Output.
+	 * 
+	 * @return the target of this Output or null if it hasn't been set yet
+	 */
+	final OutputTarget<? super T> getTarget() {
+		return target;
+	}
+
 	/**
 	 * Sets the target for this Output. The target can only be set once.
 	 * 
@@ -0,0 +1,38 @@
+package edu.teco.dnd.blocks;
+
+/**
+ * Describes what an {@link Input} with a limited capacity does if a value arrives while the Input is full.
+ * 
+ * @see InputBuffer
+ */
+public enum OverflowPolicy {
+	/**
+	 * The oldest unprocessed value is discarded to make room for the new one.
+	 */
+	DROP_OLDEST,
+
+	/**
+	 * The new value is discarded. Values already in the Input are kept.
+	 */
+	DROP_NEWEST,
+
+	/**
+	 * Only the newest value is kept. All older values are discarded as soon as a new value arrives, regardless of the
+	 * capacity. This is the same as calling {@link Input#setNewestOnly(boolean)} with <code>true</code>.
+	 */
+	KEEP_LATEST,
+
+	/**
+	 * The Thread delivering the value waits until the FunctionBlock has processed enough values to make room. This
+	 * slows down the sender instead of losing values, but also blocks the Thread used to receive values. If the
+	 * FunctionBlock could only be updated by the Thread delivering the value, for example if the Application runs the
+	 * work of each FunctionBlock serially or if the FunctionBlock sends values to itself, the oldest value is discarded
+	 * instead, as with {@link #DROP_OLDEST}.
+	 */
+	BLOCK;
+
+	/**
+	 * The policy used by {@link InputBuffer} if none is given.
+	 */
+	public static final OverflowPolicy DEFAULT = DROP_OLDEST;
+}
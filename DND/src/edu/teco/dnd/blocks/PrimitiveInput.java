@@ -0,0 +1,81 @@
+package edu.teco.dnd.blocks;
+
+import java.io.Serializable;
+
+import edu.teco.dnd.util.RingSequencer;
+
+/**
+ * Base class for Inputs that store primitive values in an array instead of boxing them. Subclasses store and load the
+ * values between claiming and publishing a position (see {@link RingSequencer}). The {@link OverflowPolicy} is applied
+ * by {@link #claimWrite()}.
+ *
+ * @param <T>
+ *            the wrapper type of the primitive values
+ */
+abstract class PrimitiveInput<T extends Serializable> extends Input<T> {
+	private final RingSequencer sequencer;
+
+	PrimitiveInput(final int capacity, final OverflowPolicy overflowPolicy) {
+		super(Math.max(2, capacity), overflowPolicy, null);
+		this.sequencer = new RingSequencer(getCapacity());
+	}
+
+	/**
+	 * Claims a slot for a new value, applying the OverflowPolicy if the Input is full.
+	 *
+	 * @return the claimed position or -1 if the value has to be dropped
+	 */
+	final long claimWrite() {
+		long position;
+		if (isNewestOnly()) {
+			while ((position = sequencer.claimWrite()) < 0) {
+				dropOldest();
+			}
+			return position;
+		}
+
+		int attempt = 0;
+		while ((position = sequencer.claimWrite()) < 0) {
+			if (!makeRoom(attempt++)) {
+				return -1;
+			}
+		}
+		return position;
+	}
+
+	final void publishWrite(final long position) {
+		sequencer.publishWrite(position);
+		added();
+		if (isNewestOnly()) {
+			keepNewestOnly();
+		}
+	}
+
+	/**
+	 * Claims the slot of the oldest value.
+	 *
+	 * @return the claimed position or -1 if the Input is empty
+	 */
+	final long claimRead() {
+		return sequencer.claimRead();
+	}
+
+	final void publishRead(final long position) {
+		sequencer.publishRead(position);
+		removed();
+	}
+
+	final int index(final long position) {
+		return sequencer.index(position);
+	}
+
+	@Override
+	boolean removeOldest() {
+		final long position = claimRead();
+		if (position < 0) {
+			return false;
+		}
+		publishRead(position);
+		return true;
+	}
+}
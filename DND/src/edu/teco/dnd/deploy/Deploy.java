@@ -27,6 +27,7 @@ import edu.teco.dnd.graphiti.model.InputModel;
 import edu.teco.dnd.graphiti.model.OptionModel;
 import edu.teco.dnd.graphiti.model.OutputModel;
 import edu.teco.dnd.module.ApplicationID;
+import edu.teco.dnd.module.ExecutionMode;
 import edu.teco.dnd.module.ModuleID;
 import edu.teco.dnd.module.ModuleInfo;
 import edu.teco.dnd.module.messages.joinStartApp.JoinApplicationAck;
@@ -39,6 +40,7 @@ import edu.teco.dnd.module.messages.loadStartBlock.BlockMessage;
 import edu.teco.dnd.module.messages.loadStartBlock.BlockNak;
 import edu.teco.dnd.module.messages.loadStartBlock.LoadClassAck;
 import edu.teco.dnd.module.messages.loadStartBlock.LoadClassMessage;
+import edu.teco.dnd.network.BroadcastFutureNotifier;
 import edu.teco.dnd.network.ConnectionManager;
 import edu.teco.dnd.network.messages.Response;
 import edu.teco.dnd.util.ClassFile;
@@ -71,6 +73,11 @@ public class Deploy {
 	 */
 	private final ApplicationID applicationID;
 
+	/**
+	 * How the Modules should run the FunctionBlocks of the application.
+	 */
+	private final ExecutionMode executionMode;
+
 	/**
 	 * Used to resolve dependencies.
 	 */
@@ -99,12 +106,35 @@ public class Deploy {
 	 */
 	public Deploy(final ConnectionManager connectionManager, final Map<FunctionBlockModel, BlockTarget> distribution,
 			final String name, final Dependencies dependencies, final ApplicationID applicationID) {
-		LOGGER.entry(connectionManager, distribution, name, dependencies, applicationID);
+		this(connectionManager, distribution, name, dependencies, applicationID, ExecutionMode.DEFAULT);
+	}
+
+	/**
+	 * Creates a new Deploy object.
+	 * 
+	 * @param connectionManager
+	 *            the ConnectionManager to use
+	 * @param distribution
+	 *            the Distribution that should be deployed
+	 * @param name
+	 *            the name of the Application
+	 * @param dependencies
+	 *            used to resolve Dependencies
+	 * @param applicationID
+	 *            the ID of the Application
+	 * @param executionMode
+	 *            how the Modules should run the FunctionBlocks of the Application
+	 */
+	public Deploy(final ConnectionManager connectionManager, final Map<FunctionBlockModel, BlockTarget> distribution,
+			final String name, final Dependencies dependencies, final ApplicationID applicationID,
+			final ExecutionMode executionMode) {
+		LOGGER.entry(connectionManager, distribution, name, dependencies, applicationID, executionMode);
 		this.connectionManager = connectionManager;
 		this.distribution = distribution;
 		this.appName = name;
 		this.dependencies = dependencies;
 		this.applicationID = applicationID;
+		this.executionMode = executionMode;
 		this.moduleMap = MapUtil.invertMap(getModuleMapping());
 		LOGGER.exit();
 	}
@@ -287,7 +317,8 @@ public class Deploy {
 	private FutureNotifier<Response> sendJoin(final ModuleID moduleID) {
 		LOGGER.entry(moduleID);
 		final FutureNotifier<Response> futureNotifier =
-				connectionManager.sendMessage(moduleID, new JoinApplicationMessage(appName, applicationID));
+				connectionManager.sendMessage(moduleID, new JoinApplicationMessage(appName, applicationID,
+						executionMode));
 		LOGGER.exit(futureNotifier);
 		return futureNotifier;
 	}
@@ -560,20 +591,37 @@ public class Deploy {
 		}
 	}
 
+	/**
+	 * Returns the ID of the Module each FunctionBlock is deployed to.
+	 * 
+	 * @return a Map from FunctionBlockID to the ID of the Module the FunctionBlock is deployed to
+	 */
+	private Map<FunctionBlockID, ModuleID> getBlockLocations() {
+		final Map<FunctionBlockID, ModuleID> blockLocations = new HashMap<FunctionBlockID, ModuleID>();
+		for (final Entry<FunctionBlockModel, BlockTarget> entry : distribution.entrySet()) {
+			blockLocations.put(new FunctionBlockID(entry.getKey().getID()), entry.getValue().getModule().getID());
+		}
+		return blockLocations;
+	}
+
 	/**
 	 * Sends a {@link StartApplicationMessage} to all Modules and adds a listener to each future to call
-	 * {@link #informModuleStarted(ModuleID)} if the Module started the application successfully.
+	 * {@link #informModuleStarted(ModuleID)} if the Module started the application successfully. The message contains
+	 * the location of all FunctionBlocks so that the Modules do not have to search for them. The message is broadcast so
+	 * that it is only encoded once.
 	 * 
 	 * @return a FutureNotifier returning the Responses of all Modules
 	 */
 	private FutureNotifier<Collection<Response>> sendStartApplication() {
-		final Collection<FutureNotifier<? extends Response>> futureNotifiers =
-				new ArrayList<FutureNotifier<? extends Response>>();
+		final Collection<ModuleID> moduleIDs = new ArrayList<ModuleID>();
 		for (final ModuleInfo module : moduleMap.keySet()) {
-			final ModuleID moduleID = module.getID();
-			final FutureNotifier<Response> futureNotifier =
-					connectionManager.sendMessage(moduleID, new StartApplicationMessage(applicationID));
-			futureNotifier.addListener(new FutureListener<FutureNotifier<Response>>() {
+			moduleIDs.add(module.getID());
+		}
+		final BroadcastFutureNotifier broadcast =
+				connectionManager.broadcast(moduleIDs, new StartApplicationMessage(applicationID, getBlockLocations()));
+		for (final Entry<ModuleID, FutureNotifier<Response>> entry : broadcast.getResponseFutures().entrySet()) {
+			final ModuleID moduleID = entry.getKey();
+			entry.getValue().addListener(new FutureListener<FutureNotifier<Response>>() {
 				@Override
 				public void operationComplete(final FutureNotifier<Response> future) {
 					if (future.isSuccess() && future.getNow() instanceof StartApplicationAck) {
@@ -581,9 +629,8 @@ public class Deploy {
 					}
 				}
 			});
-			futureNotifiers.add(futureNotifier);
 		}
-		return new JoinedFutureNotifier<Response>(futureNotifiers);
+		return broadcast;
 	}
 
 	/**
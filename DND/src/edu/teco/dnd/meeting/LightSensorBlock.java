@@ -4,7 +4,7 @@ import java.net.MalformedURLException;
 import java.util.Map;
 
 import edu.teco.dnd.blocks.FunctionBlock;
-import edu.teco.dnd.blocks.Output;
+import edu.teco.dnd.blocks.IntOutput;
 import edu.teco.dnd.uPart.SensorException;
 import edu.teco.dnd.uPart.UPartReader;
 
@@ -41,7 +41,7 @@ public class LightSensorBlock extends FunctionBlock {
 	/**
 	 * Indicates brightness.
 	 */
-	private Output<Integer> lights;
+	private IntOutput lights;
 
 	/**
 	 * Reads from the UPart.
@@ -86,6 +86,8 @@ public class LightSensorBlock extends FunctionBlock {
 		} catch (SensorException e) {
 			return;
 		}
-		lights.setValue(light);
+		if (light != null) {
+			lights.setValue(light.intValue());
+		}
 	}
 }
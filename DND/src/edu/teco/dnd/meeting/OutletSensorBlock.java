@@ -4,7 +4,7 @@ import java.net.MalformedURLException;
 import java.util.Map;
 
 import edu.teco.dnd.blocks.FunctionBlock;
-import edu.teco.dnd.blocks.Output;
+import edu.teco.dnd.blocks.IntOutput;
 import edu.teco.dnd.uPart.OutletReader;
 import edu.teco.dnd.uPart.SensorException;
 
@@ -27,7 +27,7 @@ public class OutletSensorBlock extends FunctionBlock {
 	/**
 	 * The measured energy at the outlet.
 	 */
-	private Output<Integer> outlet;
+	private IntOutput outlet;
 
 	/**
 	 * URL of the Outlet. Default is already set; doesn't contain ID.
@@ -77,7 +77,10 @@ public class OutletSensorBlock extends FunctionBlock {
 			return;
 		}
 		try {
-			outlet.setValue(reader.getEnergy());
+			final Integer value = reader.getEnergy();
+			if (value != null) {
+				outlet.setValue(value.intValue());
+			}
 		} catch (SensorException e) {
 		}
 	}
@@ -1,14 +1,17 @@
 package edu.teco.dnd.module;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
@@ -21,17 +24,28 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import edu.teco.dnd.blocks.BooleanOutputTarget;
+import edu.teco.dnd.blocks.DeliveryMode;
+import edu.teco.dnd.blocks.DoubleOutputTarget;
 import edu.teco.dnd.blocks.FunctionBlock;
 import edu.teco.dnd.blocks.FunctionBlockID;
 import edu.teco.dnd.blocks.Input;
 import edu.teco.dnd.blocks.InputDescription;
+import edu.teco.dnd.blocks.IntOutputTarget;
+import edu.teco.dnd.blocks.LongOutputTarget;
 import edu.teco.dnd.blocks.Output;
 import edu.teco.dnd.blocks.OutputTarget;
+import edu.teco.dnd.blocks.OverflowPolicy;
 import edu.teco.dnd.module.ModuleBlockManager.BlockTypeHolderFullException;
 import edu.teco.dnd.module.ModuleBlockManager.NoSuchBlockTypeHolderException;
 import edu.teco.dnd.module.config.BlockTypeHolder;
 import edu.teco.dnd.module.messages.infoReq.ApplicationBlockID;
+import edu.teco.dnd.module.messages.values.EncodedValue;
+import edu.teco.dnd.module.messages.values.ValueMessage;
+import edu.teco.dnd.module.messages.values.ValueMulticastMessage;
+import edu.teco.dnd.network.BackpressureListener;
 import edu.teco.dnd.network.ConnectionManager;
+import edu.teco.dnd.server.FusedConnection;
 import edu.teco.dnd.util.HashStorage;
 import edu.teco.dnd.util.ValueWithHash;
 
@@ -61,6 +75,11 @@ public class Application {
 	private final ConnectionManager connectionManager;
 	private final ModuleBlockManager moduleBlockManager;
 	private final HashStorage<byte[]> byteCodeStorage;
+	/**
+	 * Combines values sent to the same Module. null if batching is disabled.
+	 */
+	private final ValueBatcher valueBatcher;
+	private final ExecutionMode executionMode;
 
 	private State currentState = State.CREATED;
 	private final ReadWriteLock currentStateLock = new ReentrantReadWriteLock();
@@ -75,10 +94,33 @@ public class Application {
 	private final ConcurrentMap<FunctionBlockID, ValueSender> valueSenders =
 			new ConcurrentHashMap<FunctionBlockID, ValueSender>();
 
+	/**
+	 * The Module each FunctionBlock of this Application is running on, as far as known. Used to create ValueSenders
+	 * that do not have to search for their target FunctionBlock.
+	 */
+	private final ConcurrentMap<FunctionBlockID, ModuleID> blockLocations =
+			new ConcurrentHashMap<FunctionBlockID, ModuleID>();
+
 	private final ApplicationClassLoader classLoader = new ApplicationClassLoader();
 	/** mapping of active blocks to their ID, used e.g. to pass values to inputs. */
 	private final ConcurrentMap<FunctionBlockID, FunctionBlockSecurityDecorator> functionBlocksById =
 			new ConcurrentHashMap<FunctionBlockID, FunctionBlockSecurityDecorator>();
+	/** the updaters used to run update() on active blocks when a value is received. */
+	private final ConcurrentMap<FunctionBlockID, CoalescingUpdater> updatersById =
+			new ConcurrentHashMap<FunctionBlockID, CoalescingUpdater>();
+	/** the mailboxes of active blocks. Only used with {@link ExecutionMode#SERIAL}. */
+	private final ConcurrentMap<FunctionBlockID, BlockMailbox> mailboxesById =
+			new ConcurrentHashMap<FunctionBlockID, BlockMailbox>();
+	/**
+	 * The targets of all Outputs of local FunctionBlocks. Their destinations are resolved to local Inputs whenever a
+	 * FunctionBlock is started.
+	 */
+	private final List<ApplicationOutputTarget> outputTargets = new CopyOnWriteArrayList<ApplicationOutputTarget>();
+
+	/**
+	 * Sends values that were held back by the ValueSenders while a connection was congested.
+	 */
+	private final BackpressureListener backpressureListener = new CoalescedValueFlusher();
 
 	private final Module module;
 
@@ -108,6 +150,43 @@ public class Application {
 	public Application(final ApplicationID applicationID, final String name, final ConnectionManager connectionManager,
 			final ThreadFactory threadFactory, final int maxThreads, final ModuleBlockManager moduleBlockManager,
 			final HashStorage<byte[]> byteCodeStorage, final Module module) {
+		this(applicationID, name, connectionManager, threadFactory, maxThreads, moduleBlockManager, byteCodeStorage,
+				module, 1, 0, ExecutionMode.DEFAULT);
+	}
+
+	/**
+	 * Initializes a new Application. Normally this should not be called directly, use
+	 * {@link Module#joinApplication(ApplicationID, String)} instead.
+	 * 
+	 * @param applicationID
+	 *            ID of this application
+	 * @param name
+	 *            human readable name of this application
+	 * @param connectionManager
+	 *            ConnectionManager used to send values to FunctionBlocks running on remote Modules
+	 * @param threadFactory
+	 *            will be used to create Threads that will {@link FunctionBlock#update() update} the
+	 *            {@link FunctionBlock}s belonging to this Application
+	 * @param maxThreads
+	 *            the maximum number of Threads that will be used
+	 * @param moduleBlockManager
+	 *            this BlockManager will be checked to see if a FunctionBlock can be executed locally
+	 * @param byteCodeStorage
+	 *            a HashStorage that is used to globaly store the byte code. This can be used to cache byte code if
+	 *            multiple Applications execute the same FunctionBlock class.
+	 * @param module
+	 *            the Module this Application is running on
+	 * @param valueBatchSize
+	 *            the maximum number of values sent to a remote Module in a single batch (see {@link ValueBatcher})
+	 * @param valueBatchLinger
+	 *            the maximum time in microseconds a value is held back waiting for other values to the same Module
+	 * @param executionMode
+	 *            how the FunctionBlocks of this Application are run
+	 */
+	public Application(final ApplicationID applicationID, final String name, final ConnectionManager connectionManager,
+			final ThreadFactory threadFactory, final int maxThreads, final ModuleBlockManager moduleBlockManager,
+			final HashStorage<byte[]> byteCodeStorage, final Module module, final int valueBatchSize,
+			final long valueBatchLinger, final ExecutionMode executionMode) {
 		this.applicationID = applicationID;
 		this.name = name;
 		this.byteCodeStorage = byteCodeStorage;
@@ -116,6 +195,15 @@ public class Application {
 		this.connectionManager = connectionManager;
 		this.moduleBlockManager = moduleBlockManager;
 		this.module = module;
+		this.executionMode = executionMode == null ? ExecutionMode.DEFAULT : executionMode;
+		if (ValueBatcher.isBatching(valueBatchSize, valueBatchLinger)) {
+			this.valueBatcher =
+					new ValueBatcher(applicationID, connectionManager, scheduledThreadPool, valueBatchSize,
+							valueBatchLinger);
+		} else {
+			this.valueBatcher = null;
+		}
+		connectionManager.addBackpressureListener(backpressureListener);
 	}
 
 	public boolean isRunning() {
@@ -145,8 +233,11 @@ public class Application {
 	 *            ID of the FunctionBlock and the name of the {@link Input} the value should be sent to
 	 * @param value
 	 *            the value to send
+	 * @param deliveryMode
+	 *            the mode used if the value has to be sent to a remote Module
 	 */
-	private void sendValue(final InputDescription inputDescription, final Serializable value) {
+	private void sendValue(final InputDescription inputDescription, final EncodedValue value,
+			final DeliveryMode deliveryMode) {
 		if (inputDescription == null) {
 			throw new IllegalArgumentException("inputDescription must not be null");
 		}
@@ -160,17 +251,102 @@ public class Application {
 
 		if (hasFunctionBlockWithID(inputDescription.getBlock())) { // block is local
 			try {
-				receiveValue(inputDescription, value);
+				receiveValue(inputDescription, value.getValue());
 			} catch (final NonExistentFunctionblockException e) {
 				LOGGER.catching(e);
 			} catch (final NonExistentInputException e) {
 				LOGGER.catching(e);
 			}
 		} else {
-			getValueSender(inputDescription.getBlock()).sendValue(inputDescription.getInput(), value);
+			getValueSender(inputDescription.getBlock()).sendValue(inputDescription.getInput(), value, deliveryMode);
 		}
 	}
 
+	/**
+	 * Sends a value to multiple remote {@link FunctionBlock}s. The value is only encoded once. If more than one of the
+	 * FunctionBlocks runs on the same Module and no {@link ValueBatcher} is used, a single
+	 * {@link ValueMulticastMessage} is sent to that Module instead of one {@link ValueMessage} per FunctionBlock. While
+	 * the connection to that Module is {@link ConnectionManager#isBackpressured(ModuleID) congested}, values sent with
+	 * {@link DeliveryMode#FIRE_AND_FORGET} are passed to the {@link ValueSender}s instead so that they are coalesced.
+	 * FunctionBlocks whose Module is not known yet are handled by
+	 * {@link #sendValue(InputDescription, EncodedValue, DeliveryMode)}.
+	 * 
+	 * @param inputDescriptions
+	 *            IDs of the FunctionBlocks and the names of the {@link Input}s the value should be sent to
+	 * @param value
+	 *            the value to send
+	 * @param deliveryMode
+	 *            the mode used if the value has to be sent to a remote Module
+	 */
+	private void sendValue(final InputDescription[] inputDescriptions, final Serializable value,
+			final DeliveryMode deliveryMode) {
+		final EncodedValue encodedValue = new EncodedValue(value);
+		if (inputDescriptions.length <= 1 || valueBatcher != null) {
+			for (final InputDescription inputDescription : inputDescriptions) {
+				sendValue(inputDescription, encodedValue, deliveryMode);
+			}
+			return;
+		}
+
+		final Map<ModuleID, List<InputDescription>> targetsByModule = new HashMap<ModuleID, List<InputDescription>>();
+		for (final InputDescription inputDescription : inputDescriptions) {
+			final ModuleID moduleID =
+					hasFunctionBlockWithID(inputDescription.getBlock()) ? null : getValueSender(
+							inputDescription.getBlock()).getModuleID();
+			if (moduleID == null) {
+				sendValue(inputDescription, encodedValue, deliveryMode);
+				continue;
+			}
+			List<InputDescription> targets = targetsByModule.get(moduleID);
+			if (targets == null) {
+				targets = new ArrayList<InputDescription>();
+				targetsByModule.put(moduleID, targets);
+			}
+			targets.add(inputDescription);
+		}
+
+		for (final Entry<ModuleID, List<InputDescription>> entry : targetsByModule.entrySet()) {
+			final List<InputDescription> targets = entry.getValue();
+			final boolean congested =
+					deliveryMode == DeliveryMode.FIRE_AND_FORGET && connectionManager.isBackpressured(entry.getKey());
+			if (targets.size() == 1 || congested) {
+				// the ValueSenders hold back values while the Module is congested
+				for (final InputDescription target : targets) {
+					sendValue(target, encodedValue, deliveryMode);
+				}
+			} else if (deliveryMode == DeliveryMode.FIRE_AND_FORGET) {
+				connectionManager.sendMessageOneWay(entry.getKey(), new ValueMulticastMessage(applicationID, targets,
+						encodedValue, false));
+			} else {
+				connectionManager.sendMessage(entry.getKey(), new ValueMulticastMessage(applicationID, targets,
+						encodedValue, true));
+			}
+		}
+	}
+
+	/**
+	 * Adds entries to the table of Modules the FunctionBlocks of this Application are running on. Values for these
+	 * FunctionBlocks are sent directly to the Module without searching for the FunctionBlock first. Existing
+	 * ValueSenders are updated.
+	 * 
+	 * @param locations
+	 *            a Map from FunctionBlockID to the ID of the Module the FunctionBlock is running on
+	 */
+	public void addBlockLocations(final Map<FunctionBlockID, ModuleID> locations) {
+		LOGGER.entry(locations);
+		for (final Entry<FunctionBlockID, ModuleID> location : locations.entrySet()) {
+			if (location.getKey() == null || location.getValue() == null) {
+				continue;
+			}
+			blockLocations.put(location.getKey(), location.getValue());
+			final ValueSender valueSender = valueSenders.get(location.getKey());
+			if (valueSender != null) {
+				valueSender.setModuleID(location.getValue());
+			}
+		}
+		LOGGER.exit();
+	}
+
 	/**
 	 * Returns a ValueSender for the given target FunctionBlock. If no ValueSender for that FunctionBlock exists yet a
 	 * new one is created. When called with the same FunctionBlockID it will always return the same ValueSender, even if
@@ -184,7 +360,11 @@ public class Application {
 	private ValueSender getValueSender(final FunctionBlockID blockID) {
 		ValueSender valueSender = valueSenders.get(blockID);
 		if (valueSender == null) {
-			valueSender = new ValueSender(applicationID, blockID, connectionManager);
+			valueSender = new ValueSender(applicationID, blockID, connectionManager, valueBatcher, scheduledThreadPool);
+			final ModuleID location = blockLocations.get(blockID);
+			if (location != null) {
+				valueSender.setModuleID(location);
+			}
 			// if between the get and this call another Thread put a ValueSender into the map, this call will return the
 			// ValueSender the other Thread put into the Map. We'll use that one instead of our new one so that only one
 			// ValueSender exists per target
@@ -316,10 +496,132 @@ public class Application {
 				continue;
 			}
 			final Output<? extends Serializable> blockOutput = blockOutputs.get(output.getKey());
-			blockOutput.setTarget(new ApplicationOutputTarget(output.getValue()));
+			final ApplicationOutputTarget target =
+					new ApplicationOutputTarget(securityDecorator.getBlockID(), output.getKey(), output.getValue(),
+							blockOutput.getDeliveryMode());
+			target.resolveLocalInputs();
+			outputTargets.add(target);
+			blockOutput.setTarget(target);
+		}
+	}
+
+	/**
+	 * Resolves the destinations of all Outputs that run on this Module to direct references to their Inputs.
+	 */
+	private void resolveLocalInputs() {
+		for (final ApplicationOutputTarget target : outputTargets) {
+			target.resolveLocalInputs();
 		}
 	}
 
+	/**
+	 * Prepares the {@link Input}s of all started FunctionBlocks that use {@link OverflowPolicy#BLOCK}. A Thread that
+	 * has to wait for room first requests an update of the FunctionBlock, as the FunctionBlock may have no update
+	 * pending. Waiting is not allowed if the FunctionBlock may only be updated after the waiting Thread is done: with
+	 * {@link ExecutionMode#SERIAL} values are stored from within the FunctionBlock's mailbox, and an Input that is fed
+	 * by the FunctionBlock itself or by a FunctionBlock it sends values to on this Module may be waiting for its own
+	 * update.
+	 */
+	private void prepareBlockingInputs() {
+		for (final FunctionBlockSecurityDecorator block : functionBlocksById.values()) {
+			final CoalescingUpdater updater = updatersById.get(block.getBlockID());
+			final Runnable updateRequester = new Runnable() {
+				@Override
+				public void run() {
+					updater.requestUpdate();
+				}
+			};
+			Set<FunctionBlockID> downstream = null;
+			for (final Entry<String, Input<? extends Serializable>> input : block.getInputs().entrySet()) {
+				if (input.getValue().getOverflowPolicy() != OverflowPolicy.BLOCK) {
+					continue;
+				}
+				if (downstream == null) {
+					downstream = getDownstreamBlocks(block.getBlockID());
+				}
+				final boolean blockingAllowed =
+						executionMode != ExecutionMode.SERIAL
+								&& !isFedBy(new InputDescription(block.getBlockID(), input.getKey()), downstream);
+				input.getValue().setBlockingHandler(updateRequester, blockingAllowed);
+			}
+		}
+	}
+
+	/**
+	 * Returns the FunctionBlocks that receive values from the given FunctionBlock on this Module, directly or through
+	 * other FunctionBlocks. Includes the FunctionBlock itself.
+	 */
+	private Set<FunctionBlockID> getDownstreamBlocks(final FunctionBlockID blockID) {
+		final Set<FunctionBlockID> downstream = new HashSet<FunctionBlockID>();
+		final List<FunctionBlockID> pending = new ArrayList<FunctionBlockID>();
+		downstream.add(blockID);
+		pending.add(blockID);
+		while (!pending.isEmpty()) {
+			final FunctionBlockID current = pending.remove(pending.size() - 1);
+			for (final ApplicationOutputTarget target : outputTargets) {
+				if (!target.sourceBlock.equals(current)) {
+					continue;
+				}
+				for (final InputDescription destination : target.destinations) {
+					final FunctionBlockID destinationBlock = destination.getBlock();
+					if (functionBlocksById.containsKey(destinationBlock) && downstream.add(destinationBlock)) {
+						pending.add(destinationBlock);
+					}
+				}
+			}
+		}
+		return downstream;
+	}
+
+	/**
+	 * Returns whether an Input receives values from any of the given FunctionBlocks.
+	 */
+	private boolean isFedBy(final InputDescription input, final Set<FunctionBlockID> blocks) {
+		for (final ApplicationOutputTarget target : outputTargets) {
+			if (blocks.contains(target.sourceBlock) && target.destinations.contains(input)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the Input a destination refers to if its FunctionBlock has been started on this Module.
+	 * 
+	 * @param destination
+	 *            the destination to look up
+	 * @return the Input with the updater and mailbox of its FunctionBlock or null if the FunctionBlock is not running
+	 *         on this Module (or has not been started yet)
+	 */
+	private LocalInput getLocalInput(final InputDescription destination, final boolean fusable) {
+		final FunctionBlockSecurityDecorator block = functionBlocksById.get(destination.getBlock());
+		if (block == null) {
+			return null;
+		}
+		final Input<? extends Serializable> input = block.getInputs().get(destination.getInput());
+		if (input == null) {
+			LOGGER.warn("FunctionBlock {} does not have an input called {}", destination.getBlock(),
+					destination.getInput());
+			return null;
+		}
+		final boolean fused = fusable && executionMode == ExecutionMode.FUSED && block.getUpdateInterval() < 0;
+		return new LocalInput(destination, input, updatersById.get(destination.getBlock()),
+				mailboxesById.get(destination.getBlock()), fused);
+	}
+
+	/**
+	 * Returns the connections between local FunctionBlocks that are currently run fused.
+	 * 
+	 * @return the connections that are run fused. Empty unless {@link ExecutionMode#FUSED} is used.
+	 */
+	public Collection<FusedConnection> getFusedConnections() {
+		final Collection<FusedConnection> fusedConnections = new ArrayList<FusedConnection>();
+		for (final ApplicationOutputTarget target : outputTargets) {
+			target.addFusedConnections(fusedConnections);
+		}
+		return fusedConnections;
+	}
+
 	/**
 	 * Starts the Application. This will call {@link FunctionBlock#init(Map)} on all {@link FunctionBlock}s that were
 	 * {@link #scheduleBlock(BlockDescription) added} to the Application. It will also schedule an updater to run
@@ -365,7 +667,9 @@ public class Application {
 	 * Starts a single {@link FunctionBlock}. Will call {@link FunctionBlock#init(Map)} with the given options. Also
 	 * installs a Runnable that will periodically {@link FunctionBlock#update() update} the FunctionBlock if requested
 	 * (see {@link FunctionBlock#getUpdateInterval()}. If not, it will call update() once. init() is guaranteed to be
-	 * executed before the method returns, update() however is not.
+	 * executed before the method returns, update() however is not. With {@link ExecutionMode#SERIAL} the periodic
+	 * updates are run through the FunctionBlock's {@link BlockMailbox}. Periodic updates are skipped while all
+	 * destinations of the FunctionBlock's Outputs are on Modules whose connection is congested.
 	 */
 	private void startBlock(final FunctionBlockSecurityDecorator block, final Map<String, String> options) {
 		currentStateLock.readLock().lock();
@@ -408,14 +712,41 @@ public class Application {
 			}
 
 			// FIXME: if two blocks share the UUID, blocks get lost
+			final CoalescingUpdater coalescingUpdater;
+			if (executionMode == ExecutionMode.SERIAL) {
+				final BlockMailbox mailbox = new BlockMailbox(scheduledThreadPool);
+				mailboxesById.put(block.getBlockID(), mailbox);
+				coalescingUpdater = new CoalescingUpdater(block, mailbox);
+			} else {
+				coalescingUpdater = new CoalescingUpdater(block, scheduledThreadPool);
+			}
+			updatersById.put(block.getBlockID(), coalescingUpdater);
 			functionBlocksById.put(block.getBlockID(), block);
+			resolveLocalInputs();
+			prepareBlockingInputs();
 
 			long period = block.getUpdateInterval();
 			try {
 				if (period < 0) {
-					scheduledThreadPool.schedule(updater, 0, TimeUnit.SECONDS);
+					coalescingUpdater.requestUpdate();
+				} else if (executionMode == ExecutionMode.SERIAL) {
+					scheduledThreadPool.scheduleAtFixedRate(new Runnable() {
+						@Override
+						public void run() {
+							if (!isBackpressured(block.getBlockID())) {
+								coalescingUpdater.requestUpdate();
+							}
+						}
+					}, period, period, TimeUnit.MILLISECONDS);
 				} else {
-					scheduledThreadPool.scheduleAtFixedRate(updater, period, period, TimeUnit.MILLISECONDS);
+					scheduledThreadPool.scheduleAtFixedRate(new Runnable() {
+						@Override
+						public void run() {
+							if (!isBackpressured(block.getBlockID())) {
+								updater.run();
+							}
+						}
+					}, period, period, TimeUnit.MILLISECONDS);
 				}
 			} catch (RejectedExecutionException e) {
 				LOGGER.catching(e);
@@ -426,7 +757,52 @@ public class Application {
 	}
 
 	/**
-	 * Receives a value for a {@link FunctionBlock} running locally.
+	 * Returns whether all destinations of the Outputs of a FunctionBlock are on remote Modules whose connection is
+	 * {@link ConnectionManager#isBackpressured(ModuleID) congested}. Returns false if the FunctionBlock has no
+	 * Outputs that are connected.
+	 * 
+	 * @param blockID
+	 *            the ID of the FunctionBlock
+	 * @return true if all values sent by the FunctionBlock would have to be sent over a congested connection
+	 */
+	private boolean isBackpressured(final FunctionBlockID blockID) {
+		boolean hasDestinations = false;
+		for (final ApplicationOutputTarget target : outputTargets) {
+			if (!target.sourceBlock.equals(blockID)) {
+				continue;
+			}
+			if (target.localInputs.length > 0) {
+				return false;
+			}
+			for (final InputDescription destination : target.remoteInputs) {
+				final ModuleID moduleID = getModuleID(destination.getBlock());
+				if (moduleID == null || !connectionManager.isBackpressured(moduleID)) {
+					return false;
+				}
+				hasDestinations = true;
+			}
+		}
+		return hasDestinations;
+	}
+
+	/**
+	 * Returns the ID of the Module a remote FunctionBlock is running on, as far as known.
+	 */
+	private ModuleID getModuleID(final FunctionBlockID blockID) {
+		final ValueSender valueSender = valueSenders.get(blockID);
+		if (valueSender != null) {
+			final ModuleID moduleID = valueSender.getModuleID();
+			if (moduleID != null) {
+				return moduleID;
+			}
+		}
+		return blockLocations.get(blockID);
+	}
+
+	/**
+	 * Receives a value for a {@link FunctionBlock} running locally. An update of the FunctionBlock is scheduled unless
+	 * one is already waiting to be run. If values arrive while the update is running, another update is run afterwards.
+	 * With {@link ExecutionMode#SERIAL} the value is passed to the Input in the FunctionBlock's {@link BlockMailbox}.
 	 * 
 	 * @param inputDescription
 	 *            the {@link FunctionBlockID} and {@link Input} name the value is for
@@ -439,12 +815,12 @@ public class Application {
 	 * @throws NonExistentInputException
 	 *             if the FunctionBlock does not have an Input called <code>inputName</code>
 	 */
-	@SuppressWarnings({ "rawtypes", "unchecked" })
-	public void receiveValue(final InputDescription inputDescription, Serializable value)
+	@SuppressWarnings("rawtypes")
+	public void receiveValue(final InputDescription inputDescription, final Serializable value)
 			throws NonExistentFunctionblockException, NonExistentInputException {
 		currentStateLock.readLock().lock();
 		try {
-			if (isRunning()) {
+			if (!isRunning()) {
 				throw new IllegalStateException(this + " is not running");
 			}
 
@@ -458,23 +834,17 @@ public class Application {
 				throw LOGGER.throwing(new NonExistentInputException("FunctionBlock " + inputDescription.getBlock()
 						+ " does not have an input called " + inputDescription.getInput()));
 			}
-			input.setValue(value);
-
-			final Runnable updater = new Runnable() {
-				@Override
-				public void run() {
-					try {
-						block.update();
-					} catch (UserSuppliedCodeException e) {
-						// TODO: handle malevolent block. Stop it, maybe?
+			final CoalescingUpdater updater = updatersById.get(inputDescription.getBlock());
+			final BlockMailbox mailbox = mailboxesById.get(inputDescription.getBlock());
+			if (mailbox == null) {
+				deliverValue(input, value, updater);
+			} else {
+				mailbox.execute(new Runnable() {
+					@Override
+					public void run() {
+						deliverValue(input, value, updater);
 					}
-				}
-			};
-
-			try {
-				scheduledThreadPool.schedule(updater, 0, TimeUnit.SECONDS);
-			} catch (RejectedExecutionException e) {
-				LOGGER.catching(e);
+				});
 			}
 		} finally {
 			currentStateLock.readLock().unlock();
@@ -505,9 +875,14 @@ public class Application {
 			}
 
 			scheduledThreadPool.shutdown();
+			connectionManager.removeBackpressureListener(backpressureListener);
 
 			shutdownFunctionBlocks();
 
+			if (valueBatcher != null) {
+				valueBatcher.close();
+			}
+
 			removeFunctionBlocksFromManager();
 			
 			module.removeApplication(applicationID);
@@ -568,6 +943,10 @@ public class Application {
 		return applicationID;
 	}
 
+	public ExecutionMode getExecutionMode() {
+		return executionMode;
+	}
+
 	public String getName() {
 		return name;
 	}
@@ -620,27 +999,263 @@ public class Application {
 	}
 
 	/**
-	 * An OutputTarget that calls {@link Application#sendValue(InputDescription, Serializable)} with a given list of
-	 * target {@link InputDescription}s.
+	 * An OutputTarget that passes values to the given target {@link InputDescription}s. Destinations whose
+	 * FunctionBlock runs on this Module are resolved to their {@link Input}s (see {@link #resolveLocalInputs()}) so
+	 * that values are handed to them directly, without any lookups. Values for all other destinations are passed to
+	 * {@link Application#sendValue(InputDescription[], Serializable, DeliveryMode)}. Primitive values are passed to
+	 * local Inputs for primitive values without boxing them. With {@link ExecutionMode#FUSED} a single local
+	 * destination is updated on the calling Thread.
 	 */
-	private class ApplicationOutputTarget implements OutputTarget<Serializable> {
+	private class ApplicationOutputTarget implements OutputTarget<Serializable>, IntOutputTarget, LongOutputTarget,
+			DoubleOutputTarget, BooleanOutputTarget {
+		private final FunctionBlockID sourceBlock;
+		private final String output;
 		private final Set<InputDescription> destinations;
+		private final DeliveryMode deliveryMode;
+		private volatile LocalInput[] localInputs = new LocalInput[0];
+		private volatile InputDescription[] remoteInputs;
 
 		/**
 		 * Initializes a new ApplicationOutputTarget.
 		 * 
+		 * @param sourceBlock
+		 *            the ID of the FunctionBlock the Output belongs to
+		 * @param output
+		 *            the name of the Output
 		 * @param destinations
-		 *            any values received will be forwared to these Inputs (via
-		 *            {@link Application#sendValue(InputDescription, Serializable)})
+		 *            any values received will be forwared to these Inputs
+		 * @param deliveryMode
+		 *            the mode used to deliver values to remote Inputs
 		 */
-		public ApplicationOutputTarget(final Collection<InputDescription> destinations) {
+		public ApplicationOutputTarget(final FunctionBlockID sourceBlock, final String output,
+				final Collection<InputDescription> destinations, final DeliveryMode deliveryMode) {
+			this.sourceBlock = sourceBlock;
+			this.output = output;
 			this.destinations = new HashSet<InputDescription>(destinations);
+			this.deliveryMode = deliveryMode;
+			this.remoteInputs = this.destinations.toArray(new InputDescription[this.destinations.size()]);
 		}
 
-		@Override
-		public void setValue(Serializable value) {
+		/**
+		 * Splits the destinations into Inputs of FunctionBlocks that have been started on this Module and all other
+		 * destinations.
+		 */
+		public synchronized void resolveLocalInputs() {
+			final List<LocalInput> local = new ArrayList<LocalInput>();
+			final List<InputDescription> remote = new ArrayList<InputDescription>();
+			final boolean fusable = destinations.size() == 1;
 			for (final InputDescription destination : destinations) {
-				sendValue(destination, value);
+				final LocalInput localInput = getLocalInput(destination, fusable);
+				if (localInput == null) {
+					remote.add(destination);
+				} else {
+					local.add(localInput);
+				}
+			}
+			localInputs = local.toArray(new LocalInput[local.size()]);
+			remoteInputs = remote.toArray(new InputDescription[remote.size()]);
+		}
+
+		public void addFusedConnections(final Collection<FusedConnection> fusedConnections) {
+			for (final LocalInput localInput : localInputs) {
+				if (localInput.fused) {
+					fusedConnections.add(new FusedConnection(sourceBlock, output, localInput.destination));
+				}
+			}
+		}
+
+		@Override
+		public void setValue(final Serializable value) {
+			for (final LocalInput localInput : localInputs) {
+				localInput.deliver(value);
+			}
+			sendToRemote(value);
+		}
+
+		@Override
+		public void setInt(final int value) {
+			for (final LocalInput localInput : localInputs) {
+				localInput.deliverInt(value);
+			}
+			if (remoteInputs.length > 0) {
+				sendToRemote(value);
+			}
+		}
+
+		@Override
+		public void setLong(final long value) {
+			for (final LocalInput localInput : localInputs) {
+				localInput.deliverLong(value);
+			}
+			if (remoteInputs.length > 0) {
+				sendToRemote(value);
+			}
+		}
+
+		@Override
+		public void setDouble(final double value) {
+			for (final LocalInput localInput : localInputs) {
+				localInput.deliverDouble(value);
+			}
+			if (remoteInputs.length > 0) {
+				sendToRemote(value);
+			}
+		}
+
+		@Override
+		public void setBoolean(final boolean value) {
+			for (final LocalInput localInput : localInputs) {
+				localInput.deliverBoolean(value);
+			}
+			if (remoteInputs.length > 0) {
+				sendToRemote(value);
+			}
+		}
+
+		private void sendToRemote(final Serializable value) {
+			final InputDescription[] remote = remoteInputs;
+			if (remote.length > 0) {
+				sendValue(remote, value, deliveryMode);
+			}
+		}
+	}
+
+	/**
+	 * An Input of a FunctionBlock running on this Module together with the updater and mailbox of the FunctionBlock.
+	 * As values are delivered on the Thread of the sending FunctionBlock, this class is trusted by the
+	 * {@link edu.teco.dnd.module.permissions.ApplicationSecurityManager} like
+	 * {@link Application#sendValue(InputDescription[], Serializable, DeliveryMode)}. Requesting an update may for
+	 * example create a new Thread for the Application.
+	 */
+	private static final class LocalInput {
+		private final InputDescription destination;
+		@SuppressWarnings("rawtypes")
+		private final Input input;
+		private final CoalescingUpdater updater;
+		private final BlockMailbox mailbox;
+		/**
+		 * If true, the FunctionBlock is updated on the Thread delivering the value.
+		 */
+		private final boolean fused;
+
+		private LocalInput(final InputDescription destination, final Input<? extends Serializable> input,
+				final CoalescingUpdater updater, final BlockMailbox mailbox, final boolean fused) {
+			this.destination = destination;
+			this.input = input;
+			this.updater = updater;
+			this.mailbox = mailbox;
+			this.fused = fused;
+		}
+
+		/**
+		 * Passes a value to the Input and requests an update. With {@link ExecutionMode#SERIAL} this is done in the
+		 * FunctionBlock's mailbox.
+		 */
+		@SuppressWarnings("unchecked")
+		private void deliver(final Serializable value) {
+			if (mailbox == null) {
+				input.setValue(value);
+				requestUpdate();
+			} else {
+				mailbox.execute(new Runnable() {
+					@Override
+					public void run() {
+						deliverValue(input, value, updater);
+					}
+				});
+			}
+		}
+
+		private void deliverInt(final int value) {
+			if (mailbox == null && input instanceof IntOutputTarget) {
+				((IntOutputTarget) input).setInt(value);
+				requestUpdate();
+			} else {
+				deliver(value);
+			}
+		}
+
+		private void deliverLong(final long value) {
+			if (mailbox == null && input instanceof LongOutputTarget) {
+				((LongOutputTarget) input).setLong(value);
+				requestUpdate();
+			} else {
+				deliver(value);
+			}
+		}
+
+		private void deliverDouble(final double value) {
+			if (mailbox == null && input instanceof DoubleOutputTarget) {
+				((DoubleOutputTarget) input).setDouble(value);
+				requestUpdate();
+			} else {
+				deliver(value);
+			}
+		}
+
+		private void deliverBoolean(final boolean value) {
+			if (mailbox == null && input instanceof BooleanOutputTarget) {
+				((BooleanOutputTarget) input).setBoolean(value);
+				requestUpdate();
+			} else {
+				deliver(value);
+			}
+		}
+
+		private void requestUpdate() {
+			if (updater == null) {
+				return;
+			}
+			if (fused) {
+				updater.updateInline();
+			} else {
+				updater.requestUpdate();
+			}
+		}
+	}
+
+	/**
+	 * Passes a value to an Input and requests an update of the FunctionBlock.
+	 * 
+	 * @param input
+	 *            the Input the value is for
+	 * @param value
+	 *            the value
+	 * @param updater
+	 *            the updater of the FunctionBlock. May be null.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static void deliverValue(final Input input, final Serializable value, final CoalescingUpdater updater) {
+		input.setValue(value);
+		if (updater != null) {
+			updater.requestUpdate();
+		}
+	}
+
+	/**
+	 * Sends the values the ValueSenders held back while the connection to a Module was congested once the congestion
+	 * ends. The values are sent from the Application's Threads, not from the network Thread reporting the change.
+	 */
+	private class CoalescedValueFlusher implements BackpressureListener {
+		@Override
+		public void backpressureStarted(final ModuleID moduleID) {
+		}
+
+		@Override
+		public void backpressureEnded(final ModuleID moduleID) {
+			try {
+				scheduledThreadPool.execute(new Runnable() {
+					@Override
+					public void run() {
+						for (final ValueSender valueSender : valueSenders.values()) {
+							if (moduleID.equals(valueSender.getModuleID())) {
+								valueSender.sendCoalescedValues();
+							}
+						}
+					}
+				});
+			} catch (final RejectedExecutionException e) {
+				LOGGER.debug("not sending coalesced values for {}, {} is shutting down", moduleID, Application.this);
 			}
 		}
 	}
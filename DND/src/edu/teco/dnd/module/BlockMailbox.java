@@ -0,0 +1,107 @@
+package edu.teco.dnd.module;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import edu.teco.dnd.blocks.FunctionBlock;
+
+/**
+ * <p>
+ * An Executor that runs all tasks given to it one after another on an underlying Executor. This is used to run all
+ * work of a single {@link FunctionBlock} serially (see {@link ExecutionMode#SERIAL}) while still sharing the thread
+ * pool of the {@link Application}.
+ * </p>
+ * 
+ * <p>
+ * Tasks are run in the order they were submitted. At most one task runs at a time and each task
+ * <i>happens-before</i> the next one, so the tasks can share state without locking. To keep FunctionBlocks from
+ * hogging a Thread, at most {@link #MAX_TASKS_PER_RUN} tasks are run before the mailbox is resubmitted to the
+ * underlying Executor.
+ * </p>
+ */
+public class BlockMailbox implements Executor {
+	private static final Logger LOGGER = LogManager.getLogger(BlockMailbox.class);
+
+	/**
+	 * The maximum number of tasks run in a row before giving up the Thread.
+	 */
+	public static final int MAX_TASKS_PER_RUN = 64;
+
+	private final Executor executor;
+	private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+
+	/**
+	 * true while the mailbox is either waiting to be run by {@link #executor} or running.
+	 */
+	private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+	private final Runnable drainer = new Runnable() {
+		@Override
+		public void run() {
+			drain();
+		}
+	};
+
+	/**
+	 * Initializes a new BlockMailbox.
+	 * 
+	 * @param executor
+	 *            the Executor used to run the tasks
+	 */
+	public BlockMailbox(final Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Adds a task to the mailbox. The task will be run after all tasks added before it have finished.
+	 * 
+	 * @param task
+	 *            the task to run
+	 */
+	@Override
+	public void execute(final Runnable task) {
+		if (task == null) {
+			throw new NullPointerException();
+		}
+		tasks.add(task);
+		schedule();
+	}
+
+	private void schedule() {
+		if (scheduled.compareAndSet(false, true)) {
+			try {
+				executor.execute(drainer);
+			} catch (final RejectedExecutionException e) {
+				scheduled.set(false);
+				LOGGER.catching(e);
+			}
+		}
+	}
+
+	private void drain() {
+		try {
+			for (int i = 0; i < MAX_TASKS_PER_RUN; i++) {
+				final Runnable task = tasks.poll();
+				if (task == null) {
+					break;
+				}
+				try {
+					task.run();
+				} catch (final RuntimeException e) {
+					LOGGER.catching(e);
+				}
+			}
+		} finally {
+			scheduled.set(false);
+			if (!tasks.isEmpty()) {
+				schedule();
+			}
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package edu.teco.dnd.module;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import edu.teco.dnd.blocks.FunctionBlock;
+import edu.teco.dnd.blocks.Input;
+
+/**
+ * <p>
+ * Runs {@link FunctionBlock#update()} on an Executor if requested. At most one update is queued at a time: if an update
+ * is already waiting to be run, further requests are ignored. If requests arrive while the update is running, exactly
+ * one more update is run afterwards so that no value is left unprocessed.
+ * </p>
+ *
+ * <p>
+ * Most FunctionBlocks only take a single value from each {@link Input} per update, so a burst of values that was
+ * coalesced into a single request would leave values behind. Because of this another update is run as long as the
+ * Inputs still hold values and the last update took some of them. FunctionBlocks that leave values in an Input on
+ * purpose are therefore not updated over and over again.
+ * </p>
+ */
+public class CoalescingUpdater implements Runnable {
+	private static final Logger LOGGER = LogManager.getLogger(CoalescingUpdater.class);
+
+	private static final int IDLE = 0;
+	private static final int QUEUED = 1;
+	private static final int RUNNING = 2;
+	private static final int RUNNING_REQUESTED = 3;
+
+	private final FunctionBlockSecurityDecorator block;
+	private final Executor executor;
+	private final Input<?>[] inputs;
+	private final AtomicInteger state = new AtomicInteger(IDLE);
+
+	/**
+	 * Initializes a new CoalescingUpdater.
+	 *
+	 * @param block
+	 *            the FunctionBlock to update. Must have been initialized.
+	 * @param executor
+	 *            the Executor used to run the updates
+	 */
+	public CoalescingUpdater(final FunctionBlockSecurityDecorator block, final Executor executor) {
+		this.block = block;
+		this.executor = executor;
+		final Collection<Input<? extends Serializable>> blockInputs = block.getInputs().values();
+		this.inputs = blockInputs.toArray(new Input<?>[blockInputs.size()]);
+	}
+
+	/**
+	 * Requests an update of the FunctionBlock.
+	 */
+	public void requestUpdate() {
+		while (true) {
+			final int current = state.get();
+			if (current == QUEUED || current == RUNNING_REQUESTED) {
+				return;
+			}
+			final int next = current == IDLE ? QUEUED : RUNNING_REQUESTED;
+			if (state.compareAndSet(current, next)) {
+				if (next == QUEUED) {
+					submit();
+				}
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Runs the update on the calling Thread if the FunctionBlock is neither being updated nor waiting for an update.
+	 * Otherwise an update is requested as with {@link #requestUpdate()}.
+	 */
+	public void updateInline() {
+		if (state.compareAndSet(IDLE, RUNNING)) {
+			update();
+		} else {
+			requestUpdate();
+		}
+	}
+
+	private void submit() {
+		try {
+			executor.execute(this);
+		} catch (final RejectedExecutionException e) {
+			state.set(IDLE);
+			LOGGER.debug("not updating {}, the executor is shutting down", block);
+		}
+	}
+
+	@Override
+	public void run() {
+		state.set(RUNNING);
+		update();
+	}
+
+	/**
+	 * Updates the FunctionBlock. The state must have been set to RUNNING before.
+	 */
+	private void update() {
+		final int valuesBefore = countValues();
+		try {
+			block.update();
+		} catch (UserSuppliedCodeException e) {
+			// TODO: handle malevolent block. Stop it, maybe?
+		}
+		if (!state.compareAndSet(RUNNING, IDLE)) {
+			state.set(QUEUED);
+			submit();
+			return;
+		}
+		// no value has been delivered while updating, so fewer values means the update took some of them
+		final int valuesAfter = countValues();
+		if (valuesAfter > 0 && valuesAfter < valuesBefore) {
+			requestUpdate();
+		}
+	}
+
+	private int countValues() {
+		int count = 0;
+		for (final Input<?> input : inputs) {
+			count += input.getValueCount();
+		}
+		return count;
+	}
+}
@@ -0,0 +1,36 @@
+package edu.teco.dnd.module;
+
+import edu.teco.dnd.blocks.FunctionBlock;
+import edu.teco.dnd.blocks.Input;
+
+/**
+ * Describes how an {@link Application} runs the code of its {@link FunctionBlock}s.
+ */
+public enum ExecutionMode {
+	/**
+	 * All work is submitted to the Application's thread pool directly. Periodic and value-triggered updates of the
+	 * same FunctionBlock may run at the same time on different Threads, so FunctionBlocks have to do their own locking.
+	 */
+	CONCURRENT,
+
+	/**
+	 * Each FunctionBlock has a {@link BlockMailbox}. All work for a FunctionBlock, including storing received values
+	 * in its {@link Input}s, is run serially, so FunctionBlocks never see concurrent calls and can be written without
+	 * locking. Different FunctionBlocks still run in parallel.
+	 */
+	SERIAL,
+
+	/**
+	 * Like {@link #CONCURRENT}, but connections between FunctionBlocks on the same Module are fused where possible:
+	 * the receiving FunctionBlock is updated on the sending FunctionBlock's Thread right after the value was sent,
+	 * without going through the thread pool. A connection is fused if the Output has no other destination and the
+	 * receiving FunctionBlock has no update interval. If the receiving FunctionBlock is already being updated, a normal
+	 * update is scheduled instead, so a FunctionBlock is never updated concurrently by fused connections.
+	 */
+	FUSED;
+
+	/**
+	 * The mode used if none was specified.
+	 */
+	public static final ExecutionMode DEFAULT = CONCURRENT;
+}
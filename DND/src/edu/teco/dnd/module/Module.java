@@ -1,6 +1,7 @@
 package edu.teco.dnd.module;
 
 import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Executor;
@@ -13,6 +14,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import edu.teco.dnd.blocks.FunctionBlock;
+import edu.teco.dnd.blocks.FunctionBlockID;
 import edu.teco.dnd.module.ModuleBlockManager.BlockTypeHolderFullException;
 import edu.teco.dnd.module.ModuleBlockManager.NoSuchBlockTypeHolderException;
 import edu.teco.dnd.module.config.BlockTypeHolder;
@@ -25,8 +27,12 @@ import edu.teco.dnd.module.messages.loadStartBlock.BlockMessage;
 import edu.teco.dnd.module.messages.loadStartBlock.BlockMessageHandler;
 import edu.teco.dnd.module.messages.loadStartBlock.LoadClassMessage;
 import edu.teco.dnd.module.messages.loadStartBlock.LoadClassMessageHandler;
+import edu.teco.dnd.module.messages.values.ValueBatchMessage;
+import edu.teco.dnd.module.messages.values.ValueBatchMessageHandler;
 import edu.teco.dnd.module.messages.values.ValueMessage;
 import edu.teco.dnd.module.messages.values.ValueMessageHandler;
+import edu.teco.dnd.module.messages.values.ValueMulticastMessage;
+import edu.teco.dnd.module.messages.values.ValueMulticastMessageHandler;
 import edu.teco.dnd.module.messages.values.WhoHasBlockMessage;
 import edu.teco.dnd.module.messages.values.WhoHasFuncBlockHandler;
 import edu.teco.dnd.network.ConnectionManager;
@@ -92,6 +98,23 @@ public class Module {
 	 *             if <code>applicationID</code> is already in use
 	 */
 	public void createNewApplication(final ApplicationID applicationID, String name) {
+		createNewApplication(applicationID, name, ExecutionMode.DEFAULT);
+	}
+
+	/**
+	 * Creates a new Application. If the ApplicationID is already in use an {@link IllegalArgumentException} is thrown.
+	 * 
+	 * @param applicationID
+	 *            an ID for the new Application. Must not be in use or an IllegalArgumentException will be thrown
+	 * @param name
+	 *            a name for the Application. Not used directly, only displayed for the user’s convenience
+	 * @param executionMode
+	 *            how the FunctionBlocks of the Application should be run
+	 * @throws IllegalArgumentException
+	 *             if <code>applicationID</code> is already in use
+	 */
+	public void createNewApplication(final ApplicationID applicationID, String name,
+			final ExecutionMode executionMode) {
 		LOGGER.info("joining app {} ({})", name, applicationID);
 
 		shutdownLock.readLock().lock();
@@ -105,7 +128,7 @@ public class Module {
 							+ " already exists"));
 				}
 
-				final Application newApplication = instantiateApplication(applicationID, name);
+				final Application newApplication = instantiateApplication(applicationID, name, executionMode);
 				runningApps.put(applicationID, newApplication);
 
 				registerMessageHandlers(newApplication);
@@ -123,11 +146,15 @@ public class Module {
 	 *            the ID of the new Application
 	 * @param name
 	 *            the name of the Application
+	 * @param executionMode
+	 *            how the FunctionBlocks of the Application should be run
 	 */
-	private Application instantiateApplication(final ApplicationID applicationID, final String name) {
+	private Application instantiateApplication(final ApplicationID applicationID, final String name,
+			final ExecutionMode executionMode) {
 		final IndexedThreadFactory threadFactory = new IndexedThreadFactory("app-" + applicationID.getUUID() + "-");
 		return new Application(applicationID, name, connectionManager, threadFactory,
-				moduleConfig.getMaxThreadsPerApp(), moduleBlockManager, byteCodeStorage, this);
+				moduleConfig.getMaxThreadsPerApp(), moduleBlockManager, byteCodeStorage, this,
+				moduleConfig.getValueBatchSize(), moduleConfig.getValueBatchLinger(), executionMode);
 	}
 
 	/**
@@ -148,6 +175,10 @@ public class Module {
 				this), executor);
 		connectionManager.addHandler(applicationID, KillAppMessage.class, new KillAppMessageHandler(this), executor);
 		connectionManager.addHandler(applicationID, ValueMessage.class, new ValueMessageHandler(application), executor);
+		connectionManager.addHandler(applicationID, ValueBatchMessage.class, new ValueBatchMessageHandler(application),
+				executor);
+		connectionManager.addHandler(applicationID, ValueMulticastMessage.class, new ValueMulticastMessageHandler(
+				application), executor);
 		connectionManager.addHandler(applicationID, WhoHasBlockMessage.class, new WhoHasFuncBlockHandler(application,
 				moduleConfig.getModuleID()));
 	}
@@ -208,6 +239,22 @@ public class Module {
 	 * @see Application#start()
 	 */
 	public void startApp(ApplicationID applicationID) {
+		startApp(applicationID, Collections.<FunctionBlockID, ModuleID> emptyMap());
+	}
+
+	/**
+	 * Starts an Application after telling it where the FunctionBlocks of the Application are running.
+	 * 
+	 * @param applicationID
+	 *            the ID of the Application to start
+	 * @param blockLocations
+	 *            the Module each FunctionBlock of the Application is running on. Used so that values can be sent
+	 *            without searching for the target FunctionBlock first.
+	 * @throws IllegalArgumentException
+	 *             if there is no Application with given ID or if the Application has already been started
+	 * @see Application#addBlockLocations(Map)
+	 */
+	public void startApp(ApplicationID applicationID, Map<FunctionBlockID, ModuleID> blockLocations) {
 		shutdownLock.readLock().lock();
 		try {
 			if (isShuttingDown) {
@@ -221,6 +268,7 @@ public class Module {
 				LOGGER.warn("Tried to start non existing app: {}", applicationID);
 				throw new IllegalArgumentException("tried to start app that does not exist.");
 			}
+			app.addBlockLocations(blockLocations);
 			app.start();
 		} finally {
 			shutdownLock.readLock().unlock();
@@ -256,6 +304,7 @@ public class Module {
 		synchronized (runningApps) {
 			runningApps.remove(applicationID);
 		}
+		connectionManager.removeHandlers(applicationID);
 	}
 
 	/**
@@ -5,6 +5,7 @@ import java.util.Collection;
 
 import edu.teco.dnd.module.config.ModuleConfig;
 import edu.teco.dnd.server.AddressBasedServerConfig;
+import edu.teco.dnd.server.NetworkTransport;
 import edu.teco.dnd.util.NetConnection;
 
 public class ModuleConfigAddressBasedServerConfigAdapter implements AddressBasedServerConfig {
@@ -38,4 +39,14 @@ public class ModuleConfigAddressBasedServerConfigAdapter implements AddressBased
 	public Collection<InetSocketAddress> getAnnounceAddresses() {
 		return configReader.getAnnounce();
 	}
+
+	@Override
+	public NetworkTransport getTransport() {
+		return configReader.getTransport();
+	}
+
+	@Override
+	public int getEventLoopThreads() {
+		return configReader.getEventLoopThreads();
+	}
 }
@@ -26,8 +26,15 @@ import edu.teco.dnd.module.messages.joinStartApp.StartApplicationMessage;
 import edu.teco.dnd.module.messages.killApp.KillAppMessage;
 import edu.teco.dnd.module.messages.loadStartBlock.BlockMessage;
 import edu.teco.dnd.module.messages.loadStartBlock.LoadClassMessage;
+import edu.teco.dnd.module.messages.values.ValueBatchMessage;
+import edu.teco.dnd.module.messages.values.ValueBatchMessageAdapter;
+import edu.teco.dnd.module.messages.values.ValueBatchMessageSerializer;
 import edu.teco.dnd.module.messages.values.ValueMessage;
 import edu.teco.dnd.module.messages.values.ValueMessageAdapter;
+import edu.teco.dnd.module.messages.values.ValueMessageSerializer;
+import edu.teco.dnd.module.messages.values.ValueMulticastMessage;
+import edu.teco.dnd.module.messages.values.ValueMulticastMessageAdapter;
+import edu.teco.dnd.module.messages.values.ValueMulticastMessageSerializer;
 import edu.teco.dnd.module.messages.values.WhoHasBlockMessage;
 import edu.teco.dnd.module.permissions.ApplicationSecurityManager;
 import edu.teco.dnd.network.ConnectionManager;
@@ -131,6 +138,12 @@ public final class ModuleMain {
 				System.exit(1);
 			}
 			registerAdditionalAdapters(serverManager.getConnectionManager(), module);
+			serverManager.getConnectionManager().setWriteBufferWaterMarks(moduleConfig.getWriteBufferLowWaterMark(),
+					moduleConfig.getWriteBufferHighWaterMark());
+			serverManager.getConnectionManager().setInboundQueue(moduleConfig.getInboundQueueCapacity(),
+					moduleConfig.getInboundShedPolicy());
+			serverManager.getConnectionManager().setCompression(moduleConfig.getCompressionLevel(),
+					moduleConfig.getCompressionMinFrameSize());
 			registerHandlers(serverManager.getConnectionManager(), moduleConfig, module);
 		}
 
@@ -147,6 +160,12 @@ public final class ModuleMain {
 	 */
 	private static void registerAdditionalAdapters(final TCPConnectionManager tcpConnectionManager, final Module module) {
 		tcpConnectionManager.registerTypeAdapter(ValueMessage.class, new ValueMessageAdapter(module));
+		tcpConnectionManager.addBinarySerializer(ValueMessage.class, new ValueMessageSerializer(module));
+		tcpConnectionManager.registerTypeAdapter(ValueBatchMessage.class, new ValueBatchMessageAdapter(module));
+		tcpConnectionManager.addBinarySerializer(ValueBatchMessage.class, new ValueBatchMessageSerializer(module));
+		tcpConnectionManager.registerTypeAdapter(ValueMulticastMessage.class, new ValueMulticastMessageAdapter(module));
+		tcpConnectionManager.addBinarySerializer(ValueMulticastMessage.class,
+				new ValueMulticastMessageSerializer(module));
 	}
 
 	/**
@@ -170,6 +189,8 @@ public final class ModuleMain {
 		connectionManager.addHandler(StartApplicationMessage.class, new MissingApplicationHandler());
 		connectionManager.addHandler(KillAppMessage.class, new MissingApplicationHandler());
 		connectionManager.addHandler(ValueMessage.class, new MissingApplicationHandler());
+		connectionManager.addHandler(ValueBatchMessage.class, new MissingApplicationHandler());
+		connectionManager.addHandler(ValueMulticastMessage.class, new MissingApplicationHandler());
 		connectionManager.addHandler(WhoHasBlockMessage.class, new MissingApplicationHandler());
 		connectionManager.addHandler(ShutdownModuleMessage.class, new ShutdownModuleHandler(module));
 	}
@@ -2,14 +2,17 @@ package edu.teco.dnd.module;
 
 import java.io.Serializable;
 
+import edu.teco.dnd.blocks.DeliveryMode;
 import edu.teco.dnd.blocks.Input;
+import edu.teco.dnd.module.messages.values.EncodedValue;
 
 /**
- * A value together with the name of an {@link Input} it should be sent to.
+ * A value together with the name of an {@link Input} it should be sent to and the {@link DeliveryMode} to use.
  */
 public class TargetedValue {
 	private final String inputName;
-	private final Serializable value;
+	private final EncodedValue value;
+	private final DeliveryMode deliveryMode;
 
 	/**
 	 * Initializes a new TargetedValue.
@@ -20,8 +23,37 @@ public class TargetedValue {
 	 *            the value that should be send
 	 */
 	public TargetedValue(final String inputName, final Serializable value) {
+		this(inputName, value, DeliveryMode.DEFAULT);
+	}
+
+	/**
+	 * Initializes a new TargetedValue.
+	 * 
+	 * @param inputName
+	 *            the name of the Input the value should be send to
+	 * @param value
+	 *            the value that should be send
+	 * @param deliveryMode
+	 *            the mode used to deliver the value
+	 */
+	public TargetedValue(final String inputName, final Serializable value, final DeliveryMode deliveryMode) {
+		this(inputName, new EncodedValue(value), deliveryMode);
+	}
+
+	/**
+	 * Initializes a new TargetedValue.
+	 * 
+	 * @param inputName
+	 *            the name of the Input the value should be send to
+	 * @param value
+	 *            the value that should be send. Its encoding is reused if it has already been computed.
+	 * @param deliveryMode
+	 *            the mode used to deliver the value
+	 */
+	public TargetedValue(final String inputName, final EncodedValue value, final DeliveryMode deliveryMode) {
 		this.inputName = inputName;
 		this.value = value;
+		this.deliveryMode = deliveryMode;
 	}
 
 	public String getInputName() {
@@ -29,6 +61,14 @@ public class TargetedValue {
 	}
 
 	public Serializable getValue() {
+		return this.value.getValue();
+	}
+
+	public EncodedValue getEncodedValue() {
 		return this.value;
 	}
+
+	public DeliveryMode getDeliveryMode() {
+		return this.deliveryMode;
+	}
 }
@@ -0,0 +1,261 @@
+package edu.teco.dnd.module;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import edu.teco.dnd.blocks.DeliveryMode;
+import edu.teco.dnd.blocks.FunctionBlockID;
+import edu.teco.dnd.module.messages.values.EncodedValue;
+import edu.teco.dnd.module.messages.values.ValueBatchMessage;
+import edu.teco.dnd.module.messages.values.ValueMessage;
+import edu.teco.dnd.network.ConnectionManager;
+import edu.teco.dnd.network.messages.Message;
+
+/**
+ * <p>
+ * Collects values that are sent to the same {@link Module} and sends them as a single {@link ValueBatchMessage}. A
+ * batch is sent as soon as it contains {@link #getMaxBatchSize() maxBatchSize} values or when the first value in it has
+ * waited for {@link #getLingerMicros() lingerMicros} microseconds, whichever comes first. A batch containing only a
+ * single value is sent as a normal {@link ValueMessage}.
+ * </p>
+ *
+ * <p>
+ * A batch requests a {@link edu.teco.dnd.module.messages.values.ValueAck} if any of its values was sent with
+ * {@link DeliveryMode#ACKNOWLEDGED}. Values for the same Module are sent in the order they were added.
+ * </p>
+ */
+public class ValueBatcher {
+	private static final Logger LOGGER = LogManager.getLogger(ValueBatcher.class);
+
+	private final ApplicationID applicationID;
+	private final ConnectionManager connectionManager;
+	private final ScheduledExecutorService scheduler;
+	private final int maxBatchSize;
+	private final long lingerMicros;
+
+	/**
+	 * The batches that have not been sent yet. Also used to synchronize sending so that batches for a Module are
+	 * written in order.
+	 */
+	private final Map<ModuleID, Batch> batches = new HashMap<ModuleID, Batch>();
+	private boolean closed = false;
+
+	/**
+	 * Initializes a new ValueBatcher.
+	 *
+	 * @param applicationID
+	 *            the ID of the Application the values belong to
+	 * @param connectionManager
+	 *            the ConnectionManager used to send the batches
+	 * @param scheduler
+	 *            used to send batches once the linger time has passed
+	 * @param maxBatchSize
+	 *            the maximum number of values in a batch. Must be positive.
+	 * @param lingerMicros
+	 *            the maximum time in microseconds a value waits for other values. Must not be negative.
+	 */
+	public ValueBatcher(final ApplicationID applicationID, final ConnectionManager connectionManager,
+			final ScheduledExecutorService scheduler, final int maxBatchSize, final long lingerMicros) {
+		if (maxBatchSize <= 0) {
+			throw new IllegalArgumentException("maxBatchSize must be positive");
+		}
+		if (lingerMicros < 0) {
+			throw new IllegalArgumentException("lingerMicros must not be negative");
+		}
+		this.applicationID = applicationID;
+		this.connectionManager = connectionManager;
+		this.scheduler = scheduler;
+		this.maxBatchSize = maxBatchSize;
+		this.lingerMicros = lingerMicros;
+	}
+
+	/**
+	 * Returns whether or not the given settings actually combine values. If not, no ValueBatcher should be used.
+	 *
+	 * @param maxBatchSize
+	 *            the maximum number of values in a batch
+	 * @param lingerMicros
+	 *            the maximum time in microseconds a value waits for other values
+	 * @return true if values would be batched with the given settings
+	 */
+	public static boolean isBatching(final int maxBatchSize, final long lingerMicros) {
+		return maxBatchSize > 1 && lingerMicros > 0;
+	}
+
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	public long getLingerMicros() {
+		return lingerMicros;
+	}
+
+	/**
+	 * Adds a value to the batch for the given Module. If the batch is full it is sent immediately.
+	 *
+	 * @param moduleID
+	 *            the Module the value should be sent to
+	 * @param blockID
+	 *            the ID of the FunctionBlock the value is for
+	 * @param input
+	 *            the name of the Input the value is for
+	 * @param value
+	 *            the value
+	 * @param deliveryMode
+	 *            the mode that should be used to deliver the value
+	 */
+	public void add(final ModuleID moduleID, final FunctionBlockID blockID, final String input,
+			final Serializable value, final DeliveryMode deliveryMode) {
+		add(moduleID, blockID, input, new EncodedValue(value), deliveryMode);
+	}
+
+	/**
+	 * Adds a value to the batch for the given Module. If the batch is full it is sent immediately.
+	 *
+	 * @param moduleID
+	 *            the Module the value should be sent to
+	 * @param blockID
+	 *            the ID of the FunctionBlock the value is for
+	 * @param input
+	 *            the name of the Input the value is for
+	 * @param value
+	 *            the value. Its encoding is reused if it has already been computed.
+	 * @param deliveryMode
+	 *            the mode that should be used to deliver the value
+	 */
+	public void add(final ModuleID moduleID, final FunctionBlockID blockID, final String input,
+			final EncodedValue value, final DeliveryMode deliveryMode) {
+		LOGGER.entry(moduleID, blockID, input, deliveryMode);
+		final ValueBatchMessage.Value batchValue = new ValueBatchMessage.Value(blockID, input, value);
+		final boolean responseRequested = deliveryMode != DeliveryMode.FIRE_AND_FORGET;
+		synchronized (batches) {
+			if (closed) {
+				final Batch batch = new Batch();
+				batch.add(batchValue, responseRequested);
+				send(moduleID, batch);
+				LOGGER.exit();
+				return;
+			}
+
+			Batch batch = batches.get(moduleID);
+			if (batch == null) {
+				batch = new Batch();
+				batches.put(moduleID, batch);
+				batch.timeout = scheduleFlush(moduleID, batch);
+			}
+			batch.add(batchValue, responseRequested);
+			if (batch.values.size() >= maxBatchSize) {
+				batches.remove(moduleID);
+				batch.cancelTimeout();
+				send(moduleID, batch);
+			}
+		}
+		LOGGER.exit();
+	}
+
+	/**
+	 * Sends all pending batches immediately.
+	 */
+	public void flush() {
+		LOGGER.entry();
+		synchronized (batches) {
+			for (final Map.Entry<ModuleID, Batch> entry : batches.entrySet()) {
+				entry.getValue().cancelTimeout();
+				send(entry.getKey(), entry.getValue());
+			}
+			batches.clear();
+		}
+		LOGGER.exit();
+	}
+
+	/**
+	 * Sends all pending batches. Values added afterwards are sent immediately.
+	 */
+	public void close() {
+		synchronized (batches) {
+			closed = true;
+			flush();
+		}
+	}
+
+	private ScheduledFuture<?> scheduleFlush(final ModuleID moduleID, final Batch batch) {
+		try {
+			return scheduler.schedule(new Runnable() {
+				@Override
+				public void run() {
+					flush(moduleID, batch);
+				}
+			}, lingerMicros, TimeUnit.MICROSECONDS);
+		} catch (final RejectedExecutionException e) {
+			LOGGER.debug("could not schedule flush for {}, values will be sent when the batch is full", moduleID);
+			return null;
+		}
+	}
+
+	/**
+	 * Sends the batch if it is still pending. Called once the linger time of the batch has passed.
+	 */
+	private void flush(final ModuleID moduleID, final Batch batch) {
+		synchronized (batches) {
+			if (batches.get(moduleID) != batch) {
+				return;
+			}
+			batches.remove(moduleID);
+			send(moduleID, batch);
+		}
+	}
+
+	/**
+	 * Sends a batch. Must be called while holding the lock on {@link #batches} so that batches are sent in order.
+	 */
+	private void send(final ModuleID moduleID, final Batch batch) {
+		Message message;
+		if (batch.values.size() == 1) {
+			final ValueBatchMessage.Value value = batch.values.get(0);
+			message =
+					new ValueMessage(applicationID, value.blockID, value.input, value.value, batch.responseRequested);
+		} else {
+			message = new ValueBatchMessage(applicationID, batch.values, batch.responseRequested);
+		}
+		LOGGER.trace("sending {} values to {}", batch.values.size(), moduleID);
+		if (batch.responseRequested) {
+			connectionManager.sendMessage(moduleID, message);
+		} else {
+			connectionManager.sendMessageOneWay(moduleID, message);
+		}
+	}
+
+	/**
+	 * The values collected for a single Module.
+	 */
+	private static class Batch {
+		private final List<ValueBatchMessage.Value> values = new ArrayList<ValueBatchMessage.Value>();
+		private boolean responseRequested = false;
+		private ScheduledFuture<?> timeout = null;
+
+		private void add(final ValueBatchMessage.Value value, final boolean responseRequested) {
+			values.add(value);
+			this.responseRequested |= responseRequested;
+		}
+
+		/**
+		 * Cancels the flush of the batch. The cancelled task stays in the scheduler's queue until the linger time has
+		 * passed, which is short enough that it does not need to be removed right away.
+		 */
+		private void cancelTimeout() {
+			if (timeout != null) {
+				timeout.cancel(false);
+			}
+		}
+	}
+}
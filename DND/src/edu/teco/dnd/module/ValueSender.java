@@ -5,21 +5,31 @@ import java.lang.ref.Reference;
 import java.lang.ref.SoftReference;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import edu.teco.dnd.blocks.DeliveryMode;
 import edu.teco.dnd.blocks.FunctionBlock;
 import edu.teco.dnd.blocks.FunctionBlockID;
 import edu.teco.dnd.blocks.Input;
 import edu.teco.dnd.module.messages.values.BlockFoundResponse;
+import edu.teco.dnd.module.messages.values.EncodedValue;
 import edu.teco.dnd.module.messages.values.ValueMessage;
 import edu.teco.dnd.module.messages.values.WhoHasBlockMessage;
+import edu.teco.dnd.network.BroadcastFutureNotifier;
 import edu.teco.dnd.network.ConnectionManager;
 import edu.teco.dnd.network.messages.Response;
 import edu.teco.dnd.util.DefaultFutureNotifier;
@@ -32,22 +42,60 @@ import edu.teco.dnd.util.ReferenceIterator;
  * FunctionBlock using its {@link ModuleID} and buffering values until the {@link Module} on which the FunctionBlock is
  * running is found. Values are cached using {@link SoftReference}s so they may get garbage collected before the Module
  * is found if RAM is needed.
+ * 
+ * Normally the Module is already known from the location table sent when the Application was started (see
+ * {@link #setModuleID(ModuleID)}). Searching via {@link WhoHasBlockMessage} is only used as a fallback. If a search
+ * fails, no new search is started for a while; the wait time doubles with each failed search up to
+ * {@link #MAX_QUERY_DELAY} milliseconds.
+ * 
+ * While the connection to the Module is {@link ConnectionManager#isBackpressured(ModuleID) congested}, values sent
+ * with {@link DeliveryMode#FIRE_AND_FORGET} are coalesced: only the newest value per Input is kept and sent once
+ * {@link #sendCoalescedValues()} is called. Acknowledged values are always sent.
  */
 // TODO: What should be done if a value gets sent but a negative response is received?
 public class ValueSender implements FutureListener<FutureNotifier<ModuleID>> {
 	private static final Logger LOGGER = LogManager.getLogger(ValueSender.class);
 
+	/**
+	 * Time in milliseconds to wait before searching again after the first failed search.
+	 */
+	public static final long INITIAL_QUERY_DELAY = 100;
+
+	/**
+	 * Maximum time in milliseconds to wait before searching again after a failed search.
+	 */
+	public static final long MAX_QUERY_DELAY = 10000;
+
 	private final ApplicationID applicationID;
 	private final FunctionBlockID targetBlockID;
 	private final ConnectionManager connectionManager;
+	private final ValueBatcher valueBatcher;
+	private final ScheduledExecutorService scheduler;
 
 	private final List<Reference<TargetedValue>> pendingValues = new LinkedList<Reference<TargetedValue>>();
 
+	/**
+	 * The newest value per Input that was held back because the connection was congested. Guarded by itself.
+	 */
+	private final Map<String, EncodedValue> coalescedValues = new LinkedHashMap<String, EncodedValue>();
+	private final AtomicLong droppedValues = new AtomicLong(0);
+
 	private ModuleID moduleID = null;
 	private boolean queriesPending = false;
 
 	/**
-	 * Used to synchronize access to {@link #pendingValues}, {@link #moduleID} and {@link #queriesPending}.
+	 * The time to wait after the next failed search.
+	 */
+	private long queryDelay = INITIAL_QUERY_DELAY;
+
+	/**
+	 * No search is started before this time (as returned by {@link System#currentTimeMillis()}).
+	 */
+	private long nextQueryTime = 0;
+
+	/**
+	 * Used to synchronize access to {@link #pendingValues}, {@link #moduleID}, {@link #queriesPending},
+	 * {@link #queryDelay} and {@link #nextQueryTime}.
 	 */
 	private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
@@ -63,9 +111,71 @@ public class ValueSender implements FutureListener<FutureNotifier<ModuleID>> {
 	 */
 	public ValueSender(final ApplicationID applicationID, final FunctionBlockID targetBlockID,
 			final ConnectionManager connectionManager) {
+		this(applicationID, targetBlockID, connectionManager, null, null);
+	}
+
+	/**
+	 * Initializes a new ValueSender.
+	 * 
+	 * @param applicationID
+	 *            the ID of the Application
+	 * @param targetBlockID
+	 *            the ID of the FunctionBlock this object should send values to
+	 * @param connectionManager
+	 *            the ConnectionManager that will be used to send messages
+	 * @param valueBatcher
+	 *            values are passed to this ValueBatcher instead of being sent directly. May be null to disable
+	 *            batching.
+	 * @param scheduler
+	 *            used to retry failed searches for the target FunctionBlock. If null, a failed search is only retried
+	 *            when the next value is sent.
+	 */
+	public ValueSender(final ApplicationID applicationID, final FunctionBlockID targetBlockID,
+			final ConnectionManager connectionManager, final ValueBatcher valueBatcher,
+			final ScheduledExecutorService scheduler) {
 		this.applicationID = applicationID;
 		this.targetBlockID = targetBlockID;
 		this.connectionManager = connectionManager;
+		this.valueBatcher = valueBatcher;
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Sets the ID of the Module the target FunctionBlock is running on. Any values waiting for the Module to be found
+	 * are sent.
+	 * 
+	 * @param moduleID
+	 *            the ID of the Module the target FunctionBlock is running on
+	 */
+	public void setModuleID(final ModuleID moduleID) {
+		LOGGER.entry(moduleID);
+		if (moduleID == null) {
+			throw new IllegalArgumentException("moduleID must not be null");
+		}
+		lock.writeLock().lock();
+		try {
+			this.moduleID = moduleID;
+			queryDelay = INITIAL_QUERY_DELAY;
+			nextQueryTime = 0;
+			sendPendingValues();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		LOGGER.exit();
+	}
+
+	/**
+	 * Returns the ID of the Module the target FunctionBlock is running on.
+	 * 
+	 * @return the ID of the Module the target FunctionBlock is running on or null if it is not known yet
+	 */
+	public ModuleID getModuleID() {
+		lock.readLock().lock();
+		try {
+			return moduleID;
+		} finally {
+			lock.readLock().unlock();
+		}
 	}
 
 	/**
@@ -78,7 +188,40 @@ public class ValueSender implements FutureListener<FutureNotifier<ModuleID>> {
 	 *            the value to send
 	 */
 	public void sendValue(final String targetInput, final Serializable value) {
-		LOGGER.entry(targetInput, value);
+		sendValue(targetInput, value, DeliveryMode.DEFAULT);
+	}
+
+	/**
+	 * Sends a value to the {@link FunctionBlock}. If the {@link Module} the FunctionBlock is on is unknown the value is
+	 * queued to be sent later.
+	 * 
+	 * @param targetInput
+	 *            the {@link Input} of the target FunctionBlock the value is for
+	 * @param value
+	 *            the value to send
+	 * @param deliveryMode
+	 *            the mode used to deliver the value. With {@link DeliveryMode#FIRE_AND_FORGET} no acknowledgement is
+	 *            requested and no Response is tracked.
+	 */
+	public void sendValue(final String targetInput, final Serializable value, final DeliveryMode deliveryMode) {
+		sendValue(targetInput, new EncodedValue(value), deliveryMode);
+	}
+
+	/**
+	 * Sends a value to the {@link FunctionBlock}. If the {@link Module} the FunctionBlock is on is unknown the value is
+	 * queued to be sent later. Used if the same value is sent to multiple FunctionBlocks so that it is only encoded
+	 * once.
+	 * 
+	 * @param targetInput
+	 *            the {@link Input} of the target FunctionBlock the value is for
+	 * @param value
+	 *            the value to send. Its encoding is reused if it has already been computed.
+	 * @param deliveryMode
+	 *            the mode used to deliver the value. With {@link DeliveryMode#FIRE_AND_FORGET} no acknowledgement is
+	 *            requested and no Response is tracked.
+	 */
+	public void sendValue(final String targetInput, final EncodedValue value, final DeliveryMode deliveryMode) {
+		LOGGER.entry(targetInput, deliveryMode);
 
 		ModuleID id = null;
 		lock.readLock().lock();
@@ -93,7 +236,8 @@ public class ValueSender implements FutureListener<FutureNotifier<ModuleID>> {
 			try {
 				if (moduleID == null) {
 					LOGGER.debug("no ModuleID, adding value to pendingValues, starting query");
-					pendingValues.add(new SoftReference<TargetedValue>(new TargetedValue(targetInput, value)));
+					pendingValues.add(new SoftReference<TargetedValue>(new TargetedValue(targetInput, value,
+							deliveryMode)));
 					queryID();
 					LOGGER.exit();
 					return;
@@ -106,12 +250,12 @@ public class ValueSender implements FutureListener<FutureNotifier<ModuleID>> {
 		}
 
 		// this part will only be reached if the ModuleID was not null in either one of the locked blocks above
-		sendValue(id, targetInput, value);
+		sendValue(id, targetInput, value, deliveryMode);
 		LOGGER.exit();
 	}
 
 	/**
-	 * Sends a {@link ValueMessage} to the given {@link Module}.
+	 * Sends a {@link ValueMessage} to the given {@link Module} or passes the value to the {@link ValueBatcher}.
 	 * 
 	 * @param moduleID
 	 *            the ID of the Module the message should be send to
@@ -119,27 +263,85 @@ public class ValueSender implements FutureListener<FutureNotifier<ModuleID>> {
 	 *            the name of the {@link Input} of the {@link FunctionBlock} the value is for
 	 * @param value
 	 *            the value to send
+	 * @param deliveryMode
+	 *            the mode used to deliver the value
 	 */
-	private void sendValue(final ModuleID moduleID, final String targetInput, final Serializable value) {
+	private void sendValue(final ModuleID moduleID, final String targetInput, final EncodedValue value,
+			final DeliveryMode deliveryMode) {
 		if (LOGGER.isTraceEnabled()) {
 			try {
-				LOGGER.trace("sending value {} to {}:{}", UsercodeWrapper.getToString(value), moduleID, targetInput);
+				LOGGER.trace("sending value {} to {}:{}", UsercodeWrapper.getToString(value.getValue()), moduleID,
+						targetInput);
 			} catch (UserSuppliedCodeException e) {
 				// ignore.
 			}
 		}
-		connectionManager.sendMessage(moduleID, new ValueMessage(applicationID, targetBlockID, targetInput, value));
+		if (deliveryMode == DeliveryMode.FIRE_AND_FORGET && connectionManager.isBackpressured(moduleID)) {
+			coalesce(targetInput, value);
+			// the congestion may have ended before the value was stored
+			if (!connectionManager.isBackpressured(moduleID)) {
+				sendCoalescedValues();
+			}
+		} else if (valueBatcher != null) {
+			valueBatcher.add(moduleID, targetBlockID, targetInput, value, deliveryMode);
+		} else if (deliveryMode == DeliveryMode.FIRE_AND_FORGET) {
+			connectionManager.sendMessageOneWay(moduleID, new ValueMessage(applicationID, targetBlockID, targetInput,
+					value, false));
+		} else {
+			connectionManager.sendMessage(moduleID, new ValueMessage(applicationID, targetBlockID, targetInput, value,
+					true));
+		}
+	}
+
+	private void coalesce(final String targetInput, final EncodedValue value) {
+		synchronized (coalescedValues) {
+			if (coalescedValues.put(targetInput, value) != null) {
+				droppedValues.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Sends the values that were held back while the connection to the target {@link Module} was congested. Should be
+	 * called once the connection is no longer congested.
+	 */
+	public void sendCoalescedValues() {
+		final ModuleID id = getModuleID();
+		if (id == null) {
+			return;
+		}
+		final Map<String, EncodedValue> values;
+		synchronized (coalescedValues) {
+			if (coalescedValues.isEmpty()) {
+				return;
+			}
+			values = new LinkedHashMap<String, EncodedValue>(coalescedValues);
+			coalescedValues.clear();
+		}
+		for (final Entry<String, EncodedValue> entry : values.entrySet()) {
+			sendValue(id, entry.getKey(), entry.getValue(), DeliveryMode.FIRE_AND_FORGET);
+		}
+	}
+
+	/**
+	 * Returns the number of values that were replaced by a newer value for the same Input while the connection was
+	 * congested and therefore never sent.
+	 * 
+	 * @return the number of dropped values
+	 */
+	public long getDroppedValueCount() {
+		return droppedValues.get();
 	}
 
 	/**
 	 * Sends queries to all connected {@link Module}s if the {@link ModuleID} for the Module that has the target
-	 * {@link FunctionBlock} is unknown and no queries are pending.
+	 * {@link FunctionBlock} is unknown, no queries are pending and the last failed search was long enough ago.
 	 */
 	private void queryID() {
 		LOGGER.entry();
 		lock.readLock().lock();
 		try {
-			if (moduleID != null || queriesPending) {
+			if (moduleID != null || queriesPending || System.currentTimeMillis() < nextQueryTime) {
 				LOGGER.exit();
 				return;
 			}
@@ -149,7 +351,7 @@ public class ValueSender implements FutureListener<FutureNotifier<ModuleID>> {
 
 		lock.writeLock().lock();
 		try {
-			if (moduleID != null || queriesPending) {
+			if (moduleID != null || queriesPending || System.currentTimeMillis() < nextQueryTime) {
 				LOGGER.exit();
 				return;
 			}
@@ -163,10 +365,14 @@ public class ValueSender implements FutureListener<FutureNotifier<ModuleID>> {
 		final Collection<ModuleID> modules = connectionManager.getConnectedModules();
 		final ModuleIDFutureNotifier futureNotifier = new ModuleIDFutureNotifier(modules.size());
 		futureNotifier.addListener(this);
-		final WhoHasBlockResponseListener blockFoundResponseListener = new WhoHasBlockResponseListener(futureNotifier);
-		for (final ModuleID id : modules) {
-			connectionManager.sendMessage(id, new WhoHasBlockMessage(applicationID, targetBlockID)).addListener(
-					blockFoundResponseListener);
+		if (!modules.isEmpty()) {
+			final WhoHasBlockResponseListener blockFoundResponseListener =
+					new WhoHasBlockResponseListener(futureNotifier);
+			final BroadcastFutureNotifier broadcast =
+					connectionManager.broadcast(modules, new WhoHasBlockMessage(applicationID, targetBlockID));
+			for (final FutureNotifier<Response> responseFuture : broadcast.getResponseFutures().values()) {
+				responseFuture.addListener(blockFoundResponseListener);
+			}
 		}
 
 		LOGGER.exit();
@@ -174,7 +380,7 @@ public class ValueSender implements FutureListener<FutureNotifier<ModuleID>> {
 
 	/**
 	 * This is called once the {@link ModuleIDFutureNotifier} finishes. Either sets {@link #moduleID} and sends all
-	 * pending values or retries finding the ModuleID.
+	 * pending values or schedules another search after the current backoff time.
 	 * 
 	 * @param future
 	 *            the FutureNotifier that finished
@@ -188,13 +394,55 @@ public class ValueSender implements FutureListener<FutureNotifier<ModuleID>> {
 				LOGGER.debug("found block {} on {}", targetBlockID, moduleID);
 				sendPendingValues();
 				queriesPending = false;
+				queryDelay = INITIAL_QUERY_DELAY;
+				nextQueryTime = 0;
 			} finally {
 				lock.writeLock().unlock();
 			}
 		} else {
-			LOGGER.info("did not find module for block {}, trying again", targetBlockID);
-			// TODO: add some time between queries
-			queryID();
+			long delay;
+			lock.writeLock().lock();
+			try {
+				queriesPending = false;
+				delay = queryDelay;
+				nextQueryTime = System.currentTimeMillis() + delay;
+				queryDelay = Math.min(queryDelay * 2, MAX_QUERY_DELAY);
+			} finally {
+				lock.writeLock().unlock();
+			}
+			LOGGER.info("did not find module for block {}, trying again in {}ms", targetBlockID, delay);
+			scheduleQuery(delay);
+		}
+	}
+
+	/**
+	 * Schedules a search for the target FunctionBlock that is run if there are still values waiting for it.
+	 * 
+	 * @param delay
+	 *            the time to wait in milliseconds
+	 */
+	private void scheduleQuery(final long delay) {
+		if (scheduler == null) {
+			return;
+		}
+		try {
+			scheduler.schedule(new Runnable() {
+				@Override
+				public void run() {
+					lock.writeLock().lock();
+					try {
+						if (pendingValues.isEmpty()) {
+							return;
+						}
+						nextQueryTime = 0;
+					} finally {
+						lock.writeLock().unlock();
+					}
+					queryID();
+				}
+			}, delay, TimeUnit.MILLISECONDS);
+		} catch (final RejectedExecutionException e) {
+			LOGGER.debug("could not schedule search for block {}", targetBlockID);
 		}
 	}
 
@@ -205,7 +453,7 @@ public class ValueSender implements FutureListener<FutureNotifier<ModuleID>> {
 		final Iterator<TargetedValue> iterator = new ReferenceIterator<TargetedValue>(pendingValues);
 		while (iterator.hasNext()) {
 			final TargetedValue value = iterator.next();
-			sendValue(moduleID, value.getInputName(), value.getValue());
+			sendValue(moduleID, value.getInputName(), value.getEncodedValue(), value.getDeliveryMode());
 		}
 		pendingValues.clear();
 	}
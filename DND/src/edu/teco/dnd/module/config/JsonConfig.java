@@ -4,11 +4,17 @@ import java.net.InetSocketAddress;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.UUID;
+import java.util.zip.Deflater;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import edu.teco.dnd.module.ModuleID;
+import edu.teco.dnd.network.tcp.ApplicationMessageScheduler;
+import edu.teco.dnd.network.tcp.ApplicationMessageScheduler.ShedPolicy;
+import edu.teco.dnd.network.tcp.BackpressureManager;
+import edu.teco.dnd.network.tcp.CompressionCodec;
+import edu.teco.dnd.server.NetworkTransport;
 import edu.teco.dnd.util.NetConnection;
 
 /**
@@ -20,6 +26,7 @@ public class JsonConfig implements ModuleConfig {
 
 	private static final int DEFAULT_MAX_APP_THREADS = 3;
 	private static final int DEFAULT_ANNOUNCE_INTERVAL = 5;
+	private static final int DEFAULT_VALUE_BATCH_SIZE = 1;
 
 	// values are initialized with their defaults; If they are missing from the configuration file these values are used
 	private String name;
@@ -27,6 +34,16 @@ public class JsonConfig implements ModuleConfig {
 	private UUID uuid;
 	private int maxAppthreads;
 	private int announceInterval;
+	private NetworkTransport transport;
+	private int eventLoopThreads;
+	private int valueBatchSize;
+	private long valueBatchLinger;
+	private int writeBufferHighWaterMark;
+	private int writeBufferLowWaterMark;
+	private int inboundQueueCapacity;
+	private ShedPolicy inboundShedPolicy;
+	private Integer compressionLevel;
+	private int compressionMinFrameSize;
 	private Collection<InetSocketAddress> listen;
 	private Collection<InetSocketAddress> announce;
 	private Collection<NetConnection> multicast;
@@ -57,6 +74,23 @@ public class JsonConfig implements ModuleConfig {
 		uuid = uuid == null ? UUID.randomUUID() : uuid;
 		maxAppthreads = maxAppthreads <= 0 ? DEFAULT_MAX_APP_THREADS : maxAppthreads;
 		announceInterval = announceInterval <= 0 ? DEFAULT_ANNOUNCE_INTERVAL : announceInterval;
+		transport = transport == null ? NetworkTransport.DEFAULT : transport;
+		eventLoopThreads = eventLoopThreads < 0 ? 0 : eventLoopThreads;
+		valueBatchSize = valueBatchSize <= 0 ? DEFAULT_VALUE_BATCH_SIZE : valueBatchSize;
+		valueBatchLinger = valueBatchLinger < 0 ? 0 : valueBatchLinger;
+		writeBufferHighWaterMark =
+				writeBufferHighWaterMark <= 0 ? BackpressureManager.DEFAULT_HIGH_WATER_MARK : writeBufferHighWaterMark;
+		writeBufferLowWaterMark =
+				writeBufferLowWaterMark <= 0 ? Math.min(BackpressureManager.DEFAULT_LOW_WATER_MARK,
+						writeBufferHighWaterMark) : Math.min(writeBufferLowWaterMark, writeBufferHighWaterMark);
+		inboundQueueCapacity =
+				inboundQueueCapacity <= 0 ? ApplicationMessageScheduler.DEFAULT_QUEUE_CAPACITY : inboundQueueCapacity;
+		inboundShedPolicy = inboundShedPolicy == null ? ShedPolicy.DROP_NEWEST : inboundShedPolicy;
+		compressionLevel =
+				compressionLevel == null ? CompressionCodec.DEFAULT_LEVEL : Math.max(0, Math.min(compressionLevel,
+						Deflater.BEST_COMPRESSION));
+		compressionMinFrameSize =
+				compressionMinFrameSize <= 0 ? CompressionCodec.DEFAULT_MIN_FRAME_SIZE : compressionMinFrameSize;
 		listen = listen == null ? Collections.<InetSocketAddress> emptyList() : listen;
 		announce = announce == null ? Collections.<InetSocketAddress> emptyList() : announce;
 		multicast = multicast == null ? Collections.<NetConnection> emptyList() : multicast;
@@ -132,4 +166,54 @@ public class JsonConfig implements ModuleConfig {
 	public int getAnnounceInterval() {
 		return announceInterval;
 	}
+
+	@Override
+	public NetworkTransport getTransport() {
+		return transport;
+	}
+
+	@Override
+	public int getEventLoopThreads() {
+		return eventLoopThreads;
+	}
+
+	@Override
+	public int getValueBatchSize() {
+		return valueBatchSize;
+	}
+
+	@Override
+	public long getValueBatchLinger() {
+		return valueBatchLinger;
+	}
+
+	@Override
+	public int getWriteBufferHighWaterMark() {
+		return writeBufferHighWaterMark;
+	}
+
+	@Override
+	public int getWriteBufferLowWaterMark() {
+		return writeBufferLowWaterMark;
+	}
+
+	@Override
+	public int getInboundQueueCapacity() {
+		return inboundQueueCapacity;
+	}
+
+	@Override
+	public ShedPolicy getInboundShedPolicy() {
+		return inboundShedPolicy;
+	}
+
+	@Override
+	public int getCompressionLevel() {
+		return compressionLevel;
+	}
+
+	@Override
+	public int getCompressionMinFrameSize() {
+		return compressionMinFrameSize;
+	}
 }
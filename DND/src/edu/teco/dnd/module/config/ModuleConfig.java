@@ -8,6 +8,8 @@ import edu.teco.dnd.module.Application;
 import edu.teco.dnd.module.Module;
 import edu.teco.dnd.module.ModuleID;
 import edu.teco.dnd.module.ModuleMain;
+import edu.teco.dnd.network.tcp.ApplicationMessageScheduler.ShedPolicy;
+import edu.teco.dnd.server.NetworkTransport;
 import edu.teco.dnd.util.NetConnection;
 
 /**
@@ -70,6 +72,83 @@ public interface ModuleConfig {
 	 */
 	public abstract int getAnnounceInterval();
 
+	/**
+	 * Returns the Netty transport the {@link Module} should use for its connections and multicast.
+	 * 
+	 * @return the transport the Module should use
+	 */
+	public abstract NetworkTransport getTransport();
+
+	/**
+	 * Returns the number of Threads used by each network event loop of the {@link Module}. 0 means that Netty's
+	 * default should be used. Ignored for {@link NetworkTransport#OIO}.
+	 * 
+	 * @return the number of Threads per network event loop
+	 */
+	public abstract int getEventLoopThreads();
+
+	/**
+	 * Returns the maximum number of values that are collected into a single batch before the batch is sent to the
+	 * destination {@link Module}. 1 disables batching.
+	 * 
+	 * @return the maximum number of values per batch
+	 */
+	public abstract int getValueBatchSize();
+
+	/**
+	 * Returns the maximum time in microseconds a value may wait for more values to the same {@link Module} before the
+	 * batch is sent. 0 disables batching. Higher values increase throughput at the cost of latency.
+	 * 
+	 * @return the maximum time a value may be delayed in microseconds
+	 */
+	public abstract long getValueBatchLinger();
+
+	/**
+	 * Returns the number of bytes waiting to be sent on a connection above which the connection is considered
+	 * congested. Values sent with {@link edu.teco.dnd.blocks.DeliveryMode#FIRE_AND_FORGET} to a congested
+	 * {@link Module} are coalesced.
+	 * 
+	 * @return the write buffer high water mark in bytes
+	 */
+	public abstract int getWriteBufferHighWaterMark();
+
+	/**
+	 * Returns the number of bytes waiting to be sent on a congested connection below which the connection is no longer
+	 * considered congested.
+	 * 
+	 * @return the write buffer low water mark in bytes
+	 */
+	public abstract int getWriteBufferLowWaterMark();
+
+	/**
+	 * Returns the number of received Messages that may wait to be handled per {@link Application}.
+	 * 
+	 * @return the number of Messages that may be queued per Application
+	 */
+	public abstract int getInboundQueueCapacity();
+
+	/**
+	 * Returns which Message is dropped if an {@link Application} receives a Message while its queue is full.
+	 * 
+	 * @return the policy used for full queues
+	 */
+	public abstract ShedPolicy getInboundShedPolicy();
+
+	/**
+	 * Returns the level used to compress frames sent to other Modules. Compression is only used if the other Module
+	 * supports it as well.
+	 * 
+	 * @return the compression level from 1 (fastest) to 9 (best compression), 0 if compression is disabled
+	 */
+	public abstract int getCompressionLevel();
+
+	/**
+	 * Returns the size below which frames are sent uncompressed.
+	 * 
+	 * @return the size of the smallest frame that is compressed in bytes
+	 */
+	public abstract int getCompressionMinFrameSize();
+
 	/**
 	 * Returns the maximum number of Threads that may be used by an {@link Application}.
 	 * 
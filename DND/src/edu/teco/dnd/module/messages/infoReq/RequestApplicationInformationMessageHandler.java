@@ -36,7 +36,8 @@ public class RequestApplicationInformationMessageHandler implements
 				blocks.add(new BlockInformation(block.getBlockID(), block.getBlockName(), block.getBlockType(),
 						moduleID));
 			}
-			applications.add(new ApplicationInformation(application.getApplicationID(), application.getName(), blocks));
+			applications.add(new ApplicationInformation(application.getApplicationID(), application.getName(), blocks,
+					application.getFusedConnections()));
 		}
 		return new ApplicationInformationResponse(moduleID, applications);
 	}
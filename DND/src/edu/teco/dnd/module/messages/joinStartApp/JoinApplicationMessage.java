@@ -1,6 +1,7 @@
 package edu.teco.dnd.module.messages.joinStartApp;
 
 import edu.teco.dnd.module.ApplicationID;
+import edu.teco.dnd.module.ExecutionMode;
 import edu.teco.dnd.network.messages.Message;
 
 /**
@@ -24,9 +25,19 @@ public class JoinApplicationMessage extends Message {
 	 */
 	public String name;
 
+	/**
+	 * how the application's blocks should be run. null if sent by an older version.
+	 */
+	public ExecutionMode executionMode;
+
 	public JoinApplicationMessage(String name, ApplicationID applicationID) {
+		this(name, applicationID, ExecutionMode.DEFAULT);
+	}
+
+	public JoinApplicationMessage(String name, ApplicationID applicationID, ExecutionMode executionMode) {
 		this.name = name;
 		this.applicationID = applicationID;
+		this.executionMode = executionMode;
 	}
 
 	@SuppressWarnings("unused")
@@ -34,6 +45,16 @@ public class JoinApplicationMessage extends Message {
 	private JoinApplicationMessage() {
 		name = null;
 		applicationID = null;
+		executionMode = null;
+	}
+
+	/**
+	 * Returns how the application's blocks should be run.
+	 * 
+	 * @return how the application's blocks should be run. {@link ExecutionMode#DEFAULT} if none was sent.
+	 */
+	public ExecutionMode getExecutionMode() {
+		return executionMode == null ? ExecutionMode.DEFAULT : executionMode;
 	}
 
 	/*
@@ -47,6 +68,7 @@ public class JoinApplicationMessage extends Message {
 		int result = super.hashCode();
 		result = prime * result + ((applicationID == null) ? 0 : applicationID.hashCode());
 		result = prime * result + ((name == null) ? 0 : name.hashCode());
+		result = prime * result + ((executionMode == null) ? 0 : executionMode.hashCode());
 		return result;
 	}
 
@@ -81,6 +103,9 @@ public class JoinApplicationMessage extends Message {
 		} else if (!name.equals(other.name)) {
 			return false;
 		}
+		if (executionMode != other.executionMode) {
+			return false;
+		}
 		return true;
 	}
 
@@ -91,8 +116,8 @@ public class JoinApplicationMessage extends Message {
 	 */
 	@Override
 	public String toString() {
-		return "JoinApplicationMessage [applicationID=" + applicationID + ", name=" + name + ", getUUID()=" + getUUID()
-				+ "]";
+		return "JoinApplicationMessage [applicationID=" + applicationID + ", name=" + name + ", executionMode="
+				+ executionMode + ", getUUID()=" + getUUID() + "]";
 	}
 
 }
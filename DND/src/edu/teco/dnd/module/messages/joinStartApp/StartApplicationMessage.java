@@ -1,6 +1,12 @@
 package edu.teco.dnd.module.messages.joinStartApp;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.teco.dnd.blocks.FunctionBlockID;
 import edu.teco.dnd.module.ApplicationID;
+import edu.teco.dnd.module.ModuleID;
 import edu.teco.dnd.network.messages.ApplicationSpecificMessage;
 
 /**
@@ -13,18 +19,49 @@ public class StartApplicationMessage extends ApplicationSpecificMessage {
 
 	public static final String MESSAGE_TYPE = "start application";
 
+	/**
+	 * The Module each FunctionBlock of the application is running on. Used by the Module to send values without having
+	 * to search for the target FunctionBlock first. May be null if sent by an older version.
+	 */
+	public final Map<FunctionBlockID, ModuleID> blockLocations;
+
 	/**
 	 * 
 	 * @param applicationID
 	 *            UUID of the application to start.
 	 */
 	public StartApplicationMessage(ApplicationID applicationID) {
+		this(applicationID, Collections.<FunctionBlockID, ModuleID> emptyMap());
+	}
+
+	/**
+	 * 
+	 * @param applicationID
+	 *            UUID of the application to start.
+	 * @param blockLocations
+	 *            the Module each FunctionBlock of the application is running on.
+	 */
+	public StartApplicationMessage(ApplicationID applicationID, Map<FunctionBlockID, ModuleID> blockLocations) {
 		super(applicationID);
+		this.blockLocations = new HashMap<FunctionBlockID, ModuleID>(blockLocations);
+	}
+
+	/**
+	 * Returns the Module each FunctionBlock of the application is running on.
+	 * 
+	 * @return the Module each FunctionBlock is running on. Empty if not sent.
+	 */
+	public Map<FunctionBlockID, ModuleID> getBlockLocations() {
+		if (blockLocations == null) {
+			return Collections.emptyMap();
+		}
+		return Collections.unmodifiableMap(blockLocations);
 	}
 
 	@Override
 	public String toString() {
-		return "StartApplicationMessage [getApplicationID()=" + getApplicationID() + ", getUUID()=" + getUUID() + "]";
+		return "StartApplicationMessage [blockLocations=" + blockLocations + ", getApplicationID()="
+				+ getApplicationID() + ", getUUID()=" + getUUID() + "]";
 	}
 
 }
@@ -29,7 +29,7 @@ public class StartApplicationMessageHandler implements MessageHandler<StartAppli
 	@Override
 	public Response handleMessage(ModuleID remoteID, StartApplicationMessage message) {
 		try {
-			module.startApp(message.getApplicationID());
+			module.startApp(message.getApplicationID(), message.getBlockLocations());
 		} catch (IllegalArgumentException e) {
 			return new StartApplicationNak(message.getApplicationID());
 		}
@@ -1,6 +1,7 @@
 package edu.teco.dnd.module.messages.loadStartBlock;
 
 import java.util.Arrays;
+import java.util.UUID;
 
 import edu.teco.dnd.module.ApplicationID;
 import edu.teco.dnd.network.messages.ApplicationSpecificMessage;
@@ -39,6 +40,23 @@ public class LoadClassMessage extends ApplicationSpecificMessage {
 		this.classByteCode = classByteCode;
 	}
 
+	/**
+	 * 
+	 * @param uuid
+	 *            the UUID of the Message
+	 * @param className
+	 *            Name of the class to be loaded.
+	 * @param classByteCode
+	 *            bytecode of said class
+	 * @param applicationID
+	 *            ID of the application the class is supposed to be loaded into.
+	 */
+	public LoadClassMessage(UUID uuid, String className, byte[] classByteCode, ApplicationID applicationID) {
+		super(uuid, applicationID);
+		this.className = className;
+		this.classByteCode = classByteCode;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
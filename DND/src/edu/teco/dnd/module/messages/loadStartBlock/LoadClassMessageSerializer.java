@@ -0,0 +1,33 @@
+package edu.teco.dnd.module.messages.loadStartBlock;
+
+import io.netty.buffer.ByteBuf;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import edu.teco.dnd.module.ApplicationID;
+import edu.teco.dnd.network.tcp.BinaryCodec;
+import edu.teco.dnd.network.tcp.BinaryMessageSerializer;
+
+/**
+ * Binary serializer for {@link LoadClassMessage}. The bytecode is written as is instead of as a Base64 String, large
+ * classes are split into chunks by {@link edu.teco.dnd.network.tcp.ChunkedFrameCodec}.
+ */
+public class LoadClassMessageSerializer implements BinaryMessageSerializer<LoadClassMessage> {
+	@Override
+	public void write(final LoadClassMessage message, final ByteBuf out) {
+		final ApplicationID applicationID = message.getApplicationID();
+		BinaryCodec.writeUUID(out, applicationID == null ? null : applicationID.getUUID());
+		BinaryCodec.writeString(out, message.className);
+		BinaryCodec.writeBytes(out, message.classByteCode);
+	}
+
+	@Override
+	public LoadClassMessage read(final UUID uuid, final ByteBuf in) throws IOException {
+		final UUID applicationUUID = BinaryCodec.readUUID(in);
+		final String className = BinaryCodec.readString(in);
+		final byte[] classByteCode = BinaryCodec.readBytes(in);
+		return new LoadClassMessage(uuid, className, classByteCode, applicationUUID == null ? null : new ApplicationID(
+				applicationUUID));
+	}
+}
@@ -0,0 +1,100 @@
+package edu.teco.dnd.module.messages.values;
+
+import io.netty.buffer.ByteBuf;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+import edu.teco.dnd.util.Base64;
+
+/**
+ * <p>
+ * A value together with its encoding as written by {@link ValueCodec}. The value is encoded the first time the bytes
+ * are needed and the result is kept, so a value that is sent to multiple {@link edu.teco.dnd.blocks.Input}s is only
+ * serialized once, regardless of how many Messages carry it.
+ * </p>
+ *
+ * <p>
+ * EncodedValue is thread-safe. If multiple Threads need the encoding at the same time the value may be encoded more
+ * than once, but all of them will see an equal result.
+ * </p>
+ */
+public class EncodedValue {
+	private final Serializable value;
+	private volatile byte[] bytes = null;
+	private volatile String base64 = null;
+
+	/**
+	 * Initializes a new EncodedValue. The value is not encoded until it is needed.
+	 *
+	 * @param value
+	 *            the value. May be null.
+	 */
+	public EncodedValue(final Serializable value) {
+		this.value = value;
+	}
+
+	/**
+	 * Returns the value.
+	 *
+	 * @return the value. May be null.
+	 */
+	public Serializable getValue() {
+		return value;
+	}
+
+	/**
+	 * Returns the encoded value. The returned array is shared and must not be modified.
+	 *
+	 * @return the value as encoded by {@link ValueCodec#encode(Serializable)}
+	 * @throws IOException
+	 *             if the value could not be serialized
+	 */
+	public byte[] getBytes() throws IOException {
+		byte[] result = bytes;
+		if (result == null) {
+			result = ValueCodec.encode(value);
+			bytes = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the value as Base64, as used by the JSON adapters. JSON is also used for Modules that do not know the
+	 * tagged encoding, so this uses {@link ValueCodec#serialize(Serializable)} instead of {@link #getBytes()}.
+	 *
+	 * @return the serialized value as Base64
+	 * @throws IOException
+	 *             if the value could not be serialized
+	 */
+	public String getBase64() throws IOException {
+		String result = base64;
+		if (result == null) {
+			result = Base64.encodeBytes(ValueCodec.serialize(value));
+			base64 = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Writes the encoded value into a buffer. If the value has not been encoded yet it is written directly into the
+	 * buffer and the written bytes are kept for later calls.
+	 *
+	 * @param out
+	 *            the buffer to write to
+	 * @throws IOException
+	 *             if the value could not be serialized
+	 */
+	public void write(final ByteBuf out) throws IOException {
+		final byte[] encoded = bytes;
+		if (encoded != null) {
+			out.writeBytes(encoded);
+			return;
+		}
+		final int start = out.writerIndex();
+		ValueCodec.write(out, value);
+		final byte[] written = new byte[out.writerIndex() - start];
+		out.getBytes(start, written);
+		bytes = written;
+	}
+}
@@ -1,5 +1,7 @@
 package edu.teco.dnd.module.messages.values;
 
+import java.util.UUID;
+
 import edu.teco.dnd.network.messages.Response;
 
 /**
@@ -12,6 +14,21 @@ public class ValueAck extends Response {
 
 	public static final String MESSAGE_TYPE = "value ack";
 
+	public ValueAck() {
+		super();
+	}
+
+	/**
+	 * 
+	 * @param sourceUUID
+	 *            UUID of the ValueMessage this is a response to
+	 * @param uuid
+	 *            UUID of this message
+	 */
+	public ValueAck(UUID sourceUUID, UUID uuid) {
+		super(sourceUUID, uuid);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -0,0 +1,23 @@
+package edu.teco.dnd.module.messages.values;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.UUID;
+
+import edu.teco.dnd.network.tcp.BinaryCodec;
+import edu.teco.dnd.network.tcp.BinaryMessageSerializer;
+
+/**
+ * Binary serializer for {@link ValueAck}.
+ */
+public class ValueAckSerializer implements BinaryMessageSerializer<ValueAck> {
+	@Override
+	public void write(final ValueAck message, final ByteBuf out) {
+		BinaryCodec.writeUUID(out, message.getSourceUUID());
+	}
+
+	@Override
+	public ValueAck read(final UUID uuid, final ByteBuf in) {
+		return new ValueAck(BinaryCodec.readUUID(in), uuid);
+	}
+}
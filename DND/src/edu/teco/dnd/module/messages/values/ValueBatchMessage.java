@@ -0,0 +1,222 @@
+package edu.teco.dnd.module.messages.values;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import edu.teco.dnd.blocks.FunctionBlockID;
+import edu.teco.dnd.module.ApplicationID;
+import edu.teco.dnd.module.UserSuppliedCodeException;
+import edu.teco.dnd.module.UsercodeWrapper;
+import edu.teco.dnd.network.messages.ApplicationSpecificMessage;
+import edu.teco.dnd.network.messages.ResponseOptionalMessage;
+
+/**
+ * Message containing multiple values for FunctionBlocks running on the same Module. The values are applied in order
+ * and answered with a single {@link ValueAck} (or a {@link ValueNak} for the first value that could not be delivered).
+ * 
+ * @see ValueMessage
+ */
+public class ValueBatchMessage extends ApplicationSpecificMessage implements ResponseOptionalMessage {
+	public static final String MESSAGE_TYPE = "value batch";
+
+	/**
+	 * The values in this batch, in the order they were sent.
+	 */
+	public final List<Value> values;
+	/**
+	 * Whether or not the sender wants a {@link ValueAck}. {@link ValueNak}s are sent regardless.
+	 */
+	private final boolean responseRequested;
+
+	/**
+	 * 
+	 * @param applicationID
+	 *            ID of the application this is part of
+	 * @param values
+	 *            the values in the order they should be applied
+	 * @param responseRequested
+	 *            whether or not a {@link ValueAck} should be sent
+	 */
+	public ValueBatchMessage(ApplicationID applicationID, Collection<Value> values, boolean responseRequested) {
+		super(applicationID);
+		this.values = Collections.unmodifiableList(new ArrayList<Value>(values));
+		this.responseRequested = responseRequested;
+	}
+
+	/**
+	 * 
+	 * @param uuid
+	 *            UUID of this message
+	 * @param applicationID
+	 *            ID of the application this is part of
+	 * @param values
+	 *            the values in the order they should be applied
+	 * @param responseRequested
+	 *            whether or not a {@link ValueAck} should be sent
+	 */
+	public ValueBatchMessage(UUID uuid, ApplicationID applicationID, Collection<Value> values,
+			boolean responseRequested) {
+		super(uuid, applicationID);
+		this.values = Collections.unmodifiableList(new ArrayList<Value>(values));
+		this.responseRequested = responseRequested;
+	}
+
+	@Override
+	public boolean isResponseRequested() {
+		return responseRequested;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = super.hashCode();
+		result = prime * result + values.hashCode();
+		result = prime * result + (responseRequested ? 1231 : 1237);
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!super.equals(obj)) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		ValueBatchMessage other = (ValueBatchMessage) obj;
+		if (responseRequested != other.responseRequested) {
+			return false;
+		}
+		return values.equals(other.values);
+	}
+
+	@Override
+	public String toString() {
+		return "ValueBatchMessage [values=" + values + ", responseRequested=" + responseRequested
+				+ ", getApplicationID()=" + getApplicationID() + ", getUUID()=" + getUUID() + "]";
+	}
+
+	/**
+	 * A single value inside a ValueBatchMessage.
+	 */
+	public static class Value {
+		/**
+		 * ID of the block this is to be send to.
+		 */
+		public final FunctionBlockID blockID;
+		/**
+		 * Name of the input this is to be send to.
+		 */
+		public final String input;
+		/**
+		 * The actual value.
+		 */
+		public final Serializable value;
+		/**
+		 * The value together with its encoding. Shared between all Messages that carry the same value.
+		 */
+		private final EncodedValue encodedValue;
+
+		/**
+		 * 
+		 * @param blockID
+		 *            ID of the block this is to be send to.
+		 * @param input
+		 *            Name of the input this is to be send to.
+		 * @param value
+		 *            The actual value.
+		 */
+		public Value(FunctionBlockID blockID, String input, Serializable value) {
+			this(blockID, input, new EncodedValue(value));
+		}
+
+		/**
+		 * 
+		 * @param blockID
+		 *            ID of the block this is to be send to.
+		 * @param input
+		 *            Name of the input this is to be send to.
+		 * @param encodedValue
+		 *            The actual value. The encoding is reused if it has already been computed.
+		 */
+		public Value(FunctionBlockID blockID, String input, EncodedValue encodedValue) {
+			this.blockID = blockID;
+			this.input = input;
+			this.value = encodedValue.getValue();
+			this.encodedValue = encodedValue;
+		}
+
+		/**
+		 * Returns the value together with its encoding.
+		 * 
+		 * @return the value together with its encoding
+		 */
+		public EncodedValue getEncodedValue() {
+			return encodedValue;
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + ((blockID == null) ? 0 : blockID.hashCode());
+			result = prime * result + ((input == null) ? 0 : input.hashCode());
+			try {
+				result = prime * result + ((value == null) ? 0 : UsercodeWrapper.getHashCode(value));
+			} catch (UserSuppliedCodeException e) {
+				result = prime * result + 0;
+			}
+			return result;
+		}
+
+		/**
+		 * ATTENTION: may falsely return false, because the Serializable value does not guarantee comparability!
+		 * 
+		 * @param obj
+		 *            the usual.
+		 * @return the usual.
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null || getClass() != obj.getClass()) {
+				return false;
+			}
+			Value other = (Value) obj;
+			if (blockID == null ? other.blockID != null : !blockID.equals(other.blockID)) {
+				return false;
+			}
+			if (input == null ? other.input != null : !input.equals(other.input)) {
+				return false;
+			}
+			if (value == null) {
+				return other.value == null;
+			}
+			try {
+				return UsercodeWrapper.getEquals(value, other.value);
+			} catch (UserSuppliedCodeException e) {
+				return false;
+			}
+		}
+
+		@Override
+		public String toString() {
+			String valueString;
+			try {
+				valueString = UsercodeWrapper.getToString(value);
+			} catch (UserSuppliedCodeException e) {
+				valueString = "ERROR";
+			}
+			return "Value [blockID=" + blockID + ", input=" + input + ", value=" + valueString + "]";
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package edu.teco.dnd.module.messages.values;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+
+import edu.teco.dnd.blocks.FunctionBlockID;
+import edu.teco.dnd.module.ApplicationID;
+import edu.teco.dnd.module.Module;
+import edu.teco.dnd.util.Base64;
+
+/**
+ * Adapter for {@link ValueBatchMessage}. The values are written as an array, each value is encoded the same way as in
+ * {@link ValueMessageAdapter}.
+ */
+public class ValueBatchMessageAdapter implements JsonDeserializer<ValueBatchMessage>,
+		JsonSerializer<ValueBatchMessage> {
+	private static final Logger LOGGER = LogManager.getLogger(ValueBatchMessageAdapter.class);
+
+	private final ValueCodec valueCodec;
+
+	/**
+	 * Initializes a new ValueBatchMessageAdapter.
+	 * 
+	 * @param module
+	 *            this module is used to get the Application's ClassLoaders (based on the Application ID in the received
+	 *            message). If null or if the Application is missing only the default ClassLoader will be used.
+	 */
+	public ValueBatchMessageAdapter(final Module module) {
+		this.valueCodec = new ValueCodec(module);
+	}
+
+	@Override
+	public JsonElement serialize(final ValueBatchMessage src, final Type typeOfSrc,
+			final JsonSerializationContext context) {
+		LOGGER.entry(src, typeOfSrc, context);
+		final JsonArray values = new JsonArray();
+		for (final ValueBatchMessage.Value value : src.values) {
+			String encodedValue = null;
+			try {
+				encodedValue = value.getEncodedValue().getBase64();
+			} catch (final IOException e) {
+				throw new JsonParseException("Failed to encode value as Base64", e);
+			}
+
+			final JsonObject valueObject = new JsonObject();
+			valueObject.add("blockID", context.serialize(value.blockID == null ? null : value.blockID.getUUID()));
+			valueObject.add("input", context.serialize(value.input));
+			valueObject.add("value", new JsonPrimitive(encodedValue));
+			values.add(valueObject);
+		}
+
+		final JsonObject jsonObject = new JsonObject();
+		jsonObject.add("uuid", context.serialize(src.getUUID()));
+		jsonObject.add("appId", context.serialize(src.getApplicationID()));
+		jsonObject.add("values", values);
+		jsonObject.add("responseRequested", new JsonPrimitive(src.isResponseRequested()));
+
+		return LOGGER.exit(jsonObject);
+	}
+
+	@Override
+	public ValueBatchMessage deserialize(final JsonElement json, final Type typeOfT,
+			final JsonDeserializationContext context) throws JsonParseException {
+		LOGGER.entry(json, typeOfT, context);
+		if (!json.isJsonObject()) {
+			throw LOGGER.throwing(new JsonParseException("not a JSON object"));
+		}
+		final JsonObject jsonObject = json.getAsJsonObject();
+
+		final ApplicationID applicationID = context.deserialize(jsonObject.get("appId"), ApplicationID.class);
+		final UUID uuid = context.deserialize(jsonObject.get("uuid"), UUID.class);
+		final JsonElement responseRequestedElement = jsonObject.get("responseRequested");
+		final boolean responseRequested =
+				responseRequestedElement == null || responseRequestedElement.isJsonNull()
+						|| responseRequestedElement.getAsBoolean();
+
+		final JsonElement valuesElement = jsonObject.get("values");
+		if (valuesElement == null || !valuesElement.isJsonArray()) {
+			throw LOGGER.throwing(new JsonParseException("values missing"));
+		}
+		final List<ValueBatchMessage.Value> values = new ArrayList<ValueBatchMessage.Value>();
+		for (final JsonElement valueElement : valuesElement.getAsJsonArray()) {
+			if (!valueElement.isJsonObject()) {
+				throw LOGGER.throwing(new JsonParseException("value is not a JSON object"));
+			}
+			final JsonObject valueObject = valueElement.getAsJsonObject();
+			final UUID blockUUID = context.deserialize(valueObject.get("blockID"), UUID.class);
+			final String input = context.deserialize(valueObject.get("input"), String.class);
+			Serializable value = null;
+			try {
+				value =
+						valueCodec.decode(Base64.decode(valueObject.get("value").getAsString(), Base64.DONT_GUNZIP),
+								applicationID);
+			} catch (final IOException e) {
+				throw LOGGER.throwing(new JsonParseException("error parsing Base64 value", e));
+			}
+			values.add(new ValueBatchMessage.Value(blockUUID == null ? null : new FunctionBlockID(blockUUID), input,
+					value));
+		}
+
+		if (uuid == null) {
+			return LOGGER.exit(new ValueBatchMessage(applicationID, values, responseRequested));
+		}
+		return LOGGER.exit(new ValueBatchMessage(uuid, applicationID, values, responseRequested));
+	}
+}
@@ -0,0 +1,67 @@
+package edu.teco.dnd.module.messages.values;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import edu.teco.dnd.blocks.InputDescription;
+import edu.teco.dnd.module.Application;
+import edu.teco.dnd.module.ModuleID;
+import edu.teco.dnd.module.NonExistentFunctionblockException;
+import edu.teco.dnd.module.NonExistentInputException;
+import edu.teco.dnd.network.MessageHandler;
+import edu.teco.dnd.network.messages.Response;
+
+/**
+ * Passes all values of a {@link ValueBatchMessage} to the Application in order. The whole batch is answered with a
+ * single Response: a {@link ValueNak} for the first value that could not be delivered or a {@link ValueAck} if all
+ * values were delivered and the sender {@link ValueBatchMessage#isResponseRequested() requested it}.
+ */
+public class ValueBatchMessageHandler implements MessageHandler<ValueBatchMessage> {
+	private static final Logger LOGGER = LogManager.getLogger(ValueBatchMessageHandler.class);
+
+	/**
+	 * The application the FunctionBlocks to retrieve the values are running on.
+	 */
+	private final Application associatedApp;
+
+	/**
+	 * 
+	 * @param associatedApp
+	 *            The application the FunctionBlocks to retrieve the values are running on.
+	 */
+	public ValueBatchMessageHandler(Application associatedApp) {
+		this.associatedApp = associatedApp;
+	}
+
+	@Override
+	public Response handleMessage(ModuleID remoteID, ValueBatchMessage message) {
+		Response returnMsg = null;
+		int failed = 0;
+		for (final ValueBatchMessage.Value value : message.values) {
+			ValueNak nak = null;
+			try {
+				associatedApp.receiveValue(new InputDescription(value.blockID, value.input), value.value);
+			} catch (NonExistentFunctionblockException e) {
+				nak = new ValueNak(ValueNak.ErrorType.WRONG_MODULE, value.blockID, value.input);
+			} catch (NonExistentInputException e) {
+				nak = new ValueNak(ValueNak.ErrorType.INVALID_INPUT, value.blockID, value.input);
+			} catch (Exception e) {
+				nak = new ValueNak(ValueNak.ErrorType.OTHER, value.blockID, value.input);
+			}
+			if (nak != null) {
+				failed++;
+				if (returnMsg == null) {
+					returnMsg = nak;
+				}
+			}
+		}
+
+		if (failed > 0) {
+			LOGGER.debug("{} of {} values from {} could not be delivered", failed, message.values.size(), remoteID);
+		}
+		if (returnMsg == null && message.isResponseRequested()) {
+			returnMsg = new ValueAck();
+		}
+		return returnMsg;
+	}
+}
@@ -0,0 +1,122 @@
+package edu.teco.dnd.module.messages.values;
+
+import io.netty.buffer.ByteBuf;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import edu.teco.dnd.blocks.FunctionBlockID;
+import edu.teco.dnd.module.ApplicationID;
+import edu.teco.dnd.module.Module;
+import edu.teco.dnd.network.tcp.BinaryCodec;
+import edu.teco.dnd.network.tcp.StatefulBinaryMessageSerializer;
+
+/**
+ * Binary serializer for {@link ValueBatchMessage}. Writes the Application ID and the flags once, followed by the number
+ * of values and each value in the same layout used by {@link ValueMessageSerializer}, including the use of a
+ * {@link ValueEncodingState} on connections that support it.
+ */
+public class ValueBatchMessageSerializer implements
+		StatefulBinaryMessageSerializer<ValueBatchMessage, ValueEncodingState> {
+	private final ValueCodec valueCodec;
+
+	/**
+	 * Initializes a new ValueBatchMessageSerializer.
+	 * 
+	 * @param module
+	 *            this module is used to get the Application's ClassLoaders (based on the Application ID in the received
+	 *            message). If null or if the Application is missing only the default ClassLoader will be used.
+	 */
+	public ValueBatchMessageSerializer(final Module module) {
+		this.valueCodec = new ValueCodec(module);
+	}
+
+	@Override
+	public void write(final ValueBatchMessage message, final ByteBuf out) throws IOException {
+		final ApplicationID applicationID = message.getApplicationID();
+		BinaryCodec.writeUUID(out, applicationID == null ? null : applicationID.getUUID());
+		out.writeBoolean(message.isResponseRequested());
+		out.writeInt(message.values.size());
+		for (final ValueBatchMessage.Value value : message.values) {
+			BinaryCodec.writeUUID(out, value.blockID == null ? null : value.blockID.getUUID());
+			BinaryCodec.writeString(out, value.input);
+
+			final int lengthIndex = out.writerIndex();
+			out.writeInt(0);
+			value.getEncodedValue().write(out);
+			out.setInt(lengthIndex, out.writerIndex() - lengthIndex - 4);
+		}
+	}
+
+	@Override
+	public ValueBatchMessage read(final UUID uuid, final ByteBuf in) throws IOException {
+		final UUID applicationUUID = BinaryCodec.readUUID(in);
+		final ApplicationID applicationID = applicationUUID == null ? null : new ApplicationID(applicationUUID);
+		final boolean responseRequested = in.readBoolean();
+		final int count = in.readInt();
+		if (count < 0 || count > in.readableBytes()) {
+			throw new IOException("invalid value count " + count);
+		}
+
+		final List<ValueBatchMessage.Value> values = new ArrayList<ValueBatchMessage.Value>(count);
+		for (int i = 0; i < count; i++) {
+			final UUID blockUUID = BinaryCodec.readUUID(in);
+			final String input = BinaryCodec.readString(in);
+			final int length = in.readInt();
+			if (length <= 0 || length > in.readableBytes()) {
+				throw new IOException("invalid value length " + length);
+			}
+			final Serializable value = valueCodec.read(in.readSlice(length), applicationID);
+			values.add(new ValueBatchMessage.Value(blockUUID == null ? null : new FunctionBlockID(blockUUID), input,
+					value));
+		}
+
+		return new ValueBatchMessage(uuid, applicationID, values, responseRequested);
+	}
+
+	@Override
+	public ValueEncodingState createState() {
+		return new ValueEncodingState();
+	}
+
+	@Override
+	public void write(final ValueBatchMessage message, final ByteBuf out, final ValueEncodingState state)
+			throws IOException {
+		final ApplicationID applicationID = message.getApplicationID();
+		state.writeUUID(out, applicationID == null ? null : applicationID.getUUID());
+		out.writeBoolean(message.isResponseRequested());
+		out.writeInt(message.values.size());
+		for (final ValueBatchMessage.Value value : message.values) {
+			final UUID blockUUID = value.blockID == null ? null : value.blockID.getUUID();
+			state.writeUUID(out, blockUUID);
+			state.writeString(out, value.input);
+			state.writeValue(out, blockUUID, value.input, value.getEncodedValue());
+		}
+	}
+
+	@Override
+	public ValueBatchMessage read(final UUID uuid, final ByteBuf in, final ValueEncodingState state)
+			throws IOException {
+		final UUID applicationUUID = state.readUUID(in);
+		final ApplicationID applicationID = applicationUUID == null ? null : new ApplicationID(applicationUUID);
+		final boolean responseRequested = in.readBoolean();
+		final int count = in.readInt();
+		if (count < 0 || count > in.readableBytes()) {
+			throw new IOException("invalid value count " + count);
+		}
+
+		final List<ValueBatchMessage.Value> values = new ArrayList<ValueBatchMessage.Value>(count);
+		for (int i = 0; i < count; i++) {
+			final UUID blockUUID = state.readUUID(in);
+			final String input = state.readString(in);
+			final Serializable value = state.readValue(in, blockUUID, input, valueCodec, applicationID);
+			values.add(new ValueBatchMessage.Value(blockUUID == null ? null : new FunctionBlockID(blockUUID), input,
+					value));
+		}
+
+		return new ValueBatchMessage(uuid, applicationID, values, responseRequested);
+	}
+}
@@ -0,0 +1,452 @@
+package edu.teco.dnd.module.messages.values;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.Unpooled;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamConstants;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import edu.teco.dnd.module.Application;
+import edu.teco.dnd.module.ApplicationID;
+import edu.teco.dnd.module.Module;
+
+/**
+ * <p>
+ * Encodes the values of {@link ValueMessage}s. The JDK types that blocks normally send (boxed primitives, String,
+ * byte[] and arrays of primitives) are written as a one byte tag followed by their raw data. All other values are
+ * written using Java serialization.
+ * </p>
+ *
+ * <p>
+ * Java serialization streams always start with the byte {@link #TAG_SERIALIZED} (the first byte of
+ * {@link ObjectStreamConstants#STREAM_MAGIC}), which is used as the tag for serialized values. This way a plain Java
+ * serialization stream, as sent by older Modules, is also a valid encoding. Older Modules can not decode the tagged
+ * values though, so the JSON adapters use {@link #serialize(Serializable)} and only {@link ValueMessageSerializer}s,
+ * which are only used for Modules that announced binary support, use the tagged encoding.
+ * </p>
+ *
+ * <p>
+ * Decoding a tagged value does not need the {@link Application}'s ClassLoader; it is only looked up for serialized
+ * values.
+ * </p>
+ */
+public class ValueCodec {
+	private static final Logger LOGGER = LogManager.getLogger(ValueCodec.class);
+
+	public static final byte TAG_NULL = 0;
+	public static final byte TAG_FALSE = 1;
+	public static final byte TAG_TRUE = 2;
+	public static final byte TAG_BYTE = 3;
+	public static final byte TAG_SHORT = 4;
+	public static final byte TAG_CHARACTER = 5;
+	public static final byte TAG_INTEGER = 6;
+	public static final byte TAG_LONG = 7;
+	public static final byte TAG_FLOAT = 8;
+	public static final byte TAG_DOUBLE = 9;
+	public static final byte TAG_STRING = 10;
+	public static final byte TAG_BYTE_ARRAY = 11;
+	public static final byte TAG_BOOLEAN_ARRAY = 12;
+	public static final byte TAG_SHORT_ARRAY = 13;
+	public static final byte TAG_CHAR_ARRAY = 14;
+	public static final byte TAG_INT_ARRAY = 15;
+	public static final byte TAG_LONG_ARRAY = 16;
+	public static final byte TAG_FLOAT_ARRAY = 17;
+	public static final byte TAG_DOUBLE_ARRAY = 18;
+	public static final byte TAG_SERIALIZED = (byte) (ObjectStreamConstants.STREAM_MAGIC >>> 8);
+
+	private static final Charset CHARSET = Charset.forName("UTF-8");
+
+	private final Module module;
+
+	/**
+	 * Initializes a new ValueCodec.
+	 *
+	 * @param module
+	 *            this module is used to get the Application's ClassLoaders for serialized values. If null or if the
+	 *            Application is missing only the default ClassLoader will be used.
+	 */
+	public ValueCodec(final Module module) {
+		this.module = module;
+	}
+
+	/**
+	 * Writes a value.
+	 *
+	 * @param out
+	 *            the buffer to write to
+	 * @param value
+	 *            the value to write. May be null.
+	 * @throws IOException
+	 *             if the value could not be serialized
+	 */
+	public static void write(final ByteBuf out, final Serializable value) throws IOException {
+		if (value == null) {
+			out.writeByte(TAG_NULL);
+		} else if (value instanceof Integer) {
+			writeInt(out, (Integer) value);
+		} else if (value instanceof Boolean) {
+			writeBoolean(out, (Boolean) value);
+		} else if (value instanceof Double) {
+			writeDouble(out, (Double) value);
+		} else if (value instanceof Long) {
+			writeLong(out, (Long) value);
+		} else if (value instanceof String) {
+			out.writeByte(TAG_STRING);
+			writeByteArray(out, ((String) value).getBytes(CHARSET));
+		} else if (value instanceof Float) {
+			out.writeByte(TAG_FLOAT);
+			out.writeFloat((Float) value);
+		} else if (value instanceof Short) {
+			out.writeByte(TAG_SHORT);
+			out.writeShort((Short) value);
+		} else if (value instanceof Byte) {
+			out.writeByte(TAG_BYTE);
+			out.writeByte((Byte) value);
+		} else if (value instanceof Character) {
+			out.writeByte(TAG_CHARACTER);
+			out.writeChar((Character) value);
+		} else if (value instanceof byte[]) {
+			out.writeByte(TAG_BYTE_ARRAY);
+			writeByteArray(out, (byte[]) value);
+		} else if (value instanceof int[]) {
+			final int[] array = (int[]) value;
+			out.writeByte(TAG_INT_ARRAY);
+			out.writeInt(array.length);
+			for (final int element : array) {
+				out.writeInt(element);
+			}
+		} else if (value instanceof double[]) {
+			final double[] array = (double[]) value;
+			out.writeByte(TAG_DOUBLE_ARRAY);
+			out.writeInt(array.length);
+			for (final double element : array) {
+				out.writeDouble(element);
+			}
+		} else if (value instanceof long[]) {
+			final long[] array = (long[]) value;
+			out.writeByte(TAG_LONG_ARRAY);
+			out.writeInt(array.length);
+			for (final long element : array) {
+				out.writeLong(element);
+			}
+		} else if (value instanceof float[]) {
+			final float[] array = (float[]) value;
+			out.writeByte(TAG_FLOAT_ARRAY);
+			out.writeInt(array.length);
+			for (final float element : array) {
+				out.writeFloat(element);
+			}
+		} else if (value instanceof short[]) {
+			final short[] array = (short[]) value;
+			out.writeByte(TAG_SHORT_ARRAY);
+			out.writeInt(array.length);
+			for (final short element : array) {
+				out.writeShort(element);
+			}
+		} else if (value instanceof char[]) {
+			final char[] array = (char[]) value;
+			out.writeByte(TAG_CHAR_ARRAY);
+			out.writeInt(array.length);
+			for (final char element : array) {
+				out.writeChar(element);
+			}
+		} else if (value instanceof boolean[]) {
+			final boolean[] array = (boolean[]) value;
+			out.writeByte(TAG_BOOLEAN_ARRAY);
+			out.writeInt(array.length);
+			for (final boolean element : array) {
+				out.writeBoolean(element);
+			}
+		} else {
+			// the stream magic written by ObjectOutputStream doubles as the tag
+			final ObjectOutputStream objectOutputStream = new ObjectOutputStream(new ByteBufOutputStream(out));
+			objectOutputStream.writeObject(value);
+			objectOutputStream.close();
+		}
+	}
+
+	/**
+	 * Writes an <code>int</code> value without boxing it. The result is the same as for
+	 * {@link #write(ByteBuf, Serializable)} with an Integer.
+	 *
+	 * @param out
+	 *            the buffer to write to
+	 * @param value
+	 *            the value to write
+	 */
+	public static void writeInt(final ByteBuf out, final int value) {
+		out.writeByte(TAG_INTEGER);
+		out.writeInt(value);
+	}
+
+	/**
+	 * Writes a <code>long</code> value without boxing it. The result is the same as for
+	 * {@link #write(ByteBuf, Serializable)} with a Long.
+	 *
+	 * @param out
+	 *            the buffer to write to
+	 * @param value
+	 *            the value to write
+	 */
+	public static void writeLong(final ByteBuf out, final long value) {
+		out.writeByte(TAG_LONG);
+		out.writeLong(value);
+	}
+
+	/**
+	 * Writes a <code>double</code> value without boxing it. The result is the same as for
+	 * {@link #write(ByteBuf, Serializable)} with a Double.
+	 *
+	 * @param out
+	 *            the buffer to write to
+	 * @param value
+	 *            the value to write
+	 */
+	public static void writeDouble(final ByteBuf out, final double value) {
+		out.writeByte(TAG_DOUBLE);
+		out.writeDouble(value);
+	}
+
+	/**
+	 * Writes a <code>boolean</code> value without boxing it. The result is the same as for
+	 * {@link #write(ByteBuf, Serializable)} with a Boolean.
+	 *
+	 * @param out
+	 *            the buffer to write to
+	 * @param value
+	 *            the value to write
+	 */
+	public static void writeBoolean(final ByteBuf out, final boolean value) {
+		out.writeByte(value ? TAG_TRUE : TAG_FALSE);
+	}
+
+	/**
+	 * Encodes a value into a byte array.
+	 *
+	 * @param value
+	 *            the value to encode. May be null.
+	 * @return the encoded value
+	 * @throws IOException
+	 *             if the value could not be serialized
+	 * @see #write(ByteBuf, Serializable)
+	 */
+	public static byte[] encode(final Serializable value) throws IOException {
+		final ByteBuf buf = Unpooled.buffer();
+		write(buf, value);
+		final byte[] bytes = new byte[buf.readableBytes()];
+		buf.readBytes(bytes);
+		return bytes;
+	}
+
+	/**
+	 * Serializes a value using only Java serialization, so that Modules that do not know the tagged encoding can read
+	 * it. The result can also be read by {@link #read(ByteBuf, ApplicationID)}.
+	 *
+	 * @param value
+	 *            the value to serialize. May be null.
+	 * @return the serialized value
+	 * @throws IOException
+	 *             if the value could not be serialized
+	 */
+	public static byte[] serialize(final Serializable value) throws IOException {
+		final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		final ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream);
+		objectOutputStream.writeObject(value);
+		objectOutputStream.close();
+		return byteArrayOutputStream.toByteArray();
+	}
+
+	/**
+	 * Reads a value. Serialized values consume the rest of the buffer, so the buffer must only contain the value.
+	 *
+	 * @param in
+	 *            the buffer to read from
+	 * @param applicationID
+	 *            the ID of the Application the value belongs to. Used to get the ClassLoader for serialized values.
+	 * @return the value that was read
+	 * @throws IOException
+	 *             if the value could not be read
+	 */
+	public Serializable read(final ByteBuf in, final ApplicationID applicationID) throws IOException {
+		final byte tag = in.getByte(in.readerIndex());
+		if (tag == TAG_SERIALIZED) {
+			return readSerialized(in, applicationID);
+		}
+		in.skipBytes(1);
+
+		switch (tag) {
+		case TAG_NULL:
+			return null;
+		case TAG_FALSE:
+			return Boolean.FALSE;
+		case TAG_TRUE:
+			return Boolean.TRUE;
+		case TAG_BYTE:
+			return in.readByte();
+		case TAG_SHORT:
+			return in.readShort();
+		case TAG_CHARACTER:
+			return in.readChar();
+		case TAG_INTEGER:
+			return in.readInt();
+		case TAG_LONG:
+			return in.readLong();
+		case TAG_FLOAT:
+			return in.readFloat();
+		case TAG_DOUBLE:
+			return in.readDouble();
+		case TAG_STRING:
+			return new String(readByteArray(in), CHARSET);
+		case TAG_BYTE_ARRAY:
+			return readByteArray(in);
+		case TAG_BOOLEAN_ARRAY: {
+			final boolean[] array = new boolean[readLength(in, 1)];
+			for (int i = 0; i < array.length; i++) {
+				array[i] = in.readBoolean();
+			}
+			return array;
+		}
+		case TAG_SHORT_ARRAY: {
+			final short[] array = new short[readLength(in, 2)];
+			for (int i = 0; i < array.length; i++) {
+				array[i] = in.readShort();
+			}
+			return array;
+		}
+		case TAG_CHAR_ARRAY: {
+			final char[] array = new char[readLength(in, 2)];
+			for (int i = 0; i < array.length; i++) {
+				array[i] = in.readChar();
+			}
+			return array;
+		}
+		case TAG_INT_ARRAY: {
+			final int[] array = new int[readLength(in, 4)];
+			for (int i = 0; i < array.length; i++) {
+				array[i] = in.readInt();
+			}
+			return array;
+		}
+		case TAG_LONG_ARRAY: {
+			final long[] array = new long[readLength(in, 8)];
+			for (int i = 0; i < array.length; i++) {
+				array[i] = in.readLong();
+			}
+			return array;
+		}
+		case TAG_FLOAT_ARRAY: {
+			final float[] array = new float[readLength(in, 4)];
+			for (int i = 0; i < array.length; i++) {
+				array[i] = in.readFloat();
+			}
+			return array;
+		}
+		case TAG_DOUBLE_ARRAY: {
+			final double[] array = new double[readLength(in, 8)];
+			for (int i = 0; i < array.length; i++) {
+				array[i] = in.readDouble();
+			}
+			return array;
+		}
+		default:
+			throw new IOException("unknown value tag " + tag);
+		}
+	}
+
+	/**
+	 * Decodes a value from a byte array.
+	 *
+	 * @param bytes
+	 *            the encoded value
+	 * @param applicationID
+	 *            the ID of the Application the value belongs to
+	 * @return the decoded value
+	 * @throws IOException
+	 *             if the value could not be read
+	 * @see #read(ByteBuf, ApplicationID)
+	 */
+	public Serializable decode(final byte[] bytes, final ApplicationID applicationID) throws IOException {
+		return read(Unpooled.wrappedBuffer(bytes), applicationID);
+	}
+
+	private Serializable readSerialized(final ByteBuf in, final ApplicationID applicationID) throws IOException {
+		final ObjectInputStream objectInputStream =
+				new ClassLoaderObjectInputStream(new ByteBufInputStream(in),
+						getClassLoaderForApplication(applicationID));
+		try {
+			return (Serializable) objectInputStream.readObject();
+		} catch (final ClassNotFoundException e) {
+			throw new IOException("could not find class of value", e);
+		} finally {
+			objectInputStream.close();
+		}
+	}
+
+	private static void writeByteArray(final ByteBuf out, final byte[] bytes) {
+		out.writeInt(bytes.length);
+		out.writeBytes(bytes);
+	}
+
+	private static byte[] readByteArray(final ByteBuf in) throws IOException {
+		final byte[] bytes = new byte[readLength(in, 1)];
+		in.readBytes(bytes);
+		return bytes;
+	}
+
+	private static int readLength(final ByteBuf in, final int elementSize) throws IOException {
+		final int length = in.readInt();
+		if (length < 0 || (long) length * elementSize > in.readableBytes()) {
+			throw new IOException("invalid array length " + length);
+		}
+		return length;
+	}
+
+	private ClassLoader getClassLoaderForApplication(final ApplicationID appId) {
+		LOGGER.entry(appId);
+		if (module == null || appId == null) {
+			return LOGGER.exit(null);
+		}
+
+		final Application application = module.getApplication(appId);
+		if (application == null) {
+			return LOGGER.exit(null);
+		}
+
+		return LOGGER.exit(application.getClassLoader());
+	}
+
+	/**
+	 * An ObjectInputStream that resolves classes with a given ClassLoader, falling back to the default behaviour.
+	 */
+	private static class ClassLoaderObjectInputStream extends ObjectInputStream {
+		private final ClassLoader loader;
+
+		private ClassLoaderObjectInputStream(final InputStream in, final ClassLoader loader) throws IOException {
+			super(in);
+			this.loader = loader;
+		}
+
+		@Override
+		protected Class<?> resolveClass(final ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+			if (loader != null) {
+				try {
+					return Class.forName(desc.getName(), false, loader);
+				} catch (final ClassNotFoundException e) {
+				}
+			}
+			return super.resolveClass(desc);
+		}
+	}
+}
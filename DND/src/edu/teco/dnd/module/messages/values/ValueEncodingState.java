@@ -0,0 +1,376 @@
+package edu.teco.dnd.module.messages.values;
+
+import io.netty.buffer.ByteBuf;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import edu.teco.dnd.module.ApplicationID;
+import edu.teco.dnd.network.tcp.BinaryCodec;
+
+/**
+ * <p>
+ * The state used to encode values sent over one connection (see
+ * {@link edu.teco.dnd.network.tcp.StatefulBinaryMessageSerializer}). Most value traffic consists of the same
+ * {@link ApplicationID}s, block IDs and input names and of slowly changing numbers, so instead of sending them in full
+ * every time:
+ * </p>
+ *
+ * <ul>
+ * <li>UUIDs and Strings are added to a dictionary the first time they are sent and are referred to by their index
+ * afterwards</li>
+ * <li>a value that is equal to the last value sent to the same input is sent as a single byte</li>
+ * <li>an Integer or Long that follows an Integer or Long sent to the same input is sent as the difference to it,
+ * using a variable length encoding</li>
+ * <li>all other values are sent as written by {@link ValueCodec}</li>
+ * </ul>
+ *
+ * <p>
+ * Each side of a connection uses its own ValueEncodingState per direction. Both sides change their state the same way
+ * for each value, so they stay in sync as long as every value is decoded in the order it was encoded (see
+ * {@link edu.teco.dnd.network.tcp.BinaryCodec} for what happens otherwise). The dictionary and the number of
+ * remembered values are limited; once full, new entries are sent in full.
+ * </p>
+ *
+ * <p>
+ * This class is not thread-safe. It is only used by the event loop of its connection.
+ * </p>
+ */
+public class ValueEncodingState {
+	/**
+	 * The maximum number of UUIDs and Strings in the dictionary.
+	 */
+	public static final int MAX_DICTIONARY_SIZE = 4096;
+
+	/**
+	 * The maximum number of inputs whose last value is remembered.
+	 */
+	public static final int MAX_REMEMBERED_VALUES = 4096;
+
+	private static final byte ENTRY_REFERENCE = 0;
+	private static final byte ENTRY_DEFINITION = 1;
+	private static final byte ENTRY_LITERAL = 2;
+
+	private static final byte VALUE_LITERAL = 0;
+	private static final byte VALUE_REPEATED = 1;
+	private static final byte VALUE_INT_DELTA = 2;
+	private static final byte VALUE_LONG_DELTA = 3;
+
+	/**
+	 * The dictionary of the sending side.
+	 */
+	private final Map<Object, Integer> entryIDs = new HashMap<Object, Integer>();
+
+	/**
+	 * The dictionary of the receiving side.
+	 */
+	private final List<Object> entries = new ArrayList<Object>();
+
+	private final Map<InputKey, Serializable> lastValues = new HashMap<InputKey, Serializable>();
+
+	/**
+	 * Writes a UUID, using the dictionary.
+	 *
+	 * @param out
+	 *            the buffer to write to
+	 * @param uuid
+	 *            the UUID to write. May be null.
+	 */
+	public void writeUUID(final ByteBuf out, final UUID uuid) {
+		if (writeEntry(out, uuid)) {
+			BinaryCodec.writeUUID(out, uuid);
+		}
+	}
+
+	/**
+	 * Reads a UUID written by {@link #writeUUID(ByteBuf, UUID)}.
+	 *
+	 * @param in
+	 *            the buffer to read from
+	 * @return the UUID that was read. May be null.
+	 * @throws IOException
+	 *             if the UUID refers to an unknown dictionary entry
+	 */
+	public UUID readUUID(final ByteBuf in) throws IOException {
+		final byte tag = in.readByte();
+		if (tag == ENTRY_REFERENCE) {
+			return readReference(in, UUID.class);
+		}
+		final UUID uuid = BinaryCodec.readUUID(in);
+		addEntry(tag, uuid);
+		return uuid;
+	}
+
+	/**
+	 * Writes a String, using the dictionary.
+	 *
+	 * @param out
+	 *            the buffer to write to
+	 * @param string
+	 *            the String to write. May be null.
+	 */
+	public void writeString(final ByteBuf out, final String string) {
+		if (writeEntry(out, string)) {
+			BinaryCodec.writeString(out, string);
+		}
+	}
+
+	/**
+	 * Reads a String written by {@link #writeString(ByteBuf, String)}.
+	 *
+	 * @param in
+	 *            the buffer to read from
+	 * @return the String that was read. May be null.
+	 * @throws IOException
+	 *             if the String refers to an unknown dictionary entry or is invalid
+	 */
+	public String readString(final ByteBuf in) throws IOException {
+		final byte tag = in.readByte();
+		if (tag == ENTRY_REFERENCE) {
+			return readReference(in, String.class);
+		}
+		final String string = BinaryCodec.readString(in);
+		addEntry(tag, string);
+		return string;
+	}
+
+	/**
+	 * Writes a value sent to an input, using the last value sent to the same input. The last value of the input is
+	 * left unchanged if the value can not be serialized.
+	 *
+	 * @param out
+	 *            the buffer to write to
+	 * @param blockUUID
+	 *            the UUID of the block the value is sent to
+	 * @param input
+	 *            the name of the input the value is sent to
+	 * @param encodedValue
+	 *            the value
+	 * @throws IOException
+	 *             if the value could not be serialized
+	 */
+	public void writeValue(final ByteBuf out, final UUID blockUUID, final String input,
+			final EncodedValue encodedValue) throws IOException {
+		final InputKey key = new InputKey(blockUUID, input);
+		final Serializable value = encodedValue.getValue();
+		final Serializable lastValue = lastValues.get(key);
+		if (lastValue != null && lastValue.equals(value)) {
+			out.writeByte(VALUE_REPEATED);
+			return;
+		}
+
+		if (lastValue instanceof Integer && value instanceof Integer) {
+			out.writeByte(VALUE_INT_DELTA);
+			writeVarLong(out, zigZag((Integer) value - (Integer) lastValue));
+		} else if (lastValue instanceof Long && value instanceof Long) {
+			out.writeByte(VALUE_LONG_DELTA);
+			writeVarLong(out, zigZag((Long) value - (Long) lastValue));
+		} else {
+			final int tagIndex = out.writerIndex();
+			out.writeByte(VALUE_LITERAL);
+			out.writeInt(0);
+			try {
+				encodedValue.write(out);
+			} catch (final IOException e) {
+				out.writerIndex(tagIndex);
+				throw e;
+			}
+			out.setInt(tagIndex + 1, out.writerIndex() - tagIndex - 5);
+		}
+		remember(key, value);
+	}
+
+	/**
+	 * Reads a value written by {@link #writeValue(ByteBuf, UUID, String, EncodedValue)}.
+	 *
+	 * @param in
+	 *            the buffer to read from
+	 * @param blockUUID
+	 *            the UUID of the block the value is sent to
+	 * @param input
+	 *            the name of the input the value is sent to
+	 * @param valueCodec
+	 *            used to read values that were written in full
+	 * @param applicationID
+	 *            the ID of the Application the value belongs to
+	 * @return the value that was read
+	 * @throws IOException
+	 *             if the value could not be read or refers to an unknown last value
+	 */
+	public Serializable readValue(final ByteBuf in, final UUID blockUUID, final String input,
+			final ValueCodec valueCodec, final ApplicationID applicationID) throws IOException {
+		final InputKey key = new InputKey(blockUUID, input);
+		final Serializable lastValue = lastValues.get(key);
+		final byte tag = in.readByte();
+		final Serializable value;
+		switch (tag) {
+		case VALUE_REPEATED:
+			if (lastValue == null) {
+				throw new IOException("repeated value for " + key + " without a last value");
+			}
+			return lastValue;
+		case VALUE_INT_DELTA:
+			if (!(lastValue instanceof Integer)) {
+				throw new IOException("Integer delta for " + key + " without a last Integer");
+			}
+			value = (int) ((Integer) lastValue + unZigZag(readVarLong(in)));
+			break;
+		case VALUE_LONG_DELTA:
+			if (!(lastValue instanceof Long)) {
+				throw new IOException("Long delta for " + key + " without a last Long");
+			}
+			value = (Long) lastValue + unZigZag(readVarLong(in));
+			break;
+		case VALUE_LITERAL: {
+			final int length = in.readInt();
+			if (length <= 0 || length > in.readableBytes()) {
+				throw new IOException("invalid value length " + length);
+			}
+			value = valueCodec.read(in.readSlice(length), applicationID);
+			break;
+		}
+		default:
+			throw new IOException("unknown value tag " + tag);
+		}
+		remember(key, value);
+		return value;
+	}
+
+	/**
+	 * Writes the tag for a dictionary entry and its index if it is already in the dictionary.
+	 *
+	 * @return true if the entry has to be written in full
+	 */
+	private boolean writeEntry(final ByteBuf out, final Object entry) {
+		final Integer id = entry == null ? null : entryIDs.get(entry);
+		if (id != null) {
+			out.writeByte(ENTRY_REFERENCE);
+			writeVarLong(out, id);
+			return false;
+		}
+		if (entry != null && entryIDs.size() < MAX_DICTIONARY_SIZE) {
+			entryIDs.put(entry, entryIDs.size());
+			out.writeByte(ENTRY_DEFINITION);
+		} else {
+			out.writeByte(ENTRY_LITERAL);
+		}
+		return true;
+	}
+
+	private <T> T readReference(final ByteBuf in, final Class<T> cls) throws IOException {
+		final long id = readVarLong(in);
+		if (id < 0 || id >= entries.size()) {
+			throw new IOException("unknown dictionary entry " + id);
+		}
+		final Object entry = entries.get((int) id);
+		if (!cls.isInstance(entry)) {
+			throw new IOException("dictionary entry " + id + " is not a " + cls.getSimpleName());
+		}
+		return cls.cast(entry);
+	}
+
+	private void addEntry(final byte tag, final Object entry) throws IOException {
+		if (tag == ENTRY_DEFINITION) {
+			if (entry == null) {
+				throw new IOException("dictionary entry must not be null");
+			}
+			entries.add(entry);
+		} else if (tag != ENTRY_LITERAL) {
+			throw new IOException("unknown dictionary tag " + tag);
+		}
+	}
+
+	/**
+	 * Stores the value as the last value of the input if it is immutable, so that it can be compared to later values.
+	 * Other values are forgotten.
+	 */
+	private void remember(final InputKey key, final Serializable value) {
+		if (!isImmutable(value)) {
+			lastValues.remove(key);
+		} else if (lastValues.size() < MAX_REMEMBERED_VALUES || lastValues.containsKey(key)) {
+			lastValues.put(key, value);
+		}
+	}
+
+	private static boolean isImmutable(final Serializable value) {
+		return value instanceof Integer || value instanceof Long || value instanceof Double || value instanceof Boolean
+				|| value instanceof String || value instanceof Float || value instanceof Short || value instanceof Byte
+				|| value instanceof Character;
+	}
+
+	private static long zigZag(final long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static long unZigZag(final long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static void writeVarLong(final ByteBuf out, final long value) {
+		long remaining = value;
+		while ((remaining & ~0x7FL) != 0) {
+			out.writeByte((int) ((remaining & 0x7F) | 0x80));
+			remaining >>>= 7;
+		}
+		out.writeByte((int) remaining);
+	}
+
+	private static long readVarLong(final ByteBuf in) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			final byte b = in.readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("variable length number is too long");
+	}
+
+	/**
+	 * Identifies an input of a block.
+	 */
+	private static class InputKey {
+		private final UUID blockUUID;
+		private final String input;
+
+		private InputKey(final UUID blockUUID, final String input) {
+			this.blockUUID = blockUUID;
+			this.input = input;
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + ((blockUUID == null) ? 0 : blockUUID.hashCode());
+			result = prime * result + ((input == null) ? 0 : input.hashCode());
+			return result;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null || getClass() != obj.getClass()) {
+				return false;
+			}
+			final InputKey other = (InputKey) obj;
+			if (blockUUID == null ? other.blockUUID != null : !blockUUID.equals(other.blockUUID)) {
+				return false;
+			}
+			return input == null ? other.input == null : input.equals(other.input);
+		}
+
+		@Override
+		public String toString() {
+			return blockUUID + "/" + input;
+		}
+	}
+}
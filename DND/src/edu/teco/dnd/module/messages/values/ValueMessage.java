@@ -1,12 +1,14 @@
 package edu.teco.dnd.module.messages.values;
 
 import java.io.Serializable;
+import java.util.UUID;
 
 import edu.teco.dnd.blocks.FunctionBlockID;
 import edu.teco.dnd.module.ApplicationID;
 import edu.teco.dnd.module.UserSuppliedCodeException;
 import edu.teco.dnd.module.UsercodeWrapper;
 import edu.teco.dnd.network.messages.ApplicationSpecificMessage;
+import edu.teco.dnd.network.messages.ResponseOptionalMessage;
 
 /**
  * Message containing a value send by the output of one functionBlock to the input of another.
@@ -14,7 +16,7 @@ import edu.teco.dnd.network.messages.ApplicationSpecificMessage;
  * @author Marvin Marx
  * 
  */
-public class ValueMessage extends ApplicationSpecificMessage {
+public class ValueMessage extends ApplicationSpecificMessage implements ResponseOptionalMessage {
 
 	public static final String MESSAGE_TYPE = "value";
 	/**
@@ -29,6 +31,14 @@ public class ValueMessage extends ApplicationSpecificMessage {
 	 * The actual value.
 	 */
 	public final Serializable value;
+	/**
+	 * The value together with its encoding. Shared between all Messages that carry the same value.
+	 */
+	private final EncodedValue encodedValue;
+	/**
+	 * Whether or not the sender wants a {@link ValueAck}. {@link ValueNak}s are sent regardless.
+	 */
+	private final boolean responseRequested;
 
 	/**
 	 * 
@@ -42,10 +52,105 @@ public class ValueMessage extends ApplicationSpecificMessage {
 	 *            The actual value.
 	 */
 	public ValueMessage(ApplicationID applicationID, FunctionBlockID functionBlock, String input, Serializable value) {
+		this(applicationID, functionBlock, input, value, true);
+	}
+
+	/**
+	 * 
+	 * @param applicationID
+	 *            ID of the application this is part of
+	 * @param functionBlock
+	 *            ID of the block this is to be send to.
+	 * @param input
+	 *            Name of the input this is to be send to.
+	 * @param value
+	 *            The actual value.
+	 * @param responseRequested
+	 *            whether or not a {@link ValueAck} should be sent
+	 */
+	public ValueMessage(ApplicationID applicationID, FunctionBlockID functionBlock, String input, Serializable value,
+			boolean responseRequested) {
+		this(applicationID, functionBlock, input, new EncodedValue(value), responseRequested);
+	}
+
+	/**
+	 * 
+	 * @param applicationID
+	 *            ID of the application this is part of
+	 * @param functionBlock
+	 *            ID of the block this is to be send to.
+	 * @param input
+	 *            Name of the input this is to be send to.
+	 * @param encodedValue
+	 *            The actual value. The encoding is reused if it has already been computed.
+	 * @param responseRequested
+	 *            whether or not a {@link ValueAck} should be sent
+	 */
+	public ValueMessage(ApplicationID applicationID, FunctionBlockID functionBlock, String input,
+			EncodedValue encodedValue, boolean responseRequested) {
 		super(applicationID);
 		this.blockID = functionBlock;
 		this.input = input;
+		this.value = encodedValue.getValue();
+		this.encodedValue = encodedValue;
+		this.responseRequested = responseRequested;
+	}
+
+	/**
+	 * 
+	 * @param uuid
+	 *            UUID of this message
+	 * @param applicationID
+	 *            ID of the application this is part of
+	 * @param functionBlock
+	 *            ID of the block this is to be send to.
+	 * @param input
+	 *            Name of the input this is to be send to.
+	 * @param value
+	 *            The actual value.
+	 */
+	public ValueMessage(UUID uuid, ApplicationID applicationID, FunctionBlockID functionBlock, String input,
+			Serializable value) {
+		this(uuid, applicationID, functionBlock, input, value, true);
+	}
+
+	/**
+	 * 
+	 * @param uuid
+	 *            UUID of this message
+	 * @param applicationID
+	 *            ID of the application this is part of
+	 * @param functionBlock
+	 *            ID of the block this is to be send to.
+	 * @param input
+	 *            Name of the input this is to be send to.
+	 * @param value
+	 *            The actual value.
+	 * @param responseRequested
+	 *            whether or not a {@link ValueAck} should be sent
+	 */
+	public ValueMessage(UUID uuid, ApplicationID applicationID, FunctionBlockID functionBlock, String input,
+			Serializable value, boolean responseRequested) {
+		super(uuid, applicationID);
+		this.blockID = functionBlock;
+		this.input = input;
 		this.value = value;
+		this.encodedValue = new EncodedValue(value);
+		this.responseRequested = responseRequested;
+	}
+
+	@Override
+	public boolean isResponseRequested() {
+		return responseRequested;
+	}
+
+	/**
+	 * Returns the value together with its encoding.
+	 * 
+	 * @return the value together with its encoding
+	 */
+	public EncodedValue getEncodedValue() {
+		return encodedValue;
 	}
 
 	/*
@@ -59,6 +164,7 @@ public class ValueMessage extends ApplicationSpecificMessage {
 		int result = super.hashCode();
 		result = prime * result + ((blockID == null) ? 0 : blockID.hashCode());
 		result = prime * result + ((input == null) ? 0 : input.hashCode());
+		result = prime * result + (responseRequested ? 1231 : 1237);
 		try {
 			result = prime * result + ((value == null) ? 0 : UsercodeWrapper.getHashCode(value));
 		} catch (UserSuppliedCodeException e) {
@@ -87,6 +193,9 @@ public class ValueMessage extends ApplicationSpecificMessage {
 			return false;
 		}
 		ValueMessage other = (ValueMessage) obj;
+		if (responseRequested != other.responseRequested) {
+			return false;
+		}
 		if (blockID == null) {
 			if (other.blockID != null) {
 				return false;
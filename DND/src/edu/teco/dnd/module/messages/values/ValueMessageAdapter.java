@@ -18,19 +18,19 @@ import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
 
 import edu.teco.dnd.blocks.FunctionBlockID;
-import edu.teco.dnd.module.Application;
 import edu.teco.dnd.module.ApplicationID;
 import edu.teco.dnd.module.Module;
 import edu.teco.dnd.util.Base64;
 
 /**
- * Adapter for {@link ValueMessage}. Serializes the value using the Serializable interface, then encode that as Base64.
- * Other fields are simply encoded using default GSON encoders.
+ * Adapter for {@link ValueMessage}. Serializes the value using {@link ValueCodec#serialize(Serializable)}, then encodes
+ * that as Base64, so that Modules that only speak JSON can read it. Values encoded with {@link ValueCodec}'s tagged
+ * encoding are accepted as well. Other fields are simply encoded using default GSON encoders.
  */
 public class ValueMessageAdapter implements JsonDeserializer<ValueMessage>, JsonSerializer<ValueMessage> {
 	private static final Logger LOGGER = LogManager.getLogger(ValueMessageAdapter.class);
 
-	private final Module module;
+	private final ValueCodec valueCodec;
 
 	/**
 	 * Initializes a new ValueMessageAdapter.
@@ -40,7 +40,7 @@ public class ValueMessageAdapter implements JsonDeserializer<ValueMessage>, Json
 	 *            message). If null or if the Application is missing only the default ClassLoader will be used.
 	 */
 	public ValueMessageAdapter(final Module module) {
-		this.module = module;
+		this.valueCodec = new ValueCodec(module);
 	}
 
 	@Override
@@ -48,16 +48,20 @@ public class ValueMessageAdapter implements JsonDeserializer<ValueMessage>, Json
 		LOGGER.entry(src, typeOfSrc, context);
 		String encodedValue = null;
 		try {
-			encodedValue = Base64.encodeObject(src.value);
+			encodedValue = src.getEncodedValue().getBase64();
 		} catch (final IOException e) {
 			throw new JsonParseException("Failed to encode value as Base64", e);
 		}
 
 		final JsonObject jsonObject = new JsonObject();
+		jsonObject.add("uuid", context.serialize(src.getUUID()));
 		jsonObject.add("appId", context.serialize(src.getApplicationID()));
 		jsonObject.add("blockID", context.serialize(src.blockID == null ? null : src.blockID.getUUID()));
 		jsonObject.add("input", context.serialize(src.input));
 		jsonObject.add("value", new JsonPrimitive(encodedValue));
+		if (!src.isResponseRequested()) {
+			jsonObject.add("responseRequested", new JsonPrimitive(false));
+		}
 
 		return LOGGER.exit(jsonObject);
 	}
@@ -71,36 +75,31 @@ public class ValueMessageAdapter implements JsonDeserializer<ValueMessage>, Json
 		}
 		final JsonObject jsonObject = json.getAsJsonObject();
 
-		final ApplicationID applicationID = context.deserialize(jsonObject.get("applicationID"), ApplicationID.class);
+		JsonElement applicationIDElement = jsonObject.get("appId");
+		if (applicationIDElement == null) {
+			applicationIDElement = jsonObject.get("applicationID");
+		}
+		final ApplicationID applicationID = context.deserialize(applicationIDElement, ApplicationID.class);
+		final UUID uuid = context.deserialize(jsonObject.get("uuid"), UUID.class);
 		final UUID blockUUID = context.deserialize(jsonObject.get("blockID"), UUID.class);
 		final String input = context.deserialize(jsonObject.get("input"), String.class);
+		final JsonElement responseRequestedElement = jsonObject.get("responseRequested");
+		final boolean responseRequested = responseRequestedElement == null || responseRequestedElement.isJsonNull()
+				|| responseRequestedElement.getAsBoolean();
 
-		ClassLoader loader = getClassLoaderForApplication(applicationID);
 		Serializable value = null;
 		try {
 			value =
-					(Serializable) Base64.decodeToObject(jsonObject.get("value").getAsString(), Base64.NO_OPTIONS,
-							loader);
+					valueCodec.decode(Base64.decode(jsonObject.get("value").getAsString(), Base64.DONT_GUNZIP),
+							applicationID);
 		} catch (final IOException e) {
 			throw LOGGER.throwing(new JsonParseException("error parsing Base64 value", e));
-		} catch (final ClassNotFoundException e) {
-			throw LOGGER.throwing(new JsonParseException("could not find class of value", e));
 		}
 
-		return new ValueMessage(applicationID, blockUUID == null ? null : new FunctionBlockID(blockUUID), input, value);
-	}
-
-	private ClassLoader getClassLoaderForApplication(final ApplicationID appId) {
-		LOGGER.entry(appId);
-		if (module == null) {
-			return LOGGER.exit(null);
+		final FunctionBlockID blockID = blockUUID == null ? null : new FunctionBlockID(blockUUID);
+		if (uuid == null) {
+			return new ValueMessage(applicationID, blockID, input, value, responseRequested);
 		}
-
-		final Application application = module.getApplication(appId);
-		if (application == null) {
-			return LOGGER.exit(null);
-		}
-
-		return LOGGER.exit(application.getClassLoader());
+		return new ValueMessage(uuid, applicationID, blockID, input, value, responseRequested);
 	}
 }
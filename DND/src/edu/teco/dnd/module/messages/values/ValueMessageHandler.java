@@ -9,7 +9,8 @@ import edu.teco.dnd.network.MessageHandler;
 import edu.teco.dnd.network.messages.Response;
 
 /**
- * triggers sending the value to the appropriate Application.FunctionBlock.
+ * triggers sending the value to the appropriate Application.FunctionBlock. A {@link ValueAck} is only sent if the
+ * sender {@link ValueMessage#isResponseRequested() requested it}, a {@link ValueNak} is always sent on errors.
  * 
  * @author Marvin Marx
  * 
@@ -48,7 +49,7 @@ public class ValueMessageHandler implements MessageHandler<ValueMessage> {
 					new ValueNak(ValueNak.ErrorType.OTHER, message.blockID, message.input);
 		}
 
-		if (returnMsg == null) {
+		if (returnMsg == null && message.isResponseRequested()) {
 			returnMsg = new ValueAck();
 		}
 		return returnMsg;
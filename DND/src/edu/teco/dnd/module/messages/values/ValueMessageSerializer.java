@@ -0,0 +1,96 @@
+package edu.teco.dnd.module.messages.values;
+
+import io.netty.buffer.ByteBuf;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.UUID;
+
+import edu.teco.dnd.blocks.FunctionBlockID;
+import edu.teco.dnd.module.ApplicationID;
+import edu.teco.dnd.module.Module;
+import edu.teco.dnd.network.tcp.BinaryCodec;
+import edu.teco.dnd.network.tcp.StatefulBinaryMessageSerializer;
+
+/**
+ * Binary serializer for {@link ValueMessage}. The value is written with a {@link ValueCodec} directly into the buffer
+ * (or copied if it has already been encoded for another Message), the IDs are written as fixed width UUIDs. On
+ * connections that support it, the IDs, the input name and the value are written using a {@link ValueEncodingState}
+ * instead.
+ */
+public class ValueMessageSerializer implements StatefulBinaryMessageSerializer<ValueMessage, ValueEncodingState> {
+	private final ValueCodec valueCodec;
+
+	/**
+	 * Initializes a new ValueMessageSerializer.
+	 * 
+	 * @param module
+	 *            this module is used to get the Application's ClassLoaders (based on the Application ID in the received
+	 *            message). If null or if the Application is missing only the default ClassLoader will be used.
+	 */
+	public ValueMessageSerializer(final Module module) {
+		this.valueCodec = new ValueCodec(module);
+	}
+
+	@Override
+	public void write(final ValueMessage message, final ByteBuf out) throws IOException {
+		final ApplicationID applicationID = message.getApplicationID();
+		BinaryCodec.writeUUID(out, applicationID == null ? null : applicationID.getUUID());
+		BinaryCodec.writeUUID(out, message.blockID == null ? null : message.blockID.getUUID());
+		BinaryCodec.writeString(out, message.input);
+		out.writeBoolean(message.isResponseRequested());
+
+		final int lengthIndex = out.writerIndex();
+		out.writeInt(0);
+		message.getEncodedValue().write(out);
+		out.setInt(lengthIndex, out.writerIndex() - lengthIndex - 4);
+	}
+
+	@Override
+	public ValueMessage read(final UUID uuid, final ByteBuf in) throws IOException {
+		final UUID applicationUUID = BinaryCodec.readUUID(in);
+		final ApplicationID applicationID = applicationUUID == null ? null : new ApplicationID(applicationUUID);
+		final UUID blockUUID = BinaryCodec.readUUID(in);
+		final String input = BinaryCodec.readString(in);
+		final boolean responseRequested = in.readBoolean();
+
+		final int length = in.readInt();
+		if (length <= 0 || length > in.readableBytes()) {
+			throw new IOException("invalid value length " + length);
+		}
+		final Serializable value = valueCodec.read(in.readSlice(length), applicationID);
+
+		return new ValueMessage(uuid, applicationID, blockUUID == null ? null : new FunctionBlockID(blockUUID), input,
+				value, responseRequested);
+	}
+
+	@Override
+	public ValueEncodingState createState() {
+		return new ValueEncodingState();
+	}
+
+	@Override
+	public void write(final ValueMessage message, final ByteBuf out, final ValueEncodingState state)
+			throws IOException {
+		final ApplicationID applicationID = message.getApplicationID();
+		final UUID blockUUID = message.blockID == null ? null : message.blockID.getUUID();
+		state.writeUUID(out, applicationID == null ? null : applicationID.getUUID());
+		state.writeUUID(out, blockUUID);
+		state.writeString(out, message.input);
+		out.writeBoolean(message.isResponseRequested());
+		state.writeValue(out, blockUUID, message.input, message.getEncodedValue());
+	}
+
+	@Override
+	public ValueMessage read(final UUID uuid, final ByteBuf in, final ValueEncodingState state) throws IOException {
+		final UUID applicationUUID = state.readUUID(in);
+		final ApplicationID applicationID = applicationUUID == null ? null : new ApplicationID(applicationUUID);
+		final UUID blockUUID = state.readUUID(in);
+		final String input = state.readString(in);
+		final boolean responseRequested = in.readBoolean();
+		final Serializable value = state.readValue(in, blockUUID, input, valueCodec, applicationID);
+
+		return new ValueMessage(uuid, applicationID, blockUUID == null ? null : new FunctionBlockID(blockUUID), input,
+				value, responseRequested);
+	}
+}
@@ -0,0 +1,161 @@
+package edu.teco.dnd.module.messages.values;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import edu.teco.dnd.blocks.InputDescription;
+import edu.teco.dnd.module.ApplicationID;
+import edu.teco.dnd.module.UserSuppliedCodeException;
+import edu.teco.dnd.module.UsercodeWrapper;
+import edu.teco.dnd.network.messages.ApplicationSpecificMessage;
+import edu.teco.dnd.network.messages.ResponseOptionalMessage;
+
+/**
+ * Message containing a single value for multiple Inputs of FunctionBlocks running on the same Module. Used if an
+ * Output is connected to more than one Input on a Module so that the value is only encoded and sent once. It is
+ * answered with a single {@link ValueAck} (or a {@link ValueNak} for the first Input the value could not be delivered
+ * to).
+ * 
+ * @see ValueMessage
+ */
+public class ValueMulticastMessage extends ApplicationSpecificMessage implements ResponseOptionalMessage {
+	public static final String MESSAGE_TYPE = "value multicast";
+
+	/**
+	 * The Inputs the value is to be send to.
+	 */
+	public final List<InputDescription> targets;
+	/**
+	 * The actual value.
+	 */
+	public final Serializable value;
+	/**
+	 * The value together with its encoding. Shared between all Messages that carry the same value.
+	 */
+	private final EncodedValue encodedValue;
+	/**
+	 * Whether or not the sender wants a {@link ValueAck}. {@link ValueNak}s are sent regardless.
+	 */
+	private final boolean responseRequested;
+
+	/**
+	 * 
+	 * @param applicationID
+	 *            ID of the application this is part of
+	 * @param targets
+	 *            the Inputs the value is to be send to
+	 * @param encodedValue
+	 *            The actual value. The encoding is reused if it has already been computed.
+	 * @param responseRequested
+	 *            whether or not a {@link ValueAck} should be sent
+	 */
+	public ValueMulticastMessage(ApplicationID applicationID, Collection<InputDescription> targets,
+			EncodedValue encodedValue, boolean responseRequested) {
+		super(applicationID);
+		this.targets = Collections.unmodifiableList(new ArrayList<InputDescription>(targets));
+		this.value = encodedValue.getValue();
+		this.encodedValue = encodedValue;
+		this.responseRequested = responseRequested;
+	}
+
+	/**
+	 * 
+	 * @param uuid
+	 *            UUID of this message
+	 * @param applicationID
+	 *            ID of the application this is part of
+	 * @param targets
+	 *            the Inputs the value is to be send to
+	 * @param value
+	 *            The actual value.
+	 * @param responseRequested
+	 *            whether or not a {@link ValueAck} should be sent
+	 */
+	public ValueMulticastMessage(UUID uuid, ApplicationID applicationID, Collection<InputDescription> targets,
+			Serializable value, boolean responseRequested) {
+		super(uuid, applicationID);
+		this.targets = Collections.unmodifiableList(new ArrayList<InputDescription>(targets));
+		this.value = value;
+		this.encodedValue = new EncodedValue(value);
+		this.responseRequested = responseRequested;
+	}
+
+	@Override
+	public boolean isResponseRequested() {
+		return responseRequested;
+	}
+
+	/**
+	 * Returns the value together with its encoding.
+	 * 
+	 * @return the value together with its encoding
+	 */
+	public EncodedValue getEncodedValue() {
+		return encodedValue;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = super.hashCode();
+		result = prime * result + targets.hashCode();
+		result = prime * result + (responseRequested ? 1231 : 1237);
+		try {
+			result = prime * result + ((value == null) ? 0 : UsercodeWrapper.getHashCode(value));
+		} catch (UserSuppliedCodeException e) {
+			result = prime * result + 0;
+		}
+		return result;
+	}
+
+	/**
+	 * ATTENTION: may falsely return false, because the Serializable value does not guarantee comparability!
+	 * 
+	 * @param obj
+	 *            the usual.
+	 * @return the usual.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!super.equals(obj)) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		ValueMulticastMessage other = (ValueMulticastMessage) obj;
+		if (responseRequested != other.responseRequested) {
+			return false;
+		}
+		if (!targets.equals(other.targets)) {
+			return false;
+		}
+		if (value == null) {
+			return other.value == null;
+		}
+		try {
+			return UsercodeWrapper.getEquals(value, other.value);
+		} catch (UserSuppliedCodeException e) {
+			return false;
+		}
+	}
+
+	@Override
+	public String toString() {
+		String valueString;
+		try {
+			valueString = UsercodeWrapper.getToString(value);
+		} catch (UserSuppliedCodeException e) {
+			valueString = "ERROR";
+		}
+		return "ValueMulticastMessage [targets=" + targets + ", value=" + valueString + ", responseRequested="
+				+ responseRequested + ", getApplicationID()=" + getApplicationID() + ", getUUID()=" + getUUID() + "]";
+	}
+}
@@ -0,0 +1,122 @@
+package edu.teco.dnd.module.messages.values;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+
+import edu.teco.dnd.blocks.FunctionBlockID;
+import edu.teco.dnd.blocks.InputDescription;
+import edu.teco.dnd.module.ApplicationID;
+import edu.teco.dnd.module.Module;
+import edu.teco.dnd.util.Base64;
+
+/**
+ * Adapter for {@link ValueMulticastMessage}. The targets are written as an array, the value is encoded the same way as
+ * in {@link ValueMessageAdapter}.
+ */
+public class ValueMulticastMessageAdapter implements JsonDeserializer<ValueMulticastMessage>,
+		JsonSerializer<ValueMulticastMessage> {
+	private static final Logger LOGGER = LogManager.getLogger(ValueMulticastMessageAdapter.class);
+
+	private final ValueCodec valueCodec;
+
+	/**
+	 * Initializes a new ValueMulticastMessageAdapter.
+	 * 
+	 * @param module
+	 *            this module is used to get the Application's ClassLoaders (based on the Application ID in the received
+	 *            message). If null or if the Application is missing only the default ClassLoader will be used.
+	 */
+	public ValueMulticastMessageAdapter(final Module module) {
+		this.valueCodec = new ValueCodec(module);
+	}
+
+	@Override
+	public JsonElement serialize(final ValueMulticastMessage src, final Type typeOfSrc,
+			final JsonSerializationContext context) {
+		LOGGER.entry(src, typeOfSrc, context);
+		String encodedValue = null;
+		try {
+			encodedValue = src.getEncodedValue().getBase64();
+		} catch (final IOException e) {
+			throw new JsonParseException("Failed to encode value as Base64", e);
+		}
+
+		final JsonArray targets = new JsonArray();
+		for (final InputDescription target : src.targets) {
+			final JsonObject targetObject = new JsonObject();
+			targetObject.add("blockID",
+					context.serialize(target.getBlock() == null ? null : target.getBlock().getUUID()));
+			targetObject.add("input", context.serialize(target.getInput()));
+			targets.add(targetObject);
+		}
+
+		final JsonObject jsonObject = new JsonObject();
+		jsonObject.add("uuid", context.serialize(src.getUUID()));
+		jsonObject.add("appId", context.serialize(src.getApplicationID()));
+		jsonObject.add("targets", targets);
+		jsonObject.add("value", new JsonPrimitive(encodedValue));
+		jsonObject.add("responseRequested", new JsonPrimitive(src.isResponseRequested()));
+
+		return LOGGER.exit(jsonObject);
+	}
+
+	@Override
+	public ValueMulticastMessage deserialize(final JsonElement json, final Type typeOfT,
+			final JsonDeserializationContext context) throws JsonParseException {
+		LOGGER.entry(json, typeOfT, context);
+		if (!json.isJsonObject()) {
+			throw LOGGER.throwing(new JsonParseException("not a JSON object"));
+		}
+		final JsonObject jsonObject = json.getAsJsonObject();
+
+		final ApplicationID applicationID = context.deserialize(jsonObject.get("appId"), ApplicationID.class);
+		final UUID uuid = context.deserialize(jsonObject.get("uuid"), UUID.class);
+		final JsonElement responseRequestedElement = jsonObject.get("responseRequested");
+		final boolean responseRequested =
+				responseRequestedElement == null || responseRequestedElement.isJsonNull()
+						|| responseRequestedElement.getAsBoolean();
+
+		final JsonElement targetsElement = jsonObject.get("targets");
+		if (targetsElement == null || !targetsElement.isJsonArray()) {
+			throw LOGGER.throwing(new JsonParseException("targets missing"));
+		}
+		final List<InputDescription> targets = new ArrayList<InputDescription>();
+		for (final JsonElement targetElement : targetsElement.getAsJsonArray()) {
+			if (!targetElement.isJsonObject()) {
+				throw LOGGER.throwing(new JsonParseException("target is not a JSON object"));
+			}
+			final JsonObject targetObject = targetElement.getAsJsonObject();
+			final UUID blockUUID = context.deserialize(targetObject.get("blockID"), UUID.class);
+			final String input = context.deserialize(targetObject.get("input"), String.class);
+			targets.add(new InputDescription(blockUUID == null ? null : new FunctionBlockID(blockUUID), input));
+		}
+
+		Serializable value = null;
+		try {
+			value =
+					valueCodec.decode(Base64.decode(jsonObject.get("value").getAsString(), Base64.DONT_GUNZIP),
+							applicationID);
+		} catch (final IOException e) {
+			throw LOGGER.throwing(new JsonParseException("error parsing Base64 value", e));
+		}
+
+		return LOGGER.exit(new ValueMulticastMessage(uuid, applicationID, targets, value, responseRequested));
+	}
+}
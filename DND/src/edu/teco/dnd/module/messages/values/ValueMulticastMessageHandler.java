@@ -0,0 +1,68 @@
+package edu.teco.dnd.module.messages.values;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import edu.teco.dnd.blocks.InputDescription;
+import edu.teco.dnd.module.Application;
+import edu.teco.dnd.module.ModuleID;
+import edu.teco.dnd.module.NonExistentFunctionblockException;
+import edu.teco.dnd.module.NonExistentInputException;
+import edu.teco.dnd.network.MessageHandler;
+import edu.teco.dnd.network.messages.Response;
+
+/**
+ * Passes the value of a {@link ValueMulticastMessage} to all of its targets. The Message is answered with a single
+ * Response: a {@link ValueNak} for the first target the value could not be delivered to or a {@link ValueAck} if the
+ * value was delivered to all targets and the sender {@link ValueMulticastMessage#isResponseRequested() requested it}.
+ */
+public class ValueMulticastMessageHandler implements MessageHandler<ValueMulticastMessage> {
+	private static final Logger LOGGER = LogManager.getLogger(ValueMulticastMessageHandler.class);
+
+	/**
+	 * The application the FunctionBlocks to retrieve the value are running on.
+	 */
+	private final Application associatedApp;
+
+	/**
+	 * 
+	 * @param associatedApp
+	 *            The application the FunctionBlocks to retrieve the value are running on.
+	 */
+	public ValueMulticastMessageHandler(Application associatedApp) {
+		this.associatedApp = associatedApp;
+	}
+
+	@Override
+	public Response handleMessage(ModuleID remoteID, ValueMulticastMessage message) {
+		Response returnMsg = null;
+		int failed = 0;
+		for (final InputDescription target : message.targets) {
+			ValueNak nak = null;
+			try {
+				associatedApp.receiveValue(target, message.value);
+			} catch (NonExistentFunctionblockException e) {
+				nak = new ValueNak(ValueNak.ErrorType.WRONG_MODULE, target.getBlock(), target.getInput());
+			} catch (NonExistentInputException e) {
+				nak = new ValueNak(ValueNak.ErrorType.INVALID_INPUT, target.getBlock(), target.getInput());
+			} catch (Exception e) {
+				nak = new ValueNak(ValueNak.ErrorType.OTHER, target.getBlock(), target.getInput());
+			}
+			if (nak != null) {
+				failed++;
+				if (returnMsg == null) {
+					returnMsg = nak;
+				}
+			}
+		}
+
+		if (failed > 0) {
+			LOGGER.debug("value from {} could not be delivered to {} of {} targets", remoteID, failed,
+					message.targets.size());
+		}
+		if (returnMsg == null && message.isResponseRequested()) {
+			returnMsg = new ValueAck();
+		}
+		return returnMsg;
+	}
+}
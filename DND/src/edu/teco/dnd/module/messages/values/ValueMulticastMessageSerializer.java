@@ -0,0 +1,78 @@
+package edu.teco.dnd.module.messages.values;
+
+import io.netty.buffer.ByteBuf;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import edu.teco.dnd.blocks.FunctionBlockID;
+import edu.teco.dnd.blocks.InputDescription;
+import edu.teco.dnd.module.ApplicationID;
+import edu.teco.dnd.module.Module;
+import edu.teco.dnd.network.tcp.BinaryCodec;
+import edu.teco.dnd.network.tcp.BinaryMessageSerializer;
+
+/**
+ * Binary serializer for {@link ValueMulticastMessage}. Writes the Application ID and the flags, followed by the number
+ * of targets, the ID and Input name of each target and finally the length prefixed value.
+ */
+public class ValueMulticastMessageSerializer implements BinaryMessageSerializer<ValueMulticastMessage> {
+	private final ValueCodec valueCodec;
+
+	/**
+	 * Initializes a new ValueMulticastMessageSerializer.
+	 * 
+	 * @param module
+	 *            this module is used to get the Application's ClassLoaders (based on the Application ID in the received
+	 *            message). If null or if the Application is missing only the default ClassLoader will be used.
+	 */
+	public ValueMulticastMessageSerializer(final Module module) {
+		this.valueCodec = new ValueCodec(module);
+	}
+
+	@Override
+	public void write(final ValueMulticastMessage message, final ByteBuf out) throws IOException {
+		final ApplicationID applicationID = message.getApplicationID();
+		BinaryCodec.writeUUID(out, applicationID == null ? null : applicationID.getUUID());
+		out.writeBoolean(message.isResponseRequested());
+		out.writeInt(message.targets.size());
+		for (final InputDescription target : message.targets) {
+			BinaryCodec.writeUUID(out, target.getBlock() == null ? null : target.getBlock().getUUID());
+			BinaryCodec.writeString(out, target.getInput());
+		}
+
+		final int lengthIndex = out.writerIndex();
+		out.writeInt(0);
+		message.getEncodedValue().write(out);
+		out.setInt(lengthIndex, out.writerIndex() - lengthIndex - 4);
+	}
+
+	@Override
+	public ValueMulticastMessage read(final UUID uuid, final ByteBuf in) throws IOException {
+		final UUID applicationUUID = BinaryCodec.readUUID(in);
+		final ApplicationID applicationID = applicationUUID == null ? null : new ApplicationID(applicationUUID);
+		final boolean responseRequested = in.readBoolean();
+		final int count = in.readInt();
+		if (count < 0 || count > in.readableBytes()) {
+			throw new IOException("invalid target count " + count);
+		}
+
+		final List<InputDescription> targets = new ArrayList<InputDescription>(count);
+		for (int i = 0; i < count; i++) {
+			final UUID blockUUID = BinaryCodec.readUUID(in);
+			final String input = BinaryCodec.readString(in);
+			targets.add(new InputDescription(blockUUID == null ? null : new FunctionBlockID(blockUUID), input));
+		}
+
+		final int length = in.readInt();
+		if (length <= 0 || length > in.readableBytes()) {
+			throw new IOException("invalid value length " + length);
+		}
+		final Serializable value = valueCodec.read(in.readSlice(length), applicationID);
+
+		return new ValueMulticastMessage(uuid, applicationID, targets, value, responseRequested);
+	}
+}
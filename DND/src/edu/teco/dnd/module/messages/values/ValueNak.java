@@ -1,5 +1,7 @@
 package edu.teco.dnd.module.messages.values;
 
+import java.util.UUID;
+
 import edu.teco.dnd.blocks.FunctionBlockID;
 import edu.teco.dnd.network.messages.Response;
 
@@ -67,6 +69,29 @@ public class ValueNak extends Response {
 		this.input = input;
 	}
 
+	/**
+	 * 
+	 * @param sourceUUID
+	 *            UUID of the ValueMessage this is a response to
+	 * @param uuid
+	 *            UUID of this message
+	 * @param errorType
+	 *            type of error that occurred.
+	 * @param blockID
+	 *            ID of block this value was meant for.
+	 * @param input
+	 *            name of input this value was meant for.
+	 */
+	public ValueNak(UUID sourceUUID, UUID uuid, ErrorType errorType, FunctionBlockID blockID, String input) {
+		super(sourceUUID, uuid);
+		if (errorType == null) {
+			errorType = ErrorType.OTHER;
+		}
+		this.errorType = errorType;
+		this.blockID = blockID;
+		this.input = input;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -0,0 +1,36 @@
+package edu.teco.dnd.module.messages.values;
+
+import io.netty.buffer.ByteBuf;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import edu.teco.dnd.blocks.FunctionBlockID;
+import edu.teco.dnd.module.messages.values.ValueNak.ErrorType;
+import edu.teco.dnd.network.tcp.BinaryCodec;
+import edu.teco.dnd.network.tcp.BinaryMessageSerializer;
+
+/**
+ * Binary serializer for {@link ValueNak}.
+ */
+public class ValueNakSerializer implements BinaryMessageSerializer<ValueNak> {
+	private static final ErrorType[] ERROR_TYPES = ErrorType.values();
+
+	@Override
+	public void write(final ValueNak message, final ByteBuf out) {
+		BinaryCodec.writeUUID(out, message.getSourceUUID());
+		out.writeByte(message.errorType.ordinal());
+		BinaryCodec.writeUUID(out, message.blockID == null ? null : message.blockID.getUUID());
+		BinaryCodec.writeString(out, message.input);
+	}
+
+	@Override
+	public ValueNak read(final UUID uuid, final ByteBuf in) throws IOException {
+		final UUID sourceUUID = BinaryCodec.readUUID(in);
+		final int errorType = in.readUnsignedByte();
+		final UUID blockUUID = BinaryCodec.readUUID(in);
+		final String input = BinaryCodec.readString(in);
+		return new ValueNak(sourceUUID, uuid, errorType < ERROR_TYPES.length ? ERROR_TYPES[errorType] : ErrorType.OTHER,
+				blockUUID == null ? null : new FunctionBlockID(blockUUID), input);
+	}
+}
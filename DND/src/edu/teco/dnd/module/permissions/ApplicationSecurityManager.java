@@ -12,13 +12,16 @@ import edu.teco.dnd.module.Application;
 import edu.teco.dnd.module.FunctionBlockSecurityDecorator;
 import edu.teco.dnd.module.Module;
 import edu.teco.dnd.module.UsercodeWrapper;
+import edu.teco.dnd.module.messages.values.ValueCodec;
+import edu.teco.dnd.module.messages.values.ValueBatchMessageAdapter;
 import edu.teco.dnd.module.messages.values.ValueMessageAdapter;
+import edu.teco.dnd.module.messages.values.ValueMulticastMessageAdapter;
 
 /**
  * A SecurityManager used to restrict permissions for {@link FunctionBlock}s running on a {@link Module}. It allows
  * getting the ClassLoader, getting environment variables and getting file system attributes. It also includes a
  * workaround for the JIT ({@link JITPolicyRule}) and allows methods needed for sending values to FunctionBlocks running
- * on remote Modules.
+ * on remote Modules or on the same Module.
  */
 public class ApplicationSecurityManager extends SecurityManager {
 	private static final Logger LOGGER = LogManager.getLogger(ApplicationSecurityManager.class);
@@ -42,8 +45,13 @@ public class ApplicationSecurityManager extends SecurityManager {
 		stemMatcher.addInsecureMatcher(new MethodMatcher(ObjectStreamClass.class, "invokeReadResolve"));
 		stemMatcher.addSecureMatcher(new MethodMatcher(FunctionBlock.class, "doInit"));
 		stemMatcher.addSecureMatcher(new MethodMatcher(Application.class, "sendValue"));
+		// values for FunctionBlocks running on this Module are delivered directly by Application.LocalInput
+		stemMatcher.addSecureMatcher(new ClassMatcher(Application.class.getName() + "$LocalInput"));
 		stemMatcher.addSecureMatcher(new MethodMatcher(ClassLoader.class, "loadClass"));
 		stemMatcher.addSecureMatcher(new ClassMatcher(ValueMessageAdapter.class));
+		stemMatcher.addSecureMatcher(new ClassMatcher(ValueBatchMessageAdapter.class));
+		stemMatcher.addSecureMatcher(new ClassMatcher(ValueMulticastMessageAdapter.class));
+		stemMatcher.addSecureMatcher(new ClassMatcher(ValueCodec.class));
 		ruleCombiner.addRule(stemMatcher);
 
 		rule = ruleCombiner;
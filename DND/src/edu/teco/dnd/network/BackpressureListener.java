@@ -0,0 +1,26 @@
+package edu.teco.dnd.network;
+
+import edu.teco.dnd.module.ModuleID;
+
+/**
+ * A listener that is informed if the connection to a Module is congested. A connection is congested if more data is
+ * waiting to be sent than allowed by its write buffer high water mark; it is no longer congested once the amount drops
+ * below the low water mark. Producers of high-rate Messages should hold back while a connection is congested.
+ */
+public interface BackpressureListener {
+	/**
+	 * Is called if the connection to a Module became congested.
+	 * 
+	 * @param moduleID
+	 *            the ID of the Module
+	 */
+	public void backpressureStarted(ModuleID moduleID);
+
+	/**
+	 * Is called if the connection to a Module is no longer congested or has been closed.
+	 * 
+	 * @param moduleID
+	 *            the ID of the Module
+	 */
+	public void backpressureEnded(ModuleID moduleID);
+}
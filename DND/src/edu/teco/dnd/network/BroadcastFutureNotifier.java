@@ -0,0 +1,52 @@
+package edu.teco.dnd.network;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.teco.dnd.module.ModuleID;
+import edu.teco.dnd.network.messages.Response;
+import edu.teco.dnd.util.FutureNotifier;
+import edu.teco.dnd.util.JoinedFutureNotifier;
+
+/**
+ * Returned by {@link ConnectionManager#broadcast(java.util.Collection, edu.teco.dnd.network.messages.Message)}. Joins
+ * the FutureNotifiers for the Responses of all Modules the Message was sent to (see {@link JoinedFutureNotifier}). The
+ * FutureNotifier for a single Module can be retrieved with {@link #getResponseFuture(ModuleID)}.
+ */
+public class BroadcastFutureNotifier extends JoinedFutureNotifier<Response> {
+	private final Map<ModuleID, FutureNotifier<Response>> responseFutures;
+
+	/**
+	 * Initializes a new BroadcastFutureNotifier.
+	 * 
+	 * @param responseFutures
+	 *            the FutureNotifiers for the Responses of each Module
+	 */
+	public BroadcastFutureNotifier(final Map<ModuleID, FutureNotifier<Response>> responseFutures) {
+		super(new ArrayList<FutureNotifier<? extends Response>>(responseFutures.values()));
+		this.responseFutures =
+				Collections.unmodifiableMap(new HashMap<ModuleID, FutureNotifier<Response>>(responseFutures));
+	}
+
+	/**
+	 * Returns the FutureNotifier for the Response of a single Module.
+	 * 
+	 * @param moduleID
+	 *            the ID of the Module
+	 * @return the FutureNotifier for the Response of the Module or null if the Message was not sent to it
+	 */
+	public FutureNotifier<Response> getResponseFuture(final ModuleID moduleID) {
+		return responseFutures.get(moduleID);
+	}
+
+	/**
+	 * Returns the FutureNotifiers for the Responses of all Modules the Message was sent to.
+	 * 
+	 * @return a Map from ModuleID to the FutureNotifier for the Response of that Module
+	 */
+	public Map<ModuleID, FutureNotifier<Response>> getResponseFutures() {
+		return responseFutures;
+	}
+}
@@ -35,6 +35,34 @@ public interface ConnectionManager {
 	 */
 	public FutureNotifier<Response> sendMessage(ModuleID moduleID, Message message);
 
+	/**
+	 * Sends a message to the given Module without waiting for a Response. No Response is tracked and no timeout is
+	 * scheduled, so any Response sent by the remote Module is ignored. Use this for high-rate Messages where a lost
+	 * Message is not critical. See {@link edu.teco.dnd.network.messages.ResponseOptionalMessage} for a way to stop the
+	 * remote Module from sending a Response at all.
+	 * 
+	 * @param moduleID
+	 *            the ID of the module the message should be sent to
+	 * @param message
+	 *            the message that should be sent
+	 * @return a FutureNotifier that reflects whether or not the Message could be written to the connection
+	 */
+	public FutureNotifier<Void> sendMessageOneWay(ModuleID moduleID, Message message);
+
+	/**
+	 * Sends the same Message to multiple Modules. The Message is only encoded once (once per encoding if some
+	 * connections use a different one) and the encoded frame is shared between all connections. All Modules receive a
+	 * Message with the same UUID; Responses are matched using the UUID and the Module that sent them.
+	 * 
+	 * @param moduleIDs
+	 *            the IDs of the Modules the Message should be sent to
+	 * @param message
+	 *            the message that should be sent
+	 * @return a FutureNotifier that joins the Responses of all Modules. The FutureNotifier for a single Module can be
+	 *         retrieved with {@link BroadcastFutureNotifier#getResponseFuture(ModuleID)}.
+	 */
+	public BroadcastFutureNotifier broadcast(Collection<ModuleID> moduleIDs, Message message);
+
 	/**
 	 * Adds an handler for a given application ID. If another handler was registered for the ID it is replaced.
 	 * 
@@ -96,6 +124,15 @@ public interface ConnectionManager {
 	 */
 	public <T extends Message> void addHandler(Class<? extends T> msgType, MessageHandler<? super T> handler);
 
+	/**
+	 * Removes all handlers that were added for an application ID. Messages for the application will be passed to the
+	 * handlers for {@link #APPID_DEFAULT} afterwards.
+	 * 
+	 * @param applicationID
+	 *            the ID of the application. Must not be {@link #APPID_DEFAULT}.
+	 */
+	public void removeHandlers(ApplicationID applicationID);
+
 	/**
 	 * Returns a collection of connected modules.
 	 * 
@@ -119,6 +156,33 @@ public interface ConnectionManager {
 	 */
 	public void removeConnectionListener(ConnectionListener listener);
 
+	/**
+	 * Returns whether the connection to a Module is congested. Messages can still be sent to the Module, but they will
+	 * be buffered until the connection catches up.
+	 * 
+	 * @param moduleID
+	 *            the ID of the Module
+	 * @return true if the connection to the Module is congested, false if it is not or if there is no connection
+	 * @see BackpressureListener
+	 */
+	public boolean isBackpressured(ModuleID moduleID);
+
+	/**
+	 * Adds a listener that is informed if connections become congested or are no longer congested.
+	 * 
+	 * @param listener
+	 *            the listener to add
+	 */
+	public void addBackpressureListener(BackpressureListener listener);
+
+	/**
+	 * Removes a listener.
+	 * 
+	 * @param listener
+	 *            the listener to remove
+	 */
+	public void removeBackpressureListener(BackpressureListener listener);
+
 	/**
 	 * Tells this TCPConnectionManager to shut down. This will close all listening sockets and all connections to other
 	 * TCPConnectionManagers.
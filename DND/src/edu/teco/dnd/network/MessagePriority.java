@@ -0,0 +1,24 @@
+package edu.teco.dnd.network;
+
+/**
+ * The priority classes of {@link edu.teco.dnd.network.messages.Message}s. If a connection is congested, Messages with
+ * a higher priority are sent before Messages with a lower priority that have been waiting longer. Received control
+ * Messages are not queued behind other Messages; those of an Application are handled in the order they were received.
+ */
+public enum MessagePriority {
+	/**
+	 * Messages that control Applications and Modules, for example to stop an Application. These are small and should be
+	 * delivered as fast as possible.
+	 */
+	CONTROL,
+
+	/**
+	 * Messages used to deploy an Application, for example the classes of its FunctionBlocks.
+	 */
+	DEPLOY,
+
+	/**
+	 * All other Messages, for example values sent between FunctionBlocks.
+	 */
+	DATA
+}
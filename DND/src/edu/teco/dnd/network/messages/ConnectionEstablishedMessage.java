@@ -1,28 +1,56 @@
 package edu.teco.dnd.network.messages;
 
+import java.util.UUID;
+
 import edu.teco.dnd.module.Module;
 import edu.teco.dnd.module.ModuleID;
 
 /**
  * Message that signals that the sender has accepted the connection. Also contains the {@link ModuleID} of the sending
- * {@link Module}.
+ * {@link Module} and the optional features that will be used on the connection.
  */
 public class ConnectionEstablishedMessage extends Message {
 	public static final String MESSAGE_TYPE = "connection established";
 	
 	private final ModuleID remoteID;
+
+	/**
+	 * The optional features both sides announced in their {@link HelloMessage}s, as a combination of the
+	 * <code>CAPABILITY_</code> flags of HelloMessage.
+	 */
+	private final int capabilities;
 	
-	public ConnectionEstablishedMessage(final ModuleID remoteID) {
+	public ConnectionEstablishedMessage(final UUID uuid, final ModuleID remoteID, final int capabilities) {
+		super(uuid);
+		this.remoteID = remoteID;
+		this.capabilities = capabilities;
+	}
+
+	public ConnectionEstablishedMessage(final UUID uuid, final ModuleID remoteID) {
+		this(uuid, remoteID, 0);
+	}
+
+	public ConnectionEstablishedMessage(final ModuleID remoteID, final int capabilities) {
 		super();
 		this.remoteID = remoteID;
+		this.capabilities = capabilities;
+	}
+
+	public ConnectionEstablishedMessage(final ModuleID remoteID) {
+		this(remoteID, 0);
 	}
 
 	@Override
 	public String toString() {
-		return "ConnectionEstablishedMessage[uuid=" + getUUID() + ",remoteID=" + remoteID + "]";
+		return "ConnectionEstablishedMessage[uuid=" + getUUID() + ",remoteID=" + remoteID + ",capabilities="
+				+ capabilities + "]";
 	}
 
 	public ModuleID getRemoteID() {
 		return remoteID;
 	}
+
+	public int getCapabilities() {
+		return capabilities;
+	}
 }
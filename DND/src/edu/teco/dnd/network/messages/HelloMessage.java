@@ -1,5 +1,7 @@
 package edu.teco.dnd.network.messages;
 
+import java.util.UUID;
+
 import edu.teco.dnd.module.Module;
 import edu.teco.dnd.module.ModuleID;
 
@@ -9,6 +11,18 @@ import edu.teco.dnd.module.ModuleID;
 public class HelloMessage extends Message {
 	public static final String MESSAGE_TYPE = "hello";
 
+	/**
+	 * Capability flag for modules that can decompress frames compressed by
+	 * {@link edu.teco.dnd.network.tcp.CompressionCodec}.
+	 */
+	public static final int CAPABILITY_COMPRESSION = 1;
+
+	/**
+	 * Capability flag for modules that can decode Messages written by
+	 * {@link edu.teco.dnd.network.tcp.StatefulBinaryMessageSerializer}s.
+	 */
+	public static final int CAPABILITY_STATEFUL_ENCODING = 2;
+
 	private final ModuleID moduleID;
 
 	/**
@@ -16,17 +30,101 @@ public class HelloMessage extends Message {
 	 */
 	private final int framesize;
 
+	/**
+	 * The version of the binary encoding the sending module can decode. 0 if it only understands JSON (this is also the
+	 * value used for old modules that do not send this field).
+	 */
+	private final int binaryVersion;
+
+	/**
+	 * The optional features the sending module supports as a combination of the <code>CAPABILITY_</code> flags. 0 for
+	 * old modules that do not send this field.
+	 */
+	private final int capabilities;
+
 	/**
 	 * Initializes a new HelloMessage.
 	 * 
+	 * @param uuid
+	 *            the UUID of the Message
 	 * @param moduleID
 	 *            the ID of the sending {@link Module}
 	 * @param framesize
 	 *            the maximum frame size the Module can receive
+	 * @param binaryVersion
+	 *            the version of the binary encoding the Module can decode, 0 for none
+	 * @param capabilities
+	 *            the optional features the Module supports
 	 */
-	public HelloMessage(final ModuleID moduleID, final int framesize) {
+	public HelloMessage(final UUID uuid, final ModuleID moduleID, final int framesize, final int binaryVersion,
+			final int capabilities) {
+		super(uuid);
+		this.moduleID = moduleID;
+		this.framesize = framesize;
+		this.binaryVersion = binaryVersion;
+		this.capabilities = capabilities;
+	}
+
+	/**
+	 * Initializes a new HelloMessage.
+	 * 
+	 * @param uuid
+	 *            the UUID of the Message
+	 * @param moduleID
+	 *            the ID of the sending {@link Module}
+	 * @param framesize
+	 *            the maximum frame size the Module can receive
+	 * @param binaryVersion
+	 *            the version of the binary encoding the Module can decode, 0 for none
+	 */
+	public HelloMessage(final UUID uuid, final ModuleID moduleID, final int framesize, final int binaryVersion) {
+		this(uuid, moduleID, framesize, binaryVersion, 0);
+	}
+
+	/**
+	 * Initializes a new HelloMessage.
+	 * 
+	 * @param moduleID
+	 *            the ID of the sending {@link Module}
+	 * @param framesize
+	 *            the maximum frame size the Module can receive
+	 * @param binaryVersion
+	 *            the version of the binary encoding the Module can decode, 0 for none
+	 * @param capabilities
+	 *            the optional features the Module supports
+	 */
+	public HelloMessage(final ModuleID moduleID, final int framesize, final int binaryVersion,
+			final int capabilities) {
 		this.moduleID = moduleID;
 		this.framesize = framesize;
+		this.binaryVersion = binaryVersion;
+		this.capabilities = capabilities;
+	}
+
+	/**
+	 * Initializes a new HelloMessage.
+	 * 
+	 * @param moduleID
+	 *            the ID of the sending {@link Module}
+	 * @param framesize
+	 *            the maximum frame size the Module can receive
+	 * @param binaryVersion
+	 *            the version of the binary encoding the Module can decode, 0 for none
+	 */
+	public HelloMessage(final ModuleID moduleID, final int framesize, final int binaryVersion) {
+		this(moduleID, framesize, binaryVersion, 0);
+	}
+
+	/**
+	 * Initializes a new HelloMessage for a Module that only understands JSON.
+	 * 
+	 * @param moduleID
+	 *            the ID of the sending {@link Module}
+	 * @param framesize
+	 *            the maximum frame size the Module can receive
+	 */
+	public HelloMessage(final ModuleID moduleID, final int framesize) {
+		this(moduleID, framesize, 0);
 	}
 
 	/**
@@ -47,10 +145,30 @@ public class HelloMessage extends Message {
 		return this.framesize;
 	}
 
+	/**
+	 * Returns the version of the binary encoding the module can decode.
+	 * 
+	 * @return the version of the binary encoding the module can decode, 0 if it only understands JSON
+	 */
+	public int getBinaryVersion() {
+		return this.binaryVersion;
+	}
+
+	/**
+	 * Returns the optional features the module supports.
+	 * 
+	 * @return a combination of the <code>CAPABILITY_</code> flags
+	 */
+	public int getCapabilities() {
+		return this.capabilities;
+	}
+
 	@Override
 	public String toString() {
 		final StringBuilder sb = new StringBuilder();
-		sb.append("HelloMessage[moduleID=").append(moduleID).append(",framesize=").append(framesize).append("]");
+		sb.append("HelloMessage[moduleID=").append(moduleID).append(",framesize=").append(framesize)
+				.append(",binaryVersion=").append(binaryVersion).append(",capabilities=").append(capabilities)
+				.append("]");
 		return sb.toString();
 	}
 }
@@ -3,6 +3,8 @@ package edu.teco.dnd.network.messages;
 import java.util.UUID;
 
 import edu.teco.dnd.network.ConnectionManager;
+import edu.teco.dnd.util.SequentialUUIDFactory;
+import edu.teco.dnd.util.UUIDFactory;
 
 /**
  * This is a marker interface for Message that can be sent and/or received with a {@link ConnectionManager}. Each
@@ -10,6 +12,12 @@ import edu.teco.dnd.network.ConnectionManager;
  * break.
  */
 public abstract class Message {
+	/**
+	 * Used for Messages that are not given a UUID. Message UUIDs only need to be unique, not unpredictable, so this
+	 * avoids going through {@link java.security.SecureRandom} for every Message.
+	 */
+	private static final UUIDFactory UUID_FACTORY = new SequentialUUIDFactory();
+
 	private final UUID uuid;
 
 	public Message(final UUID uuid) {
@@ -17,10 +25,10 @@ public abstract class Message {
 	}
 
 	/**
-	 * Initializes a new Message with a random UUID.
+	 * Initializes a new Message with a new unique UUID.
 	 */
 	public Message() {
-		this.uuid = UUID.randomUUID();
+		this.uuid = UUID_FACTORY.createUUID();
 	}
 
 	public UUID getUUID() {
@@ -30,7 +30,7 @@ public abstract class Response extends Message {
 	}
 
 	/**
-	 * Initializes a new Response with a random Message UUID.
+	 * Initializes a new Response with a new Message UUID.
 	 * 
 	 * @param sourceUUID
 	 *            the UUID of the {@link Message} this is a response to
@@ -41,7 +41,7 @@ public abstract class Response extends Message {
 	}
 
 	/**
-	 * Initializes a new Response without a source UUID and a random {@link Message} UUID.
+	 * Initializes a new Response without a source UUID and a new {@link Message} UUID.
 	 */
 	public Response() {
 		super();
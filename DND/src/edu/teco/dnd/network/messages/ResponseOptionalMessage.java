@@ -0,0 +1,19 @@
+package edu.teco.dnd.network.messages;
+
+import edu.teco.dnd.network.ConnectionManager;
+import edu.teco.dnd.network.MessageHandler;
+
+/**
+ * A {@link Message} whose sender may not be interested in a {@link Response}. This is used for Messages sent with
+ * {@link ConnectionManager#sendMessageOneWay(edu.teco.dnd.module.ModuleID, Message)}. If a {@link MessageHandler}
+ * returns <code>null</code> for such a Message and no Response was requested, no Response is sent at all (instead of a
+ * {@link DefaultResponse}). Handlers can still return a Response, for example to report an error.
+ */
+public interface ResponseOptionalMessage {
+	/**
+	 * Returns whether or not the sender expects a Response.
+	 * 
+	 * @return true if the sender expects a Response
+	 */
+	boolean isResponseRequested();
+}
@@ -0,0 +1,467 @@
+package edu.teco.dnd.network.tcp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import edu.teco.dnd.module.ApplicationID;
+
+/**
+ * <p>
+ * Queues the handling of received {@link edu.teco.dnd.network.messages.ApplicationSpecificMessage}s per
+ * {@link ApplicationID} and hands them to the Executors of the handlers in a weighted round robin. Only
+ * <code>maxConcurrentTasks</code> tasks are handed to Executors at a time, so an Application that receives a flood
+ * of Messages cannot build an unbounded backlog in its Executor or starve other Applications: each time a task
+ * finishes the next task is taken from the next Application that has tasks queued. An Application with a weight of
+ * <code>n</code> gets to start up to <code>n</code> tasks per round. As a task handed to an Executor may still be
+ * waiting in that Executor's queue, each Application may only have <code>maxTasksPerApplication</code> tasks handed
+ * to Executors at a time, so that a single Application cannot take up all of the <code>maxConcurrentTasks</code>.
+ * </p>
+ *
+ * <p>
+ * Each Application has its own queue of at most <code>queueCapacity</code> tasks. If it is full, a task is shed
+ * according to the {@link ShedPolicy}. Tasks whose Executor rejects them, for example because the Application has
+ * been stopped, and the queued tasks of a {@link #removeApplication(ApplicationID) removed} Application are dropped as
+ * well. A dropped task is not run at all. If it implements {@link Droppable} it is told about it, for example to send
+ * a Response for its Message.
+ * </p>
+ *
+ * <p>
+ * All public methods in this class are thread-safe.
+ * </p>
+ */
+public class ApplicationMessageScheduler {
+	private static final Logger LOGGER = LogManager.getLogger(ApplicationMessageScheduler.class);
+
+	/**
+	 * The default number of tasks that may be queued per Application.
+	 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+	/**
+	 * The default number of tasks that may be running or waiting in an Executor at the same time.
+	 */
+	public static final int DEFAULT_MAX_CONCURRENT_TASKS = 64;
+
+	/**
+	 * The default number of tasks of a single Application that may be running or waiting in an Executor at the same
+	 * time.
+	 */
+	public static final int DEFAULT_MAX_TASKS_PER_APPLICATION = 16;
+
+	/**
+	 * Decides which task is dropped if the queue of an Application is full.
+	 */
+	public enum ShedPolicy {
+		/**
+		 * Drops the task that was just submitted.
+		 */
+		DROP_NEWEST,
+
+		/**
+		 * Drops the oldest queued task to make room for the new one. This favours fresh values over stale ones.
+		 */
+		DROP_OLDEST
+	}
+
+	/**
+	 * A task that is informed if it is dropped instead of being run.
+	 */
+	public interface Droppable extends Runnable {
+		/**
+		 * Called instead of {@link #run()} if the task is dropped. Must not block.
+		 */
+		void dropped();
+	}
+
+	/**
+	 * The queues of all Applications that have tasks queued or a weight set. Guarded by <code>this</code>.
+	 */
+	private final Map<ApplicationID, ApplicationQueue> queues = new HashMap<ApplicationID, ApplicationQueue>();
+
+	/**
+	 * The Applications that have tasks queued in the order they will be served. Guarded by <code>this</code>.
+	 */
+	private final Queue<ApplicationQueue> ready = new ArrayDeque<ApplicationQueue>();
+
+	/**
+	 * Set while the current Thread is starting tasks. Prevents unbounded recursion if a task finishes while being
+	 * started, which happens if an Executor runs tasks in the calling Thread.
+	 */
+	private final ThreadLocal<Boolean> dispatching = new ThreadLocal<Boolean>();
+
+	private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+	private ShedPolicy shedPolicy = ShedPolicy.DROP_NEWEST;
+	private int maxConcurrentTasks = DEFAULT_MAX_CONCURRENT_TASKS;
+	private int maxTasksPerApplication = DEFAULT_MAX_TASKS_PER_APPLICATION;
+	private int runningTasks = 0;
+	private long shedCount = 0;
+
+	/**
+	 * Sets the number of tasks that may be queued per Application. Already queued tasks are not dropped if the new
+	 * capacity is smaller.
+	 *
+	 * @param queueCapacity
+	 *            the number of tasks that may be queued per Application. Must be positive.
+	 */
+	public synchronized void setQueueCapacity(final int queueCapacity) {
+		if (queueCapacity <= 0) {
+			throw new IllegalArgumentException("queueCapacity must be positive");
+		}
+		this.queueCapacity = queueCapacity;
+	}
+
+	public synchronized int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public synchronized void setShedPolicy(final ShedPolicy shedPolicy) {
+		if (shedPolicy == null) {
+			throw new IllegalArgumentException("shedPolicy must not be null");
+		}
+		this.shedPolicy = shedPolicy;
+	}
+
+	public synchronized ShedPolicy getShedPolicy() {
+		return shedPolicy;
+	}
+
+	/**
+	 * Sets the number of tasks that may be running or waiting in an Executor at the same time.
+	 *
+	 * @param maxConcurrentTasks
+	 *            the number of tasks that may be handed to Executors at the same time. Must be positive.
+	 */
+	public void setMaxConcurrentTasks(final int maxConcurrentTasks) {
+		if (maxConcurrentTasks <= 0) {
+			throw new IllegalArgumentException("maxConcurrentTasks must be positive");
+		}
+		synchronized (this) {
+			this.maxConcurrentTasks = maxConcurrentTasks;
+		}
+		dispatch();
+	}
+
+	public synchronized int getMaxConcurrentTasks() {
+		return maxConcurrentTasks;
+	}
+
+	/**
+	 * Sets the number of tasks of a single Application that may be running or waiting in an Executor at the same
+	 * time.
+	 *
+	 * @param maxTasksPerApplication
+	 *            the number of tasks of an Application that may be handed to Executors at the same time. Must be
+	 *            positive.
+	 */
+	public void setMaxTasksPerApplication(final int maxTasksPerApplication) {
+		if (maxTasksPerApplication <= 0) {
+			throw new IllegalArgumentException("maxTasksPerApplication must be positive");
+		}
+		synchronized (this) {
+			this.maxTasksPerApplication = maxTasksPerApplication;
+			for (final ApplicationQueue queue : queues.values()) {
+				makeReady(queue);
+			}
+		}
+		dispatch();
+	}
+
+	public synchronized int getMaxTasksPerApplication() {
+		return maxTasksPerApplication;
+	}
+
+	/**
+	 * Sets the weight of an Application. An Application with weight <code>n</code> may start up to <code>n</code>
+	 * tasks each time it is its turn. The default weight is 1.
+	 *
+	 * @param applicationID
+	 *            the ID of the Application
+	 * @param weight
+	 *            the weight of the Application. Must be positive.
+	 */
+	public synchronized void setWeight(final ApplicationID applicationID, final int weight) {
+		if (weight <= 0) {
+			throw new IllegalArgumentException("weight must be positive");
+		}
+		final ApplicationQueue queue = getQueue(applicationID);
+		queue.weight = weight;
+		queue.weightSet = true;
+	}
+
+	/**
+	 * Queues a task for an Application and starts it once it is the Application's turn.
+	 *
+	 * @param applicationID
+	 *            the ID of the Application the task belongs to
+	 * @param executor
+	 *            the Executor that should run the task
+	 * @param task
+	 *            the task to run
+	 */
+	public void submit(final ApplicationID applicationID, final Executor executor, final Runnable task) {
+		ScheduledTask shed = null;
+		synchronized (this) {
+			final ApplicationQueue queue = getQueue(applicationID);
+			final ScheduledTask scheduledTask = new ScheduledTask(queue, executor, task);
+			if (queue.tasks.size() >= queueCapacity) {
+				shedCount++;
+				if (shedPolicy == ShedPolicy.DROP_OLDEST) {
+					shed = queue.tasks.poll();
+					queue.tasks.add(scheduledTask);
+				} else {
+					shed = scheduledTask;
+				}
+			} else {
+				queue.tasks.add(scheduledTask);
+				makeReady(queue);
+			}
+		}
+		if (shed != null) {
+			LOGGER.debug("queue of {} is full, dropping {}", applicationID, shed.task);
+			shed.dropped();
+		}
+		dispatch();
+	}
+
+	/**
+	 * Drops all queued tasks and the weight of an Application.
+	 *
+	 * @param applicationID
+	 *            the ID of the Application
+	 */
+	public void removeApplication(final ApplicationID applicationID) {
+		final Collection<ScheduledTask> dropped = new ArrayList<ScheduledTask>();
+		synchronized (this) {
+			final ApplicationQueue queue = queues.remove(applicationID);
+			if (queue == null) {
+				return;
+			}
+			LOGGER.debug("dropping {} queued tasks of {}", queue.tasks.size(), applicationID);
+			ready.remove(queue);
+			queue.ready = false;
+			dropped.addAll(queue.tasks);
+			queue.tasks.clear();
+		}
+		for (final ScheduledTask task : dropped) {
+			task.dropped();
+		}
+	}
+
+	/**
+	 * Returns the number of tasks that are queued for an Application.
+	 *
+	 * @param applicationID
+	 *            the ID of the Application
+	 * @return the number of tasks that are queued but have not been handed to an Executor yet
+	 */
+	public synchronized int getQueuedCount(final ApplicationID applicationID) {
+		final ApplicationQueue queue = queues.get(applicationID);
+		return queue == null ? 0 : queue.tasks.size();
+	}
+
+	/**
+	 * Returns the number of tasks of an Application that have been handed to an Executor and have not finished yet.
+	 *
+	 * @param applicationID
+	 *            the ID of the Application
+	 * @return the number of running tasks of the Application
+	 */
+	public synchronized int getRunningCount(final ApplicationID applicationID) {
+		final ApplicationQueue queue = queues.get(applicationID);
+		return queue == null ? 0 : queue.running;
+	}
+
+	/**
+	 * Returns the number of tasks that have been handed to an Executor and have not finished yet.
+	 *
+	 * @return the number of running tasks
+	 */
+	public synchronized int getRunningCount() {
+		return runningTasks;
+	}
+
+	/**
+	 * Returns the number of tasks that have been dropped because a queue was full.
+	 *
+	 * @return the number of dropped tasks
+	 */
+	public synchronized long getShedCount() {
+		return shedCount;
+	}
+
+	/**
+	 * Must be called while holding the lock on <code>this</code>.
+	 */
+	private ApplicationQueue getQueue(final ApplicationID applicationID) {
+		ApplicationQueue queue = queues.get(applicationID);
+		if (queue == null) {
+			queue = new ApplicationQueue(applicationID);
+			queues.put(applicationID, queue);
+		}
+		return queue;
+	}
+
+	/**
+	 * Adds an Application to the round robin if it has tasks queued and may start another one. Must be called while
+	 * holding the lock on <code>this</code>.
+	 */
+	private void makeReady(final ApplicationQueue queue) {
+		if (!queue.ready && !queue.tasks.isEmpty() && queue.running < maxTasksPerApplication) {
+			queue.ready = true;
+			ready.add(queue);
+		}
+	}
+
+	/**
+	 * Forgets an Application that has neither queued nor running tasks nor a weight. Must be called while holding the
+	 * lock on <code>this</code>.
+	 */
+	private void removeIfUnused(final ApplicationQueue queue) {
+		if (queue.tasks.isEmpty() && queue.running == 0 && !queue.weightSet
+				&& queues.get(queue.applicationID) == queue) {
+			queues.remove(queue.applicationID);
+		}
+	}
+
+	/**
+	 * Takes the next task in round robin order and counts it as running. Must be called while holding the lock on
+	 * <code>this</code>.
+	 *
+	 * @return the next task or null if no task is queued
+	 */
+	private ScheduledTask next() {
+		final ApplicationQueue queue = ready.peek();
+		if (queue == null) {
+			return null;
+		}
+		if (queue.credit <= 0) {
+			queue.credit = queue.weight;
+		}
+		final ScheduledTask task = queue.tasks.poll();
+		queue.credit--;
+		queue.running++;
+		runningTasks++;
+		if (queue.tasks.isEmpty() || queue.running >= maxTasksPerApplication) {
+			ready.poll();
+			queue.ready = false;
+			queue.credit = 0;
+		} else if (queue.credit <= 0) {
+			ready.add(ready.poll());
+		}
+		return task;
+	}
+
+	/**
+	 * Hands tasks to their Executors as long as fewer than <code>maxConcurrentTasks</code> are running.
+	 */
+	private void dispatch() {
+		if (dispatching.get() != null) {
+			return;
+		}
+		dispatching.set(Boolean.TRUE);
+		try {
+			while (true) {
+				final ScheduledTask task;
+				synchronized (this) {
+					if (runningTasks >= maxConcurrentTasks) {
+						return;
+					}
+					task = next();
+					if (task == null) {
+						return;
+					}
+				}
+				try {
+					task.executor.execute(task);
+				} catch (final RejectedExecutionException e) {
+					LOGGER.debug("executor of {} rejected {}", task.queue.applicationID, task.task);
+					release(task.queue);
+					task.dropped();
+				}
+			}
+		} finally {
+			dispatching.remove();
+		}
+	}
+
+	/**
+	 * Stops counting a task as running.
+	 */
+	private synchronized void release(final ApplicationQueue queue) {
+		runningTasks--;
+		queue.running--;
+		makeReady(queue);
+		removeIfUnused(queue);
+	}
+
+	private void finished(final ApplicationQueue queue) {
+		release(queue);
+		dispatch();
+	}
+
+	/**
+	 * The queued tasks of a single Application.
+	 */
+	private static class ApplicationQueue {
+		private final ApplicationID applicationID;
+		private final Queue<ScheduledTask> tasks = new ArrayDeque<ScheduledTask>();
+		private int weight = 1;
+		private boolean weightSet = false;
+		private int credit = 0;
+		/**
+		 * True if this queue is in the round robin.
+		 */
+		private boolean ready = false;
+		/**
+		 * The number of tasks that have been handed to an Executor and have not finished yet.
+		 */
+		private int running = 0;
+
+		private ApplicationQueue(final ApplicationID applicationID) {
+			this.applicationID = applicationID;
+		}
+	}
+
+	/**
+	 * Runs a task and starts the next one once it is done. Passes on {@link Droppable#dropped()}.
+	 */
+	private class ScheduledTask implements Runnable {
+		private final ApplicationQueue queue;
+		private final Executor executor;
+		private final Runnable task;
+
+		private ScheduledTask(final ApplicationQueue queue, final Executor executor, final Runnable task) {
+			this.queue = queue;
+			this.executor = executor;
+			this.task = task;
+		}
+
+		@Override
+		public void run() {
+			try {
+				task.run();
+			} finally {
+				finished(queue);
+			}
+		}
+
+		private void dropped() {
+			if (task instanceof Droppable) {
+				try {
+					((Droppable) task).dropped();
+				} catch (final RuntimeException e) {
+					LOGGER.warn("dropped task {} threw {}", task, e);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,310 @@
+package edu.teco.dnd.network.tcp;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import edu.teco.dnd.module.ModuleID;
+import edu.teco.dnd.network.BackpressureListener;
+
+/**
+ * <p>
+ * Tracks which connections are congested. Netty marks a {@link Channel} as not writable once more bytes are waiting to
+ * be written than its write buffer high water mark allows and as writable again once the amount drops below the low
+ * water mark. The {@link #getHandler() handler} of this class applies the water marks to new Channels and reports
+ * changes of the writability to the {@link BackpressureListener}s.
+ * </p>
+ *
+ * <p>
+ * The writability is tracked per Channel, as there may be more than one Channel to a Module (for example while two
+ * Modules connect to each other at the same time). A Module is congested as long as any of its Channels is.
+ * </p>
+ *
+ * <p>
+ * For each Module the number of times its connection got congested and the total time it was congested are recorded.
+ * </p>
+ *
+ * <p>
+ * All public methods in this class are thread-safe.
+ * </p>
+ */
+public class BackpressureManager {
+	private static final Logger LOGGER = LogManager.getLogger(BackpressureManager.class);
+
+	/**
+	 * The default number of buffered bytes below which a congested connection is no longer considered congested.
+	 */
+	public static final int DEFAULT_LOW_WATER_MARK = 32 * 1024;
+
+	/**
+	 * The default number of buffered bytes above which a connection is considered congested.
+	 */
+	public static final int DEFAULT_HIGH_WATER_MARK = 64 * 1024;
+
+	private final RemoteIDResolver remoteIDResolver;
+	private final ConcurrentMap<ModuleID, PeerState> peers = new ConcurrentHashMap<ModuleID, PeerState>();
+	/**
+	 * The Channels that are currently not writable and the Modules they are connected to. The ModuleID is stored so
+	 * that the congestion can be ended even if the Channel's remote ID is no longer known once it is closed.
+	 */
+	private final ConcurrentMap<Channel, ModuleID> congestedChannels = new ConcurrentHashMap<Channel, ModuleID>();
+	private final CopyOnWriteArrayList<BackpressureListener> listeners =
+			new CopyOnWriteArrayList<BackpressureListener>();
+	private final ChannelHandler handler = new WritabilityHandler();
+
+	private volatile int lowWaterMark = DEFAULT_LOW_WATER_MARK;
+	private volatile int highWaterMark = DEFAULT_HIGH_WATER_MARK;
+
+	/**
+	 * Initializes a new BackpressureManager.
+	 *
+	 * @param remoteIDResolver
+	 *            used to find out which Module a Channel is connected to
+	 */
+	public BackpressureManager(final RemoteIDResolver remoteIDResolver) {
+		this.remoteIDResolver = remoteIDResolver;
+	}
+
+	/**
+	 * Returns the handler that has to be added to the pipeline of each Channel.
+	 *
+	 * @return the handler for the pipelines
+	 */
+	public ChannelHandler getHandler() {
+		return handler;
+	}
+
+	/**
+	 * Sets the write buffer water marks used for new Channels.
+	 *
+	 * @param lowWaterMark
+	 *            the number of buffered bytes below which a connection is no longer congested
+	 * @param highWaterMark
+	 *            the number of buffered bytes above which a connection is congested
+	 * @throws IllegalArgumentException
+	 *             if <code>lowWaterMark</code> is negative or larger than <code>highWaterMark</code>
+	 * @see #configure(Channel)
+	 */
+	public void setWaterMarks(final int lowWaterMark, final int highWaterMark) {
+		if (lowWaterMark < 0 || lowWaterMark > highWaterMark) {
+			throw new IllegalArgumentException("need 0 <= lowWaterMark <= highWaterMark");
+		}
+		synchronized (this) {
+			this.lowWaterMark = lowWaterMark;
+			this.highWaterMark = highWaterMark;
+		}
+	}
+
+	public int getLowWaterMark() {
+		return lowWaterMark;
+	}
+
+	public int getHighWaterMark() {
+		return highWaterMark;
+	}
+
+	/**
+	 * Applies the current water marks to a Channel.
+	 *
+	 * @param channel
+	 *            the Channel to configure
+	 */
+	public void configure(final Channel channel) {
+		final int low;
+		final int high;
+		synchronized (this) {
+			low = lowWaterMark;
+			high = highWaterMark;
+		}
+		final ChannelConfig config = channel.config();
+		// Netty rejects a high water mark below the current low water mark and vice versa
+		if (high >= config.getWriteBufferLowWaterMark()) {
+			config.setWriteBufferHighWaterMark(high);
+			config.setWriteBufferLowWaterMark(low);
+		} else {
+			config.setWriteBufferLowWaterMark(low);
+			config.setWriteBufferHighWaterMark(high);
+		}
+	}
+
+	/**
+	 * Records that the writability of a Channel has changed and informs the listeners if its Module became congested
+	 * or is no longer congested.
+	 *
+	 * @param channel
+	 *            the Channel whose writability changed
+	 * @param moduleID
+	 *            the ID of the Module the Channel is connected to. Only needed if the Channel is not writable; a
+	 *            congested Channel is ignored if this is null.
+	 * @param writable
+	 *            whether the Channel is writable. A closed Channel counts as writable.
+	 */
+	public void writabilityChanged(final Channel channel, final ModuleID moduleID, final boolean writable) {
+		if (writable) {
+			final ModuleID congestedModuleID = congestedChannels.remove(channel);
+			if (congestedModuleID != null && getPeerState(congestedModuleID).end(System.nanoTime())) {
+				LOGGER.debug("connection to {} is no longer congested", congestedModuleID);
+				for (final BackpressureListener listener : listeners) {
+					listener.backpressureEnded(congestedModuleID);
+				}
+			}
+		} else {
+			if (moduleID == null || congestedChannels.putIfAbsent(channel, moduleID) != null) {
+				return;
+			}
+			if (getPeerState(moduleID).start(System.nanoTime())) {
+				LOGGER.debug("connection to {} is congested", moduleID);
+				for (final BackpressureListener listener : listeners) {
+					listener.backpressureStarted(moduleID);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the connection to a Module is currently congested.
+	 *
+	 * @param moduleID
+	 *            the ID of the Module
+	 * @return true if the connection to the Module is congested
+	 */
+	public boolean isBackpressured(final ModuleID moduleID) {
+		final PeerState peer = peers.get(moduleID);
+		return peer != null && peer.isActive();
+	}
+
+	/**
+	 * Returns the total time the connection to a Module has been congested, including the current congestion.
+	 *
+	 * @param moduleID
+	 *            the ID of the Module
+	 * @return the time the connection has been congested in nanoseconds
+	 */
+	public long getBackpressureNanos(final ModuleID moduleID) {
+		final PeerState peer = peers.get(moduleID);
+		return peer == null ? 0 : peer.getTotalNanos(System.nanoTime());
+	}
+
+	/**
+	 * Returns how often the connection to a Module got congested.
+	 *
+	 * @param moduleID
+	 *            the ID of the Module
+	 * @return the number of times the connection got congested
+	 */
+	public long getBackpressureCount(final ModuleID moduleID) {
+		final PeerState peer = peers.get(moduleID);
+		return peer == null ? 0 : peer.getCount();
+	}
+
+	public void addListener(final BackpressureListener listener) {
+		listeners.addIfAbsent(listener);
+	}
+
+	public void removeListener(final BackpressureListener listener) {
+		listeners.remove(listener);
+	}
+
+	private PeerState getPeerState(final ModuleID moduleID) {
+		PeerState peer = peers.get(moduleID);
+		if (peer == null) {
+			final PeerState newPeer = new PeerState();
+			peer = peers.putIfAbsent(moduleID, newPeer);
+			if (peer == null) {
+				peer = newPeer;
+			}
+		}
+		return peer;
+	}
+
+	/**
+	 * The congestion state and statistics of a single Module.
+	 */
+	private static class PeerState {
+		/**
+		 * The number of Channels to the Module that are congested.
+		 */
+		private int congested = 0;
+		private long since = 0;
+		private long totalNanos = 0;
+		private long count = 0;
+
+		/**
+		 * Called when one of the Module's Channels becomes congested.
+		 *
+		 * @return true if the Module was not congested before
+		 */
+		private synchronized boolean start(final long now) {
+			congested++;
+			if (congested > 1) {
+				return false;
+			}
+			since = now;
+			count++;
+			return true;
+		}
+
+		/**
+		 * Called when one of the Module's congested Channels is no longer congested.
+		 *
+		 * @return true if none of the Module's Channels is congested any longer
+		 */
+		private synchronized boolean end(final long now) {
+			if (congested == 0) {
+				return false;
+			}
+			congested--;
+			if (congested > 0) {
+				return false;
+			}
+			totalNanos += now - since;
+			return true;
+		}
+
+		private synchronized boolean isActive() {
+			return congested > 0;
+		}
+
+		private synchronized long getTotalNanos(final long now) {
+			return congested > 0 ? totalNanos + now - since : totalNanos;
+		}
+
+		private synchronized long getCount() {
+			return count;
+		}
+	}
+
+	/**
+	 * Applies the water marks and reports writability changes. A closed Channel is no longer congested.
+	 */
+	@Sharable
+	private class WritabilityHandler extends ChannelInboundHandlerAdapter {
+		@Override
+		public void handlerAdded(final ChannelHandlerContext ctx) {
+			configure(ctx.channel());
+		}
+
+		@Override
+		public void channelWritabilityChanged(final ChannelHandlerContext ctx) throws Exception {
+			final Channel channel = ctx.channel();
+			writabilityChanged(channel, remoteIDResolver.getRemoteID(channel), channel.isWritable());
+			super.channelWritabilityChanged(ctx);
+		}
+
+		@Override
+		public void channelInactive(final ChannelHandlerContext ctx) throws Exception {
+			writabilityChanged(ctx.channel(), null, true);
+			super.channelInactive(ctx);
+		}
+	}
+}
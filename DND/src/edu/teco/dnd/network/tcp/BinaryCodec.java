@@ -0,0 +1,525 @@
+package edu.teco.dnd.network.tcp;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.MessageToMessageDecoder;
+import io.netty.handler.codec.MessageToMessageEncoder;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import edu.teco.dnd.network.messages.HelloMessage;
+import edu.teco.dnd.network.messages.Message;
+
+/**
+ * <p>
+ * A compact binary encoding for {@link Message}s. Messages are written directly into a {@link ByteBuf} without building
+ * a JSON tree or an intermediate String. A binary frame consists of:
+ * </p>
+ *
+ * <ul>
+ * <li>the marker byte {@value #MARKER}</li>
+ * <li>a 4 byte type tag as returned by {@link MessageAdapter#getTypeTag(Class)}</li>
+ * <li>the UUID of the Message (see {@link #writeUUID(ByteBuf, UUID)})</li>
+ * <li>the fields of the Message as written by the {@link BinaryMessageSerializer} registered for the class</li>
+ * </ul>
+ *
+ * <p>
+ * JSON frames always start with <code>{</code>, so binary and JSON frames can be mixed on a single connection. This
+ * codec only encodes Messages binary if the remote side announced support for it in its {@link HelloMessage} (see
+ * {@link #setEnabled(Channel, boolean)}) and a serializer has been registered for the Message's class. All other
+ * Messages are passed on unmodified so that they are encoded by {@link GsonCodec}.
+ * </p>
+ *
+ * <p>
+ * Messages with a {@link StatefulBinaryMessageSerializer} are written using the state of the connection if both sides
+ * support it (see {@link #setStatefulEnabled(Channel, boolean)}). These frames start with {@value #STATEFUL_MARKER}
+ * instead of {@value #MARKER} and must be decoded in the order they were encoded. Each side changes its state as soon
+ * as it has encoded or decoded such a frame. If a stateful frame is encoded but could not be sent (for example because
+ * it is too long) or if a received stateful frame could not be decoded, the states of both sides no longer match and
+ * the Channel is closed. A new connection starts with empty states.
+ * </p>
+ */
+public class BinaryCodec {
+	private static final Logger LOGGER = LogManager.getLogger(BinaryCodec.class);
+
+	/**
+	 * The first byte of each binary frame.
+	 */
+	public static final byte MARKER = 0;
+
+	/**
+	 * The first byte of each binary frame that was written using the state of the connection.
+	 */
+	public static final byte STATEFUL_MARKER = 3;
+
+	/**
+	 * The version of the binary encoding. Sent in the {@link HelloMessage}. Version 2 added chunk frames (see
+	 * {@link ChunkedFrameCodec}).
+	 */
+	public static final int VERSION = 2;
+
+	/**
+	 * The oldest version of the binary encoding that can be decoded by this codec.
+	 */
+	public static final int MIN_VERSION = 1;
+
+	private static final AttributeKey<Boolean> ENABLED_KEY = AttributeKey.valueOf("binary codec enabled");
+	private static final AttributeKey<Boolean> STATEFUL_ENABLED_KEY =
+			AttributeKey.valueOf("binary codec stateful enabled");
+	private static final AttributeKey<ChannelStates> STATES_KEY = AttributeKey.valueOf("binary codec states");
+
+	/**
+	 * Closes the Channel if a frame written using its state could not be sent. If the frame could not be encoded in the
+	 * first place, stateful encoding has already been disabled and the Channel is left open.
+	 */
+	private static final ChannelFutureListener STATEFUL_WRITE_LISTENER = new ChannelFutureListener() {
+		@Override
+		public void operationComplete(final ChannelFuture future) {
+			final Channel channel = future.channel();
+			if (!future.isSuccess() && isStatefulEnabled(channel) && channel.isOpen()) {
+				LOGGER.warn("stateful frame could not be sent on {}, closing", channel);
+				channel.close();
+			}
+		}
+	};
+
+	private static final Charset CHARSET = Charset.forName("UTF-8");
+
+	private final MessageAdapter messageAdapter;
+	private final ConcurrentMap<Class<? extends Message>, BinaryMessageSerializer<?>> serializers =
+			new ConcurrentHashMap<Class<? extends Message>, BinaryMessageSerializer<?>>();
+
+	private final ChannelHandler encoder = new Encoder();
+	private final ChannelHandler decoder = new Decoder();
+
+	/**
+	 * Initializes a new BinaryCodec.
+	 *
+	 * @param messageAdapter
+	 *            the MessageAdapter used to look up the type tags of Messages
+	 */
+	public BinaryCodec(final MessageAdapter messageAdapter) {
+		this.messageAdapter = messageAdapter;
+	}
+
+	/**
+	 * Registers a serializer for a Message class. Messages of classes without a serializer are sent as JSON.
+	 *
+	 * @param cls
+	 *            the class the serializer should be used for. Must also be added to the {@link MessageAdapter}.
+	 * @param serializer
+	 *            the serializer to use
+	 */
+	public <T extends Message> void addSerializer(final Class<T> cls, final BinaryMessageSerializer<T> serializer) {
+		LOGGER.entry(cls, serializer);
+		serializers.put(cls, serializer);
+		LOGGER.exit();
+	}
+
+	/**
+	 * Returns the handler that encodes outgoing Messages. Must be placed behind the {@link GsonCodec} in the pipeline
+	 * (seen from the head).
+	 *
+	 * @return the handler that encodes outgoing Messages
+	 */
+	public ChannelHandler getEncoder() {
+		return encoder;
+	}
+
+	/**
+	 * Returns the handler that decodes incoming binary frames. Must be placed between the frame decoder and the
+	 * {@link io.netty.handler.codec.string.StringDecoder} in the pipeline.
+	 *
+	 * @return the handler that decodes incoming binary frames
+	 */
+	public ChannelHandler getDecoder() {
+		return decoder;
+	}
+
+	/**
+	 * Sets whether or not Messages sent on the Channel should be encoded binary.
+	 *
+	 * @param channel
+	 *            the Channel
+	 * @param enabled
+	 *            true if the remote side can decode binary frames
+	 */
+	public static void setEnabled(final Channel channel, final boolean enabled) {
+		channel.attr(ENABLED_KEY).set(enabled);
+	}
+
+	/**
+	 * Returns whether or not Messages sent on the Channel are encoded binary.
+	 *
+	 * @param channel
+	 *            the Channel
+	 * @return true if Messages are encoded binary
+	 */
+	public static boolean isEnabled(final Channel channel) {
+		final Attribute<Boolean> attribute = channel.attr(ENABLED_KEY);
+		return attribute != null && Boolean.TRUE.equals(attribute.get());
+	}
+
+	/**
+	 * Sets whether or not Messages sent on the Channel should be encoded using the state of the connection if their
+	 * serializer supports it. Only has an effect if binary encoding is {@link #setEnabled(Channel, boolean) enabled}.
+	 *
+	 * @param channel
+	 *            the Channel
+	 * @param enabled
+	 *            true if the remote side can decode frames written with {@link StatefulBinaryMessageSerializer}s
+	 */
+	public static void setStatefulEnabled(final Channel channel, final boolean enabled) {
+		channel.attr(STATEFUL_ENABLED_KEY).set(enabled);
+	}
+
+	/**
+	 * Returns whether or not Messages sent on the Channel are encoded using the state of the connection.
+	 *
+	 * @param channel
+	 *            the Channel
+	 * @return true if stateful encoding is used
+	 */
+	public static boolean isStatefulEnabled(final Channel channel) {
+		final Attribute<Boolean> attribute = channel.attr(STATEFUL_ENABLED_KEY);
+		return attribute != null && Boolean.TRUE.equals(attribute.get());
+	}
+
+	/**
+	 * Writes a UUID. UUIDs always take 17 bytes: one byte that is 0 if the UUID is null and the two longs of the UUID.
+	 *
+	 * @param out
+	 *            the buffer to write to
+	 * @param uuid
+	 *            the UUID to write. May be null.
+	 */
+	public static void writeUUID(final ByteBuf out, final UUID uuid) {
+		if (uuid == null) {
+			out.writeByte(0);
+			out.writeLong(0);
+			out.writeLong(0);
+		} else {
+			out.writeByte(1);
+			out.writeLong(uuid.getMostSignificantBits());
+			out.writeLong(uuid.getLeastSignificantBits());
+		}
+	}
+
+	/**
+	 * Reads a UUID written by {@link #writeUUID(ByteBuf, UUID)}.
+	 *
+	 * @param in
+	 *            the buffer to read from
+	 * @return the UUID that was read. May be null.
+	 */
+	public static UUID readUUID(final ByteBuf in) {
+		final boolean present = in.readByte() != 0;
+		final long mostSignificantBits = in.readLong();
+		final long leastSignificantBits = in.readLong();
+		return present ? new UUID(mostSignificantBits, leastSignificantBits) : null;
+	}
+
+	/**
+	 * Writes a length prefixed byte array. The length is written as an int, -1 is used for null.
+	 *
+	 * @param out
+	 *            the buffer to write to
+	 * @param bytes
+	 *            the bytes to write. May be null.
+	 */
+	public static void writeBytes(final ByteBuf out, final byte[] bytes) {
+		if (bytes == null) {
+			out.writeInt(-1);
+		} else {
+			out.writeInt(bytes.length);
+			out.writeBytes(bytes);
+		}
+	}
+
+	/**
+	 * Reads a byte array written by {@link #writeBytes(ByteBuf, byte[])}.
+	 *
+	 * @param in
+	 *            the buffer to read from
+	 * @return the bytes that were read. May be null.
+	 * @throws IOException
+	 *             if the length field is invalid
+	 */
+	public static byte[] readBytes(final ByteBuf in) throws IOException {
+		final int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		if (length > in.readableBytes()) {
+			throw new IOException("length " + length + " exceeds remaining " + in.readableBytes() + " bytes");
+		}
+		final byte[] bytes = new byte[length];
+		in.readBytes(bytes);
+		return bytes;
+	}
+
+	/**
+	 * Writes a length prefixed UTF-8 String.
+	 *
+	 * @param out
+	 *            the buffer to write to
+	 * @param string
+	 *            the String to write. May be null.
+	 */
+	public static void writeString(final ByteBuf out, final String string) {
+		writeBytes(out, string == null ? null : string.getBytes(CHARSET));
+	}
+
+	/**
+	 * Reads a String written by {@link #writeString(ByteBuf, String)}.
+	 *
+	 * @param in
+	 *            the buffer to read from
+	 * @return the String that was read. May be null.
+	 * @throws IOException
+	 *             if the length field is invalid
+	 */
+	public static String readString(final ByteBuf in) throws IOException {
+		final byte[] bytes = readBytes(in);
+		return bytes == null ? null : new String(bytes, CHARSET);
+	}
+
+	/**
+	 * Encodes a Message as a binary frame. Used to encode a Message once if it is sent on multiple Channels.
+	 * 
+	 * @param msg
+	 *            the Message to encode
+	 * @param alloc
+	 *            the allocator used to create the buffer
+	 * @return the encoded frame or null if no serializer is registered for the Message's class
+	 * @throws IOException
+	 *             if the Message could not be encoded
+	 */
+	public ByteBuf encode(final Message msg, final ByteBufAllocator alloc) throws IOException {
+		return encode(msg, alloc, null);
+	}
+
+	/**
+	 * Encodes a Message, using the state of the Channel if possible.
+	 *
+	 * @param channel
+	 *            the Channel the frame will be sent on. If null, the frame is encoded without state.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private ByteBuf encode(final Message msg, final ByteBufAllocator alloc, final Channel channel) throws IOException {
+		final Integer tag = messageAdapter.getTypeTag(msg.getClass());
+		final BinaryMessageSerializer<Message> serializer = getSerializer((Class<Message>) msg.getClass());
+		if (tag == null || serializer == null) {
+			return null;
+		}
+		final boolean stateful =
+				channel != null && serializer instanceof StatefulBinaryMessageSerializer && isStatefulEnabled(channel);
+
+		final ByteBuf buf = alloc.buffer();
+		boolean success = false;
+		try {
+			buf.writeByte(stateful ? STATEFUL_MARKER : MARKER);
+			buf.writeInt(tag);
+			writeUUID(buf, msg.getUUID());
+			if (stateful) {
+				final StatefulBinaryMessageSerializer statefulSerializer = (StatefulBinaryMessageSerializer) serializer;
+				boolean written = false;
+				try {
+					statefulSerializer.write(msg, buf, getStates(channel).getEncoderState(statefulSerializer));
+					written = true;
+				} finally {
+					if (!written) {
+						// the state no longer matches the remote side's state
+						LOGGER.warn("stateful encoding failed on {}, disabling it", channel);
+						setStatefulEnabled(channel, false);
+					}
+				}
+			} else {
+				serializer.write(msg, buf);
+			}
+			success = true;
+		} finally {
+			if (!success) {
+				buf.release();
+			}
+		}
+		return buf;
+	}
+
+	private static ChannelStates getStates(final Channel channel) {
+		final Attribute<ChannelStates> attribute = channel.attr(STATES_KEY);
+		ChannelStates states = attribute.get();
+		if (states == null) {
+			states = new ChannelStates();
+			attribute.set(states);
+		}
+		return states;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T extends Message> BinaryMessageSerializer<T> getSerializer(final Class<T> cls) {
+		return (BinaryMessageSerializer<T>) serializers.get(cls);
+	}
+
+	/**
+	 * Encodes Messages binary if enabled for the Channel and a serializer is known. Passes all other objects on.
+	 */
+	@Sharable
+	private class Encoder extends MessageToMessageEncoder<Message> {
+		@Override
+		public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise)
+				throws Exception {
+			final Channel channel = ctx.channel();
+			if (msg instanceof Message && isEnabled(channel) && isStatefulEnabled(channel)
+					&& messageAdapter.getTypeTag(((Message) msg).getClass()) != null
+					&& getSerializer(((Message) msg).getClass()) instanceof StatefulBinaryMessageSerializer) {
+				promise.addListener(STATEFUL_WRITE_LISTENER);
+			}
+			super.write(ctx, msg, promise);
+		}
+
+		@Override
+		protected void encode(final ChannelHandlerContext ctx, final Message msg, final List<Object> out)
+				throws Exception {
+			LOGGER.entry(ctx, msg, out);
+			final ByteBuf buf =
+					isEnabled(ctx.channel()) ? BinaryCodec.this.encode(msg, ctx.alloc(), ctx.channel()) : null;
+			out.add(buf == null ? msg : buf);
+			LOGGER.exit();
+		}
+	}
+
+	/**
+	 * Decodes binary frames. JSON frames are passed on.
+	 */
+	@Sharable
+	private class Decoder extends MessageToMessageDecoder<ByteBuf> {
+		@Override
+		protected void decode(final ChannelHandlerContext ctx, final ByteBuf msg, final List<Object> out)
+				throws Exception {
+			LOGGER.entry(ctx, msg, out);
+			final byte marker = msg.isReadable() ? msg.getByte(msg.readerIndex()) : -1;
+			if (marker != MARKER && marker != STATEFUL_MARKER) {
+				out.add(msg.retain());
+				LOGGER.exit();
+				return;
+			}
+
+			msg.skipBytes(1);
+			if (marker == STATEFUL_MARKER) {
+				decodeStateful(ctx, msg, out);
+			} else {
+				decodeFrame(ctx.channel(), false, msg, out);
+			}
+			LOGGER.exit();
+		}
+
+		/**
+		 * Decodes a frame that was written using the state of the Channel. The Channel is closed if the frame can not
+		 * be decoded as the state of the remote side may have been changed in ways the local state was not.
+		 */
+		private void decodeStateful(final ChannelHandlerContext ctx, final ByteBuf msg, final List<Object> out)
+				throws IOException {
+			boolean decoded = false;
+			try {
+				decoded = decodeFrame(ctx.channel(), true, msg, out);
+			} finally {
+				if (!decoded) {
+					LOGGER.warn("could not decode stateful frame on {}, closing", ctx.channel());
+					ctx.close();
+				}
+			}
+		}
+
+		/**
+		 * Decodes a frame after its marker.
+		 *
+		 * @return false if no serializer is registered for the frame's type
+		 */
+		private boolean decodeFrame(final Channel channel, final boolean stateful, final ByteBuf msg,
+				final List<Object> out) throws IOException {
+			final int tag = msg.readInt();
+			final Class<? extends Message> cls = messageAdapter.getMessageClass(tag);
+			final BinaryMessageSerializer<? extends Message> serializer = cls == null ? null : getSerializer(cls);
+			if (serializer == null) {
+				LOGGER.warn("received binary message with tag {} ({}), but no serializer is registered", tag, cls);
+				return false;
+			}
+
+			final UUID uuid = readUUID(msg);
+			try {
+				final Message message;
+				if (stateful) {
+					if (!(serializer instanceof StatefulBinaryMessageSerializer)) {
+						throw LOGGER.throwing(new DecoderException("received stateful binary message of class " + cls
+								+ ", but its serializer is not stateful"));
+					}
+					message = readStateful(channel, (StatefulBinaryMessageSerializer<?, ?>) serializer, uuid, msg);
+				} else {
+					message = serializer.read(uuid, msg);
+				}
+				if (message != null) {
+					out.add(message);
+				}
+			} catch (final IndexOutOfBoundsException e) {
+				throw LOGGER.throwing(new DecoderException("truncated binary message of class " + cls, e));
+			}
+			return true;
+		}
+
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		private Message readStateful(final Channel channel, final StatefulBinaryMessageSerializer serializer,
+				final UUID uuid, final ByteBuf in) throws IOException {
+			return serializer.read(uuid, in, getStates(channel).getDecoderState(serializer));
+		}
+	}
+
+	/**
+	 * The states of the {@link StatefulBinaryMessageSerializer}s for one Channel. Only used by the Channel's event
+	 * loop.
+	 */
+	private static class ChannelStates {
+		private final Map<StatefulBinaryMessageSerializer<?, ?>, Object> encoderStates =
+				new IdentityHashMap<StatefulBinaryMessageSerializer<?, ?>, Object>();
+		private final Map<StatefulBinaryMessageSerializer<?, ?>, Object> decoderStates =
+				new IdentityHashMap<StatefulBinaryMessageSerializer<?, ?>, Object>();
+
+		private Object getEncoderState(final StatefulBinaryMessageSerializer<?, ?> serializer) {
+			return getState(encoderStates, serializer);
+		}
+
+		private Object getDecoderState(final StatefulBinaryMessageSerializer<?, ?> serializer) {
+			return getState(decoderStates, serializer);
+		}
+
+		private static Object getState(final Map<StatefulBinaryMessageSerializer<?, ?>, Object> states,
+				final StatefulBinaryMessageSerializer<?, ?> serializer) {
+			Object state = states.get(serializer);
+			if (state == null) {
+				state = serializer.createState();
+				states.put(serializer, state);
+			}
+			return state;
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package edu.teco.dnd.network.tcp;
+
+import io.netty.buffer.ByteBuf;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import edu.teco.dnd.network.messages.Message;
+
+/**
+ * Writes the fields of a {@link Message} directly into a {@link ByteBuf} and reads them back. The type tag and the UUID
+ * of the Message are handled by {@link BinaryCodec}, implementations only have to handle the fields specific to their
+ * Message class. The helper methods in BinaryCodec should be used to write the fields.
+ *
+ * @param <T>
+ *            the type of Message this serializer handles
+ */
+public interface BinaryMessageSerializer<T extends Message> {
+	/**
+	 * Writes the fields of the Message.
+	 *
+	 * @param message
+	 *            the Message to write
+	 * @param out
+	 *            the buffer to write to
+	 * @throws IOException
+	 *             if the Message cannot be written
+	 */
+	void write(T message, ByteBuf out) throws IOException;
+
+	/**
+	 * Reads a Message that was written with {@link #write(Message, ByteBuf)}.
+	 *
+	 * @param uuid
+	 *            the UUID of the Message
+	 * @param in
+	 *            the buffer to read from
+	 * @return the Message that was read
+	 * @throws IOException
+	 *             if the Message cannot be read
+	 */
+	T read(UUID uuid, ByteBuf in) throws IOException;
+}
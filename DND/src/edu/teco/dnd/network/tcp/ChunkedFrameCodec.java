@@ -0,0 +1,446 @@
+package edu.teco.dnd.network.tcp;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.TooLongFrameException;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import edu.teco.dnd.network.messages.HelloMessage;
+
+/**
+ * <p>
+ * Splits large frames into chunks and reassembles them on the receiving side. The length field of a frame only has
+ * {@value ClientChannelInitializer#LENGTH_FIELD_LENGTH} bytes, so a single frame can not carry a large class file or
+ * value. Frames that are longer than the chunk size are sent as a stream of chunk frames, each consisting of:
+ * </p>
+ *
+ * <ul>
+ * <li>the marker byte {@value #MARKER}</li>
+ * <li>a 4 byte stream ID</li>
+ * <li>the 4 byte length of the complete frame</li>
+ * <li>up to <code>chunkSize</code> bytes of the frame</li>
+ * </ul>
+ *
+ * <p>
+ * Chunks are only written while the {@link Channel} is writable, the rest of the stream is sent once it becomes
+ * writable again. Smaller frames are passed on immediately, even if a stream is in progress, so that a large
+ * {@link edu.teco.dnd.module.messages.loadStartBlock.LoadClassMessage} does not hold up other Messages. Only frames
+ * that were encoded using the state of the connection ({@link BinaryCodec#STATEFUL_MARKER}) wait for the streams in
+ * progress, as they have to arrive in the order they were encoded. This means that the receiver may get Messages in
+ * a different order than they were sent. The receiver collects the chunks of each stream in a buffer taken from the
+ * Channel's allocator and passes the frame on once it is complete. Frames longer than <code>maxFrameLength</code> are
+ * rejected. Frames that are not chunk frames are passed on unchanged, as neither binary nor JSON frames start with
+ * {@value #MARKER}.
+ * </p>
+ *
+ * <p>
+ * Streams are sent one after another, so normally only one stream is received at a time. As each stream that is
+ * received takes up a buffer for the complete frame, the Channel is closed if a remote side starts more than
+ * <code>maxIncomingStreams</code> streams at once.
+ * </p>
+ *
+ * <p>
+ * Frames are only split if the remote side announced support for chunks in its {@link HelloMessage} (see
+ * {@link #setEnabled(Channel, boolean)}). The handler keeps state and must not be shared between Channels. It has to
+ * be placed between the length field codecs and the decoder of the {@link BinaryCodec}.
+ * </p>
+ */
+public class ChunkedFrameCodec extends ChannelDuplexHandler {
+	private static final Logger LOGGER = LogManager.getLogger(ChunkedFrameCodec.class);
+
+	/**
+	 * The first byte of each chunk frame.
+	 */
+	public static final byte MARKER = 1;
+
+	/**
+	 * The version of {@link BinaryCodec} that added support for chunk frames.
+	 */
+	public static final int VERSION = 2;
+
+	/**
+	 * Number of bytes in front of the data of each chunk.
+	 */
+	public static final int HEADER_LENGTH = 9;
+
+	/**
+	 * The default number of bytes of a frame that are sent in a single chunk.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 16 * 1024;
+
+	/**
+	 * The default number of streams that may be received at the same time.
+	 */
+	public static final int DEFAULT_MAX_INCOMING_STREAMS = 4;
+
+	/**
+	 * The maximum chunk size that still fits into a frame.
+	 */
+	public static final int MAX_CHUNK_SIZE = (1 << (8 * ClientChannelInitializer.LENGTH_FIELD_LENGTH)) - 1
+			- HEADER_LENGTH;
+
+	private static final AttributeKey<Boolean> ENABLED_KEY = AttributeKey.valueOf("chunked frames enabled");
+
+	private final int chunkSize;
+	private final int maxFrameLength;
+	private final int maxIncomingStreams;
+
+	/**
+	 * Streams that are being sent. The first stream is the one that is currently sent.
+	 */
+	private final Queue<OutgoingStream> outgoingStreams = new ArrayDeque<OutgoingStream>();
+
+	/**
+	 * Frames that are being received, by stream ID.
+	 */
+	private final Map<Integer, ByteBuf> incomingStreams = new HashMap<Integer, ByteBuf>();
+
+	private int nextStreamID = 0;
+
+	/**
+	 * Initializes a new ChunkedFrameCodec that accepts up to {@link #DEFAULT_MAX_INCOMING_STREAMS} streams at once.
+	 *
+	 * @param chunkSize
+	 *            the number of bytes sent in a single chunk. Frames up to this size are sent unchanged. Must be
+	 *            positive and not greater than {@link #MAX_CHUNK_SIZE}.
+	 * @param maxFrameLength
+	 *            the maximum length of a reassembled frame
+	 */
+	public ChunkedFrameCodec(final int chunkSize, final int maxFrameLength) {
+		this(chunkSize, maxFrameLength, DEFAULT_MAX_INCOMING_STREAMS);
+	}
+
+	/**
+	 * Initializes a new ChunkedFrameCodec.
+	 *
+	 * @param chunkSize
+	 *            the number of bytes sent in a single chunk. Frames up to this size are sent unchanged. Must be
+	 *            positive and not greater than {@link #MAX_CHUNK_SIZE}.
+	 * @param maxFrameLength
+	 *            the maximum length of a reassembled frame
+	 * @param maxIncomingStreams
+	 *            the number of streams that may be received at the same time. Must be positive.
+	 */
+	public ChunkedFrameCodec(final int chunkSize, final int maxFrameLength, final int maxIncomingStreams) {
+		if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE) {
+			throw new IllegalArgumentException("chunkSize must be between 1 and " + MAX_CHUNK_SIZE);
+		}
+		if (maxIncomingStreams <= 0) {
+			throw new IllegalArgumentException("maxIncomingStreams must be positive");
+		}
+		this.chunkSize = chunkSize;
+		this.maxFrameLength = maxFrameLength;
+		this.maxIncomingStreams = maxIncomingStreams;
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	public int getMaxFrameLength() {
+		return maxFrameLength;
+	}
+
+	public int getMaxIncomingStreams() {
+		return maxIncomingStreams;
+	}
+
+	/**
+	 * Returns the number of frames that have not been sent completely, including frames that wait for other frames.
+	 *
+	 * @return the number of frames that are being sent or wait to be sent
+	 */
+	public int getOutgoingCount() {
+		return outgoingStreams.size();
+	}
+
+	/**
+	 * Returns the number of frames that have not been received completely.
+	 *
+	 * @return the number of frames that are being received
+	 */
+	public int getIncomingCount() {
+		return incomingStreams.size();
+	}
+
+	/**
+	 * Sets whether or not large frames sent on the Channel should be split into chunks.
+	 *
+	 * @param channel
+	 *            the Channel
+	 * @param enabled
+	 *            true if the remote side can reassemble chunks
+	 */
+	public static void setEnabled(final Channel channel, final boolean enabled) {
+		channel.attr(ENABLED_KEY).set(enabled);
+	}
+
+	/**
+	 * Returns whether or not large frames sent on the Channel are split into chunks.
+	 *
+	 * @param channel
+	 *            the Channel
+	 * @return true if large frames are split into chunks
+	 */
+	public static boolean isEnabled(final Channel channel) {
+		final Attribute<Boolean> attribute = channel.attr(ENABLED_KEY);
+		return attribute != null && Boolean.TRUE.equals(attribute.get());
+	}
+
+	@Override
+	public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise) {
+		if (!(msg instanceof ByteBuf) || !isEnabled(ctx.channel())) {
+			ctx.write(msg, promise);
+			return;
+		}
+
+		final ByteBuf frame = (ByteBuf) msg;
+		if (frame.readableBytes() <= chunkSize) {
+			if (outgoingStreams.isEmpty() || !dependsOnOrder(frame)) {
+				ctx.write(frame, promise);
+			} else {
+				outgoingStreams.add(new OutgoingStream(-1, frame, promise, false));
+			}
+			return;
+		}
+		if (frame.readableBytes() > maxFrameLength) {
+			frame.release();
+			promise.setFailure(new TooLongFrameException("frame of " + frame.readableBytes()
+					+ " bytes exceeds maximum of " + maxFrameLength));
+			return;
+		}
+		outgoingStreams.add(new OutgoingStream(nextStreamID++, frame, promise, true));
+		writeChunks(ctx, false);
+	}
+
+	@Override
+	public void flush(final ChannelHandlerContext ctx) {
+		writeChunks(ctx, false);
+		ctx.flush();
+	}
+
+	@Override
+	public void channelWritabilityChanged(final ChannelHandlerContext ctx) {
+		// let the handlers further up write held back Messages first
+		ctx.fireChannelWritabilityChanged();
+		if (ctx.channel().isWritable() && !outgoingStreams.isEmpty()) {
+			writeChunks(ctx, false);
+			ctx.flush();
+		}
+	}
+
+	@Override
+	public void close(final ChannelHandlerContext ctx, final ChannelPromise promise) {
+		if (!outgoingStreams.isEmpty()) {
+			writeChunks(ctx, true);
+			ctx.flush();
+		}
+		ctx.close(promise);
+	}
+
+	@Override
+	public void channelRead(final ChannelHandlerContext ctx, final Object msg) throws Exception {
+		if (!(msg instanceof ByteBuf)) {
+			ctx.fireChannelRead(msg);
+			return;
+		}
+		final ByteBuf chunk = (ByteBuf) msg;
+		if (!chunk.isReadable() || chunk.getByte(chunk.readerIndex()) != MARKER) {
+			ctx.fireChannelRead(chunk);
+			return;
+		}
+
+		try {
+			final ByteBuf frame = readChunk(ctx, chunk);
+			if (frame != null) {
+				ctx.fireChannelRead(frame);
+			}
+		} finally {
+			chunk.release();
+		}
+	}
+
+	@Override
+	public void channelInactive(final ChannelHandlerContext ctx) throws Exception {
+		failOutgoing(new ClosedChannelException());
+		releaseIncoming();
+		super.channelInactive(ctx);
+	}
+
+	@Override
+	public void handlerRemoved(final ChannelHandlerContext ctx) {
+		if (!outgoingStreams.isEmpty()) {
+			writeChunks(ctx, true);
+			ctx.flush();
+		}
+		releaseIncoming();
+	}
+
+	/**
+	 * Adds a chunk to its stream.
+	 *
+	 * @return the complete frame if this was the last chunk, null otherwise
+	 */
+	private ByteBuf readChunk(final ChannelHandlerContext ctx, final ByteBuf chunk) throws CorruptedFrameException,
+			TooLongFrameException {
+		if (chunk.readableBytes() < HEADER_LENGTH) {
+			throw LOGGER.throwing(new CorruptedFrameException("chunk of " + chunk.readableBytes() + " bytes"));
+		}
+		chunk.skipBytes(1);
+		final Integer streamID = chunk.readInt();
+		final int frameLength = chunk.readInt();
+		if (frameLength <= 0) {
+			throw LOGGER.throwing(new CorruptedFrameException("chunk of stream " + streamID + " has frame length "
+					+ frameLength));
+		}
+		if (frameLength > maxFrameLength) {
+			throw LOGGER.throwing(new TooLongFrameException("frame of " + frameLength + " bytes exceeds maximum of "
+					+ maxFrameLength));
+		}
+
+		ByteBuf frame = incomingStreams.get(streamID);
+		if (frame == null) {
+			if (incomingStreams.size() >= maxIncomingStreams) {
+				LOGGER.warn("{} started more than {} streams, closing", ctx.channel(), maxIncomingStreams);
+				releaseIncoming();
+				ctx.close();
+				throw LOGGER.throwing(new CorruptedFrameException("more than " + maxIncomingStreams
+						+ " streams at once"));
+			}
+			frame = ctx.alloc().buffer(frameLength, frameLength);
+			incomingStreams.put(streamID, frame);
+		} else if (frame.capacity() != frameLength) {
+			throw LOGGER.throwing(new CorruptedFrameException("chunk of stream " + streamID + " has frame length "
+					+ frameLength + " instead of " + frame.capacity()));
+		}
+		if (chunk.readableBytes() > frame.writableBytes()) {
+			throw LOGGER.throwing(new CorruptedFrameException("chunk of stream " + streamID + " exceeds frame length "
+					+ frameLength));
+		}
+		frame.writeBytes(chunk);
+
+		if (frame.isWritable()) {
+			return null;
+		}
+		incomingStreams.remove(streamID);
+		return frame;
+	}
+
+	private static boolean dependsOnOrder(final ByteBuf frame) {
+		return frame.isReadable() && frame.getByte(frame.readerIndex()) == BinaryCodec.STATEFUL_MARKER;
+	}
+
+	/**
+	 * Writes chunks of the outgoing streams, oldest stream first. Frames that are not split are written as they are.
+	 *
+	 * @param all
+	 *            if true all chunks are written, otherwise only as long as the Channel is writable
+	 */
+	private void writeChunks(final ChannelHandlerContext ctx, final boolean all) {
+		OutgoingStream stream;
+		while ((stream = outgoingStreams.peek()) != null) {
+			if (!stream.chunked) {
+				if (!all && !ctx.channel().isWritable()) {
+					return;
+				}
+				outgoingStreams.poll();
+				ctx.write(stream.frame, stream.promise);
+				continue;
+			}
+			while (stream.frame.isReadable()) {
+				if (!all && !ctx.channel().isWritable()) {
+					return;
+				}
+				writeChunk(ctx, stream);
+			}
+			outgoingStreams.poll();
+			stream.frame.release();
+		}
+	}
+
+	private void writeChunk(final ChannelHandlerContext ctx, final OutgoingStream stream) {
+		final int length = Math.min(chunkSize, stream.frame.readableBytes());
+		final ByteBuf header = ctx.alloc().buffer(HEADER_LENGTH);
+		header.writeByte(MARKER);
+		header.writeInt(stream.streamID);
+		header.writeInt(stream.length);
+		final ByteBuf data = stream.frame.slice(stream.frame.readerIndex(), length).retain();
+		stream.frame.skipBytes(length);
+		final ChannelFuture future = ctx.write(Unpooled.wrappedBuffer(header, data));
+		if (stream.frame.isReadable()) {
+			future.addListener(stream);
+		} else {
+			future.addListener(stream.completion);
+		}
+	}
+
+	private void failOutgoing(final Throwable cause) {
+		OutgoingStream stream;
+		while ((stream = outgoingStreams.poll()) != null) {
+			stream.frame.release();
+			stream.promise.tryFailure(cause);
+		}
+	}
+
+	private void releaseIncoming() {
+		for (final ByteBuf frame : incomingStreams.values()) {
+			frame.release();
+		}
+		incomingStreams.clear();
+	}
+
+	/**
+	 * A frame that is being sent. Fails the promise of the frame if a chunk could not be written. Frames that are not
+	 * split are only queued to keep their order.
+	 */
+	private static class OutgoingStream implements ChannelFutureListener {
+		private final int streamID;
+		private final ByteBuf frame;
+		private final int length;
+		private final ChannelPromise promise;
+		private final boolean chunked;
+		private final ChannelFutureListener completion = new ChannelFutureListener() {
+			@Override
+			public void operationComplete(final ChannelFuture future) {
+				if (future.isSuccess()) {
+					promise.trySuccess();
+				} else {
+					promise.tryFailure(future.cause());
+				}
+			}
+		};
+
+		private OutgoingStream(final int streamID, final ByteBuf frame, final ChannelPromise promise,
+				final boolean chunked) {
+			this.streamID = streamID;
+			this.frame = frame;
+			this.length = frame.readableBytes();
+			this.promise = promise;
+			this.chunked = chunked;
+		}
+
+		@Override
+		public void operationComplete(final ChannelFuture future) {
+			if (!future.isSuccess()) {
+				promise.tryFailure(future.cause());
+			}
+		}
+	}
+}
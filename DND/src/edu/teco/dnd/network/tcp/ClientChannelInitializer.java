@@ -1,5 +1,8 @@
 package edu.teco.dnd.network.tcp;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelInitializer;
@@ -8,8 +11,11 @@ import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
 import io.netty.handler.codec.string.StringDecoder;
 import io.netty.handler.codec.string.StringEncoder;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
 import io.netty.util.concurrent.EventExecutorGroup;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
@@ -32,14 +38,22 @@ import edu.teco.dnd.network.messages.Message;
  * {@link TCPConnectionManager}. This pipeline will consist of:
  * 
  * <ul>
+ * <li>a {@link FlushConsolidationHandler} unless disabled with {@link #setMaxPendingFlushes(int)}</li>
+ * <li>the handler of a {@link BackpressureManager} if set with {@link #setBackpressureManager(BackpressureManager)}</li>
  * <li>a {@link LengthFieldBasedFrameDecoder}</li>
  * <li>a {@link LengthFieldPrepender}</li>
+ * <li>a {@link CompressionCodec} unless disabled with {@link #setCompression(int, int)}</li>
+ * <li>a {@link ChunkedFrameCodec}. Small frames may overtake large frames that are still being sent.</li>
+ * <li>the decoder of a {@link BinaryCodec}</li>
  * <li>a {@link StringEncoder}</li>
  * <li>a {@link StringDecoder}</li>
  * <li>a {@link MessageAdapter}</li>
  * <li>a {@link GsonCodec}</li>
+ * <li>the encoder of a {@link BinaryCodec}</li>
  * <li>a {@link HelloMessageHandler}</li>
  * <li>a {@link ConnectionEstablishedMessage}</li>
+ * <li>a {@link PriorityWriteHandler} using the {@link #getMessagePriorities() MessagePriorities} of this
+ * initializer</li>
  * <li>an additional handler if set with {@link #setMessageHandler(ChannelHandler)}</li>
  * </ul>
  * </p>
@@ -55,14 +69,28 @@ public class ClientChannelInitializer extends ChannelInitializer<Channel> {
 	 */
 	public static final int MAX_FRAME_LENGTH = 512 * 1024;
 
+	private static final Charset CHARSET = Charset.forName("UTF-8");
+
+	private static final AttributeKey<Integer> CAPABILITIES_KEY = AttributeKey.valueOf("local capabilities");
+
 	private final GsonCodec gsonCodec = new GsonCodec(Message.class);
 	private final MessageAdapter messageAdapter = new MessageAdapter();
+	private final BinaryCodec binaryCodec = new BinaryCodec(messageAdapter);
+	private final LengthFieldPrepender lengthFieldPrepender = new LengthFieldPrepender(LENGTH_FIELD_LENGTH);
 	private final List<ChannelHandler> defaultHandlers;
-	private final Message firstMessage;
+	private final ModuleID localID;
+	private volatile boolean binaryEnabled = true;
+	private volatile int maxPendingFlushes = FlushConsolidationHandler.DEFAULT_MAX_PENDING_FLUSHES;
+	private volatile int chunkSize = ChunkedFrameCodec.DEFAULT_CHUNK_SIZE;
+	private volatile int compressionLevel = CompressionCodec.DEFAULT_LEVEL;
+	private volatile int compressionMinFrameSize = CompressionCodec.DEFAULT_MIN_FRAME_SIZE;
 
 	private final ClientChannelManager clientChannelManager;
+	private final MessagePriorities messagePriorities = new MessagePriorities();
 
 	private final AtomicReference<ChannelHandler> messageHandler = new AtomicReference<ChannelHandler>();
+	private final AtomicReference<BackpressureManager> backpressureManager =
+			new AtomicReference<BackpressureManager>();
 	private final AtomicReference<EventExecutorGroup> handlerGroup = new AtomicReference<EventExecutorGroup>();
 
 	/**
@@ -76,37 +104,44 @@ public class ClientChannelInitializer extends ChannelInitializer<Channel> {
 	 */
 	public ClientChannelInitializer(final ClientChannelManager clientChannelManager, final ModuleID localID) {
 		this.clientChannelManager = clientChannelManager;
+		this.localID = localID;
 
 		final List<ChannelHandler> handlers = new ArrayList<ChannelHandler>();
 
-		handlers.add(new LengthFieldPrepender(LENGTH_FIELD_LENGTH));
+		handlers.add(binaryCodec.getDecoder());
 
-		final Charset charset = Charset.forName("UTF-8");
-		handlers.add(new StringEncoder(charset));
-		handlers.add(new StringDecoder(charset));
+		handlers.add(new StringEncoder(CHARSET));
+		handlers.add(new StringDecoder(CHARSET));
 
 		messageAdapter.addMessageType(HelloMessage.class);
 		messageAdapter.addMessageType(ConnectionEstablishedMessage.class);
 		gsonCodec.registerTypeAdapter(Message.class, messageAdapter);
 		handlers.add(gsonCodec);
+		binaryCodec.addSerializer(HelloMessage.class, new HelloMessageSerializer());
+		binaryCodec.addSerializer(ConnectionEstablishedMessage.class, new ConnectionEstablishedMessageSerializer());
+		handlers.add(binaryCodec.getEncoder());
 
-		handlers.add(new HelloMessageHandler(clientChannelManager, localID));
+		handlers.add(new HelloMessageHandler(clientChannelManager, localID, this));
 		handlers.add(new ConnectionEstablishedMessageHandler(clientChannelManager, localID));
 
 		defaultHandlers = Collections.unmodifiableList(handlers);
-
-		firstMessage = new HelloMessage(localID, MAX_FRAME_LENGTH);
 	}
 
 	@Override
 	public void initChannel(final Channel channel) {
 		clientChannelManager.addChannel(channel);
 		preparePipeline(channel);
-		sendFirstMessage(channel);
+		final int capabilities = getLocalCapabilities(channel);
+		final Attribute<Integer> attribute = channel.attr(CAPABILITIES_KEY);
+		if (attribute != null) {
+			attribute.set(capabilities);
+		}
+		sendFirstMessage(channel, capabilities);
 	}
 
-	private void sendFirstMessage(final Channel channel) {
-		channel.writeAndFlush(firstMessage);
+	private void sendFirstMessage(final Channel channel, final int capabilities) {
+		channel.writeAndFlush(new HelloMessage(localID, MAX_FRAME_LENGTH, binaryEnabled ? BinaryCodec.VERSION : 0,
+				capabilities));
 	}
 
 	private void preparePipeline(final Channel channel) {
@@ -116,11 +151,27 @@ public class ClientChannelInitializer extends ChannelInitializer<Channel> {
 	}
 
 	private void addDefaultHandlers(ChannelPipeline pipeline) {
+		final int maxPendingFlushes = this.maxPendingFlushes;
+		if (maxPendingFlushes > 1) {
+			pipeline.addLast(new FlushConsolidationHandler(maxPendingFlushes));
+		}
+		final BackpressureManager backpressureManager = this.backpressureManager.get();
+		if (backpressureManager != null) {
+			pipeline.addLast(backpressureManager.getHandler());
+		}
 		pipeline.addLast(new LengthFieldBasedFrameDecoder(MAX_FRAME_LENGTH, 0, LENGTH_FIELD_LENGTH, 0,
 				LENGTH_FIELD_LENGTH));
+		pipeline.addLast(lengthFieldPrepender);
+		final int compressionLevel = this.compressionLevel;
+		if (compressionLevel > 0) {
+			pipeline.addLast(new CompressionCodec(compressionLevel, compressionMinFrameSize,
+					(1 << (8 * LENGTH_FIELD_LENGTH)) - 1));
+		}
+		pipeline.addLast(new ChunkedFrameCodec(chunkSize, MAX_FRAME_LENGTH));
 		for (final ChannelHandler handler : defaultHandlers) {
 			pipeline.addLast(handler);
 		}
+		pipeline.addLast(new PriorityWriteHandler(messagePriorities));
 	}
 
 	private void addMessageHandlerIfPresent(ChannelPipeline pipeline) {
@@ -135,6 +186,88 @@ public class ClientChannelInitializer extends ChannelInitializer<Channel> {
 		}
 	}
 
+	/**
+	 * Returns the optional features that are supported on a Channel initialized by this class.
+	 * 
+	 * @param channel
+	 *            the Channel
+	 * @return a combination of the <code>CAPABILITY_</code> flags of {@link HelloMessage}
+	 */
+	static int getCapabilities(final Channel channel) {
+		final Attribute<Integer> attribute = channel.attr(CAPABILITIES_KEY);
+		final Integer capabilities = attribute == null ? null : attribute.get();
+		return capabilities == null ? 0 : capabilities;
+	}
+
+	private int getLocalCapabilities(final Channel channel) {
+		int capabilities = 0;
+		if (channel.pipeline().get(CompressionCodec.class) != null) {
+			capabilities |= HelloMessage.CAPABILITY_COMPRESSION;
+		}
+		if (binaryEnabled) {
+			capabilities |= HelloMessage.CAPABILITY_STATEFUL_ENCODING;
+		}
+		return capabilities;
+	}
+
+	/**
+	 * Returns the optional features that are supported by both sides of a Channel.
+	 * 
+	 * @param channel
+	 *            the Channel
+	 * @param remoteCapabilities
+	 *            the features the remote side announced
+	 * @return the features supported by both sides
+	 */
+	static int agreeOnCapabilities(final Channel channel, final int remoteCapabilities) {
+		return remoteCapabilities == 0 ? 0 : getCapabilities(channel) & remoteCapabilities;
+	}
+
+	/**
+	 * Enables the optional features both sides of a Channel have agreed on.
+	 * 
+	 * @param channel
+	 *            the Channel
+	 * @param capabilities
+	 *            the features to enable as a combination of the <code>CAPABILITY_</code> flags of
+	 *            {@link HelloMessage}
+	 */
+	static void enableCapabilities(final Channel channel, final int capabilities) {
+		if ((capabilities & HelloMessage.CAPABILITY_COMPRESSION) != 0) {
+			CompressionCodec.setEnabled(channel, true);
+		}
+		if ((capabilities & HelloMessage.CAPABILITY_STATEFUL_ENCODING) != 0) {
+			BinaryCodec.setStatefulEnabled(channel, true);
+		}
+	}
+
+	/**
+	 * Encodes a Message the same way the pipeline would, except for the length field. The result can be written to any
+	 * Channel initialized by this object that uses the same encoding; it will only get the length field prepended.
+	 * 
+	 * @param message
+	 *            the Message to encode
+	 * @param binary
+	 *            if true, the Message is encoded binary if a serializer is registered for it. Otherwise it is encoded
+	 *            as JSON.
+	 * @param alloc
+	 *            the allocator used for binary frames
+	 * @return the encoded Message. The caller is responsible for releasing it.
+	 * @throws IOException
+	 *             if the Message could not be encoded
+	 * @see BinaryCodec#isEnabled(Channel)
+	 */
+	public ByteBuf encode(final Message message, final boolean binary, final ByteBufAllocator alloc)
+			throws IOException {
+		if (binary) {
+			final ByteBuf buf = binaryCodec.encode(message, alloc);
+			if (buf != null) {
+				return buf;
+			}
+		}
+		return Unpooled.wrappedBuffer(gsonCodec.toJson(message).getBytes(CHARSET));
+	}
+
 	/**
 	 * Sets an additional MessageHandler that will be added to the pipeline of new Channels.
 	 * 
@@ -145,6 +278,73 @@ public class ClientChannelInitializer extends ChannelInitializer<Channel> {
 		this.messageHandler.set(messageHandler);
 	}
 
+	/**
+	 * Sets the maximum number of flushes that are combined into one on new Channels.
+	 * 
+	 * @param maxPendingFlushes
+	 *            the maximum number of flushes that are delayed before flushing. 1 or less flushes every write
+	 *            immediately.
+	 * @see FlushConsolidationHandler
+	 */
+	public void setMaxPendingFlushes(final int maxPendingFlushes) {
+		this.maxPendingFlushes = maxPendingFlushes;
+	}
+
+	/**
+	 * Sets the number of bytes that are sent in a single chunk on new Channels. Larger frames are split into chunks if
+	 * the remote side supports it. Smaller Messages that do not depend on the state of the connection are sent while
+	 * the chunks of a larger Message are still waiting, so they may arrive before Messages that were sent earlier.
+	 * 
+	 * @param chunkSize
+	 *            the chunk size. Must be positive and not greater than {@link ChunkedFrameCodec#MAX_CHUNK_SIZE}.
+	 * @see ChunkedFrameCodec
+	 */
+	public void setChunkSize(final int chunkSize) {
+		if (chunkSize <= 0 || chunkSize > ChunkedFrameCodec.MAX_CHUNK_SIZE) {
+			throw new IllegalArgumentException("chunkSize must be between 1 and " + ChunkedFrameCodec.MAX_CHUNK_SIZE);
+		}
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Sets how frames are compressed on new Channels. Compression is only used if the remote side supports it.
+	 * 
+	 * @param level
+	 *            the compression level from 1 (fastest) to 9 (best compression). 0 disables compression.
+	 * @param minFrameSize
+	 *            frames shorter than this are not compressed. Must not be negative.
+	 * @see CompressionCodec
+	 */
+	public void setCompression(final int level, final int minFrameSize) {
+		if (level < 0 || level > 9) {
+			throw new IllegalArgumentException("level must be between 0 and 9");
+		}
+		if (minFrameSize < 0) {
+			throw new IllegalArgumentException("minFrameSize must not be negative");
+		}
+		this.compressionLevel = level;
+		this.compressionMinFrameSize = minFrameSize;
+	}
+
+	/**
+	 * Sets the BackpressureManager that is informed about the writability of new Channels.
+	 * 
+	 * @param backpressureManager
+	 *            the BackpressureManager whose handler will be added to the pipelines
+	 */
+	public void setBackpressureManager(final BackpressureManager backpressureManager) {
+		this.backpressureManager.set(backpressureManager);
+	}
+
+	/**
+	 * Returns the priorities used to order writes on congested Channels.
+	 * 
+	 * @return the priorities of the Message classes
+	 */
+	public MessagePriorities getMessagePriorities() {
+		return messagePriorities;
+	}
+
 	/**
 	 * Sets the executor group that should be used to run the additional handler
 	 * 
@@ -170,6 +370,42 @@ public class ClientChannelInitializer extends ChannelInitializer<Channel> {
 		gsonCodec.registerTypeAdapter(type, adapter);
 	}
 
+	/**
+	 * Registers a serializer used to send Messages of the given class in binary form. Binary encoding is only used on
+	 * connections where both sides announced support for it in their {@link HelloMessage}s, all other Messages are
+	 * sent as JSON.
+	 * 
+	 * @param cls
+	 *            the Message class. Must also be {@link #addMessageType(Class) added}.
+	 * @param serializer
+	 *            the serializer to use
+	 * @see BinaryCodec#addSerializer(Class, BinaryMessageSerializer)
+	 */
+	public <T extends Message> void addBinarySerializer(final Class<T> cls,
+			final BinaryMessageSerializer<T> serializer) {
+		binaryCodec.addSerializer(cls, serializer);
+	}
+
+	/**
+	 * Sets whether or not binary encoding should be offered to remote Modules. Only affects new connections. Disabling
+	 * it forces all Messages to be sent as JSON, which is useful for debugging.
+	 * 
+	 * @param binaryEnabled
+	 *            true if binary encoding should be offered
+	 */
+	public void setBinaryEnabled(final boolean binaryEnabled) {
+		this.binaryEnabled = binaryEnabled;
+	}
+
+	/**
+	 * Returns whether or not binary encoding is offered to remote Modules.
+	 * 
+	 * @return true if binary encoding is offered to remote Modules
+	 */
+	public boolean isBinaryEnabled() {
+		return binaryEnabled;
+	}
+
 	/**
 	 * Adds a Message type.
 	 * 
@@ -13,6 +13,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.apache.logging.log4j.LogManager;
@@ -28,6 +29,10 @@ import edu.teco.dnd.network.DelegatingConnectionListener;
  * This includes storing a Set of all Channels, the IDs of the clients they are connected to and whether or not the
  * initialization phase has been completed (which makes them active).
  * 
+ * For sending, an immutable Map from ModuleID to an active Channel is kept. It is rebuilt whenever a Channel becomes
+ * active, is closed or changes its remote ModuleID, so {@link #getActiveChannel(ModuleID)} and
+ * {@link #getConnectedModules()} need neither a lock nor a copy.
+ * 
  * All public methods in this class are thread-safe.
  */
 public class ClientChannelManager implements RemoteIDResolver {
@@ -39,6 +44,11 @@ public class ClientChannelManager implements RemoteIDResolver {
 	private final Set<Channel> channels = new HashSet<Channel>();
 	private final Map<ModuleID, Set<Channel>> channelsByRemoteID = new HashMap<ModuleID, Set<Channel>>();
 
+	/**
+	 * An active Channel for each connected Module. Replaced as a whole while holding the lock on {@link #channels}.
+	 */
+	private volatile Map<ModuleID, Channel> activeChannels = Collections.emptyMap();
+
 	private final DelegatingConnectionListener delegatingConnectionListener = new DelegatingConnectionListener();
 
 	private final ClientChannelFactory clientChannelFactory;
@@ -120,14 +130,55 @@ public class ClientChannelManager implements RemoteIDResolver {
 		}
 	}
 
+	/**
+	 * Returns an active Channel connected to the given Module. If there are multiple active Channels, the same one is
+	 * returned until the active Channels change.
+	 * 
+	 * @param remoteID
+	 *            the ModuleID to look for
+	 * @return an active Channel connected to the Module or null if there is none
+	 */
+	public Channel getActiveChannel(final ModuleID remoteID) {
+		return activeChannels.get(remoteID);
+	}
+
+	/**
+	 * Returns the IDs of all Modules there is an active Channel to.
+	 * 
+	 * @return an unmodifiable snapshot of the IDs of all connected Modules
+	 */
+	public Set<ModuleID> getConnectedModules() {
+		return activeChannels.keySet();
+	}
+
+	/**
+	 * Rebuilds {@link #activeChannels}. Must be called while holding the lock on {@link #channels}.
+	 */
+	private void publishActiveChannels() {
+		final Map<ModuleID, Channel> newActiveChannels = new HashMap<ModuleID, Channel>();
+		for (final Entry<ModuleID, Set<Channel>> entry : channelsByRemoteID.entrySet()) {
+			for (final Channel channel : entry.getValue()) {
+				if (channels.contains(channel) && isActive(channel)) {
+					newActiveChannels.put(entry.getKey(), channel);
+					break;
+				}
+			}
+		}
+		activeChannels = Collections.unmodifiableMap(newActiveChannels);
+	}
+
 	private void removeChannel(final Channel channel) {
 		assert channel != null;
 		synchronized (channels) {
-			if (isActive(channel)) {
+			final boolean wasActive = isActive(channel);
+			if (wasActive) {
 				informConnectionClosedIfLast(channel);
 			}
 
 			channels.remove(channel);
+			if (wasActive) {
+				publishActiveChannels();
+			}
 		}
 	}
 
@@ -222,6 +273,9 @@ public class ClientChannelManager implements RemoteIDResolver {
 			if (remoteID != null) {
 				addRemoteID(channel, remoteID);
 			}
+			if (isActive(channel)) {
+				publishActiveChannels();
+			}
 		}
 	}
 
@@ -296,6 +350,7 @@ public class ClientChannelManager implements RemoteIDResolver {
 			final Attribute<Boolean> activeAttribute = channel.attr(ACTIVE_KEY);
 			LOGGER.debug("setting active attribute on {}", channel);
 			activeAttribute.set(true);
+			publishActiveChannels();
 
 			if (informListeners) {
 				delegatingConnectionListener.connectionEstablished(remoteID);
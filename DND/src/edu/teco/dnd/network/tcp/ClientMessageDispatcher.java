@@ -5,19 +5,26 @@ import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Queue;
 import java.util.UUID;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import edu.teco.dnd.module.ApplicationID;
 import edu.teco.dnd.network.MessageHandler;
+import edu.teco.dnd.network.MessagePriority;
 import edu.teco.dnd.network.messages.ApplicationSpecificMessage;
 import edu.teco.dnd.network.messages.DefaultResponse;
 import edu.teco.dnd.network.messages.Message;
 import edu.teco.dnd.network.messages.Response;
+import edu.teco.dnd.network.messages.ResponseOptionalMessage;
 
 /**
  * <p>
@@ -27,7 +34,8 @@ import edu.teco.dnd.network.messages.Response;
  * <p>
  * When a Message is received this class checks the registered MessageHandlers for the best match and calls that
  * handler. It then sends a Response - either the one the handler returned or a {@link DefaultResponse} otherwise. A
- * DefaultResponse is also sent if no handler was found.
+ * DefaultResponse is also sent if no handler was found. No DefaultResponse is sent if the handler returned
+ * <code>null</code> for a {@link ResponseOptionalMessage} that did not request a Response.
  * </p>
  * 
  * <p>
@@ -41,16 +49,45 @@ import edu.teco.dnd.network.messages.Response;
  * <p>
  * If a Response is received a {@link ResponseFutureManager} is informed about it and no handler is called.
  * </p>
+ * 
+ * <p>
+ * ApplicationSpecificMessages are not handed to the Executor of their handler directly but are queued per Application
+ * by an {@link ApplicationMessageScheduler}, which bounds the backlog of each Application and shares the Executors
+ * fairly between them. If the scheduler drops a Message, a DefaultResponse is sent unless the Message is a
+ * ResponseOptionalMessage that did not request a Response. Messages with {@link MessagePriority#DEPLOY} are never
+ * dropped: like all other Messages they are handed to their Executor immediately.
+ * </p>
+ * 
+ * <p>
+ * ApplicationSpecificMessages with {@link MessagePriority#CONTROL} bypass the scheduler as well. They are handed to the
+ * Executor of their handler one after another: the next control Message of an Application is only started once the
+ * previous one has been handled. Control Messages of different Applications do not wait for each other, so a handler
+ * that blocks (for example while starting the FunctionBlocks of an Application) only holds up its own Application. If
+ * a control Executor has been set, all other Messages with {@link MessagePriority#CONTROL} are handled on that
+ * Executor, regardless of the Executor their handler was registered with. This keeps them from waiting behind other
+ * Messages. Responses are sent with the priority of the Message they answer if that is higher than their own.
+ * </p>
  */
 @Sharable
 public class ClientMessageDispatcher extends SimpleChannelInboundHandler<Message> {
 	private static final Logger LOGGER = LogManager.getLogger(ClientMessageDispatcher.class);
 
 	private final MessageHandlerManager handlers = new MessageHandlerManager();
+	private final ApplicationMessageScheduler scheduler = new ApplicationMessageScheduler();
 
 	private final RemoteIDResolver remoteIDResolver;
 	private final ResponseFutureManager responseFutureManager;
 
+	private volatile MessagePriorities messagePriorities = null;
+	private volatile Executor controlExecutor = null;
+
+	/**
+	 * The control Messages that wait for the running control Message of their Application. An Application has an
+	 * entry while one of its control Messages is running.
+	 */
+	private final Map<ApplicationID, Queue<ControlTask>> controlQueues =
+			new HashMap<ApplicationID, Queue<ControlTask>>();
+
 	public ClientMessageDispatcher(final RemoteIDResolver remoteIDResolver,
 			final ResponseFutureManager responseFutureManager) {
 		this.remoteIDResolver = remoteIDResolver;
@@ -135,28 +172,115 @@ public class ClientMessageDispatcher extends SimpleChannelInboundHandler<Message
 		handlers.setHandler(messageClass, handler, applicationID, executor);
 	}
 
+	/**
+	 * Removes all handlers that were set for a given Application ID. Messages for that Application will be passed to the
+	 * default handlers afterwards.
+	 * 
+	 * @param applicationID
+	 *            the Application ID the handlers were registered for
+	 */
+	public void removeHandlers(final ApplicationID applicationID) {
+		final int removed = handlers.removeHandlers(applicationID);
+		LOGGER.debug("removed {} handlers for application ID {}", removed, applicationID);
+		scheduler.removeApplication(applicationID);
+	}
+
+	/**
+	 * Sets the priorities of the Message classes. Without priorities all Messages are treated as
+	 * {@link MessagePriority#DATA}.
+	 * 
+	 * @param messagePriorities
+	 *            the priorities of the Message classes
+	 */
+	public void setMessagePriorities(final MessagePriorities messagePriorities) {
+		this.messagePriorities = messagePriorities;
+	}
+
+	/**
+	 * Sets the Executor used for Messages with {@link MessagePriority#CONTROL} that are not
+	 * {@link ApplicationSpecificMessage}s.
+	 * 
+	 * @param controlExecutor
+	 *            the Executor for control Messages. Pass <code>null</code> to use the Executors of the handlers.
+	 */
+	public void setControlExecutor(final Executor controlExecutor) {
+		this.controlExecutor = controlExecutor;
+	}
+
+	/**
+	 * Returns the scheduler used for {@link ApplicationSpecificMessage}s. It can be used to change the queue capacity,
+	 * the {@link ApplicationMessageScheduler.ShedPolicy} and the weights of the Applications.
+	 * 
+	 * @return the scheduler used for ApplicationSpecificMessages
+	 */
+	public ApplicationMessageScheduler getScheduler() {
+		return scheduler;
+	}
+
 	@Override
 	protected void channelRead0(final ChannelHandlerContext ctx, final Message msg) {
 		LOGGER.entry(ctx, msg);
 		if (msg instanceof Response) {
-			responseFutureManager.setSuccess((Response) msg);
+			responseFutureManager.setSuccess(remoteIDResolver.getRemoteID(ctx.channel()), (Response) msg);
 			return;
 		}
 
+		final MessagePriority priority = getPriority(msg);
 		MessageHandlerWithExecutor<Message> handlerWithExecutor;
 
 		try {
 			handlerWithExecutor = getHandlerWithExecutor(msg);
 		} catch (final NoSuchElementException e) {
-			sendDefaultResponse(ctx.channel(), msg.getUUID());
+			sendDefaultResponse(ctx.channel(), msg.getUUID(), priority);
 			return;
 		}
 
-		handlerWithExecutor.getExecutor().execute(
-				new Dispatcher(msg, handlerWithExecutor.getMessageHandler(), ctx.channel()));
+		final Dispatcher dispatcher =
+				new Dispatcher(msg, priority, handlerWithExecutor.getMessageHandler(), ctx.channel());
+		final Executor controlExecutor = this.controlExecutor;
+		final ApplicationID applicationID =
+				msg instanceof ApplicationSpecificMessage ? ((ApplicationSpecificMessage) msg).getApplicationID() : null;
+		if (priority == MessagePriority.CONTROL && applicationID != null) {
+			submitControl(applicationID, handlerWithExecutor.getExecutor(), dispatcher);
+		} else if (priority == MessagePriority.CONTROL && controlExecutor != null) {
+			controlExecutor.execute(dispatcher);
+		} else if (applicationID == null || priority == MessagePriority.DEPLOY) {
+			handlerWithExecutor.getExecutor().execute(dispatcher);
+		} else {
+			scheduler.submit(applicationID, handlerWithExecutor.getExecutor(), dispatcher);
+		}
 		LOGGER.exit();
 	}
 
+	/**
+	 * Runs a control Message once all earlier control Messages of its Application have been handled.
+	 */
+	private void submitControl(final ApplicationID applicationID, final Executor executor,
+			final Dispatcher dispatcher) {
+		final ControlTask task = new ControlTask(applicationID, executor, dispatcher);
+		synchronized (controlQueues) {
+			final Queue<ControlTask> queue = controlQueues.get(applicationID);
+			if (queue != null) {
+				queue.add(task);
+				return;
+			}
+			controlQueues.put(applicationID, new ArrayDeque<ControlTask>());
+		}
+		task.execute();
+	}
+
+	private void controlTaskFinished(final ApplicationID applicationID) {
+		final ControlTask next;
+		synchronized (controlQueues) {
+			next = controlQueues.get(applicationID).poll();
+			if (next == null) {
+				controlQueues.remove(applicationID);
+				return;
+			}
+		}
+		next.execute();
+	}
+
 	@SuppressWarnings("unchecked")
 	private <T extends Message> MessageHandlerWithExecutor<T> getHandlerWithExecutor(final T message) {
 		if (message instanceof ApplicationSpecificMessage) {
@@ -167,23 +291,70 @@ public class ClientMessageDispatcher extends SimpleChannelInboundHandler<Message
 		}
 	}
 
-	private void sendDefaultResponse(final Channel c, final UUID sourceUUID) {
-		sendResponse(c, new DefaultResponse(), sourceUUID);
+	private MessagePriority getPriority(final Message message) {
+		final MessagePriorities messagePriorities = this.messagePriorities;
+		return messagePriorities == null ? MessagePriority.DATA : messagePriorities.getPriority(message.getClass());
+	}
+
+	private void sendDefaultResponse(final Channel c, final UUID sourceUUID, final MessagePriority priority) {
+		sendResponse(c, new DefaultResponse(), sourceUUID, priority);
 	}
 
-	private void sendResponse(final Channel c, final Response response, final UUID sourceUUID) {
+	private void sendResponse(final Channel c, final Response response, final UUID sourceUUID,
+			final MessagePriority priority) {
 		response.setSourceUUID(sourceUUID);
 		LOGGER.debug("sending Response {}", response);
-		c.writeAndFlush(response);
+		if (priority.compareTo(getPriority(response)) < 0) {
+			c.writeAndFlush(new PrioritizedWrite(response, priority));
+		} else {
+			c.writeAndFlush(response);
+		}
 	}
 
-	private class Dispatcher implements Runnable {
+	/**
+	 * Runs a control Message of an Application and starts the next one of the same Application afterwards.
+	 */
+	private class ControlTask implements Runnable {
+		private final ApplicationID applicationID;
+		private final Executor executor;
+		private final Dispatcher dispatcher;
+
+		private ControlTask(final ApplicationID applicationID, final Executor executor, final Dispatcher dispatcher) {
+			this.applicationID = applicationID;
+			this.executor = executor;
+			this.dispatcher = dispatcher;
+		}
+
+		private void execute() {
+			try {
+				executor.execute(this);
+			} catch (final RejectedExecutionException e) {
+				LOGGER.debug("{} rejected control Message of {}", executor, applicationID);
+				dispatcher.dropped();
+				controlTaskFinished(applicationID);
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				dispatcher.run();
+			} finally {
+				controlTaskFinished(applicationID);
+			}
+		}
+	}
+
+	private class Dispatcher implements ApplicationMessageScheduler.Droppable {
 		private final Message message;
+		private final MessagePriority priority;
 		private final MessageHandler<Message> messageHandler;
 		private final Channel channel;
 
-		private Dispatcher(final Message message, final MessageHandler<Message> messageHandler, Channel channel) {
+		private Dispatcher(final Message message, final MessagePriority priority,
+				final MessageHandler<Message> messageHandler, Channel channel) {
 			this.message = message;
+			this.priority = priority;
 			this.messageHandler = messageHandler;
 			this.channel = channel;
 		}
@@ -198,11 +369,29 @@ public class ClientMessageDispatcher extends SimpleChannelInboundHandler<Message
 				LOGGER.catching(t);
 			}
 			if (response == null) {
-				sendDefaultResponse(channel, message.getUUID());
+				sendDefaultResponseIfRequested();
 			} else {
-				sendResponse(channel, response, message.getUUID());
+				sendResponse(channel, response, message.getUUID(), priority);
 			}
 			LOGGER.exit();
 		}
+
+		/**
+		 * Answers the Message with a DefaultResponse as it will not be handled.
+		 */
+		@Override
+		public void dropped() {
+			LOGGER.debug("{} has been dropped", message);
+			sendDefaultResponseIfRequested();
+		}
+
+		private void sendDefaultResponseIfRequested() {
+			if (message instanceof ResponseOptionalMessage
+					&& !((ResponseOptionalMessage) message).isResponseRequested()) {
+				LOGGER.trace("no response requested for {}", message);
+			} else {
+				sendDefaultResponse(channel, message.getUUID(), priority);
+			}
+		}
 	}
 }
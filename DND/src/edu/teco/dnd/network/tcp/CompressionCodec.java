@@ -0,0 +1,366 @@
+package edu.teco.dnd.network.tcp;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.TooLongFrameException;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import edu.teco.dnd.network.messages.HelloMessage;
+
+/**
+ * <p>
+ * Compresses frames with DEFLATE. Each frame is compressed as a complete zlib stream that uses the last
+ * {@value #DICTIONARY_SIZE} bytes of the frames compressed before as preset dictionary, so repeated content like the
+ * field names of JSON Messages or similar class files is compressed even if it spans multiple frames. Both sides keep
+ * the same dictionary, as the receiver adds each frame it decompresses. A compressed frame consists of:
+ * </p>
+ *
+ * <ul>
+ * <li>the marker byte {@value #MARKER}</li>
+ * <li>the 4 byte length of the uncompressed frame</li>
+ * <li>the compressed data</li>
+ * </ul>
+ *
+ * <p>
+ * Frames shorter than <code>minFrameSize</code> are sent unchanged, as compressing them costs more time than it saves
+ * on the network. Frames longer than {@link #MAX_INPUT_LENGTH} are sent unchanged as well because the compressed frame
+ * may not fit into the length field. The receiver decompresses frames in the order they arrive, which is why this
+ * handler has to be placed directly behind the length field codecs: all handlers further up may change the order of
+ * frames.
+ * </p>
+ *
+ * <p>
+ * Frames are only compressed if both sides announced {@link HelloMessage#CAPABILITY_COMPRESSION} (see
+ * {@link #setEnabled(Channel, boolean)}). Compressed frames can always be received. The handler keeps state and must
+ * not be shared between Channels.
+ * </p>
+ */
+public class CompressionCodec extends ChannelDuplexHandler {
+	private static final Logger LOGGER = LogManager.getLogger(CompressionCodec.class);
+
+	/**
+	 * The first byte of each compressed frame.
+	 */
+	public static final byte MARKER = 2;
+
+	/**
+	 * Number of bytes in front of the compressed data.
+	 */
+	public static final int HEADER_LENGTH = 5;
+
+	/**
+	 * The default compression level.
+	 */
+	public static final int DEFAULT_LEVEL = 6;
+
+	/**
+	 * The default size below which frames are not compressed.
+	 */
+	public static final int DEFAULT_MIN_FRAME_SIZE = 256;
+
+	/**
+	 * The length of the longest frame that is compressed. DEFLATE adds at most a few bytes per 16 KiB to incompressible
+	 * data, so the compressed frame is guaranteed to fit into the length field.
+	 */
+	public static final int MAX_INPUT_LENGTH = 60 * 1024;
+
+	/**
+	 * The number of bytes of previous frames that are used as dictionary.
+	 */
+	public static final int DICTIONARY_SIZE = 16 * 1024;
+
+	private static final int BUFFER_SIZE = 8 * 1024;
+
+	private static final AttributeKey<Boolean> ENABLED_KEY = AttributeKey.valueOf("compression enabled");
+
+	private final int level;
+	private final int minFrameSize;
+	private final int maxFrameLength;
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+
+	private Deflater deflater = null;
+	private Inflater inflater = null;
+	private final Dictionary sentDictionary = new Dictionary();
+	private final Dictionary receivedDictionary = new Dictionary();
+	private long uncompressedBytes = 0;
+	private long compressedBytes = 0;
+
+	/**
+	 * Initializes a new CompressionCodec.
+	 *
+	 * @param level
+	 *            the compression level, from 1 (fastest) to 9 (best compression)
+	 * @param minFrameSize
+	 *            frames shorter than this are not compressed
+	 * @param maxFrameLength
+	 *            the maximum length of a decompressed frame
+	 */
+	public CompressionCodec(final int level, final int minFrameSize, final int maxFrameLength) {
+		if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+			throw new IllegalArgumentException("level must be between " + Deflater.BEST_SPEED + " and "
+					+ Deflater.BEST_COMPRESSION);
+		}
+		if (minFrameSize < 0) {
+			throw new IllegalArgumentException("minFrameSize must not be negative");
+		}
+		this.level = level;
+		this.minFrameSize = minFrameSize;
+		this.maxFrameLength = maxFrameLength;
+	}
+
+	public int getLevel() {
+		return level;
+	}
+
+	public int getMinFrameSize() {
+		return minFrameSize;
+	}
+
+	/**
+	 * Returns the number of bytes of all frames that have been compressed.
+	 *
+	 * @return the number of bytes before compression
+	 */
+	public long getUncompressedBytes() {
+		return uncompressedBytes;
+	}
+
+	/**
+	 * Returns the number of bytes all compressed frames had after compression, including the header.
+	 *
+	 * @return the number of bytes after compression
+	 */
+	public long getCompressedBytes() {
+		return compressedBytes;
+	}
+
+	/**
+	 * Sets whether or not frames sent on the Channel should be compressed.
+	 *
+	 * @param channel
+	 *            the Channel
+	 * @param enabled
+	 *            true if the remote side can decompress frames
+	 */
+	public static void setEnabled(final Channel channel, final boolean enabled) {
+		channel.attr(ENABLED_KEY).set(enabled);
+	}
+
+	/**
+	 * Returns whether or not frames sent on the Channel are compressed.
+	 *
+	 * @param channel
+	 *            the Channel
+	 * @return true if frames are compressed
+	 */
+	public static boolean isEnabled(final Channel channel) {
+		final Attribute<Boolean> attribute = channel.attr(ENABLED_KEY);
+		return attribute != null && Boolean.TRUE.equals(attribute.get());
+	}
+
+	@Override
+	public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise) {
+		if (!(msg instanceof ByteBuf) || !isEnabled(ctx.channel())) {
+			ctx.write(msg, promise);
+			return;
+		}
+		final ByteBuf frame = (ByteBuf) msg;
+		final int length = frame.readableBytes();
+		if (length < minFrameSize || length > MAX_INPUT_LENGTH) {
+			ctx.write(frame, promise);
+			return;
+		}
+
+		final ByteBuf compressed;
+		try {
+			compressed = compress(ctx, frame);
+		} finally {
+			frame.release();
+		}
+		uncompressedBytes += length;
+		compressedBytes += compressed.readableBytes();
+		ctx.write(compressed, promise);
+	}
+
+	@Override
+	public void channelRead(final ChannelHandlerContext ctx, final Object msg) throws Exception {
+		if (!(msg instanceof ByteBuf)) {
+			ctx.fireChannelRead(msg);
+			return;
+		}
+		final ByteBuf frame = (ByteBuf) msg;
+		if (!frame.isReadable() || frame.getByte(frame.readerIndex()) != MARKER) {
+			ctx.fireChannelRead(frame);
+			return;
+		}
+
+		final ByteBuf decompressed;
+		try {
+			decompressed = decompress(ctx, frame);
+		} finally {
+			frame.release();
+		}
+		ctx.fireChannelRead(decompressed);
+	}
+
+	@Override
+	public void channelInactive(final ChannelHandlerContext ctx) throws Exception {
+		end();
+		super.channelInactive(ctx);
+	}
+
+	@Override
+	public void handlerRemoved(final ChannelHandlerContext ctx) {
+		end();
+	}
+
+	private ByteBuf compress(final ChannelHandlerContext ctx, final ByteBuf frame) {
+		if (deflater == null) {
+			deflater = new Deflater(level);
+		}
+		final int length = frame.readableBytes();
+		final byte[] bytes;
+		final int offset;
+		if (frame.hasArray()) {
+			bytes = frame.array();
+			offset = frame.arrayOffset() + frame.readerIndex();
+		} else {
+			bytes = new byte[length];
+			offset = 0;
+			frame.getBytes(frame.readerIndex(), bytes);
+		}
+		deflater.reset();
+		sentDictionary.apply(deflater);
+		deflater.setInput(bytes, offset, length);
+		deflater.finish();
+
+		final ByteBuf out = ctx.alloc().buffer(HEADER_LENGTH + length / 2);
+		boolean success = false;
+		try {
+			out.writeByte(MARKER);
+			out.writeInt(length);
+			while (!deflater.finished()) {
+				final int written = deflater.deflate(buffer, 0, buffer.length);
+				out.writeBytes(buffer, 0, written);
+			}
+			success = true;
+		} finally {
+			if (!success) {
+				out.release();
+			}
+		}
+		sentDictionary.add(bytes, offset, length);
+		return out;
+	}
+
+	private ByteBuf decompress(final ChannelHandlerContext ctx, final ByteBuf frame) throws CorruptedFrameException,
+			TooLongFrameException {
+		if (frame.readableBytes() < HEADER_LENGTH) {
+			throw LOGGER.throwing(new CorruptedFrameException("compressed frame of " + frame.readableBytes()
+					+ " bytes"));
+		}
+		frame.skipBytes(1);
+		final int length = frame.readInt();
+		if (length < 0 || length > maxFrameLength) {
+			throw LOGGER.throwing(new TooLongFrameException("frame of " + length + " bytes exceeds maximum of "
+					+ maxFrameLength));
+		}
+
+		if (inflater == null) {
+			inflater = new Inflater();
+		}
+		final byte[] input = new byte[frame.readableBytes()];
+		frame.readBytes(input);
+		inflater.reset();
+		inflater.setInput(input);
+
+		final ByteBuf out = ctx.alloc().heapBuffer(length, length);
+		boolean success = false;
+		try {
+			final byte[] array = out.array();
+			final int offset = out.arrayOffset();
+			int inflated = 0;
+			while (inflated < length) {
+				final int read = inflater.inflate(array, offset + inflated, length - inflated);
+				if (read == 0 && inflater.needsDictionary()) {
+					receivedDictionary.apply(inflater);
+				} else if (read == 0 && (inflater.needsInput() || inflater.finished())) {
+					throw LOGGER.throwing(new CorruptedFrameException("compressed frame ended after " + inflated
+							+ " of " + length + " bytes"));
+				}
+				inflated += read;
+			}
+			// read the checksum at the end of the stream
+			if (inflater.inflate(buffer, 0, 1) != 0 || !inflater.finished() || inflater.getRemaining() > 0) {
+				throw LOGGER.throwing(new CorruptedFrameException("compressed frame is longer than " + length
+						+ " bytes"));
+			}
+			out.writerIndex(length);
+			receivedDictionary.add(array, offset, length);
+			success = true;
+		} catch (final DataFormatException e) {
+			throw LOGGER.throwing(new CorruptedFrameException("invalid compressed frame", e));
+		} catch (final IllegalArgumentException e) {
+			// thrown by setDictionary if the dictionary does not match
+			throw LOGGER.throwing(new CorruptedFrameException("compressed frame uses another dictionary", e));
+		} finally {
+			if (!success) {
+				out.release();
+			}
+		}
+		return out;
+	}
+
+	private void end() {
+		if (deflater != null) {
+			deflater.end();
+			deflater = null;
+		}
+		if (inflater != null) {
+			inflater.end();
+			inflater = null;
+		}
+	}
+
+	/**
+	 * The last {@link #DICTIONARY_SIZE} bytes of the frames compressed or decompressed so far.
+	 */
+	private static class Dictionary {
+		private final byte[] bytes = new byte[DICTIONARY_SIZE];
+		private int length = 0;
+
+		private void add(final byte[] data, final int offset, final int dataLength) {
+			if (dataLength >= bytes.length) {
+				System.arraycopy(data, offset + dataLength - bytes.length, bytes, 0, bytes.length);
+				length = bytes.length;
+				return;
+			}
+			final int kept = Math.min(length, bytes.length - dataLength);
+			System.arraycopy(bytes, length - kept, bytes, 0, kept);
+			System.arraycopy(data, offset, bytes, kept, dataLength);
+			length = kept + dataLength;
+		}
+
+		private void apply(final Deflater deflater) {
+			if (length > 0) {
+				deflater.setDictionary(bytes, 0, length);
+			}
+		}
+
+		private void apply(final Inflater inflater) {
+			inflater.setDictionary(bytes, 0, length);
+		}
+	}
+}
@@ -18,7 +18,7 @@ import edu.teco.dnd.network.messages.ConnectionEstablishedMessage;
  * 
  * <p>
  * The handler does some sanity checks for the remote {@link ModuleID} sent with the message and if they are passed
- * marks the {@link Channel} as active.
+ * enables the optional features the remote Module agreed on and marks the {@link Channel} as active.
  * </p>
  */
 @Sharable
@@ -79,6 +79,8 @@ public class ConnectionEstablishedMessageHandler extends SimpleChannelInboundHan
 				LOGGER.debug("setting channel {} to {} active", ctx.channel(), messageRemoteID);
 			}
 			clientChannelManager.setRemoteID(ctx.channel(), messageRemoteID);
+			ClientChannelInitializer.enableCapabilities(ctx.channel(),
+					ClientChannelInitializer.agreeOnCapabilities(ctx.channel(), msg.getCapabilities()));
 			setActive(ctx);
 			LOGGER.exit();
 		}
@@ -0,0 +1,29 @@
+package edu.teco.dnd.network.tcp;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.UUID;
+
+import edu.teco.dnd.module.ModuleID;
+import edu.teco.dnd.network.messages.ConnectionEstablishedMessage;
+
+/**
+ * Binary serializer for {@link ConnectionEstablishedMessage}s. The capabilities are optional when reading so that
+ * Messages of older modules can still be read.
+ */
+public class ConnectionEstablishedMessageSerializer implements BinaryMessageSerializer<ConnectionEstablishedMessage> {
+	@Override
+	public void write(final ConnectionEstablishedMessage message, final ByteBuf out) {
+		final ModuleID remoteID = message.getRemoteID();
+		BinaryCodec.writeUUID(out, remoteID == null ? null : remoteID.getUUID());
+		out.writeInt(message.getCapabilities());
+	}
+
+	@Override
+	public ConnectionEstablishedMessage read(final UUID uuid, final ByteBuf in) {
+		final UUID remoteUUID = BinaryCodec.readUUID(in);
+		final int capabilities = in.readableBytes() >= 4 ? in.readInt() : 0;
+		return new ConnectionEstablishedMessage(uuid, remoteUUID == null ? null : new ModuleID(remoteUUID),
+				capabilities);
+	}
+}
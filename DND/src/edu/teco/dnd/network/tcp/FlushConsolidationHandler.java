@@ -0,0 +1,154 @@
+package edu.teco.dnd.network.tcp;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * <p>
+ * Combines multiple flushes into one. Every {@link io.netty.channel.Channel#writeAndFlush(Object)} normally results in
+ * a separate system call, which dominates the cost of sending many small Messages. This handler delays flushes:
+ * </p>
+ *
+ * <ul>
+ * <li>while a read is in progress, for example while Responses are written for received Messages, flushes are delayed
+ * until the read is complete</li>
+ * <li>otherwise flushes are delayed until the tasks that are currently queued on the event loop have run, so that
+ * Messages written by other Threads in the meantime are flushed together</li>
+ * </ul>
+ *
+ * <p>
+ * After <code>maxPendingFlushes</code> delayed flushes a flush is done immediately. As all frames written between two
+ * flushes are handed to the transport at once, they are sent with a single gathering write where the transport
+ * supports it.
+ * </p>
+ *
+ * <p>
+ * The handler keeps state and must not be shared between Channels. It should be the first handler of the pipeline so
+ * that flushes of all other handlers pass it.
+ * </p>
+ */
+public class FlushConsolidationHandler extends ChannelDuplexHandler {
+	/**
+	 * The default maximum number of flushes that are delayed before flushing.
+	 */
+	public static final int DEFAULT_MAX_PENDING_FLUSHES = 256;
+
+	private final int maxPendingFlushes;
+	private final Runnable flushTask = new Runnable() {
+		@Override
+		public void run() {
+			flushScheduled = false;
+			if (pendingFlushes > 0 && !readInProgress) {
+				flushNow(ctx);
+			}
+		}
+	};
+
+	private ChannelHandlerContext ctx;
+	private int pendingFlushes = 0;
+	private boolean readInProgress = false;
+	private boolean flushScheduled = false;
+
+	/**
+	 * Initializes a new FlushConsolidationHandler with {@link #DEFAULT_MAX_PENDING_FLUSHES}.
+	 */
+	public FlushConsolidationHandler() {
+		this(DEFAULT_MAX_PENDING_FLUSHES);
+	}
+
+	/**
+	 * Initializes a new FlushConsolidationHandler.
+	 *
+	 * @param maxPendingFlushes
+	 *            the maximum number of flushes that are delayed before flushing. Must be positive.
+	 */
+	public FlushConsolidationHandler(final int maxPendingFlushes) {
+		if (maxPendingFlushes <= 0) {
+			throw new IllegalArgumentException("maxPendingFlushes must be positive");
+		}
+		this.maxPendingFlushes = maxPendingFlushes;
+	}
+
+	public int getMaxPendingFlushes() {
+		return maxPendingFlushes;
+	}
+
+	@Override
+	public void handlerAdded(final ChannelHandlerContext ctx) {
+		this.ctx = ctx;
+	}
+
+	@Override
+	public void flush(final ChannelHandlerContext ctx) {
+		if (++pendingFlushes >= maxPendingFlushes) {
+			flushNow(ctx);
+		} else if (!readInProgress && !flushScheduled) {
+			flushScheduled = true;
+			try {
+				ctx.channel().eventLoop().execute(flushTask);
+			} catch (final RejectedExecutionException e) {
+				flushScheduled = false;
+				flushNow(ctx);
+			}
+		}
+	}
+
+	@Override
+	public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+		readInProgress = true;
+		ctx.fireChannelRead(msg);
+	}
+
+	@Override
+	public void channelReadComplete(final ChannelHandlerContext ctx) {
+		readInProgress = false;
+		flushIfNeeded(ctx);
+		ctx.fireChannelReadComplete();
+	}
+
+	@Override
+	public void channelWritabilityChanged(final ChannelHandlerContext ctx) {
+		if (!ctx.channel().isWritable()) {
+			// make sure that everything that has been written so far can drain
+			flushIfNeeded(ctx);
+		}
+		ctx.fireChannelWritabilityChanged();
+	}
+
+	@Override
+	public void exceptionCaught(final ChannelHandlerContext ctx, final Throwable cause) {
+		flushIfNeeded(ctx);
+		ctx.fireExceptionCaught(cause);
+	}
+
+	@Override
+	public void disconnect(final ChannelHandlerContext ctx, final ChannelPromise promise) {
+		flushIfNeeded(ctx);
+		ctx.disconnect(promise);
+	}
+
+	@Override
+	public void close(final ChannelHandlerContext ctx, final ChannelPromise promise) {
+		flushIfNeeded(ctx);
+		ctx.close(promise);
+	}
+
+	@Override
+	public void handlerRemoved(final ChannelHandlerContext ctx) {
+		flushIfNeeded(ctx);
+	}
+
+	private void flushIfNeeded(final ChannelHandlerContext ctx) {
+		if (pendingFlushes > 0) {
+			flushNow(ctx);
+		}
+	}
+
+	private void flushNow(final ChannelHandlerContext ctx) {
+		pendingFlushes = 0;
+		ctx.flush();
+	}
+}
@@ -1,5 +1,6 @@
 package edu.teco.dnd.network.tcp;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageCodec;
@@ -75,11 +76,29 @@ public class GsonCodec extends MessageToMessageCodec<String, Object> {
 		}
 	}
 
+	/**
+	 * Encodes an object as JSON the same way it would be encoded when written to a Channel.
+	 * 
+	 * @param obj
+	 *            the object to encode
+	 * @return the JSON representation of the object
+	 */
+	public String toJson(final Object obj) {
+		return gson.get().toJson(obj, type);
+	}
+
+	/**
+	 * Skips ByteBufs so that Messages already encoded by {@link BinaryCodec} are passed on unmodified.
+	 */
+	@Override
+	public boolean acceptOutboundMessage(final Object msg) throws Exception {
+		return !(msg instanceof ByteBuf) && super.acceptOutboundMessage(msg);
+	}
+
 	@Override
 	protected void encode(ChannelHandlerContext ctx, Object msg, List<Object> out) throws Exception {
 		LOGGER.entry(ctx, msg, out);
-		String json = null;
-		json = gson.get().toJson(msg, type);
+		final String json = toJson(msg);
 		LOGGER.debug("adding {} to outbound queue", json);
 		out.add(json);
 		LOGGER.exit();
@@ -1,7 +1,9 @@
 package edu.teco.dnd.network.tcp;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Executor;
 
 import edu.teco.dnd.module.Application;
@@ -24,7 +26,6 @@ import edu.teco.dnd.network.messages.Message;
  * @param <T>
  *            the Message class this class will be used for
  */
-// TODO: add methods to remove handlers
 public class HandlersByApplicationID<T extends Message> {
 	private final Map<ApplicationID, MessageHandlerWithExecutor<? super T>> handlersWithExecutors =
 			new HashMap<ApplicationID, MessageHandlerWithExecutor<? super T>>();
@@ -93,6 +94,37 @@ public class HandlersByApplicationID<T extends Message> {
 		handlersWithExecutors.put(applicationID, handlerWithExecutor);
 	}
 
+	/**
+	 * Removes the handler for an {@link Application}. Pass {@link ConnectionManager#APPID_DEFAULT} to remove the default
+	 * handler.
+	 * 
+	 * @param applicationID
+	 *            the ID of the Application
+	 * @return true if a handler was removed
+	 */
+	public boolean removeHandler(final ApplicationID applicationID) {
+		return handlersWithExecutors.remove(applicationID) != null;
+	}
+
+	/**
+	 * Returns the IDs of all Applications a handler has been set for. This includes
+	 * {@link ConnectionManager#APPID_DEFAULT} if a default handler has been set.
+	 * 
+	 * @return an unmodifiable view of the ApplicationIDs
+	 */
+	public Set<ApplicationID> getApplicationIDs() {
+		return Collections.unmodifiableSet(handlersWithExecutors.keySet());
+	}
+
+	/**
+	 * Returns whether no handler has been set at all.
+	 * 
+	 * @return true if neither a default handler nor an Application specific handler has been set
+	 */
+	public boolean isEmpty() {
+		return handlersWithExecutors.isEmpty();
+	}
+
 	/**
 	 * Returns the handler that should be used for the given {@link Application} together with its {@link Executor}
 	 * (which may be <code>null</code>).
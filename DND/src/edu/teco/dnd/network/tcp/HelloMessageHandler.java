@@ -25,10 +25,28 @@ public class HelloMessageHandler extends SimpleChannelInboundHandler<HelloMessag
 
 	private final ClientChannelManager clientChannelManager;
 	private final ModuleID localID;
+	private final ClientChannelInitializer channelInitializer;
 
 	public HelloMessageHandler(final ClientChannelManager clientChannelManager, final ModuleID localID) {
+		this(clientChannelManager, localID, null);
+	}
+
+	/**
+	 * Initializes a new HelloMessageHandler.
+	 * 
+	 * @param clientChannelManager
+	 *            the ClientChannelManager used to store the remote ID
+	 * @param localID
+	 *            the ID of the local Module
+	 * @param channelInitializer
+	 *            used to check if binary encoding was offered to the remote Module. If null, binary encoding is never
+	 *            enabled.
+	 */
+	public HelloMessageHandler(final ClientChannelManager clientChannelManager, final ModuleID localID,
+			final ClientChannelInitializer channelInitializer) {
 		this.clientChannelManager = clientChannelManager;
 		this.localID = localID;
+		this.channelInitializer = channelInitializer;
 	}
 
 	@Override
@@ -63,10 +81,23 @@ public class HelloMessageHandler extends SimpleChannelInboundHandler<HelloMessag
 			}
 			clientChannelManager.setRemoteID(ctx.channel(), remoteID);
 
+			if (channelInitializer != null && channelInitializer.isBinaryEnabled()
+					&& msg.getBinaryVersion() >= BinaryCodec.MIN_VERSION) {
+				LOGGER.debug("enabling binary encoding for {}", ctx.channel());
+				BinaryCodec.setEnabled(ctx.channel(), true);
+				if (msg.getBinaryVersion() >= ChunkedFrameCodec.VERSION) {
+					LOGGER.debug("enabling chunked frames for {}", ctx.channel());
+					ChunkedFrameCodec.setEnabled(ctx.channel(), true);
+				}
+			}
+
 			if (localID.isMasterFor(remoteID)) {
 				if (clientChannelManager.setActiveIfFirst(ctx.channel())) {
-					LOGGER.debug("sending connection established to {}", remoteID);
-					sendConnectionEstablished(ctx);
+					final int capabilities =
+							ClientChannelInitializer.agreeOnCapabilities(ctx.channel(), msg.getCapabilities());
+					LOGGER.debug("sending connection established to {} with capabilities {}", remoteID, capabilities);
+					ClientChannelInitializer.enableCapabilities(ctx.channel(), capabilities);
+					sendConnectionEstablished(ctx, capabilities);
 				} else {
 					LOGGER.debug("connection with {} already established, closing", remoteID);
 					ctx.close();
@@ -88,7 +119,7 @@ public class HelloMessageHandler extends SimpleChannelInboundHandler<HelloMessag
 		return clientChannelManager.getRemoteID(ctx.channel());
 	}
 
-	private void sendConnectionEstablished(final ChannelHandlerContext context) {
-		context.writeAndFlush(new ConnectionEstablishedMessage(localID));
+	private void sendConnectionEstablished(final ChannelHandlerContext context, final int capabilities) {
+		context.writeAndFlush(new ConnectionEstablishedMessage(localID, capabilities));
 	}
 }
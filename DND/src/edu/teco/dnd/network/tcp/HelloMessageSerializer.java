@@ -0,0 +1,33 @@
+package edu.teco.dnd.network.tcp;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.UUID;
+
+import edu.teco.dnd.module.ModuleID;
+import edu.teco.dnd.network.messages.HelloMessage;
+
+/**
+ * Binary serializer for {@link HelloMessage}s. The capabilities are optional when reading so that HelloMessages of
+ * older modules can still be read.
+ */
+public class HelloMessageSerializer implements BinaryMessageSerializer<HelloMessage> {
+	@Override
+	public void write(final HelloMessage message, final ByteBuf out) {
+		final ModuleID moduleID = message.getModuleID();
+		BinaryCodec.writeUUID(out, moduleID == null ? null : moduleID.getUUID());
+		out.writeInt(message.getFramesize());
+		out.writeInt(message.getBinaryVersion());
+		out.writeInt(message.getCapabilities());
+	}
+
+	@Override
+	public HelloMessage read(final UUID uuid, final ByteBuf in) {
+		final UUID moduleUUID = BinaryCodec.readUUID(in);
+		final int framesize = in.readInt();
+		final int binaryVersion = in.readInt();
+		final int capabilities = in.readableBytes() >= 4 ? in.readInt() : 0;
+		return new HelloMessage(uuid, moduleUUID == null ? null : new ModuleID(moduleUUID), framesize, binaryVersion,
+				capabilities);
+	}
+}
@@ -59,7 +59,12 @@ public class MessageAdapter implements JsonSerializer<Message>, JsonDeserializer
 	private final Map<Class<? extends Message>, String> clss = new HashMap<Class<? extends Message>, String>();
 
 	/**
-	 * Lock for reading and writing {@link #types} and {@link #clss}.
+	 * Maps from numeric type tag to actual class. The tag is derived from the type name, see {@link #getTypeTag(Class)}.
+	 */
+	private final Map<Integer, Class<? extends Message>> tags = new HashMap<Integer, Class<? extends Message>>();
+
+	/**
+	 * Lock for reading and writing {@link #types}, {@link #clss} and {@link #tags}.
 	 */
 	private final ReadWriteLock typeLock = new ReentrantReadWriteLock();
 
@@ -128,6 +133,13 @@ public class MessageAdapter implements JsonSerializer<Message>, JsonDeserializer
 			LOGGER.debug("got write lock, {}  and {} still missing", cls, type);
 			clss.put(cls, type);
 			types.put(type, cls);
+			final Integer tag = type.hashCode();
+			if (tags.containsKey(tag)) {
+				LOGGER.warn("tag of type {} collides with {}, {} will not be available in binary form", type,
+						tags.get(tag), cls);
+			} else {
+				tags.put(tag, cls);
+			}
 		} finally {
 			typeLock.writeLock().unlock();
 		}
@@ -169,6 +181,46 @@ public class MessageAdapter implements JsonSerializer<Message>, JsonDeserializer
 		LOGGER.exit();
 	}
 
+	/**
+	 * Returns the numeric tag for a registered Message class. The tag is the {@link String#hashCode() hash code} of the
+	 * type name, so it is the same on all Modules that use the same type name, regardless of the order in which the
+	 * types were added.
+	 * 
+	 * @param cls
+	 *            the Message class
+	 * @return the tag for the class or null if the class is not registered or its tag collides with another class
+	 */
+	public Integer getTypeTag(final Class<? extends Message> cls) {
+		typeLock.readLock().lock();
+		try {
+			final String type = clss.get(cls);
+			if (type == null) {
+				return null;
+			}
+			final Integer tag = type.hashCode();
+			return cls.equals(tags.get(tag)) ? tag : null;
+		} finally {
+			typeLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the Message class registered for a numeric tag.
+	 * 
+	 * @param tag
+	 *            the tag to look up
+	 * @return the matching class or null if no class has been registered for the tag
+	 * @see #getTypeTag(Class)
+	 */
+	public Class<? extends Message> getMessageClass(final int tag) {
+		typeLock.readLock().lock();
+		try {
+			return tags.get(tag);
+		} finally {
+			typeLock.readLock().unlock();
+		}
+	}
+
 	@Override
 	public Message deserialize(final JsonElement json, final Type typeOfT, final JsonDeserializationContext context)
 			throws JsonParseException {
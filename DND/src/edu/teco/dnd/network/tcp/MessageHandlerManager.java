@@ -1,11 +1,18 @@
 package edu.teco.dnd.network.tcp;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Set;
 import java.util.concurrent.Executor;
 
 import edu.teco.dnd.module.ApplicationID;
+import edu.teco.dnd.network.ConnectionManager;
 import edu.teco.dnd.network.MessageHandler;
 import edu.teco.dnd.network.messages.Message;
 
@@ -21,10 +28,29 @@ import edu.teco.dnd.network.messages.Message;
  * neither of them is found the superclass is checked until a handler is found or the class <code>Message</code> itself
  * was checked.
  * </p>
+ * 
+ * <p>
+ * As handlers are looked up for every received Message but are rarely changed, the result of this search is kept in
+ * an immutable dispatch table that maps a Message class to the handlers for each ApplicationID. The table is rebuilt
+ * whenever a handler is set or removed, so a lookup only needs a volatile read and two map lookups. Message classes
+ * that have no handlers of their own are resolved the first time they are looked up and then added to the table.
+ * </p>
+ * 
+ * <p>
+ * All public methods in this class are thread-safe.
+ * </p>
  */
 public class MessageHandlerManager {
-	private final ConcurrentMap<Class<? extends Message>, HandlersByApplicationID<? extends Message>> handlers =
-			new ConcurrentHashMap<Class<? extends Message>, HandlersByApplicationID<? extends Message>>();
+	/**
+	 * The registered handlers. Guarded by itself.
+	 */
+	private final Map<Class<? extends Message>, HandlersByApplicationID<? extends Message>> handlers =
+			new HashMap<Class<? extends Message>, HandlersByApplicationID<? extends Message>>();
+
+	/**
+	 * The resolved handlers for each Message class. Replaced as a whole while holding the lock on {@link #handlers}.
+	 */
+	private volatile Map<Class<? extends Message>, ResolvedHandlers> dispatchTable = Collections.emptyMap();
 
 	/**
 	 * Sets the default handler for a Message class.
@@ -36,9 +62,9 @@ public class MessageHandlerManager {
 	 */
 	public <T extends Message> void setDefaultHandler(final Class<T> messageClass,
 			final MessageHandler<? super T> handler) {
-		final HandlersByApplicationID<T> messageClassHandlers = getHandlersForClass(messageClass);
-		synchronized (messageClassHandlers) {
-			messageClassHandlers.setDefaultHandler(handler);
+		synchronized (handlers) {
+			getHandlersForClass(messageClass).setDefaultHandler(handler);
+			publishDispatchTable();
 		}
 	}
 
@@ -52,9 +78,9 @@ public class MessageHandlerManager {
 	 */
 	public <T extends Message> void setDefaultHandler(final Class<T> messageClass,
 			final MessageHandler<? super T> handler, final Executor executor) {
-		final HandlersByApplicationID<T> messageClassHandlers = getHandlersForClass(messageClass);
-		synchronized (messageClassHandlers) {
-			messageClassHandlers.setDefaultHandler(handler, executor);
+		synchronized (handlers) {
+			getHandlersForClass(messageClass).setDefaultHandler(handler, executor);
+			publishDispatchTable();
 		}
 	}
 
@@ -70,9 +96,9 @@ public class MessageHandlerManager {
 	 */
 	public <T extends Message> void setHandler(final Class<T> messageClass, final MessageHandler<? super T> handler,
 			final ApplicationID applicationID) {
-		final HandlersByApplicationID<T> messageClassHandlers = getHandlersForClass(messageClass);
-		synchronized (messageClassHandlers) {
-			messageClassHandlers.setHandler(applicationID, handler);
+		synchronized (handlers) {
+			getHandlersForClass(messageClass).setHandler(applicationID, handler);
+			publishDispatchTable();
 		}
 	}
 
@@ -90,9 +116,64 @@ public class MessageHandlerManager {
 	 */
 	public <T extends Message> void setHandler(final Class<T> messageClass, final MessageHandler<? super T> handler,
 			final ApplicationID applicationID, final Executor executor) {
-		final HandlersByApplicationID<T> messageClassHandlers = getHandlersForClass(messageClass);
-		synchronized (messageClassHandlers) {
-			messageClassHandlers.setHandler(applicationID, handler, executor);
+		synchronized (handlers) {
+			getHandlersForClass(messageClass).setHandler(applicationID, handler, executor);
+			publishDispatchTable();
+		}
+	}
+
+	/**
+	 * Removes the handler that was set for a Message class and an ApplicationID. Pass
+	 * {@link ConnectionManager#APPID_DEFAULT} to remove the default handler.
+	 * 
+	 * @param messageClass
+	 *            the class of {@link Message}s the handler was set for
+	 * @param applicationID
+	 *            the ID of the Application the handler was set for
+	 * @return true if a handler was removed
+	 */
+	public boolean removeHandler(final Class<? extends Message> messageClass, final ApplicationID applicationID) {
+		synchronized (handlers) {
+			final HandlersByApplicationID<? extends Message> messageClassHandlers = handlers.get(messageClass);
+			if (messageClassHandlers == null || !messageClassHandlers.removeHandler(applicationID)) {
+				return false;
+			}
+			if (messageClassHandlers.isEmpty()) {
+				handlers.remove(messageClass);
+			}
+			publishDispatchTable();
+			return true;
+		}
+	}
+
+	/**
+	 * Removes all handlers that were set for an ApplicationID. This should be called once an Application has been
+	 * stopped so that the handlers and the Application can be garbage collected.
+	 * 
+	 * @param applicationID
+	 *            the ID of the Application. Must not be {@link ConnectionManager#APPID_DEFAULT}.
+	 * @return the number of handlers that were removed
+	 */
+	public int removeHandlers(final ApplicationID applicationID) {
+		if (ConnectionManager.APPID_DEFAULT.equals(applicationID)) {
+			throw new IllegalArgumentException("cannot remove all default handlers");
+		}
+		synchronized (handlers) {
+			int removed = 0;
+			for (final Iterator<HandlersByApplicationID<? extends Message>> it = handlers.values().iterator(); it
+					.hasNext();) {
+				final HandlersByApplicationID<? extends Message> messageClassHandlers = it.next();
+				if (messageClassHandlers.removeHandler(applicationID)) {
+					removed++;
+					if (messageClassHandlers.isEmpty()) {
+						it.remove();
+					}
+				}
+			}
+			if (removed > 0) {
+				publishDispatchTable();
+			}
+			return removed;
 		}
 	}
 
@@ -109,20 +190,11 @@ public class MessageHandlerManager {
 	 */
 	@SuppressWarnings("unchecked")
 	public <T extends Message> MessageHandlerWithExecutor<T> getDefaultHandler(final Class<T> messageClass) {
-		final HandlersByApplicationID<T> messageClassHandlers = getHandlersForClass(messageClass);
-		MessageHandlerWithExecutor<T> handler = null;
-		synchronized (messageClassHandlers) {
-			handler = messageClassHandlers.getDefaultHandlerWithExecutor();
-		}
+		final MessageHandlerWithExecutor<?> handler = getResolvedHandlers(messageClass).defaultHandler;
 		if (handler == null) {
-			try {
-				return (MessageHandlerWithExecutor<T>) getDefaultHandler(getMessageSuperclass(messageClass));
-			} catch (final IllegalArgumentException e) {
-				throw new NoSuchElementException("no message handler found");
-			}
-		} else {
-			return handler;
+			throw new NoSuchElementException("no message handler found");
 		}
+		return (MessageHandlerWithExecutor<T>) handler;
 	}
 
 	/**
@@ -141,30 +213,103 @@ public class MessageHandlerManager {
 	@SuppressWarnings("unchecked")
 	public <T extends Message> MessageHandlerWithExecutor<T> getHandler(final Class<T> messageClass,
 			final ApplicationID applicationID) {
-		final HandlersByApplicationID<T> messageClassHandlers = getHandlersForClass(messageClass);
-		MessageHandlerWithExecutor<T> handler = null;
-		synchronized (messageClassHandlers) {
-			handler = messageClassHandlers.getHandlerWithExecutor(applicationID);
-		}
+		final MessageHandlerWithExecutor<?> handler = getResolvedHandlers(messageClass).getHandler(applicationID);
 		if (handler == null) {
-			try {
-				return (MessageHandlerWithExecutor<T>) getHandler(getMessageSuperclass(messageClass), applicationID);
-			} catch (final IllegalArgumentException e) {
-				throw new NoSuchElementException("no message handler found");
+			throw new NoSuchElementException("no message handler found");
+		}
+		return (MessageHandlerWithExecutor<T>) handler;
+	}
+
+	private ResolvedHandlers getResolvedHandlers(final Class<? extends Message> messageClass) {
+		ResolvedHandlers resolvedHandlers = dispatchTable.get(messageClass);
+		if (resolvedHandlers == null) {
+			synchronized (handlers) {
+				resolvedHandlers = dispatchTable.get(messageClass);
+				if (resolvedHandlers == null) {
+					resolvedHandlers = resolve(messageClass);
+					final Map<Class<? extends Message>, ResolvedHandlers> newDispatchTable =
+							new HashMap<Class<? extends Message>, ResolvedHandlers>(dispatchTable);
+					newDispatchTable.put(messageClass, resolvedHandlers);
+					dispatchTable = Collections.unmodifiableMap(newDispatchTable);
+				}
 			}
-		} else {
-			return handler;
 		}
+		return resolvedHandlers;
+	}
+
+	/**
+	 * Rebuilds {@link #dispatchTable} for all Message classes that have handlers or have been looked up before. Must be
+	 * called while holding the lock on {@link #handlers}.
+	 */
+	private void publishDispatchTable() {
+		final Set<Class<? extends Message>> messageClasses = new HashSet<Class<? extends Message>>(handlers.keySet());
+		messageClasses.addAll(dispatchTable.keySet());
+		final Map<Class<? extends Message>, ResolvedHandlers> newDispatchTable =
+				new HashMap<Class<? extends Message>, ResolvedHandlers>();
+		for (final Class<? extends Message> messageClass : messageClasses) {
+			newDispatchTable.put(messageClass, resolve(messageClass));
+		}
+		dispatchTable = Collections.unmodifiableMap(newDispatchTable);
+	}
+
+	/**
+	 * Resolves the handlers for a Message class as described in the class documentation. Must be called while holding
+	 * the lock on {@link #handlers}.
+	 * 
+	 * @param messageClass
+	 *            the Message class to resolve
+	 * @return the handlers for the Message class
+	 */
+	private ResolvedHandlers resolve(final Class<? extends Message> messageClass) {
+		final List<HandlersByApplicationID<? extends Message>> hierarchy =
+				new ArrayList<HandlersByApplicationID<? extends Message>>();
+		final Set<ApplicationID> applicationIDs = new HashSet<ApplicationID>();
+		Class<? extends Message> currentClass = messageClass;
+		while (true) {
+			final HandlersByApplicationID<? extends Message> classHandlers = handlers.get(currentClass);
+			if (classHandlers != null) {
+				hierarchy.add(classHandlers);
+				applicationIDs.addAll(classHandlers.getApplicationIDs());
+			}
+			if (!hasMessageSuperclass(currentClass)) {
+				break;
+			}
+			currentClass = getMessageSuperclass(currentClass);
+		}
+		applicationIDs.remove(ConnectionManager.APPID_DEFAULT);
+
+		MessageHandlerWithExecutor<?> defaultHandler = null;
+		for (final HandlersByApplicationID<? extends Message> classHandlers : hierarchy) {
+			defaultHandler = classHandlers.getDefaultHandlerWithExecutor();
+			if (defaultHandler != null) {
+				break;
+			}
+		}
+
+		final Map<ApplicationID, MessageHandlerWithExecutor<?>> applicationHandlers =
+				new HashMap<ApplicationID, MessageHandlerWithExecutor<?>>();
+		for (final ApplicationID applicationID : applicationIDs) {
+			for (final HandlersByApplicationID<? extends Message> classHandlers : hierarchy) {
+				final MessageHandlerWithExecutor<?> handler = classHandlers.getHandlerWithExecutor(applicationID);
+				if (handler != null) {
+					applicationHandlers.put(applicationID, handler);
+					break;
+				}
+			}
+		}
+		return new ResolvedHandlers(defaultHandler, applicationHandlers);
 	}
 
-	// TODO: In case HandlersByApplicationID are removed in other parts of the code this may lead to
-	// NullPointerExceptions
+	/**
+	 * Returns the handlers for a Message class, creating them if necessary. Must be called while holding the lock on
+	 * {@link #handlers}.
+	 */
 	@SuppressWarnings("unchecked")
 	private <T extends Message> HandlersByApplicationID<T> getHandlersForClass(final Class<T> messageClass) {
 		HandlersByApplicationID<T> handlersForClass = (HandlersByApplicationID<T>) handlers.get(messageClass);
 		if (handlersForClass == null) {
-			handlers.putIfAbsent(messageClass, new HandlersByApplicationID<T>());
-			handlersForClass = (HandlersByApplicationID<T>) handlers.get(messageClass);
+			handlersForClass = new HandlersByApplicationID<T>();
+			handlers.put(messageClass, handlersForClass);
 		}
 		return handlersForClass;
 	}
@@ -191,4 +336,23 @@ public class MessageHandlerManager {
 	private static boolean hasMessageSuperclass(final Class<? extends Message> messageClass) {
 		return Message.class.isAssignableFrom(messageClass.getSuperclass());
 	}
+
+	/**
+	 * The handlers for a single Message class, including those inherited from its superclasses.
+	 */
+	private static final class ResolvedHandlers {
+		private final MessageHandlerWithExecutor<?> defaultHandler;
+		private final Map<ApplicationID, MessageHandlerWithExecutor<?>> applicationHandlers;
+
+		private ResolvedHandlers(final MessageHandlerWithExecutor<?> defaultHandler,
+				final Map<ApplicationID, MessageHandlerWithExecutor<?>> applicationHandlers) {
+			this.defaultHandler = defaultHandler;
+			this.applicationHandlers = applicationHandlers;
+		}
+
+		private MessageHandlerWithExecutor<?> getHandler(final ApplicationID applicationID) {
+			final MessageHandlerWithExecutor<?> handler = applicationHandlers.get(applicationID);
+			return handler == null ? defaultHandler : handler;
+		}
+	}
 }
@@ -0,0 +1,63 @@
+package edu.teco.dnd.network.tcp;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import edu.teco.dnd.network.MessagePriority;
+import edu.teco.dnd.network.messages.Message;
+
+/**
+ * Stores the {@link MessagePriority} of Message classes. Classes that have not been assigned a priority, including
+ * subclasses of classes that have, use {@link MessagePriority#DATA}.
+ * 
+ * All methods in this class are thread-safe.
+ */
+public class MessagePriorities {
+	private final ConcurrentMap<Class<? extends Message>, MessagePriority> priorities =
+			new ConcurrentHashMap<Class<? extends Message>, MessagePriority>();
+
+	/**
+	 * Sets the priority of a Message class.
+	 * 
+	 * @param messageClass
+	 *            the Message class
+	 * @param priority
+	 *            the priority of the class. Pass <code>null</code> to use the default priority.
+	 */
+	public void setPriority(final Class<? extends Message> messageClass, final MessagePriority priority) {
+		if (priority == null || priority == MessagePriority.DATA) {
+			priorities.remove(messageClass);
+		} else {
+			priorities.put(messageClass, priority);
+		}
+	}
+
+	/**
+	 * Returns the priority of a Message class.
+	 * 
+	 * @param messageClass
+	 *            the Message class
+	 * @return the priority of the class
+	 */
+	public MessagePriority getPriority(final Class<? extends Message> messageClass) {
+		final MessagePriority priority = priorities.get(messageClass);
+		return priority == null ? MessagePriority.DATA : priority;
+	}
+
+	/**
+	 * Returns the priority of an object written to a Channel. This is the priority of a {@link PrioritizedWrite},
+	 * the priority of the class of a {@link Message} and {@link MessagePriority#DATA} for anything else.
+	 * 
+	 * @param msg
+	 *            the object written to the Channel
+	 * @return the priority of the object
+	 */
+	public MessagePriority getPriority(final Object msg) {
+		if (msg instanceof PrioritizedWrite) {
+			return ((PrioritizedWrite) msg).getPriority();
+		} else if (msg instanceof Message) {
+			return getPriority(((Message) msg).getClass());
+		}
+		return MessagePriority.DATA;
+	}
+}
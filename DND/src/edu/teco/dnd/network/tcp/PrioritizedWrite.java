@@ -0,0 +1,39 @@
+package edu.teco.dnd.network.tcp;
+
+import edu.teco.dnd.network.MessagePriority;
+
+/**
+ * An object written to a Channel together with the {@link MessagePriority} it should be sent with. Used for writes
+ * whose priority cannot be derived from their class, like Messages that have already been encoded or Responses that
+ * should be sent with the priority of the Message they answer. The {@link PriorityWriteHandler} unwraps it.
+ */
+public class PrioritizedWrite {
+	private final Object message;
+	private final MessagePriority priority;
+
+	/**
+	 * Initializes a new PrioritizedWrite.
+	 * 
+	 * @param message
+	 *            the object to write. Ownership of reference counted objects is passed on.
+	 * @param priority
+	 *            the priority to send the object with
+	 */
+	public PrioritizedWrite(final Object message, final MessagePriority priority) {
+		this.message = message;
+		this.priority = priority;
+	}
+
+	public Object getMessage() {
+		return message;
+	}
+
+	public MessagePriority getPriority() {
+		return priority;
+	}
+
+	@Override
+	public String toString() {
+		return "PrioritizedWrite[message=" + message + ",priority=" + priority + "]";
+	}
+}
@@ -0,0 +1,158 @@
+package edu.teco.dnd.network.tcp;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.ReferenceCountUtil;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import edu.teco.dnd.network.MessagePriority;
+
+/**
+ * <p>
+ * Sends Messages in the order of their {@link MessagePriority} if the connection is congested. As long as the
+ * {@link io.netty.channel.Channel} is writable, writes are passed on unchanged. Once it is not writable, writes are
+ * held back in one queue per priority. When the Channel becomes writable again, the held back writes are passed on,
+ * highest priority first, until it is congested again. A control Message therefore only waits for the data that has
+ * already been passed on, which is limited by the write buffer high water mark, instead of all data written before
+ * it.
+ * </p>
+ *
+ * <p>
+ * {@link PrioritizedWrite}s are unwrapped. Held back writes are passed on before the Channel is closed and are failed
+ * if it is closed by the remote side.
+ * </p>
+ *
+ * <p>
+ * The handler keeps state and must not be shared between Channels. It has to be added after the encoders so that it
+ * sees the Messages before they are encoded.
+ * </p>
+ */
+public class PriorityWriteHandler extends ChannelDuplexHandler {
+	private static final MessagePriority[] PRIORITIES = MessagePriority.values();
+
+	private final MessagePriorities priorities;
+	/**
+	 * The held back writes, one queue per {@link MessagePriority} in the order of the priorities.
+	 */
+	private final List<Queue<PendingWrite>> pendingWrites;
+	private int pendingCount = 0;
+
+	/**
+	 * Initializes a new PriorityWriteHandler.
+	 *
+	 * @param priorities
+	 *            used to look up the priority of Messages
+	 */
+	public PriorityWriteHandler(final MessagePriorities priorities) {
+		this.priorities = priorities;
+		this.pendingWrites = new ArrayList<Queue<PendingWrite>>(PRIORITIES.length);
+		for (int i = 0; i < PRIORITIES.length; i++) {
+			pendingWrites.add(new ArrayDeque<PendingWrite>());
+		}
+	}
+
+	/**
+	 * Returns the number of writes that are held back.
+	 *
+	 * @return the number of writes that are held back
+	 */
+	public int getPendingCount() {
+		return pendingCount;
+	}
+
+	@Override
+	public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise) {
+		final MessagePriority priority = priorities.getPriority(msg);
+		final Object unwrapped = msg instanceof PrioritizedWrite ? ((PrioritizedWrite) msg).getMessage() : msg;
+		if (pendingCount == 0 && ctx.channel().isWritable()) {
+			ctx.write(unwrapped, promise);
+		} else {
+			pendingWrites.get(priority.ordinal()).add(new PendingWrite(unwrapped, promise));
+			pendingCount++;
+		}
+	}
+
+	@Override
+	public void flush(final ChannelHandlerContext ctx) {
+		writePending(ctx, false);
+		ctx.flush();
+	}
+
+	@Override
+	public void channelWritabilityChanged(final ChannelHandlerContext ctx) {
+		if (ctx.channel().isWritable() && pendingCount > 0) {
+			writePending(ctx, false);
+			ctx.flush();
+		}
+		ctx.fireChannelWritabilityChanged();
+	}
+
+	@Override
+	public void close(final ChannelHandlerContext ctx, final ChannelPromise promise) {
+		if (pendingCount > 0) {
+			writePending(ctx, true);
+			ctx.flush();
+		}
+		ctx.close(promise);
+	}
+
+	@Override
+	public void channelInactive(final ChannelHandlerContext ctx) throws Exception {
+		failPending(new ClosedChannelException());
+		super.channelInactive(ctx);
+	}
+
+	@Override
+	public void handlerRemoved(final ChannelHandlerContext ctx) {
+		if (pendingCount > 0) {
+			writePending(ctx, true);
+			ctx.flush();
+		}
+	}
+
+	/**
+	 * Passes on held back writes, highest priority first.
+	 *
+	 * @param all
+	 *            if true all writes are passed on, otherwise only as long as the Channel is writable
+	 */
+	private void writePending(final ChannelHandlerContext ctx, final boolean all) {
+		for (final Queue<PendingWrite> queue : pendingWrites) {
+			while (!queue.isEmpty()) {
+				if (!all && !ctx.channel().isWritable()) {
+					return;
+				}
+				final PendingWrite pendingWrite = queue.poll();
+				pendingCount--;
+				ctx.write(pendingWrite.msg, pendingWrite.promise);
+			}
+		}
+	}
+
+	private void failPending(final Throwable cause) {
+		for (final Queue<PendingWrite> queue : pendingWrites) {
+			PendingWrite pendingWrite;
+			while ((pendingWrite = queue.poll()) != null) {
+				pendingCount--;
+				ReferenceCountUtil.release(pendingWrite.msg);
+				pendingWrite.promise.tryFailure(cause);
+			}
+		}
+	}
+
+	private static class PendingWrite {
+		private final Object msg;
+		private final ChannelPromise promise;
+
+		private PendingWrite(final Object msg, final ChannelPromise promise) {
+			this.msg = msg;
+			this.promise = promise;
+		}
+	}
+}
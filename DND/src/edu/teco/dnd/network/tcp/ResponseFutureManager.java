@@ -1,26 +1,56 @@
 package edu.teco.dnd.network.tcp;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import edu.teco.dnd.module.ModuleID;
 import edu.teco.dnd.network.messages.Message;
 import edu.teco.dnd.network.messages.Response;
 import edu.teco.dnd.util.DefaultFutureNotifier;
+import edu.teco.dnd.util.HashedTimingWheel.Timeout;
 
 /**
  * <p>
  * Creates and updates {@link ResponseFutureNotifier}s.
  * </p>
+ * 
+ * <p>
+ * ResponseFutureNotifiers are identified by the UUID of the {@link Message} and optionally by the ID of the Module
+ * the Message was sent to. The latter is needed for Messages that are sent to multiple Modules with the same UUID
+ * (see {@link TCPConnectionManager#broadcast(java.util.Collection, Message)}). A ResponseFutureNotifier created without
+ * a ModuleID matches Responses from any Module.
+ * </p>
+ * 
+ * <p>
+ * A ResponseFutureNotifier is removed as soon as it is done, including failures caused by a timeout. If a timeout has
+ * been {@link ResponseFutureNotifier#setTimeout(Timeout) attached}, it is cancelled at the same time.
+ * </p>
+ * 
+ * <p>
+ * ResponseFutureManager is thread-safe and does not use a global lock. The number of outstanding Responses per Module
+ * is available via {@link #getInFlightCount(ModuleID)} for monitoring.
+ * </p>
  */
 public class ResponseFutureManager {
 	private static Logger LOGGER = LogManager.getLogger();
 
-	private final Map<UUID, ResponseFutureNotifier> responseFutureNotifiers =
-			new HashMap<UUID, ResponseFutureNotifier>();
+	private final ConcurrentMap<ResponseKey, ResponseFutureNotifier> responseFutureNotifiers =
+			new ConcurrentHashMap<ResponseKey, ResponseFutureNotifier>();
+
+	/**
+	 * The number of ResponseFutureNotifiers per Module. ResponseFutureNotifiers without a Module are not counted.
+	 */
+	private final ConcurrentMap<ModuleID, AtomicInteger> inFlightCounts =
+			new ConcurrentHashMap<ModuleID, AtomicInteger>();
 
 	/**
 	 * Creates a new {@link ResponseFutureNotifier} for a given {@link Message} {@link UUID}.
@@ -34,17 +64,36 @@ public class ResponseFutureManager {
 	 *             if there already is a ResponseFutureNotifier for the given UUID
 	 */
 	public ResponseFutureNotifier createResponseFuture(final UUID sourceUUID) {
-		LOGGER.entry(sourceUUID);
+		return createResponseFuture(null, sourceUUID);
+	}
+
+	/**
+	 * Creates a new {@link ResponseFutureNotifier} for a given {@link Message} {@link UUID} that only matches Responses
+	 * sent by the given Module.
+	 * 
+	 * @param remoteID
+	 *            the ID of the Module the Message is sent to. If <code>null</code>, Responses from any Module match.
+	 * @param sourceUUID
+	 *            the UUID of the Message the ResponseFutureNotifier should be for
+	 * @return a ResponseFutureNotifier for the given Module and Message UUID
+	 * @throws IllegalArgumentException
+	 *             if <code>sourceUUID</code> is <code>null</code>
+	 * @throws IllegalStateException
+	 *             if there already is a ResponseFutureNotifier for the given Module and UUID
+	 */
+	public ResponseFutureNotifier createResponseFuture(final ModuleID remoteID, final UUID sourceUUID) {
+		LOGGER.entry(remoteID, sourceUUID);
 		if (sourceUUID == null) {
 			throw LOGGER.throwing(new IllegalArgumentException("sourceUUID must not be null"));
 		}
-		final ResponseFutureNotifier newNotifier = new ResponseFutureNotifier(sourceUUID);
-		synchronized (responseFutureNotifiers) {
-			if (responseFutureNotifiers.containsKey(sourceUUID)) {
-				throw LOGGER.throwing(new IllegalStateException("ResponseFutureNotifier for " + sourceUUID
-						+ " already exists"));
-			}
-			responseFutureNotifiers.put(sourceUUID, newNotifier);
+		final ResponseKey key = new ResponseKey(remoteID, sourceUUID);
+		final ResponseFutureNotifier newNotifier = new ResponseFutureNotifier(remoteID, sourceUUID);
+		if (responseFutureNotifiers.putIfAbsent(key, newNotifier) != null) {
+			throw LOGGER.throwing(new IllegalStateException("ResponseFutureNotifier for " + sourceUUID
+					+ (remoteID == null ? "" : " on " + remoteID) + " already exists"));
+		}
+		if (remoteID != null) {
+			getInFlightCounter(remoteID).incrementAndGet();
 		}
 		return LOGGER.exit(newNotifier);
 	}
@@ -56,12 +105,21 @@ public class ResponseFutureManager {
 	 *            the Response that was received
 	 */
 	public void setSuccess(final Response response) {
-		LOGGER.entry(response);
-		final UUID sourceUUID = response.getSourceUUID();
-		ResponseFutureNotifier notifier = null;
-		synchronized (responseFutureNotifiers) {
-			notifier = responseFutureNotifiers.remove(sourceUUID);
-		}
+		setSuccess(null, response);
+	}
+
+	/**
+	 * Sets the state of the matching {@link ResponseFutureNotifier} to success. A ResponseFutureNotifier created for
+	 * the Module that sent the Response is preferred over one that matches any Module.
+	 * 
+	 * @param remoteID
+	 *            the ID of the Module that sent the Response. May be <code>null</code> if unknown.
+	 * @param response
+	 *            the Response that was received
+	 */
+	public void setSuccess(final ModuleID remoteID, final Response response) {
+		LOGGER.entry(remoteID, response);
+		final ResponseFutureNotifier notifier = remove(remoteID, response.getSourceUUID());
 		if (notifier != null) {
 			notifier.setSuccess0(response);
 		}
@@ -77,24 +135,143 @@ public class ResponseFutureManager {
 	 *            the cause for the failure. May be <code>null</code>.
 	 */
 	public void setFailure(final UUID sourceUUID, final Throwable cause) {
-		LOGGER.entry(sourceUUID, cause);
-		ResponseFutureNotifier notifier = null;
-		synchronized (responseFutureNotifiers) {
-			notifier = responseFutureNotifiers.remove(sourceUUID);
-		}
+		setFailure(null, sourceUUID, cause);
+	}
+
+	/**
+	 * Sets the state of the {@link ResponseFutureNotifier} for the given Module and {@link UUID} to failure.
+	 * 
+	 * @param remoteID
+	 *            the ID of the Module from which no Response will be received. May be <code>null</code>.
+	 * @param sourceUUID
+	 *            the UUID for which no Response will be received
+	 * @param cause
+	 *            the cause for the failure. May be <code>null</code>.
+	 */
+	public void setFailure(final ModuleID remoteID, final UUID sourceUUID, final Throwable cause) {
+		LOGGER.entry(remoteID, sourceUUID, cause);
+		final ResponseFutureNotifier notifier = remove(remoteID, sourceUUID);
 		if (notifier != null) {
 			notifier.setFailure0(cause);
 		}
 		LOGGER.exit();
 	}
 
+	/**
+	 * Returns the number of Responses that are expected from a Module but have neither been received nor failed.
+	 * 
+	 * @param remoteID
+	 *            the ID of the Module
+	 * @return the number of outstanding Responses from the Module
+	 */
+	public int getInFlightCount(final ModuleID remoteID) {
+		final AtomicInteger counter = inFlightCounts.get(remoteID);
+		return counter == null ? 0 : counter.get();
+	}
+
+	/**
+	 * Returns the number of outstanding Responses for all Modules that Messages have been sent to.
+	 * 
+	 * @return a snapshot of the number of outstanding Responses per Module
+	 * @see #getInFlightCount(ModuleID)
+	 */
+	public Map<ModuleID, Integer> getInFlightCounts() {
+		final Map<ModuleID, Integer> counts = new HashMap<ModuleID, Integer>();
+		for (final Entry<ModuleID, AtomicInteger> entry : inFlightCounts.entrySet()) {
+			counts.put(entry.getKey(), entry.getValue().get());
+		}
+		return Collections.unmodifiableMap(counts);
+	}
+
+	private AtomicInteger getInFlightCounter(final ModuleID remoteID) {
+		AtomicInteger counter = inFlightCounts.get(remoteID);
+		if (counter == null) {
+			final AtomicInteger newCounter = new AtomicInteger(0);
+			counter = inFlightCounts.putIfAbsent(remoteID, newCounter);
+			if (counter == null) {
+				counter = newCounter;
+			}
+		}
+		return counter;
+	}
+
+	private ResponseFutureNotifier remove(final ModuleID remoteID, final UUID sourceUUID) {
+		if (remoteID != null) {
+			final ResponseKey key = new ResponseKey(remoteID, sourceUUID);
+			final ResponseFutureNotifier notifier = responseFutureNotifiers.remove(key);
+			if (notifier != null) {
+				removed(key);
+				return notifier;
+			}
+		}
+		final ResponseKey key = new ResponseKey(null, sourceUUID);
+		final ResponseFutureNotifier notifier = responseFutureNotifiers.remove(key);
+		if (notifier != null) {
+			removed(key);
+		}
+		return notifier;
+	}
+
+	/**
+	 * Removes a ResponseFutureNotifier that has been completed directly instead of through this manager.
+	 */
+	private void remove(final ResponseKey key, final ResponseFutureNotifier notifier) {
+		if (responseFutureNotifiers.remove(key, notifier)) {
+			removed(key);
+		}
+	}
+
+	private void removed(final ResponseKey key) {
+		if (key.remoteID != null) {
+			getInFlightCounter(key.remoteID).decrementAndGet();
+		}
+	}
+
+	/**
+	 * Identifies a ResponseFutureNotifier.
+	 */
+	private static final class ResponseKey {
+		private final ModuleID remoteID;
+		private final UUID sourceUUID;
+
+		private ResponseKey(final ModuleID remoteID, final UUID sourceUUID) {
+			this.remoteID = remoteID;
+			this.sourceUUID = sourceUUID;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (remoteID == null ? 0 : remoteID.hashCode()) + sourceUUID.hashCode();
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ResponseKey)) {
+				return false;
+			}
+			final ResponseKey other = (ResponseKey) obj;
+			return (remoteID == null ? other.remoteID == null : remoteID.equals(other.remoteID))
+					&& sourceUUID.equals(other.sourceUUID);
+		}
+	}
+
 	/**
 	 * A FutureNotifier that will return a {@link Response}.
 	 */
 	public class ResponseFutureNotifier extends DefaultFutureNotifier<Response> {
+		private final ModuleID remoteID;
 		private final UUID sourceUUID;
+		private volatile Timeout timeout = null;
 
 		protected ResponseFutureNotifier(final UUID sourceUUID) {
+			this(null, sourceUUID);
+		}
+
+		protected ResponseFutureNotifier(final ModuleID remoteID, final UUID sourceUUID) {
+			this.remoteID = remoteID;
 			this.sourceUUID = sourceUUID;
 		}
 
@@ -107,12 +284,41 @@ public class ResponseFutureManager {
 			return sourceUUID;
 		}
 
+		/**
+		 * Attaches a timeout to this ResponseFutureNotifier. The timeout is cancelled as soon as this
+		 * ResponseFutureNotifier is done, or immediately if it already is.
+		 * 
+		 * @param timeout
+		 *            the timeout to cancel once a result is known
+		 */
+		public void setTimeout(final Timeout timeout) {
+			this.timeout = timeout;
+			if (isDone()) {
+				cancelTimeout();
+			}
+		}
+
 		public void setSuccess0(final Response response) {
 			setSuccess(response);
+			done();
 		}
 
 		public void setFailure0(final Throwable cause) {
 			setFailure(cause);
+			done();
+		}
+
+		private void done() {
+			cancelTimeout();
+			remove(new ResponseKey(remoteID, sourceUUID), this);
+		}
+
+		private void cancelTimeout() {
+			final Timeout currentTimeout = timeout;
+			if (currentTimeout != null) {
+				timeout = null;
+				currentTimeout.cancel();
+			}
 		}
 
 		@Override
@@ -0,0 +1,69 @@
+package edu.teco.dnd.network.tcp;
+
+import io.netty.buffer.ByteBuf;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import edu.teco.dnd.network.messages.Message;
+
+/**
+ * <p>
+ * A {@link BinaryMessageSerializer} that can use state kept per connection, for example to refer to data sent in
+ * earlier Messages instead of sending it again. Each Channel gets its own state for each direction, created with
+ * {@link #createState()}, so the state starts out empty on every new connection. The state is only used on
+ * connections where both sides announced {@link edu.teco.dnd.network.messages.HelloMessage#CAPABILITY_STATEFUL_ENCODING
+ * support} for it. Messages that are encoded once for multiple connections use the stateless methods of
+ * {@link BinaryMessageSerializer}.
+ * </p>
+ *
+ * <p>
+ * Both sides update their state in the same order, as Messages are decoded in the order they were encoded. If
+ * {@link #write(Message, ByteBuf, Object)} throws an exception the remote side never sees the Message, so
+ * {@link BinaryCodec} stops using the state for the connection. If a Message was written but could not be sent, or if
+ * {@link #read(UUID, ByteBuf, Object)} throws an exception, the states of the two sides differ and BinaryCodec closes
+ * the connection.
+ * </p>
+ *
+ * @param <T>
+ *            the type of Message that is serialized
+ * @param <S>
+ *            the type of the state
+ */
+public interface StatefulBinaryMessageSerializer<T extends Message, S> extends BinaryMessageSerializer<T> {
+	/**
+	 * Creates the initial state for one direction of a connection.
+	 *
+	 * @return the initial state
+	 */
+	S createState();
+
+	/**
+	 * Writes the fields of a Message using the state of the connection.
+	 *
+	 * @param message
+	 *            the Message to write
+	 * @param out
+	 *            the buffer to write to
+	 * @param state
+	 *            the state of the sending side of the connection
+	 * @throws IOException
+	 *             if the Message could not be written
+	 */
+	void write(T message, ByteBuf out, S state) throws IOException;
+
+	/**
+	 * Reads the fields of a Message written by {@link #write(Message, ByteBuf, Object)}.
+	 *
+	 * @param uuid
+	 *            the UUID of the Message
+	 * @param in
+	 *            the buffer to read from
+	 * @param state
+	 *            the state of the receiving side of the connection
+	 * @return the Message that was read
+	 * @throws IOException
+	 *             if the Message could not be read
+	 */
+	T read(UUID uuid, ByteBuf in, S state) throws IOException;
+}
@@ -1,14 +1,20 @@
 package edu.teco.dnd.network.tcp;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.net.InetSocketAddress;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -19,18 +25,23 @@ import com.google.gson.GsonBuilder;
 
 import edu.teco.dnd.module.ApplicationID;
 import edu.teco.dnd.module.ModuleID;
+import edu.teco.dnd.network.BackpressureListener;
 import edu.teco.dnd.network.BeaconListener;
+import edu.teco.dnd.network.BroadcastFutureNotifier;
 import edu.teco.dnd.network.ConnectionListener;
 import edu.teco.dnd.network.ConnectionManager;
 import edu.teco.dnd.network.MessageHandler;
+import edu.teco.dnd.network.MessagePriority;
 import edu.teco.dnd.network.UDPMulticastBeacon;
 import edu.teco.dnd.network.messages.BeaconMessage;
 import edu.teco.dnd.network.messages.Message;
 import edu.teco.dnd.network.messages.Response;
+import edu.teco.dnd.network.tcp.ApplicationMessageScheduler.ShedPolicy;
 import edu.teco.dnd.network.tcp.ResponseFutureManager.ResponseFutureNotifier;
 import edu.teco.dnd.util.FinishedFutureNotifier;
 import edu.teco.dnd.util.FutureListener;
 import edu.teco.dnd.util.FutureNotifier;
+import edu.teco.dnd.util.IndexedThreadFactory;
 
 /**
  * <p>
@@ -73,6 +84,24 @@ public class TCPConnectionManager implements ConnectionManager, BeaconListener {
 	private final TimeoutResponseInvalidator timeoutResponseInvalidator;
 	private final ClientMessageDispatcher messageDispatcher;
 	private final ClientChannelInitializer clientChannelInitializer;
+	private final BackpressureManager backpressureManager;
+
+	/**
+	 * Runs the handlers of received Messages with {@link MessagePriority#CONTROL} that do not belong to an
+	 * Application. A single Thread is used so that these control Messages are handled one after another in the order
+	 * they were received and so that peers cannot make this Module create Threads by sending control Messages. Control
+	 * Messages of an Application are run in order on the Executor of their handler instead (see
+	 * {@link ClientMessageDispatcher}) so that an Application whose FunctionBlocks do not finish starting cannot hold
+	 * up the control Messages of other Applications.
+	 */
+	private final ExecutorService controlExecutor = Executors.newSingleThreadExecutor(new IndexedThreadFactory(
+			"control-"));
+
+	/**
+	 * Timeouts in nanoseconds for Message types that should not use {@link #TIMEOUT_DELAY}.
+	 */
+	private final ConcurrentMap<Class<? extends Message>, Long> timeouts =
+			new ConcurrentHashMap<Class<? extends Message>, Long>();
 
 	private final ModuleID localID;
 
@@ -97,8 +126,12 @@ public class TCPConnectionManager implements ConnectionManager, BeaconListener {
 		timeoutResponseInvalidator = new TimeoutResponseInvalidator(invalidatorThread, TIMEOUT_DELAY, TIMEOUT_UNIT);
 		clientChannelManager = new ClientChannelManager(clientChannelFactory);
 		clientChannelInitializer = new ClientChannelInitializer(clientChannelManager, localID);
+		backpressureManager = new BackpressureManager(clientChannelManager);
+		clientChannelInitializer.setBackpressureManager(backpressureManager);
 		clientChannelFactory.setChannelInitializer(clientChannelInitializer);
 		messageDispatcher = new ClientMessageDispatcher(clientChannelManager, responseFutureManager);
+		messageDispatcher.setMessagePriorities(clientChannelInitializer.getMessagePriorities());
+		messageDispatcher.setControlExecutor(controlExecutor);
 		clientChannelInitializer.setMessageHandler(messageDispatcher);
 		serverChannelFactory.setChildChannelInitializer(clientChannelInitializer);
 		serverChannelManager = new ServerChannelManager(serverChannelFactory);
@@ -124,6 +157,31 @@ public class TCPConnectionManager implements ConnectionManager, BeaconListener {
 		clientChannelInitializer.addMessageType(cls);
 	}
 
+	/**
+	 * Registers a serializer that is used to send Messages of the given class in binary form to Modules that support
+	 * it. Messages without a serializer are sent as JSON.
+	 * 
+	 * @param cls
+	 *            the Message class. Must also be {@link #addMessageType(Class) added}.
+	 * @param serializer
+	 *            the serializer to use
+	 */
+	public <T extends Message> void addBinarySerializer(final Class<T> cls,
+			final BinaryMessageSerializer<T> serializer) {
+		clientChannelInitializer.addBinarySerializer(cls, serializer);
+	}
+
+	/**
+	 * Sets whether or not binary encoding is offered to other Modules. If disabled, all Messages on new connections are
+	 * sent as JSON.
+	 * 
+	 * @param binaryEnabled
+	 *            true if binary encoding should be offered
+	 */
+	public void setBinaryEnabled(final boolean binaryEnabled) {
+		clientChannelInitializer.setBinaryEnabled(binaryEnabled);
+	}
+
 	/**
 	 * <p>
 	 * Registers a type adapter for GSON.
@@ -203,15 +261,300 @@ public class TCPConnectionManager implements ConnectionManager, BeaconListener {
 	public FutureNotifier<Response> sendMessage(final ModuleID moduleID, final Message message) {
 		try {
 			final Channel channel = getActiveChannel(moduleID);
-			final ResponseFutureNotifier futureNotifier = responseFutureManager.createResponseFuture(message.getUUID());
+			final ResponseFutureNotifier futureNotifier =
+					responseFutureManager.createResponseFuture(moduleID, message.getUUID());
 			channel.writeAndFlush(message).addListener(new ResponseInvalidator(futureNotifier));
-			timeoutResponseInvalidator.addTimeout(futureNotifier);
+			addTimeout(futureNotifier, message);
 			return futureNotifier;
 		} catch (final NoSuchElementException e) {
 			return new FinishedFutureNotifier<Response>(e);
 		}
 	}
 
+	@Override
+	public FutureNotifier<Void> sendMessageOneWay(final ModuleID moduleID, final Message message) {
+		try {
+			final Channel channel = getActiveChannel(moduleID);
+			return new ChannelFutureNotifierWrapper(channel.writeAndFlush(message));
+		} catch (final NoSuchElementException e) {
+			return new FinishedFutureNotifier<Void>(e);
+		}
+	}
+
+	/**
+	 * Sends a Message to multiple Modules. The Message is encoded at most twice (once binary and once as JSON, depending
+	 * on what the connections use) into buffers that are shared by all writes; each Channel only gets the length field
+	 * prepended.
+	 */
+	@Override
+	public BroadcastFutureNotifier broadcast(final Collection<ModuleID> moduleIDs, final Message message) {
+		LOGGER.entry(moduleIDs, message);
+		final Map<ModuleID, FutureNotifier<Response>> futures = new HashMap<ModuleID, FutureNotifier<Response>>();
+		final MessagePriority priority = clientChannelInitializer.getMessagePriorities().getPriority(message.getClass());
+		ByteBuf jsonFrame = null;
+		ByteBuf binaryFrame = null;
+		try {
+			for (final ModuleID moduleID : moduleIDs) {
+				if (futures.containsKey(moduleID)) {
+					continue;
+				}
+
+				final Channel channel;
+				ByteBuf frame;
+				try {
+					channel = getActiveChannel(moduleID);
+					if (BinaryCodec.isEnabled(channel)) {
+						if (binaryFrame == null) {
+							binaryFrame = clientChannelInitializer.encode(message, true, channel.alloc());
+						}
+						frame = binaryFrame;
+					} else {
+						if (jsonFrame == null) {
+							jsonFrame = clientChannelInitializer.encode(message, false, channel.alloc());
+						}
+						frame = jsonFrame;
+					}
+				} catch (final NoSuchElementException e) {
+					futures.put(moduleID, new FinishedFutureNotifier<Response>(e));
+					continue;
+				} catch (final IOException e) {
+					LOGGER.warn("could not encode {}: {}", message, e);
+					futures.put(moduleID, new FinishedFutureNotifier<Response>(e));
+					continue;
+				}
+
+				final ResponseFutureNotifier futureNotifier =
+						responseFutureManager.createResponseFuture(moduleID, message.getUUID());
+				channel.writeAndFlush(new PrioritizedWrite(frame.duplicate().retain(), priority)).addListener(
+						new ResponseInvalidator(futureNotifier));
+				addTimeout(futureNotifier, message);
+				futures.put(moduleID, futureNotifier);
+			}
+		} finally {
+			if (jsonFrame != null) {
+				jsonFrame.release();
+			}
+			if (binaryFrame != null) {
+				binaryFrame.release();
+			}
+		}
+		return LOGGER.exit(new BroadcastFutureNotifier(futures));
+	}
+
+	/**
+	 * Sets the time to wait for a Response to Messages of the given type. Messages of other types, including subclasses,
+	 * are not affected.
+	 * 
+	 * @param cls
+	 *            the Message class
+	 * @param timeout
+	 *            the time to wait for a Response. If not positive, {@link #TIMEOUT_DELAY} is used again.
+	 * @param unit
+	 *            the unit of <code>timeout</code>
+	 */
+	public void setTimeout(final Class<? extends Message> cls, final long timeout, final TimeUnit unit) {
+		if (timeout > 0) {
+			timeouts.put(cls, unit.toNanos(timeout));
+		} else {
+			timeouts.remove(cls);
+		}
+	}
+
+	/**
+	 * Returns the number of Messages sent to a Module that are still waiting for a Response.
+	 * 
+	 * @param moduleID
+	 *            the ID of the Module
+	 * @return the number of outstanding Responses from the Module
+	 */
+	public int getInFlightCount(final ModuleID moduleID) {
+		return responseFutureManager.getInFlightCount(moduleID);
+	}
+
+	/**
+	 * Returns the number of Messages that are still waiting for a Response for each Module.
+	 * 
+	 * @return a snapshot of the number of outstanding Responses per Module
+	 */
+	public Map<ModuleID, Integer> getInFlightCounts() {
+		return responseFutureManager.getInFlightCounts();
+	}
+
+	/**
+	 * Sets the priority of a Message type. If a connection is congested, Messages with a higher priority are sent
+	 * first, and received Messages with {@link MessagePriority#CONTROL} are not queued behind other Messages (see
+	 * {@link ClientMessageDispatcher}). Messages of other types, including subclasses, are not affected.
+	 * The default is {@link MessagePriority#DATA}.
+	 * 
+	 * @param cls
+	 *            the Message class
+	 * @param priority
+	 *            the priority of the Message class
+	 */
+	public void setPriority(final Class<? extends Message> cls, final MessagePriority priority) {
+		clientChannelInitializer.getMessagePriorities().setPriority(cls, priority);
+	}
+
+	/**
+	 * Sets how many flushes may be combined into one on new connections. Combining flushes lets multiple small
+	 * Messages be sent with a single system call, at the cost of delaying them until the network Thread has processed
+	 * the writes that are already queued.
+	 * 
+	 * @param maxPendingFlushes
+	 *            the maximum number of flushes that are delayed before flushing. 1 or less disables combining
+	 *            flushes.
+	 * @see FlushConsolidationHandler
+	 */
+	public void setMaxPendingFlushes(final int maxPendingFlushes) {
+		clientChannelInitializer.setMaxPendingFlushes(maxPendingFlushes);
+	}
+
+	/**
+	 * Sets the size of the chunks large Messages are split into on new connections. Smaller chunks let other Messages
+	 * be sent in between the chunks sooner, larger chunks need fewer frames. As other Messages are sent in between the
+	 * chunks, they may overtake a large Message; only Messages encoded using the state of the connection keep their
+	 * order.
+	 * 
+	 * @param chunkSize
+	 *            the number of bytes sent in a single chunk. Must be positive and not greater than
+	 *            {@link ChunkedFrameCodec#MAX_CHUNK_SIZE}.
+	 * @see ChunkedFrameCodec
+	 */
+	public void setChunkSize(final int chunkSize) {
+		clientChannelInitializer.setChunkSize(chunkSize);
+	}
+
+	/**
+	 * Sets how frames are compressed on new connections. Compression is negotiated when connecting and only used if
+	 * both sides have it enabled.
+	 * 
+	 * @param level
+	 *            the compression level from 1 (fastest) to 9 (best compression). 0 disables compression.
+	 * @param minFrameSize
+	 *            frames shorter than this are sent uncompressed. Must not be negative.
+	 * @see CompressionCodec
+	 */
+	public void setCompression(final int level, final int minFrameSize) {
+		clientChannelInitializer.setCompression(level, minFrameSize);
+	}
+
+	/**
+	 * Sets how many received Messages may be queued per Application and what happens if that limit is reached.
+	 * 
+	 * @param queueCapacity
+	 *            the number of Messages that may be queued per Application. Must be positive.
+	 * @param shedPolicy
+	 *            decides which Message is dropped if the queue of an Application is full
+	 * @see ApplicationMessageScheduler
+	 */
+	public void setInboundQueue(final int queueCapacity, final ShedPolicy shedPolicy) {
+		final ApplicationMessageScheduler scheduler = messageDispatcher.getScheduler();
+		scheduler.setQueueCapacity(queueCapacity);
+		scheduler.setShedPolicy(shedPolicy);
+	}
+
+	/**
+	 * Sets how many received Messages for Applications may be handled at the same time, summed over all Applications.
+	 * 
+	 * @param maxConcurrentMessages
+	 *            the number of Messages that may be handled at the same time. Must be positive.
+	 * @see ApplicationMessageScheduler
+	 */
+	public void setMaxConcurrentInboundMessages(final int maxConcurrentMessages) {
+		messageDispatcher.getScheduler().setMaxConcurrentTasks(maxConcurrentMessages);
+	}
+
+	/**
+	 * Sets how many received Messages of a single Application may be handled at the same time.
+	 * 
+	 * @param maxConcurrentMessages
+	 *            the number of Messages of an Application that may be handled at the same time. Must be positive.
+	 * @see ApplicationMessageScheduler
+	 */
+	public void setMaxConcurrentInboundMessagesPerApplication(final int maxConcurrentMessages) {
+		messageDispatcher.getScheduler().setMaxTasksPerApplication(maxConcurrentMessages);
+	}
+
+	/**
+	 * Sets the share of the Message handling an Application gets if multiple Applications have received Messages that
+	 * are waiting to be handled. The default weight is 1.
+	 * 
+	 * @param applicationID
+	 *            the ID of the Application
+	 * @param weight
+	 *            the weight of the Application. Must be positive.
+	 */
+	public void setApplicationWeight(final ApplicationID applicationID, final int weight) {
+		messageDispatcher.getScheduler().setWeight(applicationID, weight);
+	}
+
+	/**
+	 * Sets the write buffer water marks of the connections. A connection is congested once more than
+	 * <code>highWaterMark</code> bytes are waiting to be sent and stays congested until less than
+	 * <code>lowWaterMark</code> bytes are left. Also applies to existing connections.
+	 * 
+	 * @param lowWaterMark
+	 *            the number of buffered bytes below which a connection is no longer congested
+	 * @param highWaterMark
+	 *            the number of buffered bytes above which a connection is congested
+	 * @see BackpressureListener
+	 */
+	public void setWriteBufferWaterMarks(final int lowWaterMark, final int highWaterMark) {
+		backpressureManager.setWaterMarks(lowWaterMark, highWaterMark);
+		for (final Channel channel : clientChannelManager.getChannels()) {
+			backpressureManager.configure(channel);
+		}
+	}
+
+	@Override
+	public boolean isBackpressured(final ModuleID moduleID) {
+		return backpressureManager.isBackpressured(moduleID);
+	}
+
+	@Override
+	public void addBackpressureListener(final BackpressureListener listener) {
+		backpressureManager.addListener(listener);
+	}
+
+	@Override
+	public void removeBackpressureListener(final BackpressureListener listener) {
+		backpressureManager.removeListener(listener);
+	}
+
+	/**
+	 * Returns the total time the connection to a Module has been congested.
+	 * 
+	 * @param moduleID
+	 *            the ID of the Module
+	 * @param unit
+	 *            the unit of the result
+	 * @return the time the connection to the Module has been congested, including the current congestion
+	 */
+	public long getBackpressureTime(final ModuleID moduleID, final TimeUnit unit) {
+		return unit.convert(backpressureManager.getBackpressureNanos(moduleID), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Returns how often the connection to a Module got congested.
+	 * 
+	 * @param moduleID
+	 *            the ID of the Module
+	 * @return the number of times the connection to the Module got congested
+	 */
+	public long getBackpressureCount(final ModuleID moduleID) {
+		return backpressureManager.getBackpressureCount(moduleID);
+	}
+
+	private void addTimeout(final ResponseFutureNotifier futureNotifier, final Message message) {
+		final Long timeout = timeouts.get(message.getClass());
+		if (timeout == null) {
+			futureNotifier.setTimeout(timeoutResponseInvalidator.addTimeout(futureNotifier));
+		} else {
+			futureNotifier.setTimeout(timeoutResponseInvalidator.addTimeout(futureNotifier, timeout,
+					TimeUnit.NANOSECONDS));
+		}
+	}
+
 	/**
 	 * Returns an active Channel that is connected to the given client. If there are multiple active channels for the
 	 * {@link ModuleID}, one of them is returned without any guarantees as to which one (and subsequent calls for the
@@ -224,12 +567,11 @@ public class TCPConnectionManager implements ConnectionManager, BeaconListener {
 	 *             if no active connection to the Module exists
 	 */
 	private Channel getActiveChannel(final ModuleID moduleID) {
-		for (final Channel channel : clientChannelManager.getChannels(moduleID)) {
-			if (clientChannelManager.isActive(channel)) {
-				return channel;
-			}
+		final Channel channel = clientChannelManager.getActiveChannel(moduleID);
+		if (channel == null) {
+			throw new NoSuchElementException("no active channel for " + moduleID);
 		}
-		throw new NoSuchElementException("no active channel for " + moduleID);
+		return channel;
 	}
 
 	@Override
@@ -255,18 +597,14 @@ public class TCPConnectionManager implements ConnectionManager, BeaconListener {
 		messageDispatcher.setDefaultHandler(msgType, handler);
 	}
 
+	@Override
+	public void removeHandlers(final ApplicationID applicationID) {
+		messageDispatcher.removeHandlers(applicationID);
+	}
+
 	@Override
 	public Collection<ModuleID> getConnectedModules() {
-		final Set<ModuleID> moduleIDs = new HashSet<ModuleID>();
-		for (final Channel channel : clientChannelManager.getChannels()) {
-			if (clientChannelManager.isActive(channel)) {
-				final ModuleID moduleID = clientChannelManager.getRemoteID(channel);
-				if (moduleID != null) {
-					moduleIDs.add(moduleID);
-				}
-			}
-		}
-		return moduleIDs;
+		return clientChannelManager.getConnectedModules();
 	}
 
 	@Override
@@ -290,6 +628,7 @@ public class TCPConnectionManager implements ConnectionManager, BeaconListener {
 
 			LOGGER.info("shutting down");
 			isShuttingDown = true;
+			controlExecutor.shutdown();
 
 			final FutureNotifier<Collection<Void>> serverCloseFuture = closeAllServerSockets();
 			serverCloseFuture.addListener(new FutureListener<FutureNotifier<Collection<Void>>>() {
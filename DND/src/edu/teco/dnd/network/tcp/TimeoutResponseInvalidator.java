@@ -5,12 +5,27 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import edu.teco.dnd.network.tcp.ResponseFutureManager.ResponseFutureNotifier;
+import edu.teco.dnd.util.HashedTimingWheel;
+import edu.teco.dnd.util.HashedTimingWheel.Timeout;
 
 /**
- * Invalidates {@link ResponseFutureNotifier}s after a given timeout.
+ * Invalidates {@link ResponseFutureNotifier}s after a given timeout. The timeouts are kept in a
+ * {@link HashedTimingWheel}, so adding and cancelling a timeout is cheap even with many outstanding Messages and only a
+ * single periodic task is run on the ScheduledExecutorService.
  */
 public class TimeoutResponseInvalidator {
-	private final ScheduledExecutorService executorService;
+	/**
+	 * The granularity of the timeouts in milliseconds.
+	 */
+	public static final long TICK_MILLIS = 100;
+
+	/**
+	 * The number of buckets of the timing wheel. Together with {@link #TICK_MILLIS} this covers the default timeout of
+	 * {@link TCPConnectionManager} in a single rotation.
+	 */
+	public static final int TICKS_PER_WHEEL = 512;
+
+	private final HashedTimingWheel wheel;
 	private final long defaultTimeout;
 	private final TimeUnit defaultUnit;
 
@@ -18,7 +33,8 @@ public class TimeoutResponseInvalidator {
 	 * Initializes a new TimeoutResponseValidator.
 	 * 
 	 * @param executorService
-	 *            this service will be used to invalidate the futures after the timeout
+	 *            this service will be used to advance the timing wheel and to invalidate the futures after the
+	 *            timeout
 	 * @param defaultTimeout
 	 *            a default timeout for {@link #addTimeout(ResponseFutureNotifier)}
 	 * @param defaultUnit
@@ -26,7 +42,7 @@ public class TimeoutResponseInvalidator {
 	 */
 	public TimeoutResponseInvalidator(final ScheduledExecutorService executorService, final long defaultTimeout,
 			final TimeUnit defaultUnit) {
-		this.executorService = executorService;
+		this.wheel = new HashedTimingWheel(executorService, TICK_MILLIS, TimeUnit.MILLISECONDS, TICKS_PER_WHEEL);
 		this.defaultTimeout = defaultTimeout;
 		this.defaultUnit = defaultUnit;
 	}
@@ -36,10 +52,11 @@ public class TimeoutResponseInvalidator {
 	 * 
 	 * @param responseFutureNotifier
 	 *            the future the timeout should be added for
+	 * @return a handle that can be used to cancel the timeout
 	 * @see #TimeoutResponseInvalidator(ScheduledExecutorService, long, TimeUnit)
 	 */
-	public void addTimeout(final ResponseFutureNotifier responseFutureNotifier) {
-		addTimeout(responseFutureNotifier, defaultTimeout, defaultUnit);
+	public Timeout addTimeout(final ResponseFutureNotifier responseFutureNotifier) {
+		return addTimeout(responseFutureNotifier, defaultTimeout, defaultUnit);
 	}
 
 	/**
@@ -51,15 +68,25 @@ public class TimeoutResponseInvalidator {
 	 *            the timeout
 	 * @param unit
 	 *            the unit for <code>timeout</code>
+	 * @return a handle that can be used to cancel the timeout
+	 */
+	public Timeout addTimeout(final ResponseFutureNotifier responseFutureNotifier, final long timeout,
+			final TimeUnit unit) {
+		return wheel.schedule(new Invalidator(responseFutureNotifier), timeout, unit);
+	}
+
+	/**
+	 * Returns the number of timeouts that have neither expired nor been cancelled.
+	 * 
+	 * @return the number of pending timeouts
 	 */
-	public void addTimeout(final ResponseFutureNotifier responseFutureNotifier, final long timeout, final TimeUnit unit) {
-		executorService.schedule(new Invalidator(responseFutureNotifier), timeout, unit);
+	public int getPendingTimeouts() {
+		return wheel.size();
 	}
 
 	/**
-	 * This code will be executed by the executor service given to
-	 * {@link TimeoutResponseInvalidator#TimeoutResponseInvalidator(ScheduledExecutorService, long, TimeUnit)} after the
-	 * timeout. It will unconditionally fail the future, however, if the future is already done this is a no-op.
+	 * This code will be executed by the timing wheel after the timeout. It will unconditionally fail the future,
+	 * however, if the future is already done this is a no-op.
 	 */
 	private static class Invalidator implements Runnable {
 		private final ResponseFutureNotifier responseFutureNotifier;
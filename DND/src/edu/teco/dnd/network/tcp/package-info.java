@@ -19,6 +19,13 @@
  * </p>
  * 
  * <p>
+ * The HelloMessage also contains the version of the binary encoding the client can decode. If both clients support it,
+ * Messages for which a {@link edu.teco.dnd.network.tcp.BinaryMessageSerializer} has been registered are sent using
+ * {@link edu.teco.dnd.network.tcp.BinaryCodec} instead of JSON. Binary frames start with a marker byte, so both
+ * encodings can be mixed on a single connection.
+ * </p>
+ * 
+ * <p>
  * After the initialization phase Messages can be sent by classes using the
  * {@link edu.teco.dnd.network.tcp.TCPConnectionManager}. For this to work the class of the Message that will be sent
  * must be registered at the local and the remote TCPConnectionManager - this should be done as early as possible. For
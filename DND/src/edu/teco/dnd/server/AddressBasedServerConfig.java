@@ -18,4 +18,20 @@ public interface AddressBasedServerConfig extends ServerConfig {
 	Collection<NetConnection> getMulticastAddresses();
 
 	Collection<InetSocketAddress> getAnnounceAddresses();
-}
\ No newline at end of file
+
+	/**
+	 * Returns the Netty transport that should be used for the servers. The transport may be replaced by a fallback if
+	 * it is not {@link NetworkTransport#isAvailable() available}.
+	 * 
+	 * @return the transport to use
+	 */
+	NetworkTransport getTransport();
+
+	/**
+	 * Returns the number of Threads each event loop should use. 0 means that Netty's default should be used. This is
+	 * ignored for {@link NetworkTransport#OIO}.
+	 * 
+	 * @return the number of Threads per event loop
+	 */
+	int getEventLoopThreads();
+}
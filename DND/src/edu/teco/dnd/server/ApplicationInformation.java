@@ -20,6 +20,7 @@ public class ApplicationInformation {
 	private final ApplicationID id;
 	private final String name;
 	private final Map<ModuleID, Collection<BlockInformation>> blocksByModules;
+	private final Collection<FusedConnection> fusedConnections;
 
 	/**
 	 * Initializes a new ApplicationInformation.
@@ -33,6 +34,24 @@ public class ApplicationInformation {
 	 */
 	public ApplicationInformation(final ApplicationID id, final String name,
 			final Collection<? extends BlockInformation> blocks) {
+		this(id, name, blocks, Collections.<FusedConnection> emptyList());
+	}
+
+	/**
+	 * Initializes a new ApplicationInformation.
+	 * 
+	 * @param id
+	 *            the ID of the Application
+	 * @param name
+	 *            the name of the Application
+	 * @param blocks
+	 *            the FunctionBlocks belonging to the Application
+	 * @param fusedConnections
+	 *            the connections between FunctionBlocks that are run fused
+	 */
+	public ApplicationInformation(final ApplicationID id, final String name,
+			final Collection<? extends BlockInformation> blocks,
+			final Collection<? extends FusedConnection> fusedConnections) {
 		this.id = id;
 		this.name = name;
 
@@ -44,6 +63,7 @@ public class ApplicationInformation {
 			}
 		}
 		blocksByModules = unmodifiableMapCollection(blockMap);
+		this.fusedConnections = Collections.unmodifiableList(new ArrayList<FusedConnection>(fusedConnections));
 	}
 
 	private <K, V> Map<K, Collection<V>> unmodifiableMapCollection(Map<K, ? extends Collection<? extends V>> map) {
@@ -73,7 +93,10 @@ public class ApplicationInformation {
 		final Collection<BlockInformation> newBlocks = new ArrayList<BlockInformation>();
 		newBlocks.addAll(this.getBlocks());
 		newBlocks.addAll(other.getBlocks());
-		return new ApplicationInformation(id, name, newBlocks);
+		final Collection<FusedConnection> newFusedConnections = new ArrayList<FusedConnection>();
+		newFusedConnections.addAll(this.getFusedConnections());
+		newFusedConnections.addAll(other.getFusedConnections());
+		return new ApplicationInformation(id, name, newBlocks, newFusedConnections);
 	}
 
 	public ApplicationID getID() {
@@ -130,12 +153,26 @@ public class ApplicationInformation {
 		return blocks;
 	}
 
+	/**
+	 * Returns the connections between FunctionBlocks of this Application that are run fused (see
+	 * {@link edu.teco.dnd.module.ExecutionMode#FUSED}).
+	 * 
+	 * @return the connections that are run fused. Empty if the Modules did not report any.
+	 */
+	public Collection<FusedConnection> getFusedConnections() {
+		if (fusedConnections == null) {
+			return Collections.emptyList();
+		}
+		return fusedConnections;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
 		result = prime * result + ((id == null) ? 0 : id.hashCode());
 		result = prime * result + ((blocksByModules == null) ? 0 : blocksByModules.hashCode());
+		result = prime * result + getFusedConnections().hashCode();
 		result = prime * result + ((name == null) ? 0 : name.hashCode());
 		return result;
 	}
@@ -159,6 +196,8 @@ public class ApplicationInformation {
 				return false;
 		} else if (!blocksByModules.equals(other.blocksByModules))
 			return false;
+		if (!getFusedConnections().equals(other.getFusedConnections()))
+			return false;
 		if (name == null) {
 			if (other.name != null)
 				return false;
@@ -169,6 +208,7 @@ public class ApplicationInformation {
 
 	@Override
 	public String toString() {
-		return "ApplicationInformation[id=" + id + ",name=" + name + ",blocksByModules=" + blocksByModules + "]";
+		return "ApplicationInformation[id=" + id + ",name=" + name + ",blocksByModules=" + blocksByModules
+				+ ",fusedConnections=" + fusedConnections + "]";
 	}
 }
@@ -26,9 +26,9 @@ import edu.teco.dnd.network.ConnectionManager;
 import edu.teco.dnd.network.UDPMulticastBeacon;
 import edu.teco.dnd.network.messages.Response;
 import edu.teco.dnd.util.DefaultFutureNotifier;
+import edu.teco.dnd.util.FinishedFutureNotifier;
 import edu.teco.dnd.util.FutureListener;
 import edu.teco.dnd.util.FutureNotifier;
-import edu.teco.dnd.util.JoinedFutureNotifier;
 
 /**
  * Collects information about running Applications and informs {@link ApplicationManagerListener}s about them.
@@ -148,15 +148,9 @@ public class ApplicationManager implements ServerStateListener, ConnectionListen
 			throw new IllegalStateException("server not running");
 		}
 
-		final Collection<FutureNotifier<? extends Response>> futures =
-				new ArrayList<FutureNotifier<? extends Response>>();
-		for (final ModuleID moduleID : applicationInformation.getModules()) {
-			final KillAppMessage killAppMessage = new KillAppMessage(applicationID);
-			futures.add(connectionManager.sendMessage(moduleID, killAppMessage));
-		}
-		final JoinedFutureNotifier<Response> joinedFutureNotifier = new JoinedFutureNotifier<Response>(futures);
 		final KillAppFutureNotifier notifier = new KillAppFutureNotifier();
-		joinedFutureNotifier.addListener(notifier);
+		connectionManager.broadcast(applicationInformation.getModules(), new KillAppMessage(applicationID)).addListener(
+				notifier);
 		return notifier;
 	}
 
@@ -166,16 +160,20 @@ public class ApplicationManager implements ServerStateListener, ConnectionListen
 	 * @return a FutureNotifier that will return the Applications that were found
 	 */
 	public FutureNotifier<Collection<ApplicationInformation>> update() {
-		final Collection<FutureNotifier<? extends Response>> futures =
-				new ArrayList<FutureNotifier<? extends Response>>(knownModules.size());
+		final Collection<ModuleID> modules;
+		final ConnectionManager connectionManager;
 		synchronized (this) {
-			for (final ModuleID moduleID : knownModules) {
-				futures.add(connectionManager.sendMessage(moduleID, new RequestApplicationInformationMessage()));
-			}
+			modules = new ArrayList<ModuleID>(knownModules);
+			connectionManager = this.connectionManager;
+		}
+		if (connectionManager == null) {
+			return new FinishedFutureNotifier<Collection<ApplicationInformation>>(new IllegalStateException(
+					"server not running"));
 		}
 		final ApplicationInformationFutureNotifier applicationInformationFutureNotifier =
 				new ApplicationInformationFutureNotifier();
-		new JoinedFutureNotifier<Response>(futures).addListener(applicationInformationFutureNotifier);
+		connectionManager.broadcast(modules, new RequestApplicationInformationMessage()).addListener(
+				applicationInformationFutureNotifier);
 		applicationInformationFutureNotifier
 				.addListener(new FutureListener<FutureNotifier<Collection<ApplicationInformation>>>() {
 					@Override
@@ -0,0 +1,76 @@
+package edu.teco.dnd.server;
+
+import edu.teco.dnd.blocks.FunctionBlockID;
+import edu.teco.dnd.blocks.InputDescription;
+import edu.teco.dnd.module.ExecutionMode;
+
+/**
+ * Describes a connection between an Output and an Input of two FunctionBlocks on the same Module that is run fused:
+ * the target FunctionBlock is updated on the Thread of the source FunctionBlock right after the value was sent. See
+ * {@link ExecutionMode#FUSED}.
+ */
+public class FusedConnection {
+	private final FunctionBlockID sourceBlock;
+	private final String output;
+	private final InputDescription target;
+
+	public FusedConnection(final FunctionBlockID sourceBlock, final String output, final InputDescription target) {
+		this.sourceBlock = sourceBlock;
+		this.output = output;
+		this.target = target;
+	}
+
+	public FunctionBlockID getSourceBlock() {
+		return sourceBlock;
+	}
+
+	public String getOutput() {
+		return output;
+	}
+
+	public InputDescription getTarget() {
+		return target;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((output == null) ? 0 : output.hashCode());
+		result = prime * result + ((sourceBlock == null) ? 0 : sourceBlock.hashCode());
+		result = prime * result + ((target == null) ? 0 : target.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		FusedConnection other = (FusedConnection) obj;
+		if (output == null) {
+			if (other.output != null)
+				return false;
+		} else if (!output.equals(other.output))
+			return false;
+		if (sourceBlock == null) {
+			if (other.sourceBlock != null)
+				return false;
+		} else if (!sourceBlock.equals(other.sourceBlock))
+			return false;
+		if (target == null) {
+			if (other.target != null)
+				return false;
+		} else if (!target.equals(other.target))
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "FusedConnection[sourceBlock=" + sourceBlock + ",output=" + output + ",target=" + target + "]";
+	}
+}
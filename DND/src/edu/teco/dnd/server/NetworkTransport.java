@@ -0,0 +1,230 @@
+package edu.teco.dnd.server;
+
+import io.netty.bootstrap.ChannelFactory;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.oio.OioEventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.InternetProtocolFamily;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.socket.oio.OioDatagramChannel;
+import io.netty.channel.socket.oio.OioServerSocketChannel;
+import io.netty.channel.socket.oio.OioSocketChannel;
+import io.netty.util.internal.PlatformDependent;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The Netty transports that can be used by {@link TCPUDPServerManager}. {@link #OIO} uses one blocking Thread per
+ * socket, {@link #NIO} and {@link #EPOLL} multiplex all sockets onto a fixed number of event loop Threads.
+ *
+ * {@link #EPOLL} is only available if the native Netty transport is on the class path and the operating system is
+ * Linux. Use {@link #resolve()} to get a transport that can actually be used. Multicast is not supported by the epoll
+ * transport and NIO multicast needs Java 7, so {@link #getDatagramTransport()} returns {@link #OIO} for the multicast
+ * beacon unless NIO multicast is available.
+ */
+public enum NetworkTransport {
+	/**
+	 * Blocking I/O with one Thread per socket. Kept as a fallback for platforms with broken NIO multicast support.
+	 */
+	OIO {
+		@Override
+		public EventLoopGroup newEventLoopGroup(final int threads) {
+			return new OioEventLoopGroup();
+		}
+
+		@Override
+		public Class<? extends ServerChannel> getServerChannelClass() {
+			return OioServerSocketChannel.class;
+		}
+
+		@Override
+		public Class<? extends Channel> getSocketChannelClass() {
+			return OioSocketChannel.class;
+		}
+
+		@Override
+		public ChannelFactory<? extends DatagramChannel> getDatagramChannelFactory(final InternetProtocolFamily family) {
+			return new ChannelFactory<OioDatagramChannel>() {
+				@Override
+				public OioDatagramChannel newChannel() {
+					return new OioDatagramChannel();
+				}
+			};
+		}
+	},
+
+	/**
+	 * Non-blocking I/O using Java NIO selectors.
+	 */
+	NIO {
+		@Override
+		public EventLoopGroup newEventLoopGroup(final int threads) {
+			return new NioEventLoopGroup(Math.max(threads, 0));
+		}
+
+		@Override
+		public Class<? extends ServerChannel> getServerChannelClass() {
+			return NioServerSocketChannel.class;
+		}
+
+		@Override
+		public Class<? extends Channel> getSocketChannelClass() {
+			return NioSocketChannel.class;
+		}
+
+		@Override
+		public ChannelFactory<? extends DatagramChannel> getDatagramChannelFactory(final InternetProtocolFamily family) {
+			return new ChannelFactory<NioDatagramChannel>() {
+				@Override
+				public NioDatagramChannel newChannel() {
+					return new NioDatagramChannel(family);
+				}
+			};
+		}
+
+		@Override
+		public NetworkTransport getDatagramTransport() {
+			// joining multicast groups with NIO uses java.nio.channels.MulticastChannel, which was added in Java 7
+			return PlatformDependent.javaVersion() >= 7 ? this : OIO;
+		}
+	},
+
+	/**
+	 * Non-blocking I/O using the native Linux epoll transport of Netty. The classes are loaded via reflection so that
+	 * the native transport is not needed at compile time.
+	 */
+	EPOLL {
+		@Override
+		public EventLoopGroup newEventLoopGroup(final int threads) {
+			try {
+				return (EventLoopGroup) loadEpollClass("EpollEventLoopGroup").getConstructor(int.class).newInstance(
+						Math.max(threads, 0));
+			} catch (final Exception e) {
+				throw new IllegalStateException("epoll transport is not available", e);
+			}
+		}
+
+		@Override
+		public Class<? extends ServerChannel> getServerChannelClass() {
+			return loadEpollClass("EpollServerSocketChannel").asSubclass(ServerChannel.class);
+		}
+
+		@Override
+		public Class<? extends Channel> getSocketChannelClass() {
+			return loadEpollClass("EpollSocketChannel").asSubclass(Channel.class);
+		}
+
+		@Override
+		public ChannelFactory<? extends DatagramChannel> getDatagramChannelFactory(final InternetProtocolFamily family) {
+			throw new UnsupportedOperationException("the epoll transport does not support multicast");
+		}
+
+		@Override
+		public NetworkTransport getDatagramTransport() {
+			return NIO.getDatagramTransport();
+		}
+
+		@Override
+		public boolean isAvailable() {
+			try {
+				loadEpollClass("EpollEventLoopGroup");
+				loadEpollClass("EpollServerSocketChannel");
+				loadEpollClass("EpollSocketChannel");
+			} catch (final IllegalStateException e) {
+				return false;
+			}
+			return System.getProperty("os.name", "").toLowerCase().startsWith("linux");
+		}
+	};
+
+	private static final Logger LOGGER = LogManager.getLogger(NetworkTransport.class);
+
+	private static final String EPOLL_PACKAGE = "io.netty.channel.epoll.";
+
+	/**
+	 * The transport that is used if none has been configured.
+	 */
+	public static final NetworkTransport DEFAULT = NIO;
+
+	/**
+	 * Creates a new EventLoopGroup for this transport.
+	 *
+	 * @param threads
+	 *            the number of Threads to use. 0 uses Netty's default. Ignored by {@link #OIO} as it always uses one
+	 *            Thread per Channel.
+	 * @return a new EventLoopGroup
+	 */
+	public abstract EventLoopGroup newEventLoopGroup(int threads);
+
+	/**
+	 * Returns the class used for listening sockets.
+	 *
+	 * @return the class used for listening sockets
+	 */
+	public abstract Class<? extends ServerChannel> getServerChannelClass();
+
+	/**
+	 * Returns the class used for connected sockets.
+	 *
+	 * @return the class used for connected sockets
+	 */
+	public abstract Class<? extends Channel> getSocketChannelClass();
+
+	/**
+	 * Returns a factory for DatagramChannels. The channels must be registered with an EventLoopGroup created by
+	 * {@link #newEventLoopGroup(int)} of the same transport.
+	 *
+	 * @param family
+	 *            the protocol family of the multicast groups that will be joined. Ignored by {@link #OIO}.
+	 * @return a factory for DatagramChannels
+	 */
+	public abstract ChannelFactory<? extends DatagramChannel> getDatagramChannelFactory(InternetProtocolFamily family);
+
+	/**
+	 * Returns the transport that should be used for multicast. This is the transport itself if it supports multicast
+	 * on the running Java version and {@link #OIO} otherwise.
+	 *
+	 * @return the transport that should be used for multicast
+	 */
+	public NetworkTransport getDatagramTransport() {
+		return this;
+	}
+
+	/**
+	 * Returns whether or not this transport can be used on this system.
+	 *
+	 * @return true if this transport can be used
+	 */
+	public boolean isAvailable() {
+		return true;
+	}
+
+	/**
+	 * Returns this transport if it is available or {@link #NIO} otherwise.
+	 *
+	 * @return a transport that can be used on this system
+	 */
+	public NetworkTransport resolve() {
+		if (isAvailable()) {
+			return this;
+		}
+		LOGGER.warn("transport {} is not available, falling back to {}", this, NIO);
+		return NIO;
+	}
+
+	private static Class<?> loadEpollClass(final String name) {
+		try {
+			return Class.forName(EPOLL_PACKAGE + name, true, NetworkTransport.class.getClassLoader());
+		} catch (final ClassNotFoundException e) {
+			throw new IllegalStateException(e);
+		} catch (final LinkageError e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -17,6 +17,8 @@ public class SimpleAddressBasedServerConfig implements AddressBasedServerConfig
 	private final Collection<NetConnection> multicastAddresses;
 	private final Collection<InetSocketAddress> announceAddresses;
 	private final int announceInterval;
+	private final NetworkTransport transport;
+	private final int eventLoopThreads;
 
 	/**
 	 * Initializes a new AddressBasedServerConfig.
@@ -35,12 +37,39 @@ public class SimpleAddressBasedServerConfig implements AddressBasedServerConfig
 	public SimpleAddressBasedServerConfig(final ModuleID moduleID, final Collection<InetSocketAddress> listenAddresses,
 			final Collection<NetConnection> multicastAddresses, final Collection<InetSocketAddress> announceAddresses,
 			int announceInterval) {
+		this(moduleID, listenAddresses, multicastAddresses, announceAddresses, announceInterval,
+				NetworkTransport.DEFAULT, 0);
+	}
+
+	/**
+	 * Initializes a new AddressBasedServerConfig.
+	 * 
+	 * @param moduleID
+	 *            the ID of the Module
+	 * @param listenAddresses
+	 *            the addresses the servers should listen on
+	 * @param multicastAddresses
+	 *            the multicast addresses that should be used to send out the servers addresses
+	 * @param announceAddresses
+	 *            the addresses to send out to the multicast addresses
+	 * @param announceInterval
+	 *            time between two announcements
+	 * @param transport
+	 *            the Netty transport to use
+	 * @param eventLoopThreads
+	 *            the number of Threads per event loop. 0 uses Netty's default.
+	 */
+	public SimpleAddressBasedServerConfig(final ModuleID moduleID, final Collection<InetSocketAddress> listenAddresses,
+			final Collection<NetConnection> multicastAddresses, final Collection<InetSocketAddress> announceAddresses,
+			int announceInterval, final NetworkTransport transport, final int eventLoopThreads) {
 		this.moduleID = moduleID;
 		this.listenAddresses = Collections.unmodifiableCollection(new ArrayList<InetSocketAddress>(listenAddresses));
 		this.multicastAddresses = Collections.unmodifiableCollection(new ArrayList<NetConnection>(multicastAddresses));
 		this.announceAddresses =
 				Collections.unmodifiableCollection(new ArrayList<InetSocketAddress>(announceAddresses));
 		this.announceInterval = announceInterval;
+		this.transport = transport == null ? NetworkTransport.DEFAULT : transport;
+		this.eventLoopThreads = eventLoopThreads;
 	}
 
 	@Override
@@ -68,10 +97,21 @@ public class SimpleAddressBasedServerConfig implements AddressBasedServerConfig
 		return announceInterval;
 	}
 
+	@Override
+	public NetworkTransport getTransport() {
+		return transport;
+	}
+
+	@Override
+	public int getEventLoopThreads() {
+		return eventLoopThreads;
+	}
+
 	@Override
 	public String toString() {
 		return "AddressBasedServerConfig[moduleID=" + moduleID + ",listenAddresses=" + listenAddresses
 				+ ",multicastAddresses=" + multicastAddresses + ",announceAddresses=" + announceAddresses
-				+ ",announceInterval=" + announceInterval + "]";
+				+ ",announceInterval=" + announceInterval + ",transport=" + transport + ",eventLoopThreads="
+				+ eventLoopThreads + "]";
 	}
 }
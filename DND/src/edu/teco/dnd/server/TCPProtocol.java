@@ -2,6 +2,9 @@ package edu.teco.dnd.server;
 
 import java.net.InetSocketAddress;
 
+import edu.teco.dnd.module.messages.generalModule.ShutdownModuleAck;
+import edu.teco.dnd.module.messages.generalModule.ShutdownModuleMessage;
+import edu.teco.dnd.module.messages.generalModule.ShutdownModuleNak;
 import edu.teco.dnd.module.messages.infoReq.ApplicationBlockID;
 import edu.teco.dnd.module.messages.infoReq.ApplicationInformationResponse;
 import edu.teco.dnd.module.messages.infoReq.ApplicationBlockIDAdapter;
@@ -23,12 +26,18 @@ import edu.teco.dnd.module.messages.loadStartBlock.BlockMessage;
 import edu.teco.dnd.module.messages.loadStartBlock.BlockNak;
 import edu.teco.dnd.module.messages.loadStartBlock.LoadClassAck;
 import edu.teco.dnd.module.messages.loadStartBlock.LoadClassMessage;
+import edu.teco.dnd.module.messages.loadStartBlock.LoadClassMessageSerializer;
 import edu.teco.dnd.module.messages.loadStartBlock.LoadClassNak;
 import edu.teco.dnd.module.messages.values.BlockFoundResponse;
 import edu.teco.dnd.module.messages.values.ValueAck;
+import edu.teco.dnd.module.messages.values.ValueAckSerializer;
+import edu.teco.dnd.module.messages.values.ValueBatchMessage;
 import edu.teco.dnd.module.messages.values.ValueMessage;
+import edu.teco.dnd.module.messages.values.ValueMulticastMessage;
 import edu.teco.dnd.module.messages.values.ValueNak;
+import edu.teco.dnd.module.messages.values.ValueNakSerializer;
 import edu.teco.dnd.module.messages.values.WhoHasBlockMessage;
+import edu.teco.dnd.network.MessagePriority;
 import edu.teco.dnd.network.tcp.TCPConnectionManager;
 import edu.teco.dnd.util.Base64Adapter;
 import edu.teco.dnd.util.InetSocketAddressAdapter;
@@ -36,8 +45,8 @@ import edu.teco.dnd.util.NetConnection;
 import edu.teco.dnd.util.NetConnectionAdapter;
 
 /**
- * This class is used to initialize {@link TCPConnectionManager}s. It does so by registering needed type adapters and
- * message types.
+ * This class is used to initialize {@link TCPConnectionManager}s. It does so by registering needed type adapters,
+ * message types and the priorities of the message types.
  */
 public class TCPProtocol {
 	public void initialize(final TCPConnectionManager tcpConnectionManager) {
@@ -51,6 +60,8 @@ public class TCPProtocol {
 		tcpConnectionManager.addMessageType(JoinApplicationAck.class);
 		tcpConnectionManager.addMessageType(JoinApplicationNak.class);
 		tcpConnectionManager.addMessageType(ValueMessage.class);
+		tcpConnectionManager.addMessageType(ValueBatchMessage.class);
+		tcpConnectionManager.addMessageType(ValueMulticastMessage.class);
 		tcpConnectionManager.addMessageType(WhoHasBlockMessage.class);
 		tcpConnectionManager.addMessageType(ValueNak.class);
 		tcpConnectionManager.addMessageType(ValueAck.class);
@@ -71,5 +82,31 @@ public class TCPProtocol {
 		tcpConnectionManager.addMessageType(RequestApplicationInformationMessage.class);
 		tcpConnectionManager.addMessageType(ApplicationInformationResponse.class);
 		tcpConnectionManager.addMessageType(ModuleInfoMessage.class);
+
+		tcpConnectionManager.addBinarySerializer(ValueAck.class, new ValueAckSerializer());
+		tcpConnectionManager.addBinarySerializer(ValueNak.class, new ValueNakSerializer());
+		tcpConnectionManager.addBinarySerializer(LoadClassMessage.class, new LoadClassMessageSerializer());
+
+		tcpConnectionManager.setPriority(KillAppMessage.class, MessagePriority.CONTROL);
+		tcpConnectionManager.setPriority(KillAppAck.class, MessagePriority.CONTROL);
+		tcpConnectionManager.setPriority(KillAppNak.class, MessagePriority.CONTROL);
+		tcpConnectionManager.setPriority(ShutdownModuleMessage.class, MessagePriority.CONTROL);
+		tcpConnectionManager.setPriority(ShutdownModuleAck.class, MessagePriority.CONTROL);
+		tcpConnectionManager.setPriority(ShutdownModuleNak.class, MessagePriority.CONTROL);
+		tcpConnectionManager.setPriority(StartApplicationMessage.class, MessagePriority.CONTROL);
+		tcpConnectionManager.setPriority(StartApplicationAck.class, MessagePriority.CONTROL);
+		tcpConnectionManager.setPriority(StartApplicationNak.class, MessagePriority.CONTROL);
+		tcpConnectionManager.setPriority(RequestModuleInfoMessage.class, MessagePriority.CONTROL);
+		tcpConnectionManager.setPriority(ModuleInfoMessage.class, MessagePriority.CONTROL);
+
+		tcpConnectionManager.setPriority(JoinApplicationMessage.class, MessagePriority.DEPLOY);
+		tcpConnectionManager.setPriority(JoinApplicationAck.class, MessagePriority.DEPLOY);
+		tcpConnectionManager.setPriority(JoinApplicationNak.class, MessagePriority.DEPLOY);
+		tcpConnectionManager.setPriority(LoadClassMessage.class, MessagePriority.DEPLOY);
+		tcpConnectionManager.setPriority(LoadClassAck.class, MessagePriority.DEPLOY);
+		tcpConnectionManager.setPriority(LoadClassNak.class, MessagePriority.DEPLOY);
+		tcpConnectionManager.setPriority(BlockMessage.class, MessagePriority.DEPLOY);
+		tcpConnectionManager.setPriority(BlockAck.class, MessagePriority.DEPLOY);
+		tcpConnectionManager.setPriority(BlockNak.class, MessagePriority.DEPLOY);
 	}
 }
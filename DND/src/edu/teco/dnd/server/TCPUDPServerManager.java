@@ -1,16 +1,13 @@
 package edu.teco.dnd.server;
 
 import io.netty.bootstrap.Bootstrap;
-import io.netty.bootstrap.ChannelFactory;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.oio.OioEventLoopGroup;
-import io.netty.channel.socket.oio.OioDatagramChannel;
-import io.netty.channel.socket.oio.OioServerSocketChannel;
-import io.netty.channel.socket.oio.OioSocketChannel;
+import io.netty.channel.socket.InternetProtocolFamily;
 import io.netty.util.concurrent.EventExecutorGroup;
 import io.netty.util.concurrent.Future;
 
+import java.net.Inet6Address;
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -38,8 +35,6 @@ import edu.teco.dnd.util.NetConnection;
 public class TCPUDPServerManager extends ServerManager<AddressBasedServerConfig> {
 	private static final Logger LOGGER = LogManager.getLogger();
 
-	private static final OioDatagramChannelFactory OIO_DATAGRAM_CHANNEL_FACTORY = new OioDatagramChannelFactory();
-
 	private final Collection<EventExecutorGroup> eventExecutorGroups = new ArrayList<EventExecutorGroup>();
 	private ScheduledExecutorService scheduledExecutorService;
 
@@ -58,19 +53,23 @@ public class TCPUDPServerManager extends ServerManager<AddressBasedServerConfig>
 	 */
 	private ConnectionManager initializeConnectionManager(final AddressBasedServerConfig serverConfig) {
 		LOGGER.entry();
-		final EventLoopGroup applicationEventLoopGroup = new OioEventLoopGroup();
-		final EventLoopGroup networkEventLoopGroup = new OioEventLoopGroup();
+		final NetworkTransport transport = getTransport(serverConfig);
+		final int threads = serverConfig.getEventLoopThreads();
+		LOGGER.debug("using transport {} with {} threads per event loop", transport, threads);
+		final EventLoopGroup applicationEventLoopGroup = transport.newEventLoopGroup(threads);
+		// the acceptor only needs a single Thread as it only accepts new connections
+		final EventLoopGroup networkEventLoopGroup = transport.newEventLoopGroup(1);
 		eventExecutorGroups.add(applicationEventLoopGroup);
 		eventExecutorGroups.add(networkEventLoopGroup);
 
 		final ServerBootstrap serverBootstrap = new ServerBootstrap();
 		serverBootstrap.group(networkEventLoopGroup, applicationEventLoopGroup);
-		serverBootstrap.channel(OioServerSocketChannel.class);
+		serverBootstrap.channel(transport.getServerChannelClass());
 		final ServerBootstrapChannelFactory serverChannelFactory = new ServerBootstrapChannelFactory(serverBootstrap);
 
 		final Bootstrap clientBootstrap = new Bootstrap();
 		clientBootstrap.group(applicationEventLoopGroup);
-		clientBootstrap.channel(OioSocketChannel.class);
+		clientBootstrap.channel(transport.getSocketChannelClass());
 		final ClientBootstrapChannelFactory clientChannelFactory = new ClientBootstrapChannelFactory(clientBootstrap);
 
 		final TCPConnectionManager connectionManager =
@@ -95,12 +94,15 @@ public class TCPUDPServerManager extends ServerManager<AddressBasedServerConfig>
 	 */
 	private UDPMulticastBeacon initializeBeacon(final AddressBasedServerConfig serverConfig) {
 		LOGGER.entry();
-		final OioEventLoopGroup networkEventLoopGroup = new OioEventLoopGroup();
+		final NetworkTransport transport = getTransport(serverConfig).getDatagramTransport();
+		// the beacon only sends a few packets per announce interval, so a single Thread is enough
+		final EventLoopGroup networkEventLoopGroup = transport.newEventLoopGroup(1);
 		eventExecutorGroups.add(networkEventLoopGroup);
 
 		final UDPMulticastBeacon beacon =
-				new UDPMulticastBeacon(OIO_DATAGRAM_CHANNEL_FACTORY, networkEventLoopGroup, scheduledExecutorService,
-						serverConfig.getModuleID(), serverConfig.getAnnounceInterval(), TimeUnit.SECONDS);
+				new UDPMulticastBeacon(transport.getDatagramChannelFactory(getProtocolFamily(serverConfig)),
+						networkEventLoopGroup, scheduledExecutorService, serverConfig.getModuleID(),
+						serverConfig.getAnnounceInterval(), TimeUnit.SECONDS);
 		beacon.addListener((TCPConnectionManager) getConnectionManager());
 		beacon.setAnnounceAddresses(new ArrayList<InetSocketAddress>(serverConfig.getAnnounceAddresses()));
 
@@ -120,13 +122,33 @@ public class TCPUDPServerManager extends ServerManager<AddressBasedServerConfig>
 	}
 
 	/**
-	 * A channel factory returning {@link OioDatagramChannel}s.
+	 * Returns the transport configured in the given configuration, falling back to {@link NetworkTransport#NIO} if it
+	 * is not available on this system.
+	 * 
+	 * @param serverConfig
+	 *            the configuration to use
+	 * @return the transport to use
 	 */
-	private static class OioDatagramChannelFactory implements ChannelFactory<OioDatagramChannel> {
-		@Override
-		public OioDatagramChannel newChannel() {
-			return new OioDatagramChannel();
+	private NetworkTransport getTransport(final AddressBasedServerConfig serverConfig) {
+		final NetworkTransport transport = serverConfig.getTransport();
+		return (transport == null ? NetworkTransport.DEFAULT : transport).resolve();
+	}
+
+	/**
+	 * Returns the protocol family of the multicast addresses. NIO DatagramChannels are bound to a single family, so
+	 * IPv6 is used if any of the multicast addresses is an IPv6 address.
+	 * 
+	 * @param serverConfig
+	 *            the configuration to use
+	 * @return the protocol family to use for multicast
+	 */
+	private InternetProtocolFamily getProtocolFamily(final AddressBasedServerConfig serverConfig) {
+		for (final NetConnection netConnection : serverConfig.getMulticastAddresses()) {
+			if (netConnection.getAddress().getAddress() instanceof Inet6Address) {
+				return InternetProtocolFamily.IPv6;
+			}
 		}
+		return InternetProtocolFamily.IPv4;
 	}
 
 	/**
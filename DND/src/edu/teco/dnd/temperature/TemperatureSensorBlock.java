@@ -4,7 +4,7 @@ import java.net.MalformedURLException;
 import java.util.Map;
 
 import edu.teco.dnd.blocks.FunctionBlock;
-import edu.teco.dnd.blocks.Output;
+import edu.teco.dnd.blocks.IntOutput;
 import edu.teco.dnd.uPart.SensorException;
 import edu.teco.dnd.uPart.UPartReader;
 
@@ -27,7 +27,7 @@ public class TemperatureSensorBlock extends FunctionBlock {
 	/**
 	 * current temperature.
 	 */
-	private Output<Integer> temperature;
+	private IntOutput temperature;
 
 	/**
 	 * URL of the UPart. Default is already set; doesn't contain ID.
@@ -77,7 +77,10 @@ public class TemperatureSensorBlock extends FunctionBlock {
 			return;
 		}
 		try {
-			temperature.setValue(reader.getTemperature());
+			final Integer value = reader.getTemperature();
+			if (value != null) {
+				temperature.setValue(value.intValue());
+			}
 		} catch (SensorException e) {
 		}
 	}
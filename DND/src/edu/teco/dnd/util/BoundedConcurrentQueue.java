@@ -0,0 +1,169 @@
+package edu.teco.dnd.util;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>
+ * A bounded, lock-free queue backed by a ring buffer. Any number of Threads may call {@link #offer(Object)} and
+ * {@link #poll()} concurrently. Access to the slots of the ring is coordinated by a {@link RingSequencer}.
+ * </p>
+ *
+ * <p>
+ * <code>null</code> elements are not allowed. The capacity has to be at least 2. The {@link #iterator() Iterator} is
+ * weakly consistent like the ones of the java.util.concurrent queues, but does not support removing elements. Because
+ * of this {@link #remove(Object)} is not supported either.
+ * </p>
+ *
+ * @param <E>
+ *            the type of the elements
+ */
+public class BoundedConcurrentQueue<E> extends AbstractQueue<E> {
+	private final RingSequencer sequencer;
+	private final AtomicReferenceArray<E> elements;
+
+	/**
+	 * Initializes a new BoundedConcurrentQueue.
+	 *
+	 * @param capacity
+	 *            the maximum number of elements. Must be at least 2.
+	 */
+	public BoundedConcurrentQueue(final int capacity) {
+		this.sequencer = new RingSequencer(capacity);
+		this.elements = new AtomicReferenceArray<E>(capacity);
+	}
+
+	/**
+	 * Returns the maximum number of elements.
+	 *
+	 * @return the maximum number of elements
+	 */
+	public int getCapacity() {
+		return sequencer.getCapacity();
+	}
+
+	/**
+	 * Adds an element if there is room.
+	 *
+	 * @param element
+	 *            the element to add. Must not be null.
+	 * @return true if the element was added, false if the queue is full
+	 */
+	@Override
+	public boolean offer(final E element) {
+		if (element == null) {
+			throw new NullPointerException();
+		}
+		final long position = sequencer.claimWrite();
+		if (position < 0) {
+			return false;
+		}
+		elements.set(sequencer.index(position), element);
+		sequencer.publishWrite(position);
+		return true;
+	}
+
+	@Override
+	public E poll() {
+		final long position = sequencer.claimRead();
+		if (position < 0) {
+			return null;
+		}
+		final E element = elements.getAndSet(sequencer.index(position), null);
+		sequencer.publishRead(position);
+		return element;
+	}
+
+	/**
+	 * Returns the oldest element without removing it. As other Threads may remove the element concurrently, the result
+	 * is only a hint.
+	 *
+	 * @return the oldest element or null if the queue is empty
+	 */
+	@Override
+	public E peek() {
+		final long position = sequencer.getReadPosition();
+		if (!sequencer.isFilled(position)) {
+			return null;
+		}
+		return elements.get(sequencer.index(position));
+	}
+
+	/**
+	 * Returns the number of elements. The result is only a snapshot if other Threads modify the queue concurrently.
+	 *
+	 * @return the number of elements
+	 */
+	@Override
+	public int size() {
+		return sequencer.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Returns an Iterator over the elements from the oldest to the newest. The Iterator never throws
+	 * {@link java.util.ConcurrentModificationException}. It returns elements that were in the queue at some point
+	 * after it was created, and may or may not return elements added or removed afterwards.
+	 *
+	 * @return an Iterator over the elements
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return new Itr();
+	}
+
+	/**
+	 * A weakly consistent Iterator. {@link Iterator#remove()} is not supported.
+	 */
+	private class Itr implements Iterator<E> {
+		private long position = sequencer.getReadPosition();
+		private E next = advance();
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public E next() {
+			final E element = next;
+			if (element == null) {
+				throw new NoSuchElementException();
+			}
+			next = advance();
+			return element;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * Loads the element at the current position and moves on. Skips elements that have been removed in the
+		 * meantime.
+		 *
+		 * @return the next element or null if there is none
+		 */
+		private E advance() {
+			while (true) {
+				position = Math.max(position, sequencer.getReadPosition());
+				if (!sequencer.isFilled(position)) {
+					return null;
+				}
+				final E element = elements.get(sequencer.index(position));
+				// if the slot has been read in the meantime the read position has moved on, so the loop makes progress
+				if (element != null && sequencer.isFilled(position)) {
+					position++;
+					return element;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,213 @@
+package edu.teco.dnd.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * <p>
+ * Runs tasks after a delay using a hashed timing wheel. The wheel consists of a fixed number of buckets, each covering
+ * one tick. A task is put into the bucket of the tick its deadline falls in, so adding and cancelling a task takes
+ * constant time regardless of the number of pending tasks. Cancelled tasks are removed immediately and do not use any
+ * memory until their deadline.
+ * </p>
+ *
+ * <p>
+ * A single periodic task on the given {@link ScheduledExecutorService} advances the wheel once per tick and runs all
+ * expired tasks on that Thread, so tasks should be short. Tasks run at most one tick late. The periodic task is started
+ * when a task is added and stops itself once no tasks are pending, so an idle wheel does not use the
+ * ScheduledExecutorService.
+ * </p>
+ *
+ * <p>
+ * All methods are thread-safe.
+ * </p>
+ */
+public class HashedTimingWheel {
+	private static final Logger LOGGER = LogManager.getLogger(HashedTimingWheel.class);
+
+	private final ScheduledExecutorService executorService;
+	private final long tickNanos;
+	private final Timeout[] buckets;
+	private final int mask;
+	private final long startNanos;
+
+	/**
+	 * The last tick that has been processed. Guarded by <code>this</code>.
+	 */
+	private long currentTick = 0;
+	private int size = 0;
+	private ScheduledFuture<?> ticker = null;
+
+	/**
+	 * Initializes a new HashedTimingWheel.
+	 *
+	 * @param executorService
+	 *            used to advance the wheel and run expired tasks
+	 * @param tickDuration
+	 *            the duration of a tick. This is the granularity of the deadlines.
+	 * @param unit
+	 *            the unit of <code>tickDuration</code>
+	 * @param ticksPerWheel
+	 *            the number of buckets. Rounded up to a power of two. Tasks with a delay longer than one rotation are
+	 *            skipped until the rotation their deadline falls in.
+	 */
+	public HashedTimingWheel(final ScheduledExecutorService executorService, final long tickDuration,
+			final TimeUnit unit, final int ticksPerWheel) {
+		if (tickDuration <= 0) {
+			throw new IllegalArgumentException("tickDuration must be positive");
+		}
+		if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+			throw new IllegalArgumentException("ticksPerWheel must be between 1 and 2^30");
+		}
+		this.executorService = executorService;
+		this.tickNanos = unit.toNanos(tickDuration);
+		int wheelSize = 1;
+		while (wheelSize < ticksPerWheel) {
+			wheelSize <<= 1;
+		}
+		this.buckets = new Timeout[wheelSize];
+		this.mask = wheelSize - 1;
+		this.startNanos = System.nanoTime();
+	}
+
+	/**
+	 * Schedules a task.
+	 *
+	 * @param task
+	 *            the task to run
+	 * @param delay
+	 *            the time to wait before running the task
+	 * @param unit
+	 *            the unit of <code>delay</code>
+	 * @return a handle that can be used to cancel the task
+	 * @throws RejectedExecutionException
+	 *             if the ExecutorService does not accept the periodic task
+	 */
+	public Timeout schedule(final Runnable task, final long delay, final TimeUnit unit) {
+		final long deadlineNanos = System.nanoTime() - startNanos + Math.max(0, unit.toNanos(delay));
+		final long deadlineTick = (deadlineNanos + tickNanos - 1) / tickNanos;
+		final Timeout timeout = new Timeout(task);
+		synchronized (this) {
+			if (ticker == null) {
+				// no tasks are pending, so the ticks passed while stopped can be skipped
+				currentTick = Math.max(currentTick, (System.nanoTime() - startNanos) / tickNanos);
+				ticker = executorService.scheduleAtFixedRate(new Runnable() {
+					@Override
+					public void run() {
+						tick();
+					}
+				}, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+			}
+			timeout.deadlineTick = Math.max(deadlineTick, currentTick + 1);
+			link(timeout);
+			size++;
+		}
+		return timeout;
+	}
+
+	/**
+	 * Returns the number of tasks that have neither run nor been cancelled.
+	 *
+	 * @return the number of pending tasks
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Advances the wheel to the current time and runs all expired tasks. Stops the periodic task if no tasks are left.
+	 */
+	private void tick() {
+		final List<Timeout> expired = new ArrayList<Timeout>();
+		synchronized (this) {
+			final long targetTick = (System.nanoTime() - startNanos) / tickNanos;
+			while (currentTick < targetTick) {
+				currentTick++;
+				Timeout timeout = buckets[(int) (currentTick & mask)];
+				while (timeout != null) {
+					final Timeout next = timeout.next;
+					if (timeout.deadlineTick <= currentTick) {
+						unlink(timeout);
+						size--;
+						expired.add(timeout);
+					}
+					timeout = next;
+				}
+			}
+			if (size == 0 && ticker != null) {
+				ticker.cancel(false);
+				ticker = null;
+			}
+		}
+
+		for (final Timeout timeout : expired) {
+			try {
+				timeout.task.run();
+			} catch (final Throwable t) {
+				LOGGER.warn("timeout task {} threw {}", timeout.task, t);
+			}
+		}
+	}
+
+	private void link(final Timeout timeout) {
+		final int index = (int) (timeout.deadlineTick & mask);
+		timeout.next = buckets[index];
+		if (timeout.next != null) {
+			timeout.next.previous = timeout;
+		}
+		buckets[index] = timeout;
+		timeout.linked = true;
+	}
+
+	private void unlink(final Timeout timeout) {
+		if (timeout.previous == null) {
+			buckets[(int) (timeout.deadlineTick & mask)] = timeout.next;
+		} else {
+			timeout.previous.next = timeout.next;
+		}
+		if (timeout.next != null) {
+			timeout.next.previous = timeout.previous;
+		}
+		timeout.previous = null;
+		timeout.next = null;
+		timeout.linked = false;
+	}
+
+	/**
+	 * A task scheduled on a HashedTimingWheel.
+	 */
+	public class Timeout {
+		private final Runnable task;
+		private long deadlineTick;
+		private Timeout previous = null;
+		private Timeout next = null;
+		private boolean linked = false;
+
+		private Timeout(final Runnable task) {
+			this.task = task;
+		}
+
+		/**
+		 * Cancels the task. Does nothing if the task has already run or been cancelled.
+		 *
+		 * @return true if the task was cancelled, false if it has already run or been cancelled before
+		 */
+		public boolean cancel() {
+			synchronized (HashedTimingWheel.this) {
+				if (!linked) {
+					return false;
+				}
+				unlink(this);
+				size--;
+				return true;
+			}
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package edu.teco.dnd.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * Coordinates access to the slots of a fixed size ring buffer without locks. The sequencer does not store any elements
+ * itself, so it can be used for rings of objects as well as for rings of primitive values. Any number of Threads may
+ * write and read concurrently.
+ * </p>
+ *
+ * <p>
+ * Each slot carries a sequence number that tells writers and readers whether the slot is free or filled for the
+ * current lap. To write, call {@link #claimWrite()}, store the element at {@link #index(long)} and call
+ * {@link #publishWrite(long)}. Reading works the same way with {@link #claimRead()} and {@link #publishRead(long)}. The
+ * element must be stored or loaded between claiming and publishing a position; publishing makes the stored element
+ * visible to the other side.
+ * </p>
+ */
+public class RingSequencer {
+	private final int capacity;
+	private final AtomicLongArray sequences;
+	private final AtomicLong head = new AtomicLong(0);
+	private final AtomicLong tail = new AtomicLong(0);
+
+	/**
+	 * Initializes a new RingSequencer.
+	 *
+	 * @param capacity
+	 *            the number of slots. Must be at least 2 so that sequence numbers of adjacent laps can be told apart.
+	 */
+	public RingSequencer(final int capacity) {
+		if (capacity < 2) {
+			throw new IllegalArgumentException("capacity must be at least 2");
+		}
+		this.capacity = capacity;
+		this.sequences = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	/**
+	 * Returns the number of slots.
+	 *
+	 * @return the number of slots
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the slot used for a position.
+	 *
+	 * @param position
+	 *            a position returned by {@link #claimWrite()} or {@link #claimRead()}
+	 * @return the index of the slot
+	 */
+	public int index(final long position) {
+		return (int) (position % capacity);
+	}
+
+	/**
+	 * Claims the next free slot for writing.
+	 *
+	 * @return the claimed position or -1 if the ring is full
+	 */
+	public long claimWrite() {
+		long position = tail.get();
+		while (true) {
+			final long difference = sequences.get(index(position)) - position;
+			if (difference == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					return position;
+				}
+			} else if (difference < 0) {
+				return -1;
+			}
+			position = tail.get();
+		}
+	}
+
+	/**
+	 * Marks a slot claimed with {@link #claimWrite()} as filled.
+	 *
+	 * @param position
+	 *            the position returned by {@link #claimWrite()}
+	 */
+	public void publishWrite(final long position) {
+		sequences.set(index(position), position + 1);
+	}
+
+	/**
+	 * Claims the oldest filled slot for reading.
+	 *
+	 * @return the claimed position or -1 if the ring is empty
+	 */
+	public long claimRead() {
+		long position = head.get();
+		while (true) {
+			final long difference = sequences.get(index(position)) - (position + 1);
+			if (difference == 0) {
+				if (head.compareAndSet(position, position + 1)) {
+					return position;
+				}
+			} else if (difference < 0) {
+				return -1;
+			}
+			position = head.get();
+		}
+	}
+
+	/**
+	 * Marks a slot claimed with {@link #claimRead()} as free.
+	 *
+	 * @param position
+	 *            the position returned by {@link #claimRead()}
+	 */
+	public void publishRead(final long position) {
+		sequences.set(index(position), position + capacity);
+	}
+
+	/**
+	 * Returns whether the slot for a position has been filled. The result is only a hint if other Threads access the
+	 * ring concurrently.
+	 *
+	 * @param position
+	 *            the position to check
+	 * @return true if the slot for the position is filled for the position's lap
+	 */
+	public boolean isFilled(final long position) {
+		return sequences.get(index(position)) == position + 1;
+	}
+
+	/**
+	 * Returns the position that will be read next.
+	 *
+	 * @return the position that will be read next
+	 */
+	public long getReadPosition() {
+		return head.get();
+	}
+
+	/**
+	 * Returns the number of claimed write positions that have not been read yet. The result is only a snapshot if
+	 * other Threads access the ring concurrently.
+	 *
+	 * @return the number of filled slots
+	 */
+	public int size() {
+		final long size = tail.get() - head.get();
+		if (size < 0) {
+			return 0;
+		}
+		return (int) Math.min(size, capacity);
+	}
+}
@@ -0,0 +1,50 @@
+package edu.teco.dnd.util;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * A {@link UUIDFactory} that is cheap enough to be used for every {@link edu.teco.dnd.network.messages.Message}. Only
+ * the upper 64 bits of the UUIDs are random; they are chosen once per factory. The lower 64 bits hold a counter that
+ * is incremented for every UUID, so the UUIDs of a factory are unique and monotonically increasing and UUIDs of
+ * different factories are unlikely to collide. Creating a UUID only takes a single atomic increment instead of a call
+ * to {@link SecureRandom} as done by {@link UUID#randomUUID()}.
+ * </p>
+ * 
+ * <p>
+ * The UUIDs are marked as version 4 UUIDs. They should not be used where UUIDs must not be guessable.
+ * </p>
+ */
+public class SequentialUUIDFactory implements UUIDFactory {
+	private static final long VERSION_MASK = 0x000000000000F000L;
+	private static final long VERSION_4 = 0x0000000000004000L;
+	private static final long VARIANT_MASK = 0xC000000000000000L;
+	private static final long VARIANT_IETF = 0x8000000000000000L;
+
+	private final long mostSigBits;
+	private final AtomicLong counter = new AtomicLong(0);
+
+	/**
+	 * Initializes a new SequentialUUIDFactory with random upper bits.
+	 */
+	public SequentialUUIDFactory() {
+		this(new SecureRandom().nextLong());
+	}
+
+	/**
+	 * Initializes a new SequentialUUIDFactory with the given upper bits. The version bits are overwritten.
+	 * 
+	 * @param mostSigBits
+	 *            the upper 64 bits of all UUIDs created by this factory
+	 */
+	public SequentialUUIDFactory(final long mostSigBits) {
+		this.mostSigBits = (mostSigBits & ~VERSION_MASK) | VERSION_4;
+	}
+
+	@Override
+	public UUID createUUID() {
+		return new UUID(mostSigBits, (counter.incrementAndGet() & ~VARIANT_MASK) | VARIANT_IETF);
+	}
+}
@@ -0,0 +1,11 @@
+package edu.teco.dnd.blocks.tests;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+
+@RunWith(Suite.class)
+@SuiteClasses({ InputTest.class, PrimitiveInputTest.class })
+public class BlocksTests {
+
+}
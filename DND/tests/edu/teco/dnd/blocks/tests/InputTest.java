@@ -0,0 +1,153 @@
+package edu.teco.dnd.blocks.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import edu.teco.dnd.blocks.Input;
+import edu.teco.dnd.blocks.OverflowPolicy;
+
+public class InputTest {
+	@Test
+	public void testUnbounded() {
+		final Input<Integer> input = new Input<Integer>();
+		for (int i = 0; i < 1000; i++) {
+			input.setValue(i);
+		}
+
+		assertEquals(Input.UNBOUNDED, input.getCapacity());
+		assertEquals(1000, input.getHighWaterMark());
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(Integer.valueOf(i), input.popValue());
+		}
+		assertFalse(input.hasMoreValues());
+		assertEquals(0, input.getDroppedCount());
+	}
+
+	@Test
+	public void testNullValue() {
+		final Input<Integer> input = new Input<Integer>();
+		input.setValue(null);
+
+		assertTrue(input.hasMoreValues());
+		assertNull(input.popValue());
+		assertFalse(input.hasMoreValues());
+	}
+
+	@Test
+	public void testDropOldest() {
+		final Input<Integer> input = new Input<Integer>(3, OverflowPolicy.DROP_OLDEST);
+		for (int i = 0; i < 5; i++) {
+			input.setValue(i);
+		}
+
+		assertEquals(2, input.getDroppedCount());
+		assertEquals(3, input.getHighWaterMark());
+		assertEquals(Integer.valueOf(2), input.popValue());
+		assertEquals(Integer.valueOf(3), input.popValue());
+		assertEquals(Integer.valueOf(4), input.popValue());
+		assertFalse(input.hasMoreValues());
+	}
+
+	@Test
+	public void testDropNewest() {
+		final Input<Integer> input = new Input<Integer>(3, OverflowPolicy.DROP_NEWEST);
+		for (int i = 0; i < 5; i++) {
+			input.setValue(i);
+		}
+
+		assertEquals(2, input.getDroppedCount());
+		assertEquals(Integer.valueOf(0), input.popValue());
+		assertEquals(Integer.valueOf(1), input.popValue());
+		assertEquals(Integer.valueOf(2), input.popValue());
+		assertFalse(input.hasMoreValues());
+	}
+
+	@Test
+	public void testKeepLatest() {
+		final Input<Integer> input = new Input<Integer>(3, OverflowPolicy.KEEP_LATEST);
+		for (int i = 0; i < 5; i++) {
+			input.setValue(i);
+		}
+
+		assertEquals(4, input.getDroppedCount());
+		assertEquals(Integer.valueOf(4), input.popValue());
+		assertFalse(input.hasMoreValues());
+	}
+
+	@Test
+	public void testSetNewestOnly() {
+		final Input<Integer> input = new Input<Integer>();
+		input.setValue(1);
+		input.setValue(2);
+		input.setNewestOnly(true);
+
+		assertEquals(1, input.getDroppedCount());
+		input.setValue(3);
+		assertEquals(Integer.valueOf(3), input.popValue());
+		assertFalse(input.hasMoreValues());
+	}
+
+	@Test(timeout = 5000)
+	public void testBlock() throws InterruptedException {
+		final Input<Integer> input = new Input<Integer>(2, OverflowPolicy.BLOCK);
+		input.setValue(0);
+		input.setValue(1);
+		final Thread producer = new Thread() {
+			@Override
+			public void run() {
+				input.setValue(2);
+			}
+		};
+		producer.start();
+		Thread.sleep(50);
+
+		assertTrue(producer.isAlive());
+		assertEquals(Integer.valueOf(0), input.popValue());
+		producer.join();
+		assertEquals(Integer.valueOf(1), input.popValue());
+		assertEquals(Integer.valueOf(2), input.popValue());
+		assertEquals(0, input.getDroppedCount());
+	}
+
+	@Test(timeout = 5000)
+	public void testBlockRequestsUpdate() throws InterruptedException {
+		final Input<Integer> input = new Input<Integer>(2, OverflowPolicy.BLOCK);
+		final AtomicInteger requests = new AtomicInteger(0);
+		input.setBlockingHandler(new Runnable() {
+			@Override
+			public void run() {
+				if (requests.incrementAndGet() == 1) {
+					input.popValue();
+				}
+			}
+		}, true);
+		input.setValue(0);
+		input.setValue(1);
+
+		input.setValue(2);
+
+		assertEquals(1, requests.get());
+		assertEquals(Integer.valueOf(1), input.popValue());
+		assertEquals(Integer.valueOf(2), input.popValue());
+	}
+
+	@Test(timeout = 5000)
+	public void testBlockNotAllowed() {
+		final Input<Integer> input = new Input<Integer>(2, OverflowPolicy.BLOCK);
+		input.setBlockingHandler(null, false);
+		input.setValue(0);
+		input.setValue(1);
+
+		input.setValue(2);
+
+		assertEquals(1, input.getDroppedCount());
+		assertEquals(Integer.valueOf(1), input.popValue());
+		assertEquals(Integer.valueOf(2), input.popValue());
+	}
+}
@@ -0,0 +1,125 @@
+package edu.teco.dnd.blocks.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.util.Map;
+
+import org.junit.Test;
+
+import edu.teco.dnd.blocks.BooleanInput;
+import edu.teco.dnd.blocks.DoubleInput;
+import edu.teco.dnd.blocks.FunctionBlock;
+import edu.teco.dnd.blocks.Input;
+import edu.teco.dnd.blocks.InputBuffer;
+import edu.teco.dnd.blocks.IntInput;
+import edu.teco.dnd.blocks.IntOutput;
+import edu.teco.dnd.blocks.LongInput;
+import edu.teco.dnd.blocks.Output;
+import edu.teco.dnd.blocks.OverflowPolicy;
+
+public class PrimitiveInputTest {
+	@Test
+	public void testIntInput() {
+		final IntInput input = new IntInput(4, OverflowPolicy.DROP_OLDEST);
+		for (int i = 0; i < 6; i++) {
+			input.setInt(i);
+		}
+
+		assertEquals(2, input.getDroppedCount());
+		assertEquals(4, input.getHighWaterMark());
+		assertEquals(2, input.popInt(-1));
+		assertEquals(Integer.valueOf(3), input.popValue());
+		assertEquals(4, input.popInt(-1));
+		assertEquals(5, input.popInt(-1));
+		assertEquals(-1, input.popInt(-1));
+		assertNull(input.popValue());
+	}
+
+	@Test
+	public void testBoxedValues() {
+		final LongInput input = new LongInput();
+		input.setValue(42L);
+		input.setValue(null);
+
+		assertEquals(1, input.getDroppedCount());
+		assertEquals(42L, input.popLong(0));
+		assertFalse(input.hasMoreValues());
+	}
+
+	@Test
+	public void testKeepLatest() {
+		final DoubleInput input = new DoubleInput(8, OverflowPolicy.KEEP_LATEST);
+		input.setDouble(1.5);
+		input.setDouble(2.5);
+
+		assertEquals(2.5, input.popDouble(0), 0);
+		assertFalse(input.hasMoreValues());
+	}
+
+	@Test
+	public void testWrapAround() {
+		final BooleanInput input = new BooleanInput(2, OverflowPolicy.DROP_NEWEST);
+		for (int i = 0; i < 100; i++) {
+			input.setBoolean(i % 2 == 0);
+			assertEquals(i % 2 == 0, input.popBoolean(i % 2 != 0));
+		}
+		assertEquals(0, input.getDroppedCount());
+	}
+
+	@Test
+	public void testOutputToIntInput() {
+		final IntOutput output = new IntOutput();
+		final IntInput input = new IntInput();
+		output.setTarget(input);
+		output.setValue(7);
+		output.setValue(Integer.valueOf(8));
+
+		assertEquals(7, input.popInt(0));
+		assertEquals(8, input.popInt(0));
+	}
+
+	@Test
+	public void testFunctionBlockCreatesPrimitiveTypes() throws IllegalAccessException {
+		final PrimitiveBlock block = new PrimitiveBlock();
+		block.initInternal(null, "test");
+		final Map<String, Input<? extends Serializable>> inputs = block.getInputs();
+		final Map<String, Output<? extends Serializable>> outputs = block.getOutputs();
+
+		assertTrue(inputs.get("count") instanceof IntInput);
+		assertEquals(16, inputs.get("count").getCapacity());
+		assertEquals(OverflowPolicy.DROP_NEWEST, inputs.get("count").getOverflowPolicy());
+		assertTrue(inputs.get("state") instanceof BooleanInput);
+		assertEquals(Input.DEFAULT_CAPACITY, inputs.get("state").getCapacity());
+		assertTrue(outputs.get("result") instanceof IntOutput);
+	}
+
+	private static class PrimitiveBlock extends FunctionBlock {
+		private static final long serialVersionUID = 1L;
+
+		@InputBuffer(capacity = 16, overflow = OverflowPolicy.DROP_NEWEST)
+		@SuppressWarnings("unused")
+		private IntInput count;
+
+		@SuppressWarnings("unused")
+		private BooleanInput state;
+
+		@SuppressWarnings("unused")
+		private IntOutput result;
+
+		@Override
+		public void init(final Map<String, String> options) {
+		}
+
+		@Override
+		public void update() {
+		}
+
+		@Override
+		public void shutdown() {
+		}
+	}
+}
@@ -12,6 +12,8 @@ import java.util.UUID;
 import edu.teco.dnd.module.ModuleID;
 import edu.teco.dnd.module.config.BlockTypeHolder;
 import edu.teco.dnd.module.config.ModuleConfig;
+import edu.teco.dnd.network.tcp.ApplicationMessageScheduler.ShedPolicy;
+import edu.teco.dnd.server.NetworkTransport;
 import edu.teco.dnd.util.NetConnection;
 
 /**
@@ -26,6 +28,7 @@ public class TestConfigReader implements ModuleConfig {
 	private String location;
 	private ModuleID moduleID = new ModuleID();
 	private int maxAppthreads = 0;
+	private NetworkTransport transport;
 	private Collection<InetSocketAddress> listen;
 	private Collection<InetSocketAddress> announce;
 	private Collection<NetConnection> multicast;
@@ -62,6 +65,7 @@ public class TestConfigReader implements ModuleConfig {
 		this.location = location;
 		this.moduleID = moduleID;
 		this.maxAppthreads = maxAppthreads;
+		this.transport = allowNIO ? NetworkTransport.NIO : NetworkTransport.OIO;
 		this.listen = listen;
 		this.announce = announce;
 		this.multicast = multicast;
@@ -173,4 +177,54 @@ public class TestConfigReader implements ModuleConfig {
 		return 2;
 	}
 
+	@Override
+	public NetworkTransport getTransport() {
+		return transport;
+	}
+
+	@Override
+	public int getEventLoopThreads() {
+		return 0;
+	}
+
+	@Override
+	public int getValueBatchSize() {
+		return 1;
+	}
+
+	@Override
+	public long getValueBatchLinger() {
+		return 0;
+	}
+
+	@Override
+	public int getWriteBufferHighWaterMark() {
+		return 64 * 1024;
+	}
+
+	@Override
+	public int getWriteBufferLowWaterMark() {
+		return 32 * 1024;
+	}
+
+	@Override
+	public int getInboundQueueCapacity() {
+		return 1024;
+	}
+
+	@Override
+	public ShedPolicy getInboundShedPolicy() {
+		return ShedPolicy.DROP_NEWEST;
+	}
+
+	@Override
+	public int getCompressionLevel() {
+		return 6;
+	}
+
+	@Override
+	public int getCompressionMinFrameSize() {
+		return 256;
+	}
+
 }
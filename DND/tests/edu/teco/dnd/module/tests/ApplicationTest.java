@@ -0,0 +1,199 @@
+package edu.teco.dnd.module.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.teco.dnd.blocks.FunctionBlockID;
+import edu.teco.dnd.blocks.InputDescription;
+import edu.teco.dnd.module.Application;
+import edu.teco.dnd.module.ApplicationID;
+import edu.teco.dnd.module.BlockDescription;
+import edu.teco.dnd.module.ExecutionMode;
+import edu.teco.dnd.module.Module;
+import edu.teco.dnd.module.ModuleBlockManager;
+import edu.teco.dnd.module.ModuleID;
+import edu.teco.dnd.module.messages.values.ValueMulticastMessage;
+import edu.teco.dnd.module.permissions.ApplicationSecurityManager;
+import edu.teco.dnd.network.ConnectionManager;
+import edu.teco.dnd.network.messages.Message;
+
+/**
+ * Tests values passed between FunctionBlocks running in the same {@link Application}. The ThreadFactory checks the
+ * permission the Application needs for new Threads with an {@link ApplicationSecurityManager} so that Threads created
+ * while a FunctionBlock is sending a value are checked like they would be on a Module.
+ */
+public class ApplicationTest {
+	private static final long TIMEOUT = 5000;
+
+	private final AtomicReference<SecurityException> securityException = new AtomicReference<SecurityException>();
+
+	private ConnectionManager connectionManager;
+	private Application application;
+
+	@Before
+	public void setup() {
+		ForwardingBlock.reset();
+		securityException.set(null);
+		connectionManager = mock(ConnectionManager.class);
+	}
+
+	@After
+	public void shutdown() {
+		if (application != null && application.isRunning()) {
+			application.shutdown();
+		}
+	}
+
+	@Test
+	public void testLocalDelivery() throws Exception {
+		createApplication(ExecutionMode.DEFAULT);
+		final FunctionBlockID source = new FunctionBlockID();
+		final FunctionBlockID destination = new FunctionBlockID();
+		scheduleBlock(source, destination);
+		scheduleBlock(destination);
+		application.start();
+
+		// the first value may be handled by the initial updates, later ones are not
+		for (int i = 0; i < 3; i++) {
+			application.receiveValue(new InputDescription(source, "in"), i);
+
+			assertEquals(Integer.valueOf(i), ForwardingBlock.RECEIVED.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+			assertEquals(Integer.valueOf(i), ForwardingBlock.RECEIVED.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+		}
+		assertNull(securityException.get());
+	}
+
+	@Test
+	public void testFusedDelivery() throws Exception {
+		createApplication(ExecutionMode.FUSED);
+		final FunctionBlockID source = new FunctionBlockID();
+		final FunctionBlockID fused = new FunctionBlockID();
+		final FunctionBlockID destination1 = new FunctionBlockID();
+		final FunctionBlockID destination2 = new FunctionBlockID();
+		scheduleBlock(source, fused);
+		scheduleBlock(fused, destination1, destination2);
+		scheduleBlock(destination1);
+		scheduleBlock(destination2);
+		application.start();
+
+		application.receiveValue(new InputDescription(source, "in"), 7);
+
+		for (int i = 0; i < 4; i++) {
+			assertEquals(Integer.valueOf(7), ForwardingBlock.RECEIVED.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+		}
+		assertEquals(1, application.getFusedConnections().size());
+		assertNull(securityException.get());
+	}
+
+	@Test
+	public void testMulticast() throws Exception {
+		final FunctionBlockID source = new FunctionBlockID();
+		final ModuleID remoteModule = startRemoteFanOut(source);
+
+		application.receiveValue(new InputDescription(source, "in"), 1);
+
+		assertEquals(Integer.valueOf(1), ForwardingBlock.RECEIVED.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+		verify(connectionManager, times(1)).sendMessageOneWay(eq(remoteModule), any(ValueMulticastMessage.class));
+	}
+
+	@Test
+	public void testCongestedMulticastHeldBack() throws Exception {
+		final FunctionBlockID source = new FunctionBlockID();
+		final ModuleID remoteModule = startRemoteFanOut(source);
+		when(connectionManager.isBackpressured(remoteModule)).thenReturn(true);
+
+		for (int i = 0; i < 3; i++) {
+			application.receiveValue(new InputDescription(source, "in"), i);
+			assertEquals(Integer.valueOf(i), ForwardingBlock.RECEIVED.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+		}
+
+		verify(connectionManager, never()).sendMessageOneWay(any(ModuleID.class), any(Message.class));
+		verify(connectionManager, never()).sendMessage(any(ModuleID.class), any(Message.class));
+	}
+
+	/**
+	 * Starts an Application with an {@link UnreliableForwardingBlock} that sends to two FunctionBlocks on the same
+	 * remote Module.
+	 * 
+	 * @param source
+	 *            the ID to use for the UnreliableForwardingBlock
+	 * @return the ID of the remote Module
+	 */
+	private ModuleID startRemoteFanOut(final FunctionBlockID source) throws Exception {
+		createApplication(ExecutionMode.DEFAULT);
+		final FunctionBlockID remote1 = new FunctionBlockID();
+		final FunctionBlockID remote2 = new FunctionBlockID();
+		scheduleBlock(UnreliableForwardingBlock.class, source, remote1, remote2);
+		final ModuleID remoteModule = new ModuleID();
+		final Map<FunctionBlockID, ModuleID> locations = new HashMap<FunctionBlockID, ModuleID>();
+		locations.put(remote1, remoteModule);
+		locations.put(remote2, remoteModule);
+		application.addBlockLocations(locations);
+		application.start();
+		return remoteModule;
+	}
+
+	private void createApplication(final ExecutionMode executionMode) {
+		application =
+				new Application(new ApplicationID(), "test", connectionManager,
+						new CheckingThreadFactory(), 16, mock(ModuleBlockManager.class), null, mock(Module.class), 1,
+						0, executionMode);
+	}
+
+	private void scheduleBlock(final FunctionBlockID blockID, final FunctionBlockID... destinations)
+			throws Exception {
+		scheduleBlock(ForwardingBlock.class, blockID, destinations);
+	}
+
+	private void scheduleBlock(final Class<?> blockClass, final FunctionBlockID blockID,
+			final FunctionBlockID... destinations) throws Exception {
+		final Set<InputDescription> inputs = new HashSet<InputDescription>();
+		for (final FunctionBlockID destination : destinations) {
+			inputs.add(new InputDescription(destination, "in"));
+		}
+		final Map<String, Set<InputDescription>> outputs = new HashMap<String, Set<InputDescription>>();
+		outputs.put("out", inputs);
+		application.scheduleBlock(new BlockDescription(blockClass.getName(), blockID.toString(), blockID,
+				Collections.<String, String> emptyMap(), outputs, 0));
+	}
+
+	/**
+	 * Checks the permission needed to set the ContextClassLoader of the new Thread and remembers the first
+	 * SecurityException.
+	 */
+	private class CheckingThreadFactory implements ThreadFactory {
+		private final ApplicationSecurityManager securityManager = new ApplicationSecurityManager();
+
+		@Override
+		public Thread newThread(final Runnable r) {
+			try {
+				securityManager.checkPermission(new RuntimePermission("setContextClassLoader"));
+			} catch (final SecurityException e) {
+				securityException.compareAndSet(null, e);
+			}
+			final Thread thread = new Thread(r);
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package edu.teco.dnd.module.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.teco.dnd.module.BlockMailbox;
+
+public class BlockMailboxTest {
+	private static final int TASKS = 1000;
+
+	private ExecutorService executor;
+	private BlockMailbox mailbox;
+
+	@Before
+	public void setup() {
+		executor = Executors.newFixedThreadPool(4);
+		mailbox = new BlockMailbox(executor);
+	}
+
+	@After
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testOrder() throws InterruptedException {
+		final List<Integer> order = new ArrayList<Integer>();
+		final CountDownLatch done = new CountDownLatch(TASKS);
+		for (int i = 0; i < TASKS; i++) {
+			final int index = i;
+			mailbox.execute(new Runnable() {
+				@Override
+				public void run() {
+					order.add(index);
+					done.countDown();
+				}
+			});
+		}
+
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		for (int i = 0; i < TASKS; i++) {
+			assertEquals(Integer.valueOf(i), order.get(i));
+		}
+	}
+
+	@Test
+	public void testNoConcurrentExecution() throws InterruptedException {
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicBoolean overlapped = new AtomicBoolean(false);
+		final CountDownLatch done = new CountDownLatch(TASKS);
+		final Runnable task = new Runnable() {
+			@Override
+			public void run() {
+				if (running.incrementAndGet() > 1) {
+					overlapped.set(true);
+				}
+				Thread.yield();
+				running.decrementAndGet();
+				done.countDown();
+			}
+		};
+		for (int i = 0; i < 4; i++) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 0; j < TASKS / 4; j++) {
+						mailbox.execute(task);
+					}
+				}
+			});
+		}
+
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		assertFalse(overlapped.get());
+	}
+
+	@Test
+	public void testExceptionDoesNotStopMailbox() throws InterruptedException {
+		final CountDownLatch done = new CountDownLatch(1);
+		mailbox.execute(new Runnable() {
+			@Override
+			public void run() {
+				throw new RuntimeException("expected");
+			}
+		});
+		mailbox.execute(new Runnable() {
+			@Override
+			public void run() {
+				done.countDown();
+			}
+		});
+
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+	}
+}
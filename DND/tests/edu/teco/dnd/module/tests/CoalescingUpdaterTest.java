@@ -0,0 +1,157 @@
+package edu.teco.dnd.module.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.Serializable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.teco.dnd.blocks.FunctionBlockID;
+import edu.teco.dnd.blocks.Input;
+import edu.teco.dnd.module.CoalescingUpdater;
+import edu.teco.dnd.module.FunctionBlockSecurityDecorator;
+
+public class CoalescingUpdaterTest {
+	private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+	private final Executor executor = new Executor() {
+		@Override
+		public void execute(final Runnable command) {
+			tasks.add(command);
+		}
+	};
+
+	private Input<Integer> input;
+	private Input<Integer> limited;
+	private CoalescingUpdater updater;
+
+	@SuppressWarnings("unchecked")
+	@Before
+	public void setup() throws Exception {
+		SingleValueBlock.reset();
+		final FunctionBlockSecurityDecorator block = new FunctionBlockSecurityDecorator(SingleValueBlock.class);
+		block.initInternal(new FunctionBlockID(), "block");
+		input = (Input<Integer>) (Input<? extends Serializable>) block.getInputs().get("in");
+		limited = (Input<Integer>) (Input<? extends Serializable>) block.getInputs().get("limited");
+		updater = new CoalescingUpdater(block, executor);
+	}
+
+	@Test
+	public void testRequestsCoalescedWhileQueued() {
+		updater.requestUpdate();
+		updater.requestUpdate();
+		updater.requestUpdate();
+
+		assertEquals(1, tasks.size());
+		runTasks();
+		assertEquals(1, SingleValueBlock.UPDATES.get());
+	}
+
+	@Test
+	public void testRequestWhileRunningRunsOnceMore() {
+		SingleValueBlock.onUpdate = new Runnable() {
+			@Override
+			public void run() {
+				if (SingleValueBlock.UPDATES.get() == 1) {
+					updater.requestUpdate();
+					updater.requestUpdate();
+				}
+			}
+		};
+
+		updater.requestUpdate();
+		tasks.poll().run();
+
+		assertEquals(1, tasks.size());
+		runTasks();
+		assertEquals(2, SingleValueBlock.UPDATES.get());
+	}
+
+	@Test
+	public void testIdleAfterUpdate() {
+		updater.requestUpdate();
+		runTasks();
+		updater.requestUpdate();
+
+		assertEquals(1, tasks.size());
+		runTasks();
+		assertEquals(2, SingleValueBlock.UPDATES.get());
+	}
+
+	@Test
+	public void testUpdatedUntilInputIsDrained() {
+		for (int i = 0; i < 5; i++) {
+			input.setValue(i);
+		}
+
+		updater.requestUpdate();
+		runTasks();
+
+		assertEquals(5, SingleValueBlock.UPDATES.get());
+		assertFalse(input.hasMoreValues());
+	}
+
+	@Test
+	public void testNotUpdatedAgainIfValuesAreLeft() {
+		SingleValueBlock.takeValues = false;
+		input.setValue(1);
+		input.setValue(2);
+
+		updater.requestUpdate();
+		runTasks();
+
+		assertEquals(1, SingleValueBlock.UPDATES.get());
+		assertEquals(2, input.getValueCount());
+	}
+
+	@Test(timeout = 5000)
+	public void testBlockingInputDrainedWhileIdle() throws InterruptedException {
+		limited.setBlockingHandler(new Runnable() {
+			@Override
+			public void run() {
+				updater.requestUpdate();
+			}
+		}, true);
+		// the Input is full, but no update is pending
+		limited.setValue(0);
+		limited.setValue(1);
+		final Thread producer = new Thread() {
+			@Override
+			public void run() {
+				for (int i = 2; i < 6; i++) {
+					limited.setValue(i);
+					updater.requestUpdate();
+				}
+			}
+		};
+
+		producer.start();
+		while (producer.isAlive()) {
+			runTasks();
+			producer.join(1);
+		}
+		runTasks();
+
+		assertEquals(0, limited.getDroppedCount());
+		assertFalse(limited.hasMoreValues());
+	}
+
+	@Test
+	public void testUpdateInline() {
+		updater.updateInline();
+
+		assertEquals(1, SingleValueBlock.UPDATES.get());
+		assertEquals(0, tasks.size());
+	}
+
+	private void runTasks() {
+		Runnable task;
+		while ((task = tasks.poll()) != null) {
+			task.run();
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package edu.teco.dnd.module.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import edu.teco.dnd.blocks.FunctionBlockID;
+import edu.teco.dnd.blocks.InputDescription;
+import edu.teco.dnd.module.ApplicationID;
+import edu.teco.dnd.module.messages.values.EncodedValue;
+import edu.teco.dnd.module.messages.values.ValueCodec;
+import edu.teco.dnd.module.messages.values.ValueMulticastMessage;
+import edu.teco.dnd.module.messages.values.ValueMulticastMessageSerializer;
+import edu.teco.dnd.util.Base64;
+
+public class EncodedValueTest {
+	@Test
+	public void testBytesAreCached() throws IOException {
+		final EncodedValue value = new EncodedValue("value");
+
+		final byte[] bytes = value.getBytes();
+
+		assertArrayEquals(ValueCodec.encode("value"), bytes);
+		assertSame(bytes, value.getBytes());
+		assertSame(value.getBase64(), value.getBase64());
+	}
+
+	@Test
+	public void testBase64IsPlainSerialization() throws IOException, ClassNotFoundException {
+		for (final Serializable value : new Serializable[] { 42, "value", null }) {
+			final byte[] bytes = Base64.decode(new EncodedValue(value).getBase64(), Base64.DONT_GUNZIP);
+
+			final ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(bytes));
+			assertEquals(value, objectInputStream.readObject());
+			objectInputStream.close();
+			assertEquals(value, new ValueCodec(null).decode(bytes, null));
+		}
+	}
+
+	@Test
+	public void testWriteKeepsBytes() throws IOException {
+		final EncodedValue value = new EncodedValue(42);
+		final ByteBuf first = Unpooled.buffer();
+		final ByteBuf second = Unpooled.buffer();
+
+		first.writeByte(7);
+		value.write(first);
+		final byte[] bytes = value.getBytes();
+		value.write(second);
+
+		assertArrayEquals(ValueCodec.encode(42), bytes);
+		assertEquals(Unpooled.wrappedBuffer(bytes), first.skipBytes(1));
+		assertEquals(Unpooled.wrappedBuffer(bytes), second);
+	}
+
+	@Test
+	public void testMulticastRoundTrip() throws IOException {
+		final ValueMulticastMessageSerializer serializer = new ValueMulticastMessageSerializer(null);
+		final ApplicationID applicationID = new ApplicationID();
+		final UUID uuid = UUID.randomUUID();
+		final EncodedValue value = new EncodedValue(1.5);
+		final ValueMulticastMessage message =
+				new ValueMulticastMessage(uuid, applicationID, Arrays.asList(new InputDescription(
+						new FunctionBlockID(), "a"), new InputDescription(new FunctionBlockID(), "b")), value.getValue(),
+						false);
+		final ByteBuf buf = Unpooled.buffer();
+
+		serializer.write(message, buf);
+
+		assertEquals(message, serializer.read(uuid, buf));
+	}
+}
@@ -0,0 +1,44 @@
+package edu.teco.dnd.module.tests;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import edu.teco.dnd.blocks.FunctionBlock;
+import edu.teco.dnd.blocks.Input;
+import edu.teco.dnd.blocks.Output;
+
+/**
+ * A FunctionBlock that passes every value it receives on to its Output. All values received by any ForwardingBlock are
+ * also stored in {@link #RECEIVED}; call {@link #reset()} before each test.
+ */
+public class ForwardingBlock extends FunctionBlock {
+	private static final long serialVersionUID = 1L;
+
+	static final BlockingQueue<Integer> RECEIVED = new LinkedBlockingQueue<Integer>();
+
+	private Input<Integer> in;
+
+	private Output<Integer> out;
+
+	static void reset() {
+		RECEIVED.clear();
+	}
+
+	@Override
+	public void init(final Map<String, String> options) {
+	}
+
+	@Override
+	public void shutdown() {
+	}
+
+	@Override
+	public void update() {
+		Integer value;
+		while ((value = in.popValue()) != null) {
+			RECEIVED.add(value);
+			out.setValue(value);
+		}
+	}
+}
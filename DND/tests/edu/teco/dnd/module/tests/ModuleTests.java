@@ -5,7 +5,8 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({})
+@SuiteClasses({ ApplicationTest.class, BlockMailboxTest.class, CoalescingUpdaterTest.class, EncodedValueTest.class,
+		ValueBatcherTest.class, ValueCodecTest.class, ValueEncodingStateTest.class, ValueSenderTest.class })
 public class ModuleTests {
 
 }
@@ -0,0 +1,53 @@
+package edu.teco.dnd.module.tests;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.teco.dnd.blocks.FunctionBlock;
+import edu.teco.dnd.blocks.Input;
+import edu.teco.dnd.blocks.InputBuffer;
+import edu.teco.dnd.blocks.OverflowPolicy;
+
+/**
+ * A FunctionBlock that, like most FunctionBlocks, takes at most a single value from each Input per update. The state is
+ * static as the block is instantiated via reflection; call {@link #reset()} before each test.
+ */
+public class SingleValueBlock extends FunctionBlock {
+	private static final long serialVersionUID = 1L;
+
+	static final AtomicInteger UPDATES = new AtomicInteger(0);
+	static volatile boolean takeValues = true;
+	static volatile Runnable onUpdate = null;
+
+	private Input<Integer> in;
+
+	@InputBuffer(capacity = 2, overflow = OverflowPolicy.BLOCK)
+	private Input<Integer> limited;
+
+	static void reset() {
+		UPDATES.set(0);
+		takeValues = true;
+		onUpdate = null;
+	}
+
+	@Override
+	public void init(final Map<String, String> options) {
+	}
+
+	@Override
+	public void shutdown() {
+	}
+
+	@Override
+	public void update() {
+		UPDATES.incrementAndGet();
+		final Runnable hook = onUpdate;
+		if (hook != null) {
+			hook.run();
+		}
+		if (takeValues) {
+			in.popValue();
+			limited.popValue();
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package edu.teco.dnd.module.tests;
+
+import java.util.Map;
+
+import edu.teco.dnd.blocks.Delivery;
+import edu.teco.dnd.blocks.DeliveryMode;
+import edu.teco.dnd.blocks.FunctionBlock;
+import edu.teco.dnd.blocks.Input;
+import edu.teco.dnd.blocks.Output;
+
+/**
+ * A FunctionBlock that passes every value it receives on to its Output using {@link DeliveryMode#FIRE_AND_FORGET}.
+ * Values are stored in {@link ForwardingBlock#RECEIVED} after they have been sent.
+ */
+public class UnreliableForwardingBlock extends FunctionBlock {
+	private static final long serialVersionUID = 1L;
+
+	private Input<Integer> in;
+
+	@Delivery(DeliveryMode.FIRE_AND_FORGET)
+	private Output<Integer> out;
+
+	@Override
+	public void init(final Map<String, String> options) {
+	}
+
+	@Override
+	public void shutdown() {
+	}
+
+	@Override
+	public void update() {
+		Integer value;
+		while ((value = in.popValue()) != null) {
+			out.setValue(value);
+			ForwardingBlock.RECEIVED.add(value);
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package edu.teco.dnd.module.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import edu.teco.dnd.blocks.DeliveryMode;
+import edu.teco.dnd.blocks.FunctionBlockID;
+import edu.teco.dnd.module.ApplicationID;
+import edu.teco.dnd.module.ModuleID;
+import edu.teco.dnd.module.ValueBatcher;
+import edu.teco.dnd.module.messages.values.ValueBatchMessage;
+import edu.teco.dnd.module.messages.values.ValueMessage;
+import edu.teco.dnd.network.ConnectionManager;
+import edu.teco.dnd.network.messages.Message;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ValueBatcherTest {
+	@Mock
+	private ConnectionManager connectionManager;
+	@Mock
+	private ScheduledExecutorService scheduler;
+	@Mock
+	private ScheduledFuture<Object> scheduledFuture;
+
+	private ApplicationID applicationID;
+	private ModuleID moduleID;
+	private FunctionBlockID blockID;
+	private ValueBatcher batcher;
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Before
+	public void setup() {
+		applicationID = new ApplicationID();
+		moduleID = new ModuleID();
+		blockID = new FunctionBlockID();
+		when(scheduler.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class))).thenReturn(
+				(ScheduledFuture) scheduledFuture);
+		batcher = new ValueBatcher(applicationID, connectionManager, scheduler, 3, 500);
+	}
+
+	@Test
+	public void testIsBatching() {
+		assertFalse(ValueBatcher.isBatching(1, 1000));
+		assertFalse(ValueBatcher.isBatching(10, 0));
+		assertTrue(ValueBatcher.isBatching(10, 1000));
+	}
+
+	@Test
+	public void testHeldUntilFull() {
+		batcher.add(moduleID, blockID, "in", 1, DeliveryMode.ACKNOWLEDGED);
+		batcher.add(moduleID, blockID, "in", 2, DeliveryMode.ACKNOWLEDGED);
+
+		verify(connectionManager, never()).sendMessage(any(ModuleID.class), any(Message.class));
+		verify(scheduler).schedule(any(Runnable.class), eq(500L), eq(TimeUnit.MICROSECONDS));
+	}
+
+	@Test
+	public void testSentWhenFull() {
+		batcher.add(moduleID, blockID, "in", 1, DeliveryMode.ACKNOWLEDGED);
+		batcher.add(moduleID, blockID, "in", 2, DeliveryMode.FIRE_AND_FORGET);
+		batcher.add(moduleID, blockID, "other", 3, DeliveryMode.ACKNOWLEDGED);
+
+		final ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+		verify(connectionManager).sendMessage(eq(moduleID), captor.capture());
+		verify(scheduledFuture).cancel(false);
+		final ValueBatchMessage message = (ValueBatchMessage) captor.getValue();
+		assertEquals(applicationID, message.getApplicationID());
+		assertTrue(message.isResponseRequested());
+		assertEquals(Arrays.asList(new ValueBatchMessage.Value(blockID, "in", 1), new ValueBatchMessage.Value(blockID,
+				"in", 2), new ValueBatchMessage.Value(blockID, "other", 3)), message.values);
+	}
+
+	@Test
+	public void testLingerFlush() {
+		batcher.add(moduleID, blockID, "in", 1, DeliveryMode.FIRE_AND_FORGET);
+		batcher.add(moduleID, blockID, "in", 2, DeliveryMode.FIRE_AND_FORGET);
+
+		final ArgumentCaptor<Runnable> runnable = ArgumentCaptor.forClass(Runnable.class);
+		verify(scheduler).schedule(runnable.capture(), anyLong(), any(TimeUnit.class));
+		runnable.getValue().run();
+
+		final ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+		verify(connectionManager).sendMessageOneWay(eq(moduleID), captor.capture());
+		final ValueBatchMessage message = (ValueBatchMessage) captor.getValue();
+		assertFalse(message.isResponseRequested());
+		assertEquals(2, message.values.size());
+	}
+
+	@Test
+	public void testSingleValueSentAsValueMessage() {
+		batcher.add(moduleID, blockID, "in", 1, DeliveryMode.ACKNOWLEDGED);
+		batcher.flush();
+
+		final ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+		verify(connectionManager).sendMessage(eq(moduleID), captor.capture());
+		final ValueMessage message = (ValueMessage) captor.getValue();
+		assertEquals(blockID, message.blockID);
+		assertEquals(1, message.value);
+		assertTrue(message.isResponseRequested());
+	}
+
+	@Test
+	public void testSeparateBatchesPerModule() {
+		final ModuleID otherModuleID = new ModuleID();
+		batcher.add(moduleID, blockID, "in", 1, DeliveryMode.ACKNOWLEDGED);
+		batcher.add(otherModuleID, blockID, "in", 2, DeliveryMode.ACKNOWLEDGED);
+		batcher.add(moduleID, blockID, "in", 3, DeliveryMode.ACKNOWLEDGED);
+
+		verify(connectionManager, never()).sendMessage(any(ModuleID.class), any(Message.class));
+
+		batcher.flush();
+		verify(connectionManager).sendMessage(eq(moduleID), any(ValueBatchMessage.class));
+		verify(connectionManager).sendMessage(eq(otherModuleID), any(ValueMessage.class));
+	}
+
+	@Test
+	public void testSentImmediatelyAfterClose() {
+		batcher.close();
+		batcher.add(moduleID, blockID, "in", 1, DeliveryMode.ACKNOWLEDGED);
+
+		verify(connectionManager).sendMessage(eq(moduleID), any(ValueMessage.class));
+	}
+}
@@ -0,0 +1,99 @@
+package edu.teco.dnd.module.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.teco.dnd.module.ApplicationID;
+import edu.teco.dnd.module.messages.values.ValueCodec;
+
+public class ValueCodecTest {
+	private ValueCodec codec;
+	private ApplicationID applicationID;
+
+	@Before
+	public void setup() {
+		codec = new ValueCodec(null);
+		applicationID = new ApplicationID();
+	}
+
+	private Serializable roundTrip(final Serializable value) throws IOException {
+		return codec.decode(ValueCodec.encode(value), applicationID);
+	}
+
+	@Test
+	public void testNull() throws IOException {
+		assertNull(roundTrip(null));
+	}
+
+	@Test
+	public void testBoxedPrimitives() throws IOException {
+		assertEquals(Boolean.TRUE, roundTrip(true));
+		assertEquals(Boolean.FALSE, roundTrip(false));
+		assertEquals(Byte.valueOf((byte) -3), roundTrip((byte) -3));
+		assertEquals(Short.valueOf((short) 1234), roundTrip((short) 1234));
+		assertEquals(Character.valueOf('x'), roundTrip('x'));
+		assertEquals(Integer.valueOf(-42), roundTrip(-42));
+		assertEquals(Long.valueOf(Long.MAX_VALUE), roundTrip(Long.MAX_VALUE));
+		assertEquals(Float.valueOf(1.5f), roundTrip(1.5f));
+		assertEquals(Double.valueOf(Math.PI), roundTrip(Math.PI));
+	}
+
+	@Test
+	public void testIntegerIsCompact() throws IOException {
+		assertEquals(5, ValueCodec.encode(42).length);
+	}
+
+	@Test
+	public void testString() throws IOException {
+		assertEquals("temperature °C", roundTrip("temperature °C"));
+	}
+
+	@Test
+	public void testArrays() throws IOException {
+		assertArrayEquals(new byte[] { 1, 2, 3 }, (byte[]) roundTrip(new byte[] { 1, 2, 3 }));
+		assertArrayEquals(new int[] { 1, -2, 3 }, (int[]) roundTrip(new int[] { 1, -2, 3 }));
+		assertArrayEquals(new long[] { 1L, 2L }, (long[]) roundTrip(new long[] { 1L, 2L }));
+		assertArrayEquals(new short[] { 7 }, (short[]) roundTrip(new short[] { 7 }));
+		assertArrayEquals(new char[] { 'a', 'b' }, (char[]) roundTrip(new char[] { 'a', 'b' }));
+		assertArrayEquals(new double[] { 0.5, 1.5 }, (double[]) roundTrip(new double[] { 0.5, 1.5 }), 0);
+		assertArrayEquals(new float[] { 0.25f }, (float[]) roundTrip(new float[] { 0.25f }), 0);
+		assertEquals(Arrays.toString(new boolean[] { true, false }),
+				Arrays.toString((boolean[]) roundTrip(new boolean[] { true, false })));
+	}
+
+	@Test
+	public void testSerializedFallback() throws IOException {
+		final ArrayList<String> value = new ArrayList<String>(Arrays.asList("a", "b"));
+
+		final byte[] encoded = ValueCodec.encode(value);
+
+		assertEquals(ValueCodec.TAG_SERIALIZED, encoded[0]);
+		assertEquals(value, codec.decode(encoded, applicationID));
+	}
+
+	@Test
+	public void testPlainJavaSerializationIsAccepted() throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(Integer.valueOf(17));
+		out.close();
+
+		assertEquals(Integer.valueOf(17), codec.decode(bytes.toByteArray(), applicationID));
+	}
+
+	@Test(expected = IOException.class)
+	public void testTruncatedArray() throws IOException {
+		codec.decode(new byte[] { ValueCodec.TAG_INT_ARRAY, 0, 0, 0, 2, 0, 0, 0, 1 }, applicationID);
+	}
+}
@@ -0,0 +1,267 @@
+package edu.teco.dnd.module.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DecoderException;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.teco.dnd.blocks.FunctionBlockID;
+import edu.teco.dnd.module.ApplicationID;
+import edu.teco.dnd.module.messages.values.EncodedValue;
+import edu.teco.dnd.module.messages.values.ValueBatchMessage;
+import edu.teco.dnd.module.messages.values.ValueBatchMessageSerializer;
+import edu.teco.dnd.module.messages.values.ValueCodec;
+import edu.teco.dnd.module.messages.values.ValueEncodingState;
+import edu.teco.dnd.module.messages.values.ValueMessage;
+import edu.teco.dnd.module.messages.values.ValueMessageSerializer;
+import edu.teco.dnd.network.tcp.BinaryCodec;
+import edu.teco.dnd.network.tcp.ChunkedFrameCodec;
+import edu.teco.dnd.network.tcp.MessageAdapter;
+
+public class ValueEncodingStateTest {
+	private final ValueCodec valueCodec = new ValueCodec(null);
+	private final ApplicationID applicationID = new ApplicationID();
+	private final UUID blockUUID = UUID.randomUUID();
+
+	private ValueEncodingState sendingState;
+	private ValueEncodingState receivingState;
+	private ByteBuf buf;
+
+	@Before
+	public void setup() {
+		sendingState = new ValueEncodingState();
+		receivingState = new ValueEncodingState();
+		buf = Unpooled.buffer();
+	}
+
+	@Test
+	public void testDictionary() throws IOException {
+		sendingState.writeString(buf, "input");
+		sendingState.writeUUID(buf, blockUUID);
+		final int definitionLength = buf.readableBytes();
+		sendingState.writeString(buf, "input");
+		sendingState.writeUUID(buf, blockUUID);
+		assertEquals(4, buf.readableBytes() - definitionLength);
+		sendingState.writeUUID(buf, null);
+
+		assertEquals("input", receivingState.readString(buf));
+		assertEquals(blockUUID, receivingState.readUUID(buf));
+		assertEquals("input", receivingState.readString(buf));
+		assertEquals(blockUUID, receivingState.readUUID(buf));
+		assertEquals(null, receivingState.readUUID(buf));
+		assertFalse(buf.isReadable());
+	}
+
+	@Test(expected = IOException.class)
+	public void testUnknownReferenceRejected() throws IOException {
+		sendingState.writeString(buf, "input");
+		sendingState.writeString(buf, "input");
+		buf.skipBytes(buf.readableBytes() - 2);
+
+		receivingState.readString(buf);
+	}
+
+	@Test
+	public void testIntDelta() throws IOException {
+		assertRoundTrip(1000);
+		final int literalLength = roundTripLength(1000000);
+
+		assertEquals(1000000 + 3, roundTrip(1000000 + 3));
+		assertTrue(roundTripLength(1000000 - 5) < literalLength);
+		assertEquals(Integer.MIN_VALUE, roundTrip(Integer.MIN_VALUE));
+		assertEquals(Integer.MAX_VALUE, roundTrip(Integer.MAX_VALUE));
+	}
+
+	@Test
+	public void testLongDelta() throws IOException {
+		assertRoundTrip(Long.MAX_VALUE);
+		assertRoundTrip(Long.MIN_VALUE);
+		assertRoundTrip(42L);
+
+		assertEquals(2, roundTripLength(43L));
+	}
+
+	@Test
+	public void testRepeatedValue() throws IOException {
+		assertRoundTrip("value");
+
+		assertEquals(1, roundTripLength("value"));
+		assertEquals(1, roundTripLength("value"));
+	}
+
+	@Test
+	public void testLiteralAfterTypeChange() throws IOException {
+		assertRoundTrip(1);
+		assertRoundTrip(1.5);
+		assertRoundTrip("value");
+		assertRoundTrip(2);
+		assertRoundTrip(new int[] { 1, 2 });
+		assertRoundTrip(new int[] { 1, 2 });
+	}
+
+	@Test
+	public void testValueMessageOverChannel() {
+		final MessageAdapter messageAdapter = new MessageAdapter();
+		messageAdapter.addMessageType(ValueMessage.class);
+		messageAdapter.addMessageType(ValueBatchMessage.class);
+		final BinaryCodec codec = new BinaryCodec(messageAdapter);
+		codec.addSerializer(ValueMessage.class, new ValueMessageSerializer(null));
+		codec.addSerializer(ValueBatchMessage.class, new ValueBatchMessageSerializer(null));
+		final FunctionBlockID blockID = new FunctionBlockID(blockUUID);
+
+		int firstLength = -1;
+		for (int connection = 0; connection < 2; connection++) {
+			final EmbeddedChannel channel = new EmbeddedChannel(codec.getDecoder(), codec.getEncoder());
+			BinaryCodec.setEnabled(channel, true);
+			BinaryCodec.setStatefulEnabled(channel, true);
+			for (int i = 0; i < 3; i++) {
+				final ValueMessage message = new ValueMessage(applicationID, blockID, "input", 20 + i, false);
+				channel.writeOutbound(message);
+				final ByteBuf frame = (ByteBuf) channel.readOutbound();
+				assertEquals(BinaryCodec.STATEFUL_MARKER, frame.getByte(frame.readerIndex()));
+				if (i == 0 && firstLength < 0) {
+					firstLength = frame.readableBytes();
+				} else if (i == 0) {
+					// a new connection starts with an empty state
+					assertEquals(firstLength, frame.readableBytes());
+				} else {
+					assertTrue(frame.readableBytes() < firstLength / 2);
+				}
+				channel.writeInbound(frame);
+				assertEquals(message, channel.readInbound());
+			}
+
+			final ValueBatchMessage batch =
+					new ValueBatchMessage(applicationID, Arrays.asList(new ValueBatchMessage.Value(blockID, "input",
+							22), new ValueBatchMessage.Value(blockID, "other", "value")), false);
+			channel.writeOutbound(batch);
+			channel.writeInbound(channel.readOutbound());
+			assertEquals(batch, channel.readInbound());
+		}
+	}
+
+	@Test
+	public void testStatelessIfDisabled() {
+		final MessageAdapter messageAdapter = new MessageAdapter();
+		messageAdapter.addMessageType(ValueMessage.class);
+		final BinaryCodec codec = new BinaryCodec(messageAdapter);
+		codec.addSerializer(ValueMessage.class, new ValueMessageSerializer(null));
+		final EmbeddedChannel channel = new EmbeddedChannel(codec.getDecoder(), codec.getEncoder());
+		BinaryCodec.setEnabled(channel, true);
+		final ValueMessage message =
+				new ValueMessage(applicationID, new FunctionBlockID(blockUUID), "input", 20, false);
+
+		channel.writeOutbound(message);
+		final ByteBuf frame = (ByteBuf) channel.readOutbound();
+
+		assertEquals(BinaryCodec.MARKER, frame.getByte(frame.readerIndex()));
+		channel.writeInbound(frame);
+		assertEquals(message, channel.readInbound());
+	}
+
+	@Test
+	public void testChannelClosedIfStatefulFrameDropped() {
+		final BinaryCodec codec = createCodec();
+		final EmbeddedChannel channel =
+				new EmbeddedChannel(new ChunkedFrameCodec(256, 1024), codec.getDecoder(), codec.getEncoder());
+		ChunkedFrameCodec.setEnabled(channel, true);
+		BinaryCodec.setEnabled(channel, true);
+		BinaryCodec.setStatefulEnabled(channel, true);
+		final ValueMessage message =
+				new ValueMessage(applicationID, new FunctionBlockID(blockUUID), "input", "value", false);
+		channel.writeOutbound(message);
+		channel.writeInbound(channel.readOutbound());
+		assertEquals(message, channel.readInbound());
+
+		final ValueMessage tooLong =
+				new ValueMessage(applicationID, new FunctionBlockID(blockUUID), "input", new String(new char[2048]),
+						false);
+		assertFalse(channel.writeAndFlush(tooLong).isSuccess());
+		assertFalse(channel.isOpen());
+
+		// the repeated value would be sent as a reference to the value the remote side never received
+		assertFalse(channel.writeAndFlush(tooLong).isSuccess());
+		assertNull(channel.readOutbound());
+	}
+
+	@Test
+	public void testChannelClosedIfStatefulFrameUnreadable() {
+		final BinaryCodec codec = createCodec();
+		final EmbeddedChannel channel = new EmbeddedChannel(codec.getDecoder(), codec.getEncoder());
+		BinaryCodec.setEnabled(channel, true);
+		BinaryCodec.setStatefulEnabled(channel, true);
+		final ValueBatchMessage batch =
+				new ValueBatchMessage(applicationID, Arrays.asList(new ValueBatchMessage.Value(new FunctionBlockID(
+						blockUUID), "input", new UnreadableValue()), new ValueBatchMessage.Value(new FunctionBlockID(),
+						"other", 1)), false);
+		channel.writeOutbound(batch);
+
+		try {
+			channel.writeInbound(channel.readOutbound());
+			fail("unreadable value was decoded");
+		} catch (final DecoderException e) {
+			assertFalse(channel.isOpen());
+		}
+	}
+
+	private BinaryCodec createCodec() {
+		final MessageAdapter messageAdapter = new MessageAdapter();
+		messageAdapter.addMessageType(ValueMessage.class);
+		messageAdapter.addMessageType(ValueBatchMessage.class);
+		final BinaryCodec codec = new BinaryCodec(messageAdapter);
+		codec.addSerializer(ValueMessage.class, new ValueMessageSerializer(null));
+		codec.addSerializer(ValueBatchMessage.class, new ValueBatchMessageSerializer(null));
+		return codec;
+	}
+
+	private void assertRoundTrip(final Object value) throws IOException {
+		final Object read = roundTrip((Serializable) value);
+		if (value instanceof int[]) {
+			assertTrue(Arrays.equals((int[]) value, (int[]) read));
+		} else {
+			assertEquals(value, read);
+		}
+	}
+
+	private Object roundTrip(final Serializable value) throws IOException {
+		sendingState.writeValue(buf, blockUUID, "input", new EncodedValue(value));
+		final Object read = receivingState.readValue(buf, blockUUID, "input", valueCodec, applicationID);
+		assertFalse(buf.isReadable());
+		buf.clear();
+		return read;
+	}
+
+	private int roundTripLength(final Serializable value) throws IOException {
+		sendingState.writeValue(buf, blockUUID, "input", new EncodedValue(value));
+		final int length = buf.readableBytes();
+		assertEquals(value, receivingState.readValue(buf, blockUUID, "input", valueCodec, applicationID));
+		buf.clear();
+		return length;
+	}
+
+	/**
+	 * A value that can be written but not read, like a value whose class is missing on the receiving side.
+	 */
+	private static class UnreadableValue implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private void readObject(final ObjectInputStream in) throws IOException {
+			throw new InvalidObjectException("unreadable");
+		}
+	}
+}
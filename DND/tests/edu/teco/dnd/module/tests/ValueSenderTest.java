@@ -0,0 +1,134 @@
+package edu.teco.dnd.module.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isA;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import edu.teco.dnd.blocks.DeliveryMode;
+import edu.teco.dnd.blocks.FunctionBlockID;
+import edu.teco.dnd.module.ApplicationID;
+import edu.teco.dnd.module.ModuleID;
+import edu.teco.dnd.module.ValueSender;
+import edu.teco.dnd.module.messages.values.ValueMessage;
+import edu.teco.dnd.module.messages.values.WhoHasBlockMessage;
+import edu.teco.dnd.network.ConnectionManager;
+import edu.teco.dnd.network.messages.Message;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ValueSenderTest {
+	@Mock
+	private ConnectionManager connectionManager;
+	@Mock
+	private ScheduledExecutorService scheduler;
+
+	private ModuleID moduleID;
+	private ValueSender valueSender;
+
+	@Before
+	public void setup() {
+		moduleID = new ModuleID();
+		when(connectionManager.getConnectedModules()).thenReturn(Collections.<ModuleID> emptyList());
+		valueSender =
+				new ValueSender(new ApplicationID(), new FunctionBlockID(), connectionManager, null, scheduler);
+	}
+
+	@Test
+	public void testKnownLocationSkipsSearch() {
+		valueSender.setModuleID(moduleID);
+		valueSender.sendValue("in", 1);
+
+		verify(connectionManager).sendMessage(eq(moduleID), isA(ValueMessage.class));
+		verify(connectionManager, never()).sendMessage(any(ModuleID.class), isA(WhoHasBlockMessage.class));
+		verify(connectionManager, never()).getConnectedModules();
+	}
+
+	@Test
+	public void testPendingValuesSentWhenLocationSet() {
+		valueSender.sendValue("in", 1);
+		valueSender.sendValue("in", 2);
+		verify(connectionManager, never()).sendMessage(any(ModuleID.class), isA(ValueMessage.class));
+
+		valueSender.setModuleID(moduleID);
+
+		verify(connectionManager, times(2)).sendMessage(eq(moduleID), isA(ValueMessage.class));
+	}
+
+	@Test
+	public void testFailedSearchIsNotRepeatedImmediately() {
+		valueSender.sendValue("in", 1);
+		valueSender.sendValue("in", 2);
+
+		verify(connectionManager, times(1)).getConnectedModules();
+		verify(scheduler).schedule(any(Runnable.class), eq(ValueSender.INITIAL_QUERY_DELAY),
+				eq(TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void testBackoffDoubles() {
+		valueSender.sendValue("in", 1);
+
+		final ArgumentCaptor<Runnable> retry = ArgumentCaptor.forClass(Runnable.class);
+		verify(scheduler).schedule(retry.capture(), eq(ValueSender.INITIAL_QUERY_DELAY), eq(TimeUnit.MILLISECONDS));
+		retry.getValue().run();
+
+		verify(connectionManager, times(2)).getConnectedModules();
+		verify(scheduler).schedule(any(Runnable.class), eq(2 * ValueSender.INITIAL_QUERY_DELAY),
+				eq(TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void testNoRetryWithoutPendingValues() {
+		valueSender.sendValue("in", 1);
+
+		final ArgumentCaptor<Runnable> retry = ArgumentCaptor.forClass(Runnable.class);
+		verify(scheduler).schedule(retry.capture(), eq(ValueSender.INITIAL_QUERY_DELAY), eq(TimeUnit.MILLISECONDS));
+		valueSender.setModuleID(moduleID);
+		retry.getValue().run();
+
+		verify(connectionManager, times(1)).getConnectedModules();
+		verify(connectionManager, never()).sendMessage(any(ModuleID.class), isA(WhoHasBlockMessage.class));
+		verify(connectionManager).sendMessage(eq(moduleID), any(Message.class));
+	}
+
+	@Test
+	public void testFireAndForgetCoalescedWhileBackpressured() {
+		valueSender.setModuleID(moduleID);
+		when(connectionManager.isBackpressured(moduleID)).thenReturn(true);
+		valueSender.sendValue("in", 1, DeliveryMode.FIRE_AND_FORGET);
+		valueSender.sendValue("in", 2, DeliveryMode.FIRE_AND_FORGET);
+		verify(connectionManager, never()).sendMessageOneWay(any(ModuleID.class), any(Message.class));
+
+		when(connectionManager.isBackpressured(moduleID)).thenReturn(false);
+		valueSender.sendCoalescedValues();
+
+		final ArgumentCaptor<ValueMessage> captor = ArgumentCaptor.forClass(ValueMessage.class);
+		verify(connectionManager).sendMessageOneWay(eq(moduleID), captor.capture());
+		assertEquals(2, captor.getValue().value);
+		assertEquals(1, valueSender.getDroppedValueCount());
+	}
+
+	@Test
+	public void testAcknowledgedSentWhileBackpressured() {
+		valueSender.setModuleID(moduleID);
+		when(connectionManager.isBackpressured(moduleID)).thenReturn(true);
+		valueSender.sendValue("in", 1, DeliveryMode.ACKNOWLEDGED);
+
+		verify(connectionManager).sendMessage(eq(moduleID), isA(ValueMessage.class));
+	}
+}
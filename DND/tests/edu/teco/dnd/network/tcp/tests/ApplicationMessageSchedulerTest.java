@@ -0,0 +1,242 @@
+package edu.teco.dnd.network.tcp.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.teco.dnd.module.ApplicationID;
+import edu.teco.dnd.network.tcp.ApplicationMessageScheduler;
+import edu.teco.dnd.network.tcp.ApplicationMessageScheduler.Droppable;
+import edu.teco.dnd.network.tcp.ApplicationMessageScheduler.ShedPolicy;
+import edu.teco.dnd.util.UUIDFactory;
+import edu.teco.dnd.util.UniqueUUIDFactory;
+
+public class ApplicationMessageSchedulerTest {
+	private static ApplicationID applicationID1;
+	private static ApplicationID applicationID2;
+
+	private ApplicationMessageScheduler scheduler;
+	private ManualExecutor executor;
+	private List<String> log;
+
+	@BeforeClass
+	public static void setupApplicationIDs() {
+		final UUIDFactory uuidFactory = new UniqueUUIDFactory();
+		applicationID1 = new ApplicationID(uuidFactory.createUUID());
+		applicationID2 = new ApplicationID(uuidFactory.createUUID());
+	}
+
+	@Before
+	public void setup() {
+		scheduler = new ApplicationMessageScheduler();
+		scheduler.setMaxConcurrentTasks(1);
+		executor = new ManualExecutor();
+		log = new ArrayList<String>();
+	}
+
+	@Test
+	public void testCallingThreadExecutor() {
+		final Executor callingThread = new Executor() {
+			@Override
+			public void execute(final Runnable command) {
+				command.run();
+			}
+		};
+
+		for (int i = 0; i < 3; i++) {
+			scheduler.submit(applicationID1, callingThread, new LoggingTask("a" + i));
+		}
+
+		assertEquals(Arrays.asList("a0", "a1", "a2"), log);
+		assertEquals(0, scheduler.getRunningCount());
+	}
+
+	@Test
+	public void testLimitsRunningTasks() {
+		submit(applicationID1, "a", 3);
+
+		assertEquals(1, executor.tasks.size());
+		assertEquals(1, scheduler.getRunningCount());
+		assertEquals(2, scheduler.getQueuedCount(applicationID1));
+	}
+
+	@Test
+	public void testDropNewest() {
+		scheduler.setQueueCapacity(2);
+		submit(applicationID1, "a", 4);
+
+		executor.runAll();
+
+		assertEquals(Arrays.asList("a0", "a1", "a2"), log);
+		assertEquals(1, scheduler.getShedCount());
+	}
+
+	@Test
+	public void testDropOldest() {
+		scheduler.setQueueCapacity(2);
+		scheduler.setShedPolicy(ShedPolicy.DROP_OLDEST);
+		submit(applicationID1, "a", 4);
+
+		executor.runAll();
+
+		assertEquals(Arrays.asList("a0", "a2", "a3"), log);
+		assertEquals(1, scheduler.getShedCount());
+	}
+
+	@Test
+	public void testRoundRobin() {
+		submit(applicationID1, "a", 4);
+		submit(applicationID2, "b", 2);
+
+		executor.runAll();
+
+		assertEquals(Arrays.asList("a0", "a1", "b0", "a2", "b1", "a3"), log);
+	}
+
+	@Test
+	public void testWeight() {
+		scheduler.setWeight(applicationID1, 2);
+		submit(applicationID1, "a", 5);
+		submit(applicationID2, "b", 2);
+
+		executor.runAll();
+
+		assertEquals(Arrays.asList("a0", "a1", "a2", "b0", "a3", "a4", "b1"), log);
+	}
+
+	@Test
+	public void testRejectedTaskDropped() {
+		scheduler.submit(applicationID1, new Executor() {
+			@Override
+			public void execute(final Runnable command) {
+				throw new RejectedExecutionException();
+			}
+		}, new LoggingTask("a0"));
+		submit(applicationID2, "b", 1);
+
+		executor.runAll();
+
+		assertEquals(Arrays.asList("b0"), log);
+		assertEquals(0, scheduler.getRunningCount());
+	}
+
+	@Test
+	public void testRemoveApplication() {
+		submit(applicationID1, "a", 3);
+		submit(applicationID2, "b", 1);
+
+		scheduler.removeApplication(applicationID1);
+		executor.runAll();
+
+		assertEquals(Arrays.asList("a0", "b0"), log);
+		assertEquals(0, scheduler.getQueuedCount(applicationID1));
+	}
+
+	@Test
+	public void testLimitsRunningTasksPerApplication() {
+		scheduler.setMaxConcurrentTasks(4);
+		scheduler.setMaxTasksPerApplication(2);
+		submit(applicationID1, "a", 4);
+		submit(applicationID2, "b", 1);
+
+		assertEquals(3, executor.tasks.size());
+		assertEquals(2, scheduler.getRunningCount(applicationID1));
+		assertEquals(1, scheduler.getRunningCount(applicationID2));
+		assertEquals(2, scheduler.getQueuedCount(applicationID1));
+
+		executor.runAll();
+
+		assertEquals(Arrays.asList("a0", "a1", "b0", "a2", "a3"), log);
+		assertEquals(0, scheduler.getRunningCount());
+	}
+
+	@Test
+	public void testDroppedTaskInformed() {
+		scheduler.setQueueCapacity(1);
+		final DroppableTask running = new DroppableTask();
+		final DroppableTask queued = new DroppableTask();
+		final DroppableTask shed = new DroppableTask();
+		scheduler.submit(applicationID1, executor, running);
+		scheduler.submit(applicationID1, executor, queued);
+		scheduler.submit(applicationID1, executor, shed);
+
+		assertEquals(1, shed.dropped);
+		assertEquals(0, queued.dropped);
+
+		scheduler.removeApplication(applicationID1);
+
+		assertEquals(1, queued.dropped);
+		assertEquals(0, running.dropped);
+	}
+
+	@Test
+	public void testRejectedTaskInformed() {
+		final DroppableTask task = new DroppableTask();
+		scheduler.submit(applicationID1, new Executor() {
+			@Override
+			public void execute(final Runnable command) {
+				throw new RejectedExecutionException();
+			}
+		}, task);
+
+		assertEquals(1, task.dropped);
+	}
+
+	private void submit(final ApplicationID applicationID, final String prefix, final int count) {
+		for (int i = 0; i < count; i++) {
+			scheduler.submit(applicationID, executor, new LoggingTask(prefix + i));
+		}
+	}
+
+	private class LoggingTask implements Runnable {
+		private final String name;
+
+		private LoggingTask(final String name) {
+			this.name = name;
+		}
+
+		@Override
+		public void run() {
+			log.add(name);
+		}
+	}
+
+	private static class DroppableTask implements Droppable {
+		private int dropped = 0;
+
+		@Override
+		public void run() {
+		}
+
+		@Override
+		public void dropped() {
+			dropped++;
+		}
+	}
+
+	private static class ManualExecutor implements Executor {
+		private final Queue<Runnable> tasks = new LinkedList<Runnable>();
+
+		@Override
+		public void execute(final Runnable command) {
+			tasks.add(command);
+		}
+
+		private void runAll() {
+			Runnable task;
+			while ((task = tasks.poll()) != null) {
+				task.run();
+			}
+		}
+	}
+}
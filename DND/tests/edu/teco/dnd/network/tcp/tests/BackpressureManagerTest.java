@@ -0,0 +1,138 @@
+package edu.teco.dnd.network.tcp.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import io.netty.channel.Channel;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import edu.teco.dnd.module.ModuleID;
+import edu.teco.dnd.network.BackpressureListener;
+import edu.teco.dnd.network.tcp.BackpressureManager;
+import edu.teco.dnd.network.tcp.RemoteIDResolver;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BackpressureManagerTest {
+	@Mock
+	private RemoteIDResolver remoteIDResolver;
+	@Mock
+	private BackpressureListener listener;
+	@Mock
+	private Channel channel;
+	@Mock
+	private Channel otherChannel;
+
+	private ModuleID moduleID;
+	private BackpressureManager manager;
+
+	@Before
+	public void setup() {
+		moduleID = new ModuleID();
+		manager = new BackpressureManager(remoteIDResolver);
+		manager.addListener(listener);
+	}
+
+	@Test
+	public void testNotBackpressuredInitially() {
+		assertFalse(manager.isBackpressured(moduleID));
+		assertEquals(0, manager.getBackpressureNanos(moduleID));
+		assertEquals(0, manager.getBackpressureCount(moduleID));
+	}
+
+	@Test
+	public void testBackpressureStarted() {
+		manager.writabilityChanged(channel, moduleID, false);
+
+		assertTrue(manager.isBackpressured(moduleID));
+		assertEquals(1, manager.getBackpressureCount(moduleID));
+		verify(listener).backpressureStarted(moduleID);
+	}
+
+	@Test
+	public void testBackpressureEnded() throws InterruptedException {
+		manager.writabilityChanged(channel, moduleID, false);
+		Thread.sleep(10);
+		manager.writabilityChanged(channel, moduleID, true);
+
+		assertFalse(manager.isBackpressured(moduleID));
+		assertTrue(manager.getBackpressureNanos(moduleID) > 0);
+		verify(listener).backpressureStarted(moduleID);
+		verify(listener).backpressureEnded(moduleID);
+	}
+
+	@Test
+	public void testRepeatedChangesReportedOnce() {
+		manager.writabilityChanged(channel, moduleID, false);
+		manager.writabilityChanged(channel, moduleID, false);
+		manager.writabilityChanged(channel, moduleID, true);
+		manager.writabilityChanged(channel, moduleID, true);
+
+		verify(listener, times(1)).backpressureStarted(moduleID);
+		verify(listener, times(1)).backpressureEnded(moduleID);
+		assertEquals(1, manager.getBackpressureCount(moduleID));
+	}
+
+	@Test
+	public void testWritableWithoutBackpressure() {
+		manager.writabilityChanged(channel, moduleID, true);
+
+		verifyNoMoreInteractions(listener);
+	}
+
+	@Test
+	public void testRemovedListener() {
+		manager.removeListener(listener);
+		manager.writabilityChanged(channel, moduleID, false);
+
+		verifyNoMoreInteractions(listener);
+	}
+
+	@Test
+	public void testCongestedWhileAnyChannelIsCongested() {
+		manager.writabilityChanged(channel, moduleID, false);
+		manager.writabilityChanged(otherChannel, moduleID, false);
+		manager.writabilityChanged(channel, moduleID, true);
+
+		assertTrue(manager.isBackpressured(moduleID));
+		verify(listener, times(1)).backpressureStarted(moduleID);
+		verify(listener, never()).backpressureEnded(moduleID);
+
+		manager.writabilityChanged(otherChannel, moduleID, true);
+
+		assertFalse(manager.isBackpressured(moduleID));
+		verify(listener).backpressureEnded(moduleID);
+		assertEquals(1, manager.getBackpressureCount(moduleID));
+	}
+
+	@Test
+	public void testOtherChannelClosed() {
+		manager.writabilityChanged(channel, moduleID, false);
+		manager.writabilityChanged(otherChannel, null, true);
+
+		assertTrue(manager.isBackpressured(moduleID));
+		verify(listener, never()).backpressureEnded(moduleID);
+	}
+
+	@Test
+	public void testCongestedChannelClosedWithoutModuleID() {
+		manager.writabilityChanged(channel, moduleID, false);
+		manager.writabilityChanged(channel, null, true);
+
+		assertFalse(manager.isBackpressured(moduleID));
+		verify(listener).backpressureEnded(moduleID);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testLowAboveHigh() {
+		manager.setWaterMarks(2048, 1024);
+	}
+}
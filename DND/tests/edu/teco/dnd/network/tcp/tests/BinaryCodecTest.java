@@ -0,0 +1,129 @@
+package edu.teco.dnd.network.tcp.tests;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import java.nio.charset.Charset;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.teco.dnd.module.ModuleID;
+import edu.teco.dnd.network.messages.ConnectionEstablishedMessage;
+import edu.teco.dnd.network.messages.HelloMessage;
+import edu.teco.dnd.network.tcp.BinaryCodec;
+import edu.teco.dnd.network.tcp.ConnectionEstablishedMessageSerializer;
+import edu.teco.dnd.network.tcp.HelloMessageSerializer;
+import edu.teco.dnd.network.tcp.MessageAdapter;
+
+public class BinaryCodecTest {
+	private BinaryCodec codec;
+	private EmbeddedChannel channel;
+
+	@Before
+	public void setup() {
+		final MessageAdapter messageAdapter = new MessageAdapter();
+		messageAdapter.addMessageType(HelloMessage.class);
+		messageAdapter.addMessageType(ConnectionEstablishedMessage.class);
+		codec = new BinaryCodec(messageAdapter);
+		codec.addSerializer(HelloMessage.class, new HelloMessageSerializer());
+		channel = new EmbeddedChannel(codec.getDecoder(), codec.getEncoder());
+	}
+
+	@Test
+	public void testDisabledByDefault() {
+		assertFalse(BinaryCodec.isEnabled(channel));
+	}
+
+	@Test
+	public void testPassThroughIfDisabled() {
+		final HelloMessage message = new HelloMessage(new ModuleID(), 1024, BinaryCodec.VERSION);
+
+		channel.writeOutbound(message);
+
+		assertThat(channel.readOutbound(), is(sameInstance((Object) message)));
+	}
+
+	@Test
+	public void testPassThroughWithoutSerializer() {
+		BinaryCodec.setEnabled(channel, true);
+		final ConnectionEstablishedMessage message = new ConnectionEstablishedMessage(new ModuleID());
+
+		channel.writeOutbound(message);
+
+		assertThat(channel.readOutbound(), is(sameInstance((Object) message)));
+	}
+
+	@Test
+	public void testEncodedIfEnabled() {
+		BinaryCodec.setEnabled(channel, true);
+
+		channel.writeOutbound(new HelloMessage(new ModuleID(), 1024, BinaryCodec.VERSION));
+
+		final Object encoded = channel.readOutbound();
+		assertThat(encoded, is(instanceOf(ByteBuf.class)));
+		assertEquals(BinaryCodec.MARKER, ((ByteBuf) encoded).getByte(0));
+		((ByteBuf) encoded).release();
+	}
+
+	@Test
+	public void testRoundTrip() {
+		BinaryCodec.setEnabled(channel, true);
+		final UUID uuid = UUID.randomUUID();
+		final ModuleID moduleID = new ModuleID();
+
+		channel.writeOutbound(new HelloMessage(uuid, moduleID, 1024, BinaryCodec.VERSION));
+		channel.writeInbound(channel.readOutbound());
+
+		final HelloMessage decoded = (HelloMessage) channel.readInbound();
+		assertEquals(uuid, decoded.getUUID());
+		assertEquals(moduleID, decoded.getModuleID());
+		assertEquals(1024, decoded.getFramesize());
+		assertEquals(BinaryCodec.VERSION, decoded.getBinaryVersion());
+	}
+
+	@Test
+	public void testRoundTripNullID() {
+		BinaryCodec.setEnabled(channel, true);
+
+		channel.writeOutbound(new HelloMessage(null, 512, 0));
+		channel.writeInbound(channel.readOutbound());
+
+		final HelloMessage decoded = (HelloMessage) channel.readInbound();
+		assertNull(decoded.getModuleID());
+		assertEquals(512, decoded.getFramesize());
+	}
+
+	@Test
+	public void testJsonFramePassedOn() {
+		final ByteBuf json = Unpooled.copiedBuffer("{\"type\":\"hello\"}", Charset.forName("UTF-8"));
+
+		channel.writeInbound(json);
+
+		final Object passed = channel.readInbound();
+		assertThat(passed, is(sameInstance((Object) json)));
+		assertTrue(json.release());
+	}
+
+	@Test
+	public void testUnknownTagDropped() {
+		final ByteBuf frame = Unpooled.buffer();
+		frame.writeByte(BinaryCodec.MARKER);
+		frame.writeInt(42);
+		BinaryCodec.writeUUID(frame, UUID.randomUUID());
+
+		channel.writeInbound(frame);
+
+		assertNull(channel.readInbound());
+	}
+}
@@ -0,0 +1,274 @@
+package edu.teco.dnd.network.tcp.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.TooLongFrameException;
+
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.teco.dnd.module.ApplicationID;
+import edu.teco.dnd.module.messages.loadStartBlock.LoadClassMessage;
+import edu.teco.dnd.module.messages.loadStartBlock.LoadClassMessageSerializer;
+import edu.teco.dnd.network.tcp.BinaryCodec;
+import edu.teco.dnd.network.tcp.ChunkedFrameCodec;
+import edu.teco.dnd.network.tcp.MessageAdapter;
+
+public class ChunkedFrameCodecTest {
+	private static final int CHUNK_SIZE = 16;
+	private static final int MAX_FRAME_LENGTH = 1024;
+
+	private ChunkedFrameCodec sendingCodec;
+	private EmbeddedChannel sender;
+	private ChunkedFrameCodec receivingCodec;
+	private EmbeddedChannel receiver;
+
+	@Before
+	public void setup() {
+		sendingCodec = new ChunkedFrameCodec(CHUNK_SIZE, MAX_FRAME_LENGTH);
+		sender = new EmbeddedChannel(sendingCodec);
+		ChunkedFrameCodec.setEnabled(sender, true);
+		receivingCodec = new ChunkedFrameCodec(CHUNK_SIZE, MAX_FRAME_LENGTH);
+		receiver = new EmbeddedChannel(receivingCodec);
+	}
+
+	@Test
+	public void testDisabledByDefault() {
+		assertFalse(ChunkedFrameCodec.isEnabled(receiver));
+	}
+
+	@Test
+	public void testSmallFramePassedOn() {
+		final ByteBuf frame = frame(CHUNK_SIZE);
+
+		sender.writeAndFlush(frame);
+
+		assertSame(frame, sender.readOutbound());
+		frame.release();
+	}
+
+	@Test
+	public void testLargeFramePassedOnIfDisabled() {
+		ChunkedFrameCodec.setEnabled(sender, false);
+		final ByteBuf frame = frame(CHUNK_SIZE * 4);
+
+		sender.writeAndFlush(frame);
+
+		assertSame(frame, sender.readOutbound());
+		frame.release();
+	}
+
+	@Test
+	public void testLargeFrameReassembled() {
+		final ByteBuf frame = frame(CHUNK_SIZE * 3 + 5);
+		final ByteBuf expected = frame.copy();
+
+		final ChannelFuture future = sender.writeAndFlush(frame);
+		final int chunks = transfer();
+
+		assertEquals(4, chunks);
+		assertTrue(future.isSuccess());
+		final ByteBuf received = (ByteBuf) receiver.readInbound();
+		assertEquals(expected, received);
+		assertNull(receiver.readInbound());
+		assertEquals(0, receivingCodec.getIncomingCount());
+		assertEquals(0, frame.refCnt());
+		received.release();
+	}
+
+	@Test
+	public void testChunksHeldBackWhileCongested() {
+		sender.config().setWriteBufferLowWaterMark(0);
+		sender.config().setWriteBufferHighWaterMark(1);
+		final ByteBuf large = frame(CHUNK_SIZE * 3);
+		final ByteBuf small = frame(4);
+
+		sender.write(large);
+		assertFalse(sender.isWritable());
+		assertEquals(1, sendingCodec.getOutgoingCount());
+		sender.write(small);
+		sender.flush();
+		sender.runPendingTasks();
+
+		final ByteBuf firstChunk = (ByteBuf) sender.readOutbound();
+		assertEquals(ChunkedFrameCodec.MARKER, firstChunk.getByte(firstChunk.readerIndex()));
+		assertSame(small, sender.readOutbound());
+		firstChunk.release();
+		small.release();
+	}
+
+	@Test
+	public void testStatefulFrameKeepsOrder() {
+		sender.config().setWriteBufferLowWaterMark(0);
+		sender.config().setWriteBufferHighWaterMark(1);
+		final ByteBuf large = frame(CHUNK_SIZE * 3);
+		final ByteBuf stateful = frame(4);
+		stateful.setByte(0, BinaryCodec.STATEFUL_MARKER);
+
+		sender.write(large);
+		sender.write(stateful);
+		assertEquals(2, sendingCodec.getOutgoingCount());
+		for (int i = 0; i < 3; i++) {
+			sender.flush();
+			sender.runPendingTasks();
+			final ByteBuf chunk = (ByteBuf) sender.readOutbound();
+			assertEquals(ChunkedFrameCodec.MARKER, chunk.getByte(chunk.readerIndex()));
+			chunk.release();
+		}
+		sender.flush();
+		sender.runPendingTasks();
+
+		assertSame(stateful, sender.readOutbound());
+		assertEquals(0, sendingCodec.getOutgoingCount());
+		stateful.release();
+	}
+
+	@Test
+	public void testTooLongFrameRejected() {
+		final ByteBuf chunk = Unpooled.buffer();
+		chunk.writeByte(ChunkedFrameCodec.MARKER);
+		chunk.writeInt(0);
+		chunk.writeInt(MAX_FRAME_LENGTH + 1);
+		chunk.writeZero(CHUNK_SIZE);
+
+		try {
+			receiver.writeInbound(chunk);
+		} catch (final TooLongFrameException e) {
+			assertEquals(0, receivingCodec.getIncomingCount());
+			return;
+		}
+		receiver.checkException();
+		throw new AssertionError("frame was not rejected");
+	}
+
+	@Test
+	public void testNegativeFrameLengthRejected() {
+		final ByteBuf chunk = Unpooled.buffer();
+		chunk.writeByte(ChunkedFrameCodec.MARKER);
+		chunk.writeInt(0);
+		chunk.writeInt(-1);
+		chunk.writeZero(CHUNK_SIZE);
+
+		try {
+			receiver.writeInbound(chunk);
+		} catch (final CorruptedFrameException e) {
+			assertEquals(0, receivingCodec.getIncomingCount());
+			return;
+		}
+		receiver.checkException();
+		throw new AssertionError("frame was not rejected");
+	}
+
+	@Test
+	public void testSmallFrameOvertakesStream() {
+		sender.config().setWriteBufferLowWaterMark(0);
+		sender.config().setWriteBufferHighWaterMark(1);
+		final ByteBuf large = frame(CHUNK_SIZE * 3);
+		final ByteBuf small = frame(4);
+
+		sender.write(large);
+		sender.write(small);
+		while (sendingCodec.getOutgoingCount() > 0) {
+			sender.flush();
+			sender.runPendingTasks();
+		}
+		transfer();
+
+		final ByteBuf first = (ByteBuf) receiver.readInbound();
+		final ByteBuf second = (ByteBuf) receiver.readInbound();
+		assertEquals(4, first.readableBytes());
+		assertEquals(CHUNK_SIZE * 3, second.readableBytes());
+		first.release();
+		second.release();
+	}
+
+	@Test
+	public void testTooManyStreamsCloseChannel() {
+		for (int i = 0; i <= ChunkedFrameCodec.DEFAULT_MAX_INCOMING_STREAMS; i++) {
+			final ByteBuf chunk = Unpooled.buffer();
+			chunk.writeByte(ChunkedFrameCodec.MARKER);
+			chunk.writeInt(i);
+			chunk.writeInt(CHUNK_SIZE * 2);
+			chunk.writeZero(CHUNK_SIZE);
+			try {
+				receiver.writeInbound(chunk);
+				receiver.checkException();
+			} catch (final CorruptedFrameException e) {
+				assertEquals(ChunkedFrameCodec.DEFAULT_MAX_INCOMING_STREAMS, i);
+			}
+		}
+
+		assertFalse(receiver.isOpen());
+		assertEquals(0, receivingCodec.getIncomingCount());
+	}
+
+	@Test
+	public void testPartialFramesReleasedOnInactive() {
+		final ByteBuf chunk = Unpooled.buffer();
+		chunk.writeByte(ChunkedFrameCodec.MARKER);
+		chunk.writeInt(0);
+		chunk.writeInt(CHUNK_SIZE * 2);
+		chunk.writeZero(CHUNK_SIZE);
+
+		receiver.writeInbound(chunk);
+		assertEquals(1, receivingCodec.getIncomingCount());
+		receiver.pipeline().fireChannelInactive();
+
+		assertEquals(0, receivingCodec.getIncomingCount());
+	}
+
+	@Test
+	public void testLoadClassMessage() {
+		final MessageAdapter messageAdapter = new MessageAdapter();
+		messageAdapter.addMessageType(LoadClassMessage.class);
+		final BinaryCodec binaryCodec = new BinaryCodec(messageAdapter);
+		binaryCodec.addSerializer(LoadClassMessage.class, new LoadClassMessageSerializer());
+		sender.pipeline().addLast(binaryCodec.getEncoder());
+		BinaryCodec.setEnabled(sender, true);
+		receiver = new EmbeddedChannel(new ChunkedFrameCodec(CHUNK_SIZE, MAX_FRAME_LENGTH), binaryCodec.getDecoder());
+		final byte[] classByteCode = new byte[CHUNK_SIZE * 10];
+		new Random(0).nextBytes(classByteCode);
+		final LoadClassMessage message =
+				new LoadClassMessage("Test", classByteCode, new ApplicationID(new UUID(1, 2)));
+
+		sender.writeAndFlush(message);
+		transfer();
+
+		assertEquals(message, receiver.readInbound());
+	}
+
+	/**
+	 * Moves all frames written by the sender to the receiver.
+	 *
+	 * @return the number of frames moved
+	 */
+	private int transfer() {
+		int count = 0;
+		Object frame;
+		while ((frame = sender.readOutbound()) != null) {
+			receiver.writeInbound(frame);
+			count++;
+		}
+		return count;
+	}
+
+	private static ByteBuf frame(final int length) {
+		final ByteBuf frame = Unpooled.buffer(length);
+		for (int i = 0; i < length; i++) {
+			// never starts with a chunk marker
+			frame.writeByte('{' + i);
+		}
+		return frame;
+	}
+}
@@ -221,6 +221,62 @@ public class ClientChannelManagerTest {
 		assertFalse(manager.isActive(channel2.getChannel()));
 	}
 
+	@Test
+	public void testGetActiveChannelInactive() {
+		manager.addChannel(channel1.getChannel());
+		manager.setRemoteID(channel1.getChannel(), remoteID);
+
+		assertNull(manager.getActiveChannel(remoteID));
+		assertThat(manager.getConnectedModules(), not(hasItem(remoteID)));
+	}
+
+	@Test
+	public void testGetActiveChannel() {
+		manager.addChannel(channel1.getChannel());
+		manager.setRemoteID(channel1.getChannel(), remoteID);
+
+		manager.setActive(channel1.getChannel());
+
+		assertEquals(channel1.getChannel(), manager.getActiveChannel(remoteID));
+		assertThat(manager.getConnectedModules(), hasItem(remoteID));
+	}
+
+	@Test
+	public void testGetActiveChannelRemoteIDSetLater() {
+		manager.addChannel(channel1.getChannel());
+		manager.setActive(channel1.getChannel());
+
+		manager.setRemoteID(channel1.getChannel(), remoteID);
+
+		assertEquals(channel1.getChannel(), manager.getActiveChannel(remoteID));
+	}
+
+	@Test
+	public void testGetActiveChannelAfterClose() throws Exception {
+		manager.addChannel(channel1.getChannel());
+		manager.setRemoteID(channel1.getChannel(), remoteID);
+		manager.setActive(channel1.getChannel());
+
+		channel1.close();
+
+		assertNull(manager.getActiveChannel(remoteID));
+		assertThat(manager.getConnectedModules(), not(hasItem(remoteID)));
+	}
+
+	@Test
+	public void testGetActiveChannelAfterCloseWithOtherActiveChannel() throws Exception {
+		manager.addChannel(channel1.getChannel());
+		manager.setRemoteID(channel1.getChannel(), remoteID);
+		manager.setActive(channel1.getChannel());
+		manager.addChannel(channel2.getChannel());
+		manager.setRemoteID(channel2.getChannel(), remoteID);
+		manager.setActive(channel2.getChannel());
+
+		channel1.close();
+
+		assertEquals(channel2.getChannel(), manager.getActiveChannel(remoteID));
+	}
+
 	private Matcher<Channel> isChannelWithRemoteID(final ModuleID remoteID) {
 		return new ChannelWithRemoteID(remoteID);
 	}
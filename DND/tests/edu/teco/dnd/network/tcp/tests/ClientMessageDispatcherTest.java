@@ -1,31 +1,44 @@
 package edu.teco.dnd.network.tcp.tests;
 
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.isA;
 import static org.mockito.Matchers.isNotNull;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import edu.teco.dnd.module.ApplicationID;
 import edu.teco.dnd.module.ModuleID;
 import edu.teco.dnd.network.MessageHandler;
+import edu.teco.dnd.network.MessagePriority;
 import edu.teco.dnd.network.messages.ApplicationSpecificMessage;
 import edu.teco.dnd.network.messages.DefaultResponse;
 import edu.teco.dnd.network.messages.Message;
 import edu.teco.dnd.network.messages.Response;
+import edu.teco.dnd.network.messages.ResponseOptionalMessage;
 import edu.teco.dnd.network.tcp.ClientMessageDispatcher;
+import edu.teco.dnd.network.tcp.MessagePriorities;
+import edu.teco.dnd.network.tcp.PrioritizedWrite;
 import edu.teco.dnd.network.tcp.RemoteIDResolver;
 import edu.teco.dnd.network.tcp.ResponseFutureManager;
 import edu.teco.dnd.util.UUIDFactory;
@@ -120,6 +133,48 @@ public class ClientMessageDispatcherTest {
 		verify(channel).writeAndFlush(isNotNull(DefaultResponse.class));
 	}
 
+	@Test
+	public void testNoResponseWhenNotRequested() throws Exception {
+		final Message message = createResponseOptionalMessage(false);
+		when(handler1.handleMessage(any(ModuleID.class), any(Message.class))).thenReturn(null);
+		dispatcher.setDefaultHandler(Message.class, handler1);
+
+		dispatcher.channelRead(channelHandlerContext, message);
+
+		verify(handler1).handleMessage(remoteID, message);
+		verify(channel, never()).writeAndFlush(any());
+	}
+
+	@Test
+	public void testDefaultResponseWhenRequested() throws Exception {
+		final Message message = createResponseOptionalMessage(true);
+		when(handler1.handleMessage(any(ModuleID.class), any(Message.class))).thenReturn(null);
+		dispatcher.setDefaultHandler(Message.class, handler1);
+
+		dispatcher.channelRead(channelHandlerContext, message);
+
+		verify(channel).writeAndFlush(isNotNull(DefaultResponse.class));
+	}
+
+	@Test
+	public void testResponseSentWhenNotRequested() throws Exception {
+		final Message message = createResponseOptionalMessage(false);
+		final Response response = mock(Response.class);
+		when(handler1.handleMessage(any(ModuleID.class), any(Message.class))).thenReturn(response);
+		dispatcher.setDefaultHandler(Message.class, handler1);
+
+		dispatcher.channelRead(channelHandlerContext, message);
+
+		verify(channel).writeAndFlush(response);
+	}
+
+	private static Message createResponseOptionalMessage(final boolean responseRequested) {
+		final Message message = mock(Message.class, withSettings().extraInterfaces(ResponseOptionalMessage.class));
+		when(message.getUUID()).thenReturn(new UniqueUUIDFactory().createUUID());
+		when(((ResponseOptionalMessage) message).isResponseRequested()).thenReturn(responseRequested);
+		return message;
+	}
+
 	@Test
 	public void testResponseSent() throws Exception {
 		final Response response = mock(Response.class);
@@ -191,6 +246,129 @@ public class ClientMessageDispatcherTest {
 		dispatcher.channelRead(channelHandlerContext, response);
 
 		verifyZeroInteractions(handler1);
-		verify(responseFutureManager).setSuccess(response);
+		verify(responseFutureManager).setSuccess(remoteID, response);
+	}
+
+	@Test
+	public void testControlMessageOnControlExecutor() throws Exception {
+		final MessagePriorities priorities = new MessagePriorities();
+		priorities.setPriority(genericMessage.getClass(), MessagePriority.CONTROL);
+		final Executor controlExecutor = mock(Executor.class);
+		dispatcher.setMessagePriorities(priorities);
+		dispatcher.setControlExecutor(controlExecutor);
+		dispatcher.setDefaultHandler(Message.class, handler1);
+
+		dispatcher.channelRead(channelHandlerContext, genericMessage);
+
+		verify(controlExecutor).execute(isA(Runnable.class));
+		verifyZeroInteractions(handler1);
+	}
+
+	@Test
+	public void testApplicationControlMessagesInOrder() throws Exception {
+		final MessagePriorities priorities = new MessagePriorities();
+		priorities.setPriority(applicationSpecificMessage1.getClass(), MessagePriority.CONTROL);
+		dispatcher.setMessagePriorities(priorities);
+		final Executor controlExecutor = mock(Executor.class);
+		dispatcher.setControlExecutor(controlExecutor);
+		final Executor executor = mock(Executor.class);
+		dispatcher.setHandler(Message.class, handler1, applicationID1, executor);
+
+		dispatcher.channelRead(channelHandlerContext, applicationSpecificMessage1);
+		dispatcher.channelRead(channelHandlerContext, applicationSpecificMessage1);
+
+		final ArgumentCaptor<Runnable> runnable = ArgumentCaptor.forClass(Runnable.class);
+		verify(executor).execute(runnable.capture());
+		runnable.getValue().run();
+		verify(executor, times(2)).execute(runnable.capture());
+		verify(handler1).handleMessage(remoteID, applicationSpecificMessage1);
+		verifyZeroInteractions(controlExecutor);
+	}
+
+	@Test
+	public void testControlMessagesOfApplicationsIndependent() throws Exception {
+		final MessagePriorities priorities = new MessagePriorities();
+		priorities.setPriority(applicationSpecificMessage1.getClass(), MessagePriority.CONTROL);
+		priorities.setPriority(applicationSpecificMessage2.getClass(), MessagePriority.CONTROL);
+		dispatcher.setMessagePriorities(priorities);
+		final Executor executor1 = mock(Executor.class);
+		final Executor executor2 = mock(Executor.class);
+		dispatcher.setHandler(Message.class, handler1, applicationID1, executor1);
+		dispatcher.setHandler(Message.class, handler2, applicationID2, executor2);
+
+		dispatcher.channelRead(channelHandlerContext, applicationSpecificMessage1);
+		dispatcher.channelRead(channelHandlerContext, applicationSpecificMessage2);
+
+		verify(executor1).execute(isA(Runnable.class));
+		verify(executor2).execute(isA(Runnable.class));
+	}
+
+	@Test
+	public void testNextControlMessageRunAfterRejection() throws Exception {
+		final MessagePriorities priorities = new MessagePriorities();
+		priorities.setPriority(applicationSpecificMessage1.getClass(), MessagePriority.CONTROL);
+		dispatcher.setMessagePriorities(priorities);
+		final Executor executor = mock(Executor.class);
+		dispatcher.setHandler(Message.class, handler1, applicationID1, executor);
+
+		dispatcher.channelRead(channelHandlerContext, applicationSpecificMessage1);
+		dispatcher.channelRead(channelHandlerContext, applicationSpecificMessage1);
+		final ArgumentCaptor<Runnable> runnable = ArgumentCaptor.forClass(Runnable.class);
+		verify(executor).execute(runnable.capture());
+		doThrow(new RejectedExecutionException()).when(executor).execute(any(Runnable.class));
+		runnable.getValue().run();
+		doNothing().when(executor).execute(any(Runnable.class));
+		dispatcher.channelRead(channelHandlerContext, applicationSpecificMessage1);
+
+		verify(executor, times(3)).execute(isA(Runnable.class));
+		verify(handler1).handleMessage(remoteID, applicationSpecificMessage1);
+		verify(channel, times(2)).writeAndFlush(isNotNull(DefaultResponse.class));
+	}
+
+	@Test
+	public void testDefaultResponseWhenDropped() throws Exception {
+		final Executor executor = mock(Executor.class);
+		dispatcher.getScheduler().setMaxConcurrentTasks(1);
+		dispatcher.getScheduler().setQueueCapacity(1);
+		dispatcher.setHandler(Message.class, handler1, applicationID1, executor);
+
+		for (int i = 0; i < 3; i++) {
+			dispatcher.channelRead(channelHandlerContext, applicationSpecificMessage1);
+		}
+
+		verify(executor).execute(isA(Runnable.class));
+		verify(channel).writeAndFlush(isNotNull(DefaultResponse.class));
+	}
+
+	@Test
+	public void testDeployMessageNotDropped() throws Exception {
+		final MessagePriorities priorities = new MessagePriorities();
+		priorities.setPriority(applicationSpecificMessage1.getClass(), MessagePriority.DEPLOY);
+		dispatcher.setMessagePriorities(priorities);
+		final Executor executor = mock(Executor.class);
+		dispatcher.getScheduler().setMaxConcurrentTasks(1);
+		dispatcher.getScheduler().setQueueCapacity(1);
+		dispatcher.setHandler(Message.class, handler1, applicationID1, executor);
+
+		for (int i = 0; i < 3; i++) {
+			dispatcher.channelRead(channelHandlerContext, applicationSpecificMessage1);
+		}
+
+		verify(executor, times(3)).execute(isA(Runnable.class));
+		verify(channel, never()).writeAndFlush(any());
+	}
+
+	@Test
+	public void testResponseSentWithPriorityOfMessage() throws Exception {
+		final MessagePriorities priorities = new MessagePriorities();
+		priorities.setPriority(genericMessage.getClass(), MessagePriority.CONTROL);
+		dispatcher.setMessagePriorities(priorities);
+		final Response response = mock(Response.class);
+		when(handler1.handleMessage(any(ModuleID.class), any(Message.class))).thenReturn(response);
+		dispatcher.setDefaultHandler(Message.class, handler1);
+
+		dispatcher.channelRead(channelHandlerContext, genericMessage);
+
+		verify(channel).writeAndFlush(isA(PrioritizedWrite.class));
 	}
 }
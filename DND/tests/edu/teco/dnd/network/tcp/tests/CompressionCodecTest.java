@@ -0,0 +1,171 @@
+package edu.teco.dnd.network.tcp.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.CorruptedFrameException;
+
+import java.nio.charset.Charset;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.teco.dnd.module.ModuleID;
+import edu.teco.dnd.network.messages.ConnectionEstablishedMessage;
+import edu.teco.dnd.network.messages.HelloMessage;
+import edu.teco.dnd.network.tcp.BinaryCodec;
+import edu.teco.dnd.network.tcp.CompressionCodec;
+import edu.teco.dnd.network.tcp.ConnectionEstablishedMessageSerializer;
+import edu.teco.dnd.network.tcp.HelloMessageSerializer;
+import edu.teco.dnd.network.tcp.MessageAdapter;
+
+public class CompressionCodecTest {
+	private static final Charset CHARSET = Charset.forName("UTF-8");
+	private static final int MIN_FRAME_SIZE = 32;
+	private static final int MAX_FRAME_LENGTH = 64 * 1024;
+
+	private CompressionCodec sendingCodec;
+	private EmbeddedChannel sender;
+	private EmbeddedChannel receiver;
+
+	@Before
+	public void setup() {
+		sendingCodec = new CompressionCodec(CompressionCodec.DEFAULT_LEVEL, MIN_FRAME_SIZE, MAX_FRAME_LENGTH);
+		sender = new EmbeddedChannel(sendingCodec);
+		CompressionCodec.setEnabled(sender, true);
+		receiver = new EmbeddedChannel(new CompressionCodec(CompressionCodec.DEFAULT_LEVEL, MIN_FRAME_SIZE,
+				MAX_FRAME_LENGTH));
+	}
+
+	@Test
+	public void testDisabledByDefault() {
+		assertFalse(CompressionCodec.isEnabled(receiver));
+	}
+
+	@Test
+	public void testSmallFramePassedOn() {
+		final ByteBuf frame = json(1);
+		frame.writerIndex(MIN_FRAME_SIZE - 1);
+
+		sender.writeOutbound(frame);
+
+		assertSame(frame, sender.readOutbound());
+		frame.release();
+	}
+
+	@Test
+	public void testPassedOnIfDisabled() {
+		CompressionCodec.setEnabled(sender, false);
+		final ByteBuf frame = json(1);
+
+		sender.writeOutbound(frame);
+
+		assertSame(frame, sender.readOutbound());
+		frame.release();
+	}
+
+	@Test
+	public void testRoundTrip() {
+		for (int i = 0; i < 10; i++) {
+			final ByteBuf frame = json(i);
+			final ByteBuf expected = frame.copy();
+
+			sender.writeOutbound(frame);
+			final ByteBuf compressed = (ByteBuf) sender.readOutbound();
+			assertEquals(CompressionCodec.MARKER, compressed.getByte(compressed.readerIndex()));
+			receiver.writeInbound(compressed);
+
+			final ByteBuf received = (ByteBuf) receiver.readInbound();
+			assertEquals(expected, received);
+			received.release();
+		}
+	}
+
+	@Test
+	public void testRepeatedContentCompressedAcrossFrames() {
+		sender.writeOutbound(json(0));
+		((ByteBuf) sender.readOutbound()).release();
+		final ByteBuf frame = json(1);
+		final int length = frame.readableBytes();
+
+		sender.writeOutbound(frame);
+		final ByteBuf compressed = (ByteBuf) sender.readOutbound();
+
+		assertTrue(compressed.readableBytes() < length / 4);
+		assertTrue(sendingCodec.getCompressedBytes() < sendingCodec.getUncompressedBytes());
+		compressed.release();
+	}
+
+	@Test
+	public void testFramesLargerThanDictionary() {
+		final Random random = new Random(0);
+		for (int i = 0; i < 3; i++) {
+			final byte[] bytes = new byte[CompressionCodec.DICTIONARY_SIZE + 1000];
+			random.nextBytes(bytes);
+			// keep some repeated content so that the dictionary is used
+			System.arraycopy(bytes, 0, bytes, bytes.length / 2, bytes.length / 4);
+			final ByteBuf expected = Unpooled.wrappedBuffer(bytes);
+
+			sender.writeOutbound(Unpooled.copiedBuffer(bytes));
+			receiver.writeInbound(sender.readOutbound());
+
+			final ByteBuf received = (ByteBuf) receiver.readInbound();
+			assertEquals(expected, received);
+			received.release();
+		}
+	}
+
+	@Test(expected = CorruptedFrameException.class)
+	public void testMissingFrameRejected() {
+		sender.writeOutbound(json(0));
+		((ByteBuf) sender.readOutbound()).release();
+		sender.writeOutbound(json(1));
+
+		receiver.writeInbound(sender.readOutbound());
+	}
+
+	@Test(expected = CorruptedFrameException.class)
+	public void testCorruptedFrameRejected() {
+		final ByteBuf frame = Unpooled.buffer();
+		frame.writeByte(CompressionCodec.MARKER);
+		frame.writeInt(16);
+		frame.writeBytes(new byte[] { 1, 2, 3 });
+
+		receiver.writeInbound(frame);
+	}
+
+	@Test
+	public void testCapabilitiesSerialized() {
+		final MessageAdapter messageAdapter = new MessageAdapter();
+		messageAdapter.addMessageType(HelloMessage.class);
+		messageAdapter.addMessageType(ConnectionEstablishedMessage.class);
+		final BinaryCodec codec = new BinaryCodec(messageAdapter);
+		codec.addSerializer(HelloMessage.class, new HelloMessageSerializer());
+		codec.addSerializer(ConnectionEstablishedMessage.class, new ConnectionEstablishedMessageSerializer());
+		final EmbeddedChannel channel = new EmbeddedChannel(codec.getDecoder(), codec.getEncoder());
+		BinaryCodec.setEnabled(channel, true);
+
+		channel.writeOutbound(new HelloMessage(new ModuleID(), 1024, BinaryCodec.VERSION,
+				HelloMessage.CAPABILITY_COMPRESSION));
+		channel.writeOutbound(new ConnectionEstablishedMessage(new ModuleID(), HelloMessage.CAPABILITY_COMPRESSION));
+		channel.writeInbound(channel.readOutbound());
+		channel.writeInbound(channel.readOutbound());
+
+		assertEquals(HelloMessage.CAPABILITY_COMPRESSION, ((HelloMessage) channel.readInbound()).getCapabilities());
+		assertEquals(HelloMessage.CAPABILITY_COMPRESSION,
+				((ConnectionEstablishedMessage) channel.readInbound()).getCapabilities());
+	}
+
+	private static ByteBuf json(final int value) {
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 8; i++) {
+			sb.append("{\"type\":\"value\",\"input\":\"temperature\",\"value\":").append(value + i).append("}");
+		}
+		return Unpooled.copiedBuffer(sb, CHARSET);
+	}
+}
@@ -0,0 +1,64 @@
+package edu.teco.dnd.network.tcp.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import org.junit.Test;
+
+import edu.teco.dnd.network.tcp.FlushConsolidationHandler;
+
+public class FlushConsolidationHandlerTest {
+	@Test
+	public void testFlushesDelayedUntilQueuedTasksRan() {
+		final EmbeddedChannel channel = new EmbeddedChannel(new FlushConsolidationHandler(16));
+		channel.writeAndFlush("a");
+		channel.writeAndFlush("b");
+		assertNull(channel.readOutbound());
+
+		channel.runPendingTasks();
+
+		assertEquals("a", channel.readOutbound());
+		assertEquals("b", channel.readOutbound());
+	}
+
+	@Test
+	public void testFlushAfterMaxPendingFlushes() {
+		final EmbeddedChannel channel = new EmbeddedChannel(new FlushConsolidationHandler(2));
+		channel.writeAndFlush("a");
+		assertNull(channel.readOutbound());
+
+		channel.writeAndFlush("b");
+
+		assertEquals("a", channel.readOutbound());
+		assertEquals("b", channel.readOutbound());
+	}
+
+	@Test
+	public void testFlushAfterRead() {
+		final EmbeddedChannel channel = new EmbeddedChannel(new FlushConsolidationHandler(16), new Echo());
+		channel.writeInbound("a", "b");
+
+		assertEquals("a", channel.readOutbound());
+		assertEquals("b", channel.readOutbound());
+	}
+
+	@Test
+	public void testFlushOnClose() {
+		final EmbeddedChannel channel = new EmbeddedChannel(new FlushConsolidationHandler(16));
+		channel.writeAndFlush("a");
+
+		channel.close();
+
+		assertEquals("a", channel.readOutbound());
+	}
+
+	private static class Echo extends ChannelInboundHandlerAdapter {
+		@Override
+		public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+			ctx.writeAndFlush(msg);
+		}
+	}
+}
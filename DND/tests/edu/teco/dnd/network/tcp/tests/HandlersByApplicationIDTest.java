@@ -1,7 +1,9 @@
 package edu.teco.dnd.network.tcp.tests;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.util.concurrent.Executor;
 
@@ -259,4 +261,21 @@ public class HandlersByApplicationIDTest {
 		assertSame(handler1, handlersByApplicationID.getHandler(applicationID1));
 		assertSame(handler2, handlersByApplicationID.getHandler(applicationID2));
 	}
+
+	@Test
+	public void testRemoveHandler() {
+		handlersByApplicationID.setDefaultHandler(handler1);
+		handlersByApplicationID.setHandler(applicationID1, handler2);
+
+		assertTrue(handlersByApplicationID.removeHandler(applicationID1));
+
+		assertSame(handler1, handlersByApplicationID.getHandler(applicationID1));
+		assertFalse(handlersByApplicationID.isEmpty());
+	}
+
+	@Test
+	public void testRemoveHandlerMissing() {
+		assertFalse(handlersByApplicationID.removeHandler(applicationID1));
+		assertTrue(handlersByApplicationID.isEmpty());
+	}
 }
@@ -1,6 +1,10 @@
 package edu.teco.dnd.network.tcp.tests;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
 
 import java.util.NoSuchElementException;
 import java.util.concurrent.Executor;
@@ -13,6 +17,7 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import edu.teco.dnd.module.ApplicationID;
+import edu.teco.dnd.network.ConnectionManager;
 import edu.teco.dnd.network.MessageHandler;
 import edu.teco.dnd.network.messages.Message;
 import edu.teco.dnd.network.tcp.MessageHandlerManager;
@@ -183,6 +188,62 @@ public class MessageHandlerManagerTest {
 		assertSame(executor2, result2.getExecutor());
 	}
 	
+	@Test
+	public void testSubclassAddedAfterLookup() {
+		manager.setDefaultHandler(Message.class, handler1, executor1);
+		assumeTrue(handler1.equals(manager.getDefaultHandler(TestMessageClass.class).getMessageHandler()));
+
+		manager.setDefaultHandler(TestMessageClass.class, handler2, executor2);
+
+		assertSame(handler2, manager.getDefaultHandler(TestMessageClass.class).getMessageHandler());
+	}
+
+	@Test
+	public void testRemoveHandler() {
+		manager.setDefaultHandler(Message.class, handler1, executor1);
+		manager.setHandler(Message.class, handler2, applicationID1, executor2);
+
+		assertTrue(manager.removeHandler(Message.class, applicationID1));
+
+		assertSame(handler1, manager.getHandler(Message.class, applicationID1).getMessageHandler());
+	}
+
+	@Test
+	public void testRemoveHandlerMissing() {
+		manager.setDefaultHandler(Message.class, handler1, executor1);
+
+		assertFalse(manager.removeHandler(Message.class, applicationID1));
+		assertFalse(manager.removeHandler(TestMessageClass.class, applicationID1));
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void testRemoveDefaultHandler() {
+		manager.setDefaultHandler(Message.class, handler1, executor1);
+		manager.getDefaultHandler(TestMessageClass.class);
+
+		manager.removeHandler(Message.class, ConnectionManager.APPID_DEFAULT);
+
+		manager.getDefaultHandler(TestMessageClass.class);
+	}
+
+	@Test
+	public void testRemoveHandlers() {
+		manager.setDefaultHandler(Message.class, handler1, executor1);
+		manager.setHandler(Message.class, handler2, applicationID1, executor2);
+		manager.setHandler(TestMessageClass.class, handler2, applicationID1, executor2);
+		manager.setHandler(Message.class, handler2, applicationID2, executor2);
+
+		assertEquals(2, manager.removeHandlers(applicationID1));
+
+		assertSame(handler1, manager.getHandler(TestMessageClass.class, applicationID1).getMessageHandler());
+		assertSame(handler2, manager.getHandler(TestMessageClass.class, applicationID2).getMessageHandler());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRemoveHandlersDefault() {
+		manager.removeHandlers(ConnectionManager.APPID_DEFAULT);
+	}
+
 	private final class TestMessageClass extends Message {
 	}
 }
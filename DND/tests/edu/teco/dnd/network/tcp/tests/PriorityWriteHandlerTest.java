@@ -0,0 +1,134 @@
+package edu.teco.dnd.network.tcp.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.teco.dnd.network.MessagePriority;
+import edu.teco.dnd.network.messages.Message;
+import edu.teco.dnd.network.tcp.MessagePriorities;
+import edu.teco.dnd.network.tcp.PrioritizedWrite;
+import edu.teco.dnd.network.tcp.PriorityWriteHandler;
+
+public class PriorityWriteHandlerTest {
+	private MessagePriorities priorities;
+	private PriorityWriteHandler handler;
+	private EmbeddedChannel channel;
+
+	@Before
+	public void setup() {
+		priorities = new MessagePriorities();
+		priorities.setPriority(ControlMessage.class, MessagePriority.CONTROL);
+		priorities.setPriority(DeployMessage.class, MessagePriority.DEPLOY);
+		handler = new PriorityWriteHandler(priorities);
+		channel = new EmbeddedChannel(handler);
+		channel.config().setWriteBufferLowWaterMark(0);
+		channel.config().setWriteBufferHighWaterMark(1);
+	}
+
+	@Test
+	public void testPassedOnWhileWritable() {
+		final Message message = new DataMessage();
+
+		channel.writeAndFlush(message);
+
+		assertSame(message, channel.readOutbound());
+		assertEquals(0, handler.getPendingCount());
+	}
+
+	@Test
+	public void testPriorityOrderWhileCongested() {
+		final ByteBuf congestion = Unpooled.buffer().writeZero(16);
+		final Message data = new DataMessage();
+		final Message deploy = new DeployMessage();
+		final Message control = new ControlMessage();
+		channel.write(congestion);
+		assertCongested();
+
+		channel.write(data);
+		channel.write(deploy);
+		channel.write(control);
+		assertEquals(3, handler.getPendingCount());
+		channel.flush();
+		channel.runPendingTasks();
+
+		assertSame(congestion, channel.readOutbound());
+		assertSame(control, channel.readOutbound());
+		assertSame(deploy, channel.readOutbound());
+		assertSame(data, channel.readOutbound());
+		assertNull(channel.readOutbound());
+		congestion.release();
+	}
+
+	@Test
+	public void testPrioritizedWriteUnwrapped() {
+		final ByteBuf congestion = Unpooled.buffer().writeZero(16);
+		final ByteBuf frame = Unpooled.buffer().writeZero(4);
+		final Message data = new DataMessage();
+		channel.write(congestion);
+		assertCongested();
+
+		channel.write(data);
+		channel.write(new PrioritizedWrite(frame, MessagePriority.CONTROL));
+		channel.flush();
+		channel.runPendingTasks();
+
+		assertSame(congestion, channel.readOutbound());
+		assertSame(frame, channel.readOutbound());
+		assertSame(data, channel.readOutbound());
+		congestion.release();
+		frame.release();
+	}
+
+	@Test
+	public void testPendingWrittenOnClose() {
+		final ByteBuf congestion = Unpooled.buffer().writeZero(16);
+		final Message control = new ControlMessage();
+		channel.write(congestion);
+		assertCongested();
+		channel.write(control);
+
+		channel.close();
+
+		assertSame(congestion, channel.readOutbound());
+		assertSame(control, channel.readOutbound());
+		assertEquals(0, handler.getPendingCount());
+		congestion.release();
+	}
+
+	@Test
+	public void testPendingFailedOnInactive() {
+		final ByteBuf congestion = Unpooled.buffer().writeZero(16);
+		channel.write(congestion);
+		assertCongested();
+		final ChannelFuture future = channel.write(new DataMessage());
+
+		channel.pipeline().fireChannelInactive();
+
+		assertTrue(future.isDone());
+		assertFalse(future.isSuccess());
+		assertEquals(0, handler.getPendingCount());
+	}
+
+	private void assertCongested() {
+		assertFalse(channel.isWritable());
+	}
+
+	private static class DataMessage extends Message {
+	}
+
+	private static class DeployMessage extends Message {
+	}
+
+	private static class ControlMessage extends Message {
+	}
+}
@@ -5,9 +5,11 @@ import static edu.teco.dnd.tests.FutureNotifierMatchers.hasCause;
 import static edu.teco.dnd.tests.FutureNotifierMatchers.hasResult;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.UUID;
@@ -20,9 +22,11 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import edu.teco.dnd.module.ModuleID;
 import edu.teco.dnd.network.messages.Response;
 import edu.teco.dnd.network.tcp.ResponseFutureManager;
 import edu.teco.dnd.network.tcp.ResponseFutureManager.ResponseFutureNotifier;
+import edu.teco.dnd.util.HashedTimingWheel.Timeout;
 import edu.teco.dnd.util.UUIDFactory;
 import edu.teco.dnd.util.UniqueUUIDFactory;
 
@@ -134,6 +138,95 @@ public class ResponseFutureManagerTest {
 		assertThat(notifier2, is(not(done())));
 	}
 
+	@Test
+	public void testSetSuccessSameUUIDDifferentModules() {
+		final ModuleID remoteID1 = new ModuleID();
+		final ModuleID remoteID2 = new ModuleID();
+		final ResponseFutureNotifier notifier1 = manager.createResponseFuture(remoteID1, sourceUUID1);
+		final ResponseFutureNotifier notifier2 = manager.createResponseFuture(remoteID2, sourceUUID1);
+
+		manager.setSuccess(remoteID2, response1);
+
+		assertThat(notifier1, is(not(done())));
+		assertThat(notifier2, hasResult(response1));
+	}
+
+	@Test
+	public void testSetSuccessWithModuleMatchesAnyModule() {
+		final ResponseFutureNotifier notifier = manager.createResponseFuture(sourceUUID1);
+
+		manager.setSuccess(new ModuleID(), response1);
+
+		assertThat(notifier, hasResult(response1));
+	}
+
+	@Test
+	public void testSetFailureOnlyForModule() {
+		final ModuleID remoteID1 = new ModuleID();
+		final ModuleID remoteID2 = new ModuleID();
+		final ResponseFutureNotifier notifier1 = manager.createResponseFuture(remoteID1, sourceUUID1);
+		final ResponseFutureNotifier notifier2 = manager.createResponseFuture(remoteID2, sourceUUID1);
+
+		manager.setFailure(remoteID1, sourceUUID1, cause);
+
+		assertThat(notifier1, hasCause(cause));
+		assertThat(notifier2, is(not(done())));
+	}
+
+	@Test
+	public void testSetSuccessCancelsTimeout() {
+		final ResponseFutureNotifier notifier = manager.createResponseFuture(sourceUUID1);
+		final Timeout timeout = mock(Timeout.class);
+		notifier.setTimeout(timeout);
+
+		manager.setSuccess(response1);
+
+		verify(timeout).cancel();
+	}
+
+	@Test
+	public void testSetTimeoutAfterDone() {
+		final ResponseFutureNotifier notifier = manager.createResponseFuture(sourceUUID1);
+		manager.setFailure(sourceUUID1, cause);
+		final Timeout timeout = mock(Timeout.class);
+
+		notifier.setTimeout(timeout);
+
+		verify(timeout).cancel();
+	}
+
+	@Test
+	public void testFailedDirectlyIsRemoved() {
+		final ResponseFutureNotifier notifier = manager.createResponseFuture(sourceUUID1);
+
+		notifier.setFailure0(cause);
+
+		assertThat(manager.createResponseFuture(sourceUUID1), is(not(done())));
+	}
+
+	@Test
+	public void testInFlightCount() {
+		final ModuleID remoteID1 = new ModuleID();
+		final ModuleID remoteID2 = new ModuleID();
+		manager.createResponseFuture(remoteID1, sourceUUID1);
+		final ResponseFutureNotifier notifier = manager.createResponseFuture(remoteID1, sourceUUID2);
+		manager.createResponseFuture(remoteID2, sourceUUID1);
+
+		assertEquals(2, manager.getInFlightCount(remoteID1));
+		assertEquals(1, manager.getInFlightCount(remoteID2));
+
+		manager.setSuccess(remoteID1, response1);
+		notifier.setFailure0(cause);
+
+		assertEquals(0, manager.getInFlightCount(remoteID1));
+		assertEquals(Integer.valueOf(1), manager.getInFlightCounts().get(remoteID2));
+	}
+
+	@Test
+	public void testInFlightCountUnknownModule() {
+		assertEquals(0, manager.getInFlightCount(new ModuleID()));
+	}
+
 	private static ResponseFutureNotifierFor responseFutureNotifierFor(final UUID sourceUUID) {
 		return new ResponseFutureNotifierFor(sourceUUID);
 	}
@@ -8,7 +8,9 @@ import org.junit.runners.Suite.SuiteClasses;
 @SuiteClasses({ ServerChannelManagerTest.class, ClientChannelManagerTest.class, ClientChannelInitializerTest.class,
 		HandlersByApplicationIDTest.class, MessageHandlerManagerTest.class, ClientMessageDispatcherTest.class,
 		HelloMessageHandlerTest.class, ConnectionEstablishedMessageHandlerTest.class, ResponseFutureManagerTest.class,
-		TimeoutResponseInvalidatorTest.class })
+		TimeoutResponseInvalidatorTest.class, BinaryCodecTest.class, BackpressureManagerTest.class,
+		FlushConsolidationHandlerTest.class, ApplicationMessageSchedulerTest.class,
+		PriorityWriteHandlerTest.class, ChunkedFrameCodecTest.class, CompressionCodecTest.class })
 public class TCPTests {
 
 }
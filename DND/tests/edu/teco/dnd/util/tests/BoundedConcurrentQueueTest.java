@@ -0,0 +1,146 @@
+package edu.teco.dnd.util.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.teco.dnd.util.BoundedConcurrentQueue;
+
+public class BoundedConcurrentQueueTest {
+	private BoundedConcurrentQueue<Integer> queue;
+
+	@Before
+	public void setup() {
+		queue = new BoundedConcurrentQueue<Integer>(4);
+	}
+
+	@Test
+	public void testEmpty() {
+		assertTrue(queue.isEmpty());
+		assertEquals(0, queue.size());
+		assertNull(queue.poll());
+		assertNull(queue.peek());
+	}
+
+	@Test
+	public void testFifoOrder() {
+		queue.offer(1);
+		queue.offer(2);
+		queue.offer(3);
+
+		assertEquals(3, queue.size());
+		assertEquals(Integer.valueOf(1), queue.peek());
+		assertEquals(Integer.valueOf(1), queue.poll());
+		assertEquals(Integer.valueOf(2), queue.poll());
+		assertEquals(Integer.valueOf(3), queue.poll());
+		assertNull(queue.poll());
+	}
+
+	@Test
+	public void testIterator() {
+		for (int i = 0; i < 6; i++) {
+			queue.offer(i);
+			queue.poll();
+		}
+		queue.offer(1);
+		queue.offer(2);
+		queue.offer(3);
+
+		assertEquals("[1, 2, 3]", queue.toString());
+		assertTrue(queue.contains(2));
+		assertFalse(queue.contains(4));
+		final Iterator<Integer> iterator = queue.iterator();
+		assertEquals(Integer.valueOf(1), iterator.next());
+		queue.poll();
+		queue.poll();
+		queue.poll();
+		queue.offer(4);
+		assertEquals(Integer.valueOf(2), iterator.next());
+		assertEquals(Integer.valueOf(4), iterator.next());
+		assertFalse(iterator.hasNext());
+	}
+
+	@Test
+	public void testOfferFull() {
+		for (int i = 0; i < 4; i++) {
+			assertTrue(queue.offer(i));
+		}
+
+		assertFalse(queue.offer(4));
+		assertEquals(4, queue.size());
+	}
+
+	@Test
+	public void testWrapAround() {
+		for (int i = 0; i < 100; i++) {
+			assertTrue(queue.offer(i));
+			assertTrue(queue.offer(-i));
+			assertEquals(Integer.valueOf(i), queue.poll());
+			assertEquals(Integer.valueOf(-i), queue.poll());
+		}
+		assertTrue(queue.isEmpty());
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testOfferNull() {
+		queue.offer(null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCapacityTooSmall() {
+		new BoundedConcurrentQueue<Integer>(1);
+	}
+
+	@Test
+	public void testConcurrentProducers() throws InterruptedException {
+		final int producers = 4;
+		final int valuesPerProducer = 10000;
+		final CountDownLatch start = new CountDownLatch(1);
+		final Thread[] threads = new Thread[producers];
+		for (int i = 0; i < producers; i++) {
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (final InterruptedException e) {
+						return;
+					}
+					for (int j = 1; j <= valuesPerProducer; j++) {
+						while (!queue.offer(j)) {
+							Thread.yield();
+						}
+					}
+				}
+			};
+			threads[i].start();
+		}
+
+		final AtomicLong sum = new AtomicLong(0);
+		start.countDown();
+		int received = 0;
+		while (received < producers * valuesPerProducer) {
+			final Integer value = queue.poll();
+			if (value == null) {
+				Thread.yield();
+			} else {
+				sum.addAndGet(value);
+				received++;
+			}
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals((long) producers * valuesPerProducer * (valuesPerProducer + 1) / 2, sum.get());
+		assertTrue(queue.isEmpty());
+	}
+}
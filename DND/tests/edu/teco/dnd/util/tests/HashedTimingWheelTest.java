@@ -0,0 +1,124 @@
+package edu.teco.dnd.util.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.teco.dnd.util.HashedTimingWheel;
+import edu.teco.dnd.util.HashedTimingWheel.Timeout;
+
+public class HashedTimingWheelTest {
+	private ScheduledThreadPoolExecutor executorService;
+	private HashedTimingWheel wheel;
+
+	@Before
+	public void setup() {
+		executorService = new ScheduledThreadPoolExecutor(1);
+		wheel = new HashedTimingWheel(executorService, 10, TimeUnit.MILLISECONDS, 8);
+	}
+
+	@After
+	public void tearDown() {
+		executorService.shutdownNow();
+	}
+
+	@Test
+	public void testRunsAfterDelay() throws InterruptedException {
+		final CountDownLatch latch = new CountDownLatch(1);
+		final long start = System.nanoTime();
+		wheel.schedule(new CountDown(latch), 50, TimeUnit.MILLISECONDS);
+
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void testRunsAfterMultipleRotations() throws InterruptedException {
+		final CountDownLatch latch = new CountDownLatch(1);
+		final long start = System.nanoTime();
+		wheel.schedule(new CountDown(latch), 250, TimeUnit.MILLISECONDS);
+
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(250));
+	}
+
+	@Test
+	public void testCancel() throws InterruptedException {
+		final CountDownLatch cancelled = new CountDownLatch(1);
+		final CountDownLatch other = new CountDownLatch(1);
+		final Timeout timeout = wheel.schedule(new CountDown(cancelled), 20, TimeUnit.MILLISECONDS);
+		wheel.schedule(new CountDown(other), 50, TimeUnit.MILLISECONDS);
+		assertEquals(2, wheel.size());
+
+		assertTrue(timeout.cancel());
+		assertEquals(1, wheel.size());
+		assertFalse(timeout.cancel());
+
+		assertTrue(other.await(5, TimeUnit.SECONDS));
+		assertEquals(1, cancelled.getCount());
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void testCancelAfterRun() throws InterruptedException {
+		final CountDownLatch latch = new CountDownLatch(1);
+		final Timeout timeout = wheel.schedule(new CountDown(latch), 0, TimeUnit.MILLISECONDS);
+
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertFalse(timeout.cancel());
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void testThrowingTaskDoesNotStopWheel() throws InterruptedException {
+		final CountDownLatch latch = new CountDownLatch(1);
+		wheel.schedule(new Runnable() {
+			@Override
+			public void run() {
+				throw new RuntimeException("expected");
+			}
+		}, 10, TimeUnit.MILLISECONDS);
+		wheel.schedule(new CountDown(latch), 40, TimeUnit.MILLISECONDS);
+
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testTickerStopsWhenIdle() throws InterruptedException {
+		final CountDownLatch first = new CountDownLatch(1);
+		wheel.schedule(new CountDown(first), 10, TimeUnit.MILLISECONDS);
+		assertTrue(first.await(5, TimeUnit.SECONDS));
+
+		final long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!executorService.getQueue().isEmpty() && System.nanoTime() < end) {
+			Thread.sleep(10);
+		}
+		assertTrue(executorService.getQueue().isEmpty());
+
+		final CountDownLatch second = new CountDownLatch(1);
+		wheel.schedule(new CountDown(second), 10, TimeUnit.MILLISECONDS);
+		assertTrue(second.await(5, TimeUnit.SECONDS));
+	}
+
+	private static class CountDown implements Runnable {
+		private final CountDownLatch latch;
+
+		private CountDown(final CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		@Override
+		public void run() {
+			latch.countDown();
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package edu.teco.dnd.util.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import edu.teco.dnd.util.SequentialUUIDFactory;
+
+public class SequentialUUIDFactoryTest {
+	@Test
+	public void testUnique() {
+		final SequentialUUIDFactory factory = new SequentialUUIDFactory();
+		final Set<UUID> uuids = new HashSet<UUID>();
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(uuids.add(factory.createUUID()));
+		}
+	}
+
+	@Test
+	public void testIncreasing() {
+		final SequentialUUIDFactory factory = new SequentialUUIDFactory(42);
+		final UUID first = factory.createUUID();
+		final UUID second = factory.createUUID();
+
+		assertEquals(first.getMostSignificantBits(), second.getMostSignificantBits());
+		assertTrue(first.getLeastSignificantBits() < second.getLeastSignificantBits());
+	}
+
+	@Test
+	public void testVersionAndVariant() {
+		final UUID uuid = new SequentialUUIDFactory(-1).createUUID();
+
+		assertEquals(4, uuid.version());
+		assertEquals(2, uuid.variant());
+	}
+}
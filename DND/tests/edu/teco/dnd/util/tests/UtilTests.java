@@ -6,7 +6,8 @@ import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
 @SuiteClasses({ StringUtilTest.class, DefaultFutureNotifierTest.class, Base64AdapterTest.class,
-		UniqueUUIDFactoryTest.class, MessageDigestAlgorithmTest.class, HashStorageTest.class })
+		UniqueUUIDFactoryTest.class, MessageDigestAlgorithmTest.class, HashStorageTest.class,
+		BoundedConcurrentQueueTest.class, HashedTimingWheelTest.class, SequentialUUIDFactoryTest.class })
 public class UtilTests {
 
 }